@@ -0,0 +1,81 @@
+package io.ast.maven.polyglot.toml.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.ast.maven.polyglot.toml.TomlModelCompiler;
+import io.ast.maven.polyglot.toml.TomlOptions;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Compile the models of the stable pom.toml projects of the reactor, such as parents and BOMs, into a jar of
+ * classes building them, which the extension uses instead of reading these pom.toml files while they are unchanged.
+ * <pre>
+ *     mvn io.ast.polyglot-maven:polyglot-toml-maven-plugin:compile-models
+ *     echo -Dio.ast.maven.polyglot.toml.models=.mvn/toml-models.jar &gt;&gt; .mvn/maven.config
+ * </pre>
+ * An edited pom.toml is read as usual until the goal runs again. Needs a JDK.
+ *
+ * @see TomlModelCompiler
+ * @see TomlOptions#MODELS
+ */
+@Mojo(name = "compile-models", aggregator = true, threadSafe = true)
+public class CompileModelsMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${reactorProjects}", readonly = true, required = true)
+    private List<MavenProject> reactorProjects;
+
+    /**
+     * jar written, replacing the former one.
+     */
+    @Parameter(property = "toml.models.outputFile", defaultValue = "${session.request.multiModuleProjectDirectory}/.mvn/toml-models.jar")
+    private File outputFile;
+
+    /**
+     * packagings of the compiled projects, {@code *} for all.
+     */
+    @Parameter(property = "toml.models.packagings", defaultValue = "pom")
+    private List<String> packagings;
+
+    @Parameter(property = "toml.models.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (skip) {
+            getLog().info("Skipping model compilation");
+            return;
+        }
+
+        var poms = new ArrayList<Path>();
+        for (var project : reactorProjects) {
+            var pom = project.getFile();
+            if (pom != null && pom.getName().endsWith(".toml")
+              && (packagings.contains("*") || packagings.contains(project.getPackaging()))) {
+                poms.add(pom.toPath());
+            }
+        }
+
+        List<Path> compiled;
+        try {
+            compiled = TomlModelCompiler.compile(poms, Map.of(), outputFile.toPath(), diagnostic -> {
+                if (diagnostic.isError()) {
+                    getLog().error(diagnostic.toString());
+                } else {
+                    getLog().warn(diagnostic.toString());
+                }
+            });
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot write " + outputFile + ": " + e.getMessage(), e);
+        }
+        getLog().info("Compiled " + compiled.size() + " of " + poms.size() + " pom.toml models into " + outputFile);
+    }
+}
@@ -0,0 +1,152 @@
+package io.ast.maven.polyglot.toml.plugin;
+
+import java.io.IOException;
+import java.util.*;
+
+import javax.inject.Inject;
+
+import io.ast.maven.polyglot.toml.TomlLockfile;
+import io.ast.maven.polyglot.toml.TomlModelProcessor;
+import io.ast.maven.polyglot.toml.TomlOptions;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.ModelBase;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResolutionException;
+import org.eclipse.aether.resolution.VersionRequest;
+import org.eclipse.aether.resolution.VersionResolutionException;
+
+/**
+ * Regenerate the pom.lock.toml of a pom.toml project: resolve each dynamic dependency version (range,
+ * {@code LATEST} or {@code RELEASE}) against the project repositories, and pin it.
+ * <pre>
+ *     mvn io.ast.polyglot-maven:polyglot-toml-maven-plugin:lock
+ * </pre>
+ * The pom.toml is read without its current lock file, so the versions are resolved again.
+ *
+ * @see TomlLockfile
+ */
+@Mojo(name = "lock", threadSafe = true)
+public class LockMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true, required = true)
+    private RepositorySystemSession session;
+
+    private final RepositorySystem repositorySystem;
+
+    @Inject
+    public LockMojo(RepositorySystem repositorySystem) {
+        this.repositorySystem = repositorySystem;
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        var pom = project.getFile();
+        if (pom == null || !pom.getName().endsWith(".toml")) {
+            getLog().info("Skipping " + project.getId() + ": not a pom.toml project");
+            return;
+        }
+
+        Model model;
+        try {
+            model = new TomlModelProcessor().read(pom, Map.of(TomlOptions.LOCK, "false"));
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot read " + pom + ": " + e.getMessage(), e);
+        }
+
+        var locked = new TreeMap<String, TomlLockfile.Entry>();
+        for (var dep : dependencies(model)) {
+            if (!TomlLockfile.isDynamic(dep.getVersion())) continue;
+
+            var key = dep.getGroupId() + ":" + dep.getArtifactId();
+            var entry = locked.get(key);
+            if (entry != null) {
+                if (!entry.requested().equals(dep.getVersion())) {
+                    getLog().warn(key + ": '" + dep.getVersion() + "' is not locked, '" + entry.requested() + "' is locked already");
+                }
+                continue;
+            }
+            var version = resolve(dep);
+            getLog().info(key + ": " + dep.getVersion() + " -> " + version);
+            locked.put(key, new TomlLockfile.Entry(dep.getVersion(), version));
+        }
+
+        try {
+            TomlLockfile.write(pom.toPath(), locked);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot write " + TomlLockfile.FILE_NAME + ": " + e.getMessage(), e);
+        }
+        getLog().info("Locked " + locked.size() + " dependencies in " + pom.toPath().resolveSibling(TomlLockfile.FILE_NAME));
+    }
+
+    /**
+     * @return the dependencies of the model, its dependency management, its plugins and its profiles.
+     */
+    private static List<Dependency> dependencies(Model model) {
+        var ret = new ArrayList<Dependency>();
+        var bases = new ArrayList<ModelBase>();
+        bases.add(model);
+        bases.addAll(model.getProfiles());
+        for (var base : bases) {
+            ret.addAll(base.getDependencies());
+            if (base.getDependencyManagement() != null) {
+                ret.addAll(base.getDependencyManagement().getDependencies());
+            }
+        }
+
+        var plugins = new ArrayList<Plugin>();
+        if (model.getBuild() != null) {
+            plugins.addAll(model.getBuild().getPlugins());
+            if (model.getBuild().getPluginManagement() != null) {
+                plugins.addAll(model.getBuild().getPluginManagement().getPlugins());
+            }
+        }
+        for (var profile : model.getProfiles()) {
+            if (profile.getBuild() != null) {
+                plugins.addAll(profile.getBuild().getPlugins());
+                if (profile.getBuild().getPluginManagement() != null) {
+                    plugins.addAll(profile.getBuild().getPluginManagement().getPlugins());
+                }
+            }
+        }
+        for (var plugin : plugins) {
+            ret.addAll(plugin.getDependencies());
+        }
+        return ret;
+    }
+
+    /**
+     * @return the version {@code dep} resolves to in the project repositories.
+     */
+    private String resolve(Dependency dep) throws MojoFailureException {
+        var artifact = new DefaultArtifact(dep.getGroupId(), dep.getArtifactId(), "pom", dep.getVersion());
+        var repositories = project.getRemoteProjectRepositories();
+        try {
+            if (dep.getVersion().equals("LATEST") || dep.getVersion().equals("RELEASE")) {
+                var result = repositorySystem.resolveVersion(session, new VersionRequest(artifact, repositories, null));
+                return result.getVersion();
+            }
+
+            var result = repositorySystem.resolveVersionRange(session, new VersionRangeRequest(artifact, repositories, null));
+            if (result.getHighestVersion() == null) {
+                throw new MojoFailureException("No version of " + dep.getManagementKey() + " matches " + dep.getVersion());
+            }
+            return result.getHighestVersion().toString();
+        } catch (VersionResolutionException | VersionRangeResolutionException e) {
+            throw new MojoFailureException("Cannot resolve " + dep.getManagementKey() + ":" + dep.getVersion() + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.ast.maven.polyglot.toml.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+
+import io.ast.maven.polyglot.toml.TomlModelProcessor;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Write the model of a pom.toml project as a pom.xml beside it, so tools and CI jobs which cannot load the
+ * extension can run plain Maven.
+ * <pre>
+ *     mvn -T 1C io.ast.polyglot-maven:polyglot-toml-maven-plugin:xml
+ * </pre>
+ * The written model is the one read from the pom.toml, before inheritance and interpolation, with the versions
+ * of the pom.lock.toml pinned. The file is only replaced when its content hash changes, so file watchers and
+ * build caches do not see an unchanged pom.xml as modified.
+ */
+@Mojo(name = "xml", threadSafe = true)
+public class XmlMojo extends AbstractMojo {
+
+    private static final String COMMENT = "<!-- Generated from pom.toml by polyglot-toml-maven-plugin:xml, do not edit. -->\n";
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    /**
+     * file written, beside the pom.toml by default.
+     */
+    @Parameter(property = "toml.xml.outputFile", defaultValue = "${project.basedir}/pom.xml")
+    private File outputFile;
+
+    @Parameter(property = "toml.xml.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        var pom = project.getFile();
+        if (skip) {
+            getLog().info("Skipping " + project.getId());
+            return;
+        }
+        if (pom == null || !pom.getName().endsWith(".toml")) {
+            getLog().info("Skipping " + project.getId() + ": not a pom.toml project");
+            return;
+        }
+
+        byte[] content;
+        try {
+            var model = new TomlModelProcessor().read(pom, Map.of());
+            content = xml(model);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot read " + pom + ": " + e.getMessage(), e);
+        }
+
+        var target = outputFile.toPath();
+        try {
+            if (Arrays.equals(sha256(content), sha256(Files.readAllBytes(target)))) {
+                getLog().info(target + " is up to date");
+                return;
+            }
+        } catch (NoSuchFileException e) {
+            // written below
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot read " + target + ": " + e.getMessage(), e);
+        }
+
+        try {
+            // replaced at once, so a concurrent reader never sees a partial file
+            var temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temp, content);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot write " + target + ": " + e.getMessage(), e);
+        }
+        getLog().info("Wrote " + target);
+    }
+
+    private static byte[] xml(Model model) throws IOException {
+        var xml = new StringWriter(8192);
+        model.setModelEncoding("UTF-8");
+        new MavenXpp3Writer().write(xml, model);
+
+        // after the XML declaration
+        var ret = xml.toString();
+        var end = ret.indexOf('\n') + 1;
+        return (ret.substring(0, end) + COMMENT + ret.substring(end)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
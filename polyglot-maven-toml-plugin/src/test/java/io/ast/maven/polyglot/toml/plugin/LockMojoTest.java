@@ -0,0 +1,169 @@
+package io.ast.maven.polyglot.toml.plugin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import io.ast.maven.polyglot.toml.TomlLockfile;
+import io.ast.maven.polyglot.toml.TomlModelProcessor;
+import io.ast.maven.polyglot.toml.TomlOptions;
+import org.apache.maven.artifact.repository.ArtifactRepositoryPolicy;
+import org.apache.maven.artifact.repository.MavenArtifactRepository;
+import org.apache.maven.artifact.repository.layout.DefaultRepositoryLayout;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.supplier.RepositorySystemSupplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lock a pom.toml against a {@code file:} repository, and read it back with the lock file applied.
+ */
+class LockMojoTest {
+
+    private static RepositorySystem system;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void system() {
+        system = new RepositorySystemSupplier().get();
+    }
+
+    @BeforeEach
+    void project() throws IOException {
+        Files.createDirectories(dir.resolve("project"));
+    }
+
+    @AfterAll
+    static void shutdown() {
+        system.shutdown();
+    }
+
+    @Test
+    void lockAndReadTheLockedVersions() throws Exception {
+        publish("org.example", "lib", "1.0", "1.5", "2.0");
+        publish("org.example", "other", "3.0", "3.1");
+        var pom = Files.writeString(dir.resolve("project/pom.toml"), """
+          [project]
+          group = 'org.example'
+          artifact = 'app'
+          version = '1.0'
+
+          [dependencies.compile]
+          "org.example:lib" = '[1.0,2.0)'
+          "org.example:other" = 'RELEASE'
+          "org.example:fixed" = '1.0'
+          """);
+
+        mojo(pom).execute();
+
+        var lock = pom.resolveSibling(TomlLockfile.FILE_NAME);
+        assertTrue(Files.isRegularFile(lock));
+        assertEquals(Map.of("org.example:lib", "1.5", "org.example:other", "3.1", "org.example:fixed", "1.0"),
+          versions(new TomlModelProcessor().read(pom.toFile(), Map.of(TomlOptions.LOCK, "true"))));
+        // and the requested versions without it
+        assertEquals(Map.of("org.example:lib", "[1.0,2.0)", "org.example:other", "RELEASE", "org.example:fixed", "1.0"),
+          versions(new TomlModelProcessor().read(pom.toFile(), Map.of(TomlOptions.LOCK, "false"))));
+
+        // a new release is not picked up until the project is locked again
+        publish("org.example", "other", "3.0", "3.1", "3.2");
+        var read = new TomlModelProcessor().read(pom.toFile(), Map.of(TomlOptions.LOCK, "true"));
+        assertEquals("3.1", versions(read).get("org.example:other"));
+        mojo(pom).execute();
+        read = new TomlModelProcessor().read(pom.toFile(), Map.of(TomlOptions.LOCK, "true"));
+        assertEquals("3.2", versions(read).get("org.example:other"));
+    }
+
+    @Test
+    void unresolvableRangeFails() throws Exception {
+        publish("org.example", "lib", "1.0");
+        var pom = Files.writeString(dir.resolve("project/pom.toml"), """
+          [project]
+          group = 'org.example'
+          artifact = 'app'
+          version = '1.0'
+
+          [dependencies.compile]
+          "org.example:lib" = '[2.0,)'
+          """);
+
+        var e = assertThrows(MojoFailureException.class, () -> mojo(pom).execute());
+        assertTrue(e.getMessage().contains("org.example:lib"), e.getMessage());
+        assertFalse(Files.exists(pom.resolveSibling(TomlLockfile.FILE_NAME)));
+    }
+
+    private LockMojo mojo(Path pom) throws ReflectiveOperationException {
+        var session = MavenRepositorySystemUtils.newSession();
+        session.setLocalRepositoryManager(system.newLocalRepositoryManager(session, new LocalRepository(dir.resolve("local").toFile())));
+        session.setUpdatePolicy(ArtifactRepositoryPolicy.UPDATE_POLICY_ALWAYS);
+
+        var project = new MavenProject(new Model());
+        project.setFile(pom.toFile());
+        project.setRemoteArtifactRepositories(List.of(new MavenArtifactRepository("repo", dir.resolve("repo").toUri().toString(),
+          new DefaultRepositoryLayout(), new ArtifactRepositoryPolicy(), new ArtifactRepositoryPolicy())));
+
+        var ret = new LockMojo(system);
+        set(ret, "project", project);
+        set(ret, "session", session);
+        return ret;
+    }
+
+    private static void set(LockMojo mojo, String name, Object value) throws ReflectiveOperationException {
+        var field = LockMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    /**
+     * publish the poms of {@code versions} and their metadata.
+     */
+    private void publish(String groupId, String artifactId, String... versions) throws IOException {
+        var path = dir.resolve("repo").resolve(groupId.replace('.', '/')).resolve(artifactId);
+        for (var version : versions) {
+            Files.createDirectories(path.resolve(version));
+            Files.writeString(path.resolve(version).resolve(artifactId + "-" + version + ".pom"), """
+              <project>
+                <modelVersion>4.0.0</modelVersion>
+                <groupId>%s</groupId>
+                <artifactId>%s</artifactId>
+                <version>%s</version>
+              </project>
+              """.formatted(groupId, artifactId, version));
+        }
+        var latest = versions[versions.length - 1];
+        Files.writeString(path.resolve("maven-metadata.xml"), """
+          <metadata>
+            <groupId>%s</groupId>
+            <artifactId>%s</artifactId>
+            <versioning>
+              <latest>%s</latest>
+              <release>%s</release>
+              <versions>
+          %s
+              </versions>
+            </versioning>
+          </metadata>
+          """.formatted(groupId, artifactId, latest, latest, List.of(versions).stream()
+          .map(v -> "      <version>" + v + "</version>").collect(Collectors.joining("\n"))));
+    }
+
+    private static Map<String, String> versions(Model model) {
+        return model.getDependencies().stream()
+          .collect(Collectors.toMap(d -> d.getGroupId() + ":" + d.getArtifactId(), Dependency::getVersion));
+    }
+}
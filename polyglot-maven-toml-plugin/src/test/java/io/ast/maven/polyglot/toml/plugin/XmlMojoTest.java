@@ -0,0 +1,118 @@
+package io.ast.maven.polyglot.toml.plugin;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The pom.xml written from a pom.toml, and left untouched while its content is unchanged.
+ */
+class XmlMojoTest {
+
+    static final String PROJECT = """
+      [project]
+      group = 'org.example'
+      artifact = 'app'
+      version = '%s'
+
+      [dependencies.compile]
+      "org.example:lib" = '1.0'
+      """;
+
+    static final FileTime PAST = FileTime.fromMillis(1_000_000_000_000L);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writtenOnlyWhenTheContentChanges() throws Exception {
+        var pom = Files.writeString(dir.resolve("pom.toml"), PROJECT.formatted("1.0"));
+        var xml = dir.resolve("pom.xml");
+
+        var log = new Log();
+        mojo(pom, xml.toFile(), false, log).execute();
+        var written = new MavenXpp3Reader().read(new StringReader(Files.readString(xml)));
+        assertEquals("org.example:app:jar:1.0", written.getId());
+        assertEquals("lib", written.getDependencies().get(0).getArtifactId());
+        assertTrue(Files.readString(xml).contains("do not edit"));
+        assertEquals(List.of("Wrote " + xml), log.infos);
+
+        // unchanged: the file is not touched
+        Files.setLastModifiedTime(xml, PAST);
+        var content = Files.readAllBytes(xml);
+        log = new Log();
+        mojo(pom, xml.toFile(), false, log).execute();
+        assertEquals(PAST, Files.getLastModifiedTime(xml));
+        assertArrayEquals(content, Files.readAllBytes(xml));
+        assertEquals(List.of(xml + " is up to date"), log.infos);
+
+        // changed: replaced, without a temporary file left
+        Files.writeString(pom, PROJECT.formatted("1.1"));
+        mojo(pom, xml.toFile(), false, new Log()).execute();
+        assertNotEquals(PAST, Files.getLastModifiedTime(xml));
+        assertEquals("1.1", new MavenXpp3Reader().read(new StringReader(Files.readString(xml))).getVersion());
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of("pom.toml", "pom.xml"), files.map(p -> p.getFileName().toString()).sorted().toList());
+        }
+    }
+
+    @Test
+    void skipped() throws Exception {
+        var pom = Files.writeString(dir.resolve("pom.toml"), PROJECT.formatted("1.0"));
+        var xml = dir.resolve("pom.xml");
+
+        var log = new Log();
+        mojo(pom, xml.toFile(), true, log).execute();
+        assertFalse(Files.exists(xml));
+        assertEquals(1, log.infos.size());
+        assertTrue(log.infos.get(0).startsWith("Skipping"), log.infos.get(0));
+
+        // an XML project
+        var existing = Files.writeString(dir.resolve("other.xml"), "<project/>");
+        mojo(existing, xml.toFile(), false, new Log()).execute();
+        assertFalse(Files.exists(xml));
+    }
+
+    private static XmlMojo mojo(Path pom, File outputFile, boolean skip, Log log) throws ReflectiveOperationException {
+        var project = new MavenProject(new Model());
+        project.setFile(pom.toFile());
+
+        var ret = new XmlMojo();
+        set(ret, "project", project);
+        set(ret, "outputFile", outputFile);
+        set(ret, "skip", skip);
+        ret.setLog(log);
+        return ret;
+    }
+
+    private static void set(XmlMojo mojo, String name, Object value) throws ReflectiveOperationException {
+        var field = XmlMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    /**
+     * collects the info messages.
+     */
+    private static final class Log extends SystemStreamLog {
+        final List<String> infos = new ArrayList<>();
+
+        @Override
+        public void info(CharSequence content) {
+            infos.add(content.toString());
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package io.ast.maven.polyglot.toml;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.Function;
+
+import org.apache.maven.api.model.*;
+import org.apache.maven.model.InputLocationTracker;
+import org.apache.maven.api.xml.XmlNode;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Transfer a Maven 3 model bound by {@link TomlModelBinder} into the immutable Maven 4 API model.
+ * <p>
+ * Only the elements which a pom.toml can declare are transferred. Every element is copied once into
+ * its builder; afterwards Maven 4 shares the immutable instances instead of cloning them.
+ * <p>
+ * The input locations of tracked elements are transferred with them, under the field names of the API
+ * builders. The Maven 3 elements which Maven 4 replaces are given in their replacement: the modules as
+ * {@code subprojects}, the source directories and the resources as {@code sources}, and the notifier address
+ * as its {@code address} configuration.
+ */
+final class TomlApiModelConverter {
+
+    /**
+     * fields of each API builder which may have a location, and its location setter.
+     */
+    private static final ClassValue<Locator> LOCATORS = new ClassValue<>() {
+        @Override
+        protected Locator computeValue(Class<?> type) {
+            var fields = new ArrayList<String>();
+            fields.add("");
+            for (var c = type; c != Object.class; c = c.getSuperclass()) {
+                for (var field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !IGNORED.contains(field.getName())) {
+                        fields.add(field.getName());
+                    }
+                }
+            }
+            try {
+                return new Locator(type.getMethod("location", Object.class, InputLocation.class), fields.toArray(String[]::new));
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(type + " has no location setter", e);
+            }
+        }
+    };
+
+    private static final Set<String> IGNORED = Set.of("base", "locations", "importedFrom");
+
+    private record Locator(Method location, String[] fields) {
+    }
+
+    private TomlApiModelConverter() {
+    }
+
+    /**
+     * @param model model bound from a pom.toml
+     * @return immutable model
+     */
+    static Model toApiModel(org.apache.maven.model.Model model) {
+        var builder = locate(Model.newBuilder(), model)
+          .modelVersion(model.getModelVersion())
+          .groupId(model.getGroupId())
+          .artifactId(model.getArtifactId())
+          .version(model.getVersion())
+          .packaging(model.getPackaging())
+          .name(model.getName())
+          .description(model.getDescription())
+          .url(model.getUrl())
+          .inceptionYear(model.getInceptionYear())
+          .parent(toApi(model.getParent()))
+          .organization(toApi(model.getOrganization()))
+          .licenses(list(model.getLicenses(), TomlApiModelConverter::toApi))
+          .developers(list(model.getDevelopers(), TomlApiModelConverter::toApi))
+          .contributors(list(model.getContributors(), TomlApiModelConverter::toApi))
+          .mailingLists(list(model.getMailingLists(), TomlApiModelConverter::toApi))
+          .prerequisites(toApi(model.getPrerequisites()))
+          .subprojects(model.getModules())
+          .scm(toApi(model.getScm()))
+          .issueManagement(toApi(model.getIssueManagement()))
+          .ciManagement(toApi(model.getCiManagement()))
+          .distributionManagement(toApi(model.getDistributionManagement()))
+          .dependencyManagement(toApi(model.getDependencyManagement()))
+          .dependencies(list(model.getDependencies(), TomlApiModelConverter::toApi))
+          .repositories(list(model.getRepositories(), TomlApiModelConverter::toApi))
+          .pluginRepositories(list(model.getPluginRepositories(), TomlApiModelConverter::toApi))
+          .build(toApi(model.getBuild()))
+          .properties(map(model.getProperties()));
+        if (model.getPomFile() != null) {
+            builder.pomFile(model.getPomFile().toPath());
+        }
+        locate(builder, "subprojects", model, "modules");
+        return builder.build();
+    }
+
+    private static Parent toApi(org.apache.maven.model.Parent parent) {
+        if (parent == null) return null;
+        var builder = locate(Parent.newBuilder(), parent)
+          .groupId(parent.getGroupId())
+          .artifactId(parent.getArtifactId())
+          .version(parent.getVersion());
+        // Maven 3 fills the default relative path, which Maven 4 resolves by itself
+        if (!"../pom.xml".equals(parent.getRelativePath())) {
+            builder.relativePath(parent.getRelativePath());
+        }
+        return builder.build();
+    }
+
+    private static Organization toApi(org.apache.maven.model.Organization organization) {
+        if (organization == null) return null;
+        return locate(Organization.newBuilder(), organization)
+          .name(organization.getName())
+          .url(organization.getUrl())
+          .build();
+    }
+
+    private static License toApi(org.apache.maven.model.License license) {
+        return locate(License.newBuilder(), license)
+          .name(license.getName())
+          .url(license.getUrl())
+          .distribution(license.getDistribution())
+          .comments(license.getComments())
+          .build();
+    }
+
+    private static Developer toApi(org.apache.maven.model.Developer developer) {
+        return locate(Developer.newBuilder(), developer)
+          .id(developer.getId())
+          .name(developer.getName())
+          .email(developer.getEmail())
+          .url(developer.getUrl())
+          .organization(developer.getOrganization())
+          .organizationUrl(developer.getOrganizationUrl())
+          .roles(developer.getRoles())
+          .timezone(developer.getTimezone())
+          .properties(map(developer.getProperties()))
+          .build();
+    }
+
+    private static Contributor toApi(org.apache.maven.model.Contributor contributor) {
+        return locate(Contributor.newBuilder(), contributor)
+          .name(contributor.getName())
+          .email(contributor.getEmail())
+          .url(contributor.getUrl())
+          .organization(contributor.getOrganization())
+          .organizationUrl(contributor.getOrganizationUrl())
+          .roles(contributor.getRoles())
+          .timezone(contributor.getTimezone())
+          .properties(map(contributor.getProperties()))
+          .build();
+    }
+
+    private static MailingList toApi(org.apache.maven.model.MailingList mail) {
+        return locate(MailingList.newBuilder(), mail)
+          .name(mail.getName())
+          .subscribe(mail.getSubscribe())
+          .unsubscribe(mail.getUnsubscribe())
+          .post(mail.getPost())
+          .archive(mail.getArchive())
+          .otherArchives(mail.getOtherArchives())
+          .build();
+    }
+
+    private static Prerequisites toApi(org.apache.maven.model.Prerequisites pre) {
+        if (pre == null) return null;
+        return locate(Prerequisites.newBuilder(), pre)
+          .maven(pre.getMaven())
+          .build();
+    }
+
+    private static Scm toApi(org.apache.maven.model.Scm scm) {
+        if (scm == null) return null;
+        return locate(Scm.newBuilder(), scm)
+          .connection(scm.getConnection())
+          .developerConnection(scm.getDeveloperConnection())
+          .tag(scm.getTag())
+          .url(scm.getUrl())
+          .childScmConnectionInheritAppendPath(scm.getChildScmConnectionInheritAppendPath())
+          .childScmDeveloperConnectionInheritAppendPath(scm.getChildScmDeveloperConnectionInheritAppendPath())
+          .childScmUrlInheritAppendPath(scm.getChildScmUrlInheritAppendPath())
+          .build();
+    }
+
+    private static IssueManagement toApi(org.apache.maven.model.IssueManagement manager) {
+        if (manager == null) return null;
+        return locate(IssueManagement.newBuilder(), manager)
+          .system(manager.getSystem())
+          .url(manager.getUrl())
+          .build();
+    }
+
+    private static CiManagement toApi(org.apache.maven.model.CiManagement manager) {
+        if (manager == null) return null;
+        return locate(CiManagement.newBuilder(), manager)
+          .system(manager.getSystem())
+          .url(manager.getUrl())
+          .notifiers(list(manager.getNotifiers(), TomlApiModelConverter::toApi))
+          .build();
+    }
+
+    private static Notifier toApi(org.apache.maven.model.Notifier not) {
+        return locate(Notifier.newBuilder(), not)
+          .type(not.getType())
+          .sendOnError(not.isSendOnError())
+          .sendOnFailure(not.isSendOnFailure())
+          .sendOnSuccess(not.isSendOnSuccess())
+          .sendOnWarning(not.isSendOnWarning())
+          .configuration(configuration(not))
+          .build();
+    }
+
+    /**
+     * @return notifier configuration, with its address as the {@code address} entry.
+     */
+    private static Map<String, String> configuration(org.apache.maven.model.Notifier not) {
+        var ret = map(not.getConfiguration());
+        if (not.getAddress() != null) {
+            ret = ret == null ? new HashMap<>() : ret;
+            ret.putIfAbsent("address", not.getAddress());
+        }
+        return ret;
+    }
+
+    private static DistributionManagement toApi(org.apache.maven.model.DistributionManagement manager) {
+        if (manager == null) return null;
+        return locate(DistributionManagement.newBuilder(), manager)
+          .repository(toApi(manager.getRepository()))
+          .snapshotRepository(toApi(manager.getSnapshotRepository()))
+          .site(toApi(manager.getSite()))
+          .downloadUrl(manager.getDownloadUrl())
+          .relocation(toApi(manager.getRelocation()))
+          .status(manager.getStatus())
+          .build();
+    }
+
+    private static DeploymentRepository toApi(org.apache.maven.model.DeploymentRepository repo) {
+        if (repo == null) return null;
+        return locate(DeploymentRepository.newBuilder(), repo)
+          .uniqueVersion(repo.isUniqueVersion())
+          .releases(toApi(repo.getReleases()))
+          .snapshots(toApi(repo.getSnapshots()))
+          .id(repo.getId())
+          .name(repo.getName())
+          .url(repo.getUrl())
+          .layout(repo.getLayout())
+          .build();
+    }
+
+    private static Site toApi(org.apache.maven.model.Site site) {
+        if (site == null) return null;
+        return locate(Site.newBuilder(), site)
+          .id(site.getId())
+          .name(site.getName())
+          .url(site.getUrl())
+          .childSiteUrlInheritAppendPath(site.getChildSiteUrlInheritAppendPath())
+          .build();
+    }
+
+    private static Relocation toApi(org.apache.maven.model.Relocation loc) {
+        if (loc == null) return null;
+        return locate(Relocation.newBuilder(), loc)
+          .groupId(loc.getGroupId())
+          .artifactId(loc.getArtifactId())
+          .version(loc.getVersion())
+          .message(loc.getMessage())
+          .build();
+    }
+
+    private static DependencyManagement toApi(org.apache.maven.model.DependencyManagement manager) {
+        if (manager == null) return null;
+        return locate(DependencyManagement.newBuilder(), manager)
+          .dependencies(list(manager.getDependencies(), TomlApiModelConverter::toApi))
+          .build();
+    }
+
+    private static Dependency toApi(org.apache.maven.model.Dependency dep) {
+        return locate(Dependency.newBuilder(), dep)
+          .groupId(dep.getGroupId())
+          .artifactId(dep.getArtifactId())
+          .version(dep.getVersion())
+          .type(dep.getType())
+          .classifier(dep.getClassifier())
+          .scope(dep.getScope())
+          .systemPath(dep.getSystemPath())
+          .optional(dep.getOptional())
+          .exclusions(list(dep.getExclusions(), TomlApiModelConverter::toApi))
+          .build();
+    }
+
+    private static Exclusion toApi(org.apache.maven.model.Exclusion ext) {
+        return locate(Exclusion.newBuilder(), ext)
+          .groupId(ext.getGroupId())
+          .artifactId(ext.getArtifactId())
+          .build();
+    }
+
+    private static Repository toApi(org.apache.maven.model.Repository rep) {
+        return locate(Repository.newBuilder(), rep)
+          .releases(toApi(rep.getReleases()))
+          .snapshots(toApi(rep.getSnapshots()))
+          .id(rep.getId())
+          .name(rep.getName())
+          .url(rep.getUrl())
+          .layout(rep.getLayout())
+          .build();
+    }
+
+    private static RepositoryPolicy toApi(org.apache.maven.model.RepositoryPolicy rep) {
+        if (rep == null) return null;
+        return locate(RepositoryPolicy.newBuilder(), rep)
+          .enabled(rep.getEnabled())
+          .updatePolicy(rep.getUpdatePolicy())
+          .checksumPolicy(rep.getChecksumPolicy())
+          .build();
+    }
+
+    private static Build toApi(org.apache.maven.model.Build build) {
+        if (build == null) return null;
+        var sources = new ArrayList<Source>();
+        source(sources, build, "sourceDirectory", "main", "java");
+        source(sources, build, "scriptSourceDirectory", "main", "script");
+        source(sources, build, "testSourceDirectory", "test", "java");
+        for (var resource : build.getResources()) {
+            sources.add(toApi(resource, "main"));
+        }
+        for (var resource : build.getTestResources()) {
+            sources.add(toApi(resource, "test"));
+        }
+        return locate(Build.newBuilder(), build)
+          .sources(sources.isEmpty() ? null : sources)
+          .outputDirectory(build.getOutputDirectory())
+          .testOutputDirectory(build.getTestOutputDirectory())
+          .extensions(list(build.getExtensions(), TomlApiModelConverter::toApi))
+          .defaultGoal(build.getDefaultGoal())
+          .directory(build.getDirectory())
+          .finalName(build.getFinalName())
+          .filters(build.getFilters())
+          .plugins(list(build.getPlugins(), TomlApiModelConverter::toApi))
+          .pluginManagement(toApi(build.getPluginManagement()))
+          .build();
+    }
+
+    private static Extension toApi(org.apache.maven.model.Extension ext) {
+        return locate(Extension.newBuilder(), ext)
+          .groupId(ext.getGroupId())
+          .artifactId(ext.getArtifactId())
+          .version(ext.getVersion())
+          .build();
+    }
+
+    /**
+     * @param field  source directory field of {@code build}
+     * @param scope  project scope of the directory
+     * @param lang   language of the directory
+     */
+    private static void source(List<Source> sources, org.apache.maven.model.Build build, String field, String scope, String lang) {
+        var directory = switch (field) {
+            case "sourceDirectory" -> build.getSourceDirectory();
+            case "scriptSourceDirectory" -> build.getScriptSourceDirectory();
+            default -> build.getTestSourceDirectory();
+        };
+        if (directory == null) return;
+        var builder = Source.newBuilder()
+          .scope(scope)
+          .lang(lang)
+          .directory(directory);
+        locate(builder, "", build, field);
+        locate(builder, "directory", build, field);
+        sources.add(builder.build());
+    }
+
+    private static Source toApi(org.apache.maven.model.Resource res, String scope) {
+        var builder = locate(Source.newBuilder(), res)
+          .scope(scope)
+          .lang("resources")
+          .directory(res.getDirectory())
+          .targetPath(res.getTargetPath())
+          .stringFiltering(Boolean.parseBoolean(res.getFiltering()))
+          .includes(res.getIncludes())
+          .excludes(res.getExcludes());
+        locate(builder, "stringFiltering", res, "filtering");
+        return builder.build();
+    }
+
+    private static PluginManagement toApi(org.apache.maven.model.PluginManagement manager) {
+        if (manager == null) return null;
+        return locate(PluginManagement.newBuilder(), manager)
+          .plugins(list(manager.getPlugins(), TomlApiModelConverter::toApi))
+          .build();
+    }
+
+    private static Plugin toApi(org.apache.maven.model.Plugin plugin) {
+        return locate(Plugin.newBuilder(), plugin)
+          .groupId(plugin.getGroupId())
+          .artifactId(plugin.getArtifactId())
+          .version(plugin.getVersion())
+          .extensions(plugin.getExtensions())
+          .executions(list(plugin.getExecutions(), TomlApiModelConverter::toApi))
+          .dependencies(list(plugin.getDependencies(), TomlApiModelConverter::toApi))
+          .inherited(plugin.getInherited())
+          .configuration(toApi((Xpp3Dom) plugin.getConfiguration()))
+          .build();
+    }
+
+    private static PluginExecution toApi(org.apache.maven.model.PluginExecution exe) {
+        return locate(PluginExecution.newBuilder(), exe)
+          .id(exe.getId())
+          .phase(exe.getPhase())
+          .goals(exe.getGoals())
+          .inherited(exe.getInherited())
+          .configuration(toApi((Xpp3Dom) exe.getConfiguration()))
+          .build();
+    }
+
+    private static XmlNode toApi(Xpp3Dom dom) {
+        if (dom == null) return null;
+        var children = new ArrayList<XmlNode>(dom.getChildCount());
+        for (var child : dom.getChildren()) {
+            children.add(toApi(child));
+        }
+        var attributes = new HashMap<String, String>();
+        for (var name : dom.getAttributeNames()) {
+            attributes.put(name, dom.getAttribute(name));
+        }
+        return XmlNode.newInstance(dom.getName(), dom.getValue(), attributes, children, null);
+    }
+
+    /**
+     * @param builder API builder
+     * @param element bound element
+     * @return {@code builder}, given the locations of {@code element} under the same field names.
+     */
+    private static <B> B locate(B builder, InputLocationTracker element) {
+        if (element instanceof TomlLocations.Tracked) {
+            var locator = LOCATORS.get(builder.getClass());
+            for (var field : locator.fields()) {
+                set(locator, builder, field, element.getLocation(field));
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Give {@code builder} the location of {@code element}'s {@code field} as the location of its {@code target}.
+     */
+    private static void locate(Object builder, String target, InputLocationTracker element, String field) {
+        if (element instanceof TomlLocations.Tracked) {
+            set(LOCATORS.get(builder.getClass()), builder, target, element.getLocation(field));
+        }
+    }
+
+    private static void set(Locator locator, Object builder, String field, org.apache.maven.model.InputLocation location) {
+        if (location == null) return;
+        var source = location.getSource();
+        var api = new InputLocation(location.getLineNumber(), location.getColumnNumber(),
+          source == null ? null : new InputSource(source.getModelId(), source.getLocation()));
+        try {
+            locator.location().invoke(builder, field, api);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <S, T> List<T> list(List<S> list, Function<S, T> mapper) {
+        if (list == null || list.isEmpty()) return null;
+        var ret = new ArrayList<T>(list.size());
+        for (var item : list) {
+            ret.add(mapper.apply(item));
+        }
+        return ret;
+    }
+
+    private static Map<String, String> map(Properties properties) {
+        if (properties == null || properties.isEmpty()) return null;
+        var ret = new HashMap<String, String>(properties.size() * 2);
+        for (var entry : properties.entrySet()) {
+            ret.put(entry.getKey().toString(), entry.getValue().toString());
+        }
+        return ret;
+    }
+}
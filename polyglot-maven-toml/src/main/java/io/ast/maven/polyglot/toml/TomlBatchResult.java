@@ -0,0 +1,76 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.ModelParseException;
+
+/**
+ * Result of {@link TomlModelProcessor#readAll(Collection, Map)} and {@link TomlPomReader#readAll(Collection)}.
+ *
+ * @param models      read models, in the input order. Files which failed to read are absent.
+ * @param diagnostics diagnostics of all files, grouped by file in the input order.
+ */
+public record TomlBatchResult(Map<Path, Model> models, List<TomlDiagnostic> diagnostics) {
+
+    public boolean hasErrors() {
+        for (var diagnostic : diagnostics) {
+            if (diagnostic.isError()) return true;
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    interface Read {
+        Model read(Path file, Consumer<TomlDiagnostic> diagnostics) throws IOException;
+    }
+
+    /**
+     * Read {@code inputs} in parallel. A file which fails to read is reported as an error diagnostic rather
+     * than aborting the batch.
+     *
+     * @param inputs pom files
+     * @param read   reads one file, giving its diagnostics to the consumer.
+     * @return models and diagnostics, both in the input order.
+     */
+    static TomlBatchResult readAll(Collection<Path> inputs, Read read) {
+        var files = List.copyOf(inputs);
+        var models = new Model[files.size()];
+        var diagnostics = new List<?>[files.size()];
+        IntStream.range(0, files.size()).parallel().forEach(i -> {
+            var file = files.get(i);
+            var collected = new ArrayList<TomlDiagnostic>();
+            try {
+                // the deferred sections are bound now, so their diagnostics are collected with the others
+                models[i] = TomlLazyModel.bind(read.read(file, collected::add));
+            } catch (ModelParseException e) {
+                collected.add(new TomlDiagnostic(file, TomlDiagnostic.Severity.ERROR, e.getMessage(), e.getLineNumber(), e.getColumnNumber()));
+            } catch (IOException | RuntimeException e) {
+                // a deferred section which failed to bind is reported as the read would have
+                var cause = e instanceof IllegalStateException && e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof ModelParseException mpe) {
+                    collected.add(new TomlDiagnostic(file, TomlDiagnostic.Severity.ERROR, mpe.getMessage(), mpe.getLineNumber(), mpe.getColumnNumber()));
+                } else {
+                    collected.add(new TomlDiagnostic(file, TomlDiagnostic.Severity.ERROR, cause.toString(), -1, -1));
+                }
+            }
+            diagnostics[i] = collected;
+        });
+
+        var retModels = new LinkedHashMap<Path, Model>();
+        var retDiagnostics = new ArrayList<TomlDiagnostic>();
+        for (int i = 0; i < files.size(); i++) {
+            if (models[i] != null) {
+                retModels.put(files.get(i), models[i]);
+            }
+            for (var diagnostic : diagnostics[i]) {
+                retDiagnostics.add((TomlDiagnostic) diagnostic);
+            }
+        }
+        return new TomlBatchResult(retModels, retDiagnostics);
+    }
+}
@@ -0,0 +1,37 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Storage of the model cache, selected by the scheme of {@link TomlOptions#CACHE}.
+ * <pre>
+ *     &#64;Component(role = TomlCacheBackend.class, hint = "redis")
+ *     public class RedisCache implements TomlCacheBackend {
+ *         ...
+ *     }
+ * </pre>
+ * The {@code unix}, {@code file}, {@code http} and {@code https} schemes are built in, see {@link TomlCacheBackends}.
+ * Entries are opaque and immutable: an entry stored under a key never changes, so a backend may keep the first
+ * one stored. The calls come from a pool of threads, and are abandoned after {@link TomlOptions#CACHE_TIMEOUT}.
+ *
+ * @see TomlModelCache
+ */
+public interface TomlCacheBackend {
+
+    /**
+     * @param cache URI of the cache, as configured.
+     * @param key   key of the entry: 64 lower case hexadecimal digits.
+     * @return the entry, {@code null} when absent.
+     * @throws IOException when the cache cannot be read, which is counted as an error.
+     */
+    byte[] get(URI cache, String key) throws IOException;
+
+    /**
+     * @param cache URI of the cache, as configured.
+     * @param key   key of the entry: 64 lower case hexadecimal digits.
+     * @param entry the entry
+     * @throws IOException when the cache cannot be written, which is counted as an error.
+     */
+    void put(URI cache, String key, byte[] entry) throws IOException;
+}
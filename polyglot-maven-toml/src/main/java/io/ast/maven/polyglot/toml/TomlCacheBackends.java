@@ -0,0 +1,186 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.URI;
+import java.net.UnixDomainSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.HexFormat;
+
+import javax.net.ssl.SSLContext;
+
+/**
+ * Built-in {@link TomlCacheBackend}s.
+ * <ul>
+ *     <li>{@code unix:/path/to/socket}: a {@link TomlCacheServer} of the host.</li>
+ *     <li>{@code file:/path/to/dir}: a directory, which may be shared by the agents of a fleet.</li>
+ *     <li>{@code https://host/path/}: a server answering {@code GET} and {@code PUT} of the key under the URI, such
+ *     as a build cache node or a WebDAV share. Plain {@code http:} is not supported, and redirects are not
+ *     followed.</li>
+ * </ul>
+ */
+final class TomlCacheBackends {
+
+    private TomlCacheBackends() {
+    }
+
+    /**
+     * @return the built-in backend of {@code scheme}, {@code null} when there is none.
+     */
+    static TomlCacheBackend of(String scheme) {
+        return switch (scheme) {
+            case "unix" -> Unix.INSTANCE;
+            case "file" -> Directory.INSTANCE;
+            case "https" -> Http.INSTANCE;
+            default -> null;
+        };
+    }
+
+    /**
+     * @return the path of a {@code unix:} or {@code file:} URI, absolute or relative.
+     */
+    private static Path path(URI cache) {
+        return Path.of(cache.getPath() != null ? cache.getPath() : cache.getSchemeSpecificPart());
+    }
+
+    /**
+     * {@link TomlCacheServer} protocol: a command byte and a 32 bytes key; {@code GET} is answered with the entry
+     * length, -1 when absent, and the entry; {@code PUT} is followed by the entry length and the entry.
+     */
+    static final class Unix implements TomlCacheBackend {
+        static final byte GET = 1;
+        static final byte PUT = 2;
+        static final int KEY_LENGTH = 32;
+        static final Unix INSTANCE = new Unix();
+
+        @Override
+        public byte[] get(URI cache, String key) throws IOException {
+            try (var channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+                channel.connect(UnixDomainSocketAddress.of(path(cache)));
+                write(channel, ByteBuffer.allocate(1 + KEY_LENGTH).put(GET).put(HexFormat.of().parseHex(key)).flip());
+
+                var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                var length = in.readInt();
+                if (length < 0) return null;
+                if (length > TomlModelCache.MAX_ENTRY_SIZE) throw new IOException("Entry of " + length + " bytes");
+                var ret = new byte[length];
+                in.readFully(ret);
+                return ret;
+            }
+        }
+
+        @Override
+        public void put(URI cache, String key, byte[] entry) throws IOException {
+            try (var channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+                channel.connect(UnixDomainSocketAddress.of(path(cache)));
+                write(channel, ByteBuffer.allocate(1 + KEY_LENGTH + 4 + entry.length)
+                  .put(PUT).put(HexFormat.of().parseHex(key)).putInt(entry.length).put(entry).flip());
+            }
+        }
+
+        private static void write(SocketChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Entries stored as {@code <dir>/<first 2 digits of the key>/<key>}, each one written at once.
+     */
+    static final class Directory implements TomlCacheBackend {
+        static final Directory INSTANCE = new Directory();
+
+        @Override
+        public byte[] get(URI cache, String key) throws IOException {
+            try {
+                return Files.readAllBytes(file(cache, key));
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void put(URI cache, String key, byte[] entry) throws IOException {
+            var file = file(cache, key);
+            if (Files.exists(file)) return;
+            Files.createDirectories(file.getParent());
+            var temp = Files.createTempFile(file.getParent(), key, ".tmp");
+            try {
+                Files.write(temp, entry);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private static Path file(URI cache, String key) {
+            return path(cache).resolve(key.substring(0, 2)).resolve(key);
+        }
+    }
+
+    /**
+     * {@code GET} and {@code PUT} of {@code <uri>/<key>}; 404 is a miss.
+     */
+    static final class Http implements TomlCacheBackend {
+        static final Http INSTANCE = new Http(null);
+
+        private final HttpClient client;
+
+        /**
+         * @param ssl SSL context of the connections, {@code null} for the default one.
+         */
+        Http(SSLContext ssl) {
+            var builder = HttpClient.newBuilder()
+              .version(HttpClient.Version.HTTP_1_1)
+              .connectTimeout(Duration.ofSeconds(5))
+              .followRedirects(HttpClient.Redirect.NEVER);
+            if (ssl != null) {
+                builder.sslContext(ssl);
+            }
+            client = builder.build();
+        }
+
+        @Override
+        public byte[] get(URI cache, String key) throws IOException {
+            var response = send(HttpRequest.newBuilder(uri(cache, key)).GET().build());
+            if (response.statusCode() == 404) return null;
+            if (response.statusCode() != 200) throw new IOException("GET " + uri(cache, key) + ": " + response.statusCode());
+            return response.body();
+        }
+
+        @Override
+        public void put(URI cache, String key, byte[] entry) throws IOException {
+            var response = send(HttpRequest.newBuilder(uri(cache, key))
+              .header("Content-Type", "application/octet-stream")
+              .PUT(HttpRequest.BodyPublishers.ofByteArray(entry)).build());
+            if (response.statusCode() / 100 != 2) throw new IOException("PUT " + uri(cache, key) + ": " + response.statusCode());
+        }
+
+        private HttpResponse<byte[]> send(HttpRequest request) throws IOException {
+            try {
+                try {
+                    return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                } catch (IOException e) {
+                    // once more, on a new connection when the server closed the pooled one; both methods are idempotent
+                    return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(request.method() + " " + request.uri());
+            }
+        }
+
+        private static URI uri(URI cache, String key) {
+            var base = cache.toString();
+            return URI.create(base.endsWith("/") ? base + key : base + "/" + key);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package io.ast.maven.polyglot.toml;
+
+/**
+ * Counters of the model cache lookups and stores of the process.
+ *
+ * @param hits     lookups answered with a model
+ * @param misses   lookups of an absent entry
+ * @param timeouts lookups abandoned after {@link TomlOptions#CACHE_TIMEOUT}
+ * @param errors   lookups and stores which failed, and entries which could not be read
+ * @param stores   entries stored
+ * @see TomlOptions#CACHE
+ */
+public record TomlCacheMetrics(long hits, long misses, long timeouts, long errors, long stores) {
+
+    /**
+     * @return the counters of the process so far.
+     */
+    public static TomlCacheMetrics current() {
+        return TomlModelCache.metrics();
+    }
+
+    @Override
+    public String toString() {
+        return hits + " hits, " + misses + " misses, " + timeouts + " timeouts, " + errors + " errors, " + stores + " stores";
+    }
+}
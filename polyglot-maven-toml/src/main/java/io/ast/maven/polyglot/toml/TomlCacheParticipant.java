@@ -0,0 +1,31 @@
+package io.ast.maven.polyglot.toml;
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.execution.MavenSession;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.logging.Logger;
+
+/**
+ * Wait for the models being stored in the model cache at the end of the session, at most 5 seconds, and log the
+ * cache metrics.
+ *
+ * @see TomlOptions#CACHE
+ */
+@Component(role = AbstractMavenLifecycleParticipant.class, hint = "toml-cache")
+public class TomlCacheParticipant extends AbstractMavenLifecycleParticipant {
+
+    private static final long FLUSH_TIMEOUT = 5000;
+
+    @Requirement
+    private Logger logger;
+
+    @Override
+    public void afterSessionEnd(MavenSession session) {
+        TomlModelCache.flush(FLUSH_TIMEOUT);
+        var metrics = TomlCacheMetrics.current();
+        if (metrics.hits() + metrics.misses() + metrics.timeouts() + metrics.errors() > 0) {
+            logger.info("Model cache: " + metrics);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local cache of the models read by the Maven processes of a host, served over a Unix domain socket, so
+ * concurrent builds of the same checkout read each pom.toml once.
+ * <pre>
+ *     java -cp ... io.ast.maven.polyglot.toml.TomlCacheServer [--max-size BYTES] /tmp/toml-cache.sock &amp;
+ *     mvn -Dio.ast.maven.polyglot.toml.cacheSocket=/tmp/toml-cache.sock ...
+ * </pre>
+ * The server holds opaque entries keyed by {@link TomlModelCache}, in memory, evicting the least recently used
+ * ones beyond the maximal size (256M by default). The socket is only accessible to its owner, from the time it is
+ * bound. The protocol is the one of {@link TomlCacheBackends.Unix}.
+ *
+ * @see TomlOptions#CACHE_SOCKET
+ */
+public final class TomlCacheServer implements Closeable {
+
+    private final Path socket;
+    private final long maxSize;
+    private final ServerSocketChannel server;
+    private final ExecutorService executor;
+
+    /**
+     * entries, in the access order.
+     */
+    private final LinkedHashMap<ByteBuffer, byte[]> entries = new LinkedHashMap<>(1024, 0.75f, true);
+    private long size;
+
+    /**
+     * Bind {@code socket}, replacing a stale socket file.
+     *
+     * @param socket  socket file
+     * @param maxSize maximal size of the entries, in bytes.
+     * @throws IOException when the socket cannot be bound, or another server listens on it.
+     */
+    public TomlCacheServer(Path socket, long maxSize) throws IOException {
+        this.socket = socket.toAbsolutePath();
+        this.maxSize = maxSize;
+        if (Files.exists(this.socket)) {
+            if (isListening(this.socket)) {
+                throw new IOException("A server already listens on " + this.socket);
+            }
+            Files.delete(this.socket);
+        }
+        server = bind(this.socket);
+        executor = Executors.newCachedThreadPool(task -> {
+            var thread = new Thread(task, "toml-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        long maxSize = 256 << 20;
+        Path socket = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--max-size") && i + 1 < args.length) {
+                maxSize = Long.parseLong(args[++i]);
+            } else if (!args[i].startsWith("--") && socket == null) {
+                socket = Path.of(args[i]);
+            } else {
+                socket = null;
+                break;
+            }
+        }
+        if (socket == null) {
+            System.err.println("Usage: TomlCacheServer [--max-size BYTES] socket");
+            System.exit(2);
+        }
+
+        var server = new TomlCacheServer(socket, maxSize);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                // exiting
+            }
+        }));
+        System.out.println("Listening on " + server.socket);
+        server.serve();
+    }
+
+    /**
+     * Accept connections until the server is closed.
+     *
+     * @throws IOException
+     */
+    public void serve() throws IOException {
+        while (server.isOpen()) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (IOException e) {
+                if (!server.isOpen()) return;
+                throw e;
+            }
+            executor.execute(() -> handle(channel));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        executor.shutdownNow();
+        Files.deleteIfExists(socket);
+    }
+
+    /**
+     * Answer the requests of a connection until it is closed.
+     */
+    private void handle(SocketChannel channel) {
+        try (channel) {
+            var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            while (true) {
+                var command = in.read();
+                if (command < 0) return;
+                var key = new byte[TomlCacheBackends.Unix.KEY_LENGTH];
+                in.readFully(key);
+                switch (command) {
+                case TomlCacheBackends.Unix.GET:
+                    var entry = get(ByteBuffer.wrap(key));
+                    if (entry == null) {
+                        out.writeInt(-1);
+                    } else {
+                        out.writeInt(entry.length);
+                        out.write(entry);
+                    }
+                    out.flush();
+                    break;
+                case TomlCacheBackends.Unix.PUT:
+                    var length = in.readInt();
+                    if (length < 0 || length > TomlModelCache.MAX_ENTRY_SIZE) return;
+                    var value = new byte[length];
+                    in.readFully(value);
+                    put(ByteBuffer.wrap(key), value);
+                    break;
+                default:
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // connection closed by the client
+        }
+    }
+
+    /**
+     * Bind {@code socket} in a directory only accessible to the owner, and move it in place once its permissions
+     * are set, so other users can never connect to it.
+     */
+    private static ServerSocketChannel bind(Path socket) throws IOException {
+        var server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            Path dir;
+            try {
+                dir = Files.createTempDirectory(socket.getParent(), ".toml-cache",
+                  PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } catch (UnsupportedOperationException e) {
+                // not a POSIX file system
+                server.bind(UnixDomainSocketAddress.of(socket));
+                return server;
+            }
+            var bound = dir.resolve("socket");
+            try {
+                server.bind(UnixDomainSocketAddress.of(bound));
+                Files.setPosixFilePermissions(bound, PosixFilePermissions.fromString("rw-------"));
+                Files.move(bound, socket, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(bound);
+                Files.delete(dir);
+            }
+            return server;
+        } catch (IOException | RuntimeException e) {
+            server.close();
+            throw e;
+        }
+    }
+
+    private static boolean isListening(Path socket) {
+        try {
+            SocketChannel.open(UnixDomainSocketAddress.of(socket)).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private synchronized byte[] get(ByteBuffer key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(ByteBuffer key, byte[] value) {
+        var former = entries.put(key, value);
+        size += value.length - (former == null ? 0 : former.length);
+        for (var i = entries.values().iterator(); size > maxSize && i.hasNext(); ) {
+            size -= i.next().length;
+            i.remove();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.model.io.ModelParseException;
+import org.apache.tuweni.toml.Toml;
+import org.apache.tuweni.toml.TomlParseResult;
+import org.apache.tuweni.toml.TomlTable;
+
+/**
+ * Version catalog shared by the pom.toml of a reactor, referenced by the root {@code catalog} key.
+ * <pre>
+ *     [versions]
+ *     junit = '5.11.3'
+ *
+ *     [libraries]
+ *     slf4j-api = 'org.slf4j:slf4j-api:2.0.16'
+ *     junit-api = { group = 'org.junit.jupiter', artifact = 'junit-jupiter-api', version = '@junit' }
+ *
+ *     [plugins]
+ *     exec = { module = 'org.codehaus.mojo:exec-maven-plugin', version.ref = 'exec' }
+ * </pre>
+ * A pom.toml uses {@code '@junit-api[:version]'} in place of a dependency {@code group:artifact[:version]},
+ * {@code '@exec[:version]'} in place of a plugin {@code group:artifact[:version]}, and {@code '@junit'} in place of a version.
+ * <p>
+ * A catalog is parsed once, and kept for all the modules of the reactor (and the later builds of the
+ * same Maven process) as long as the file is not modified.
+ */
+final class TomlCatalog {
+
+    private static final Map<Path, TomlCatalog> CATALOGS = new ConcurrentHashMap<>();
+
+    /**
+     * @param groupId    group id
+     * @param artifactId artifact id
+     * @param version    resolved version, optional.
+     */
+    record Coordinate(String groupId, String artifactId, String version) {
+    }
+
+    private final Path file;
+    private final FileTime modified;
+    private final long size;
+    private final Map<String, String> versions = new HashMap<>();
+    private final Map<String, Coordinate> libraries = new HashMap<>();
+    private final Map<String, Coordinate> plugins = new HashMap<>();
+
+    private TomlCatalog(Path file, FileTime modified, long size) {
+        this.file = file;
+        this.modified = modified;
+        this.size = size;
+    }
+
+    /**
+     * @param file versions.toml
+     * @return the catalog, parsed once per file content.
+     * @throws IOException
+     * @throws ModelParseException
+     */
+    static TomlCatalog load(Path file) throws IOException, ModelParseException {
+        file = file.toAbsolutePath().normalize();
+        var modified = Files.getLastModifiedTime(file);
+        var size = Files.size(file);
+
+        var cached = CATALOGS.get(file);
+        if (cached != null && cached.modified.equals(modified) && cached.size == size) {
+            return cached;
+        }
+
+        var catalog = new TomlCatalog(file, modified, size);
+        catalog.read(Toml.parse(file));
+        CATALOGS.put(file, catalog);
+        return catalog;
+    }
+
+    /**
+     * @param ref version name
+     * @return version, or {@code null} when not declared.
+     */
+    String version(String ref) {
+        return versions.get(ref);
+    }
+
+    /**
+     * @param alias library alias
+     * @return library coordinate, or {@code null} when not declared.
+     */
+    Coordinate library(String alias) {
+        return libraries.get(alias);
+    }
+
+    /**
+     * @param alias plugin alias
+     * @return plugin coordinate, or {@code null} when not declared.
+     */
+    Coordinate plugin(String alias) {
+        return plugins.get(alias);
+    }
+
+    Path file() {
+        return file;
+    }
+
+    private void read(TomlParseResult config) throws ModelParseException {
+        if (config.hasErrors()) {
+            var error = config.errors().get(0);
+            throw new ModelParseException(file + ": " + error.getMessage(), error.position().line(), error.position().column());
+        }
+
+        var table = config.getTable("versions");
+        if (table != null) {
+            for (var key : table.keySet()) {
+                var value = table.get(TomlModelBinder.path(key));
+                if (!(value instanceof String version)) {
+                    throw error("versions." + key, "String", table, key);
+                }
+                versions.put(key, version);
+            }
+        }
+
+        table = config.getTable("libraries");
+        if (table != null) {
+            for (var key : table.keySet()) {
+                libraries.put(key, readCoordinate("libraries", table, key));
+            }
+        }
+
+        table = config.getTable("plugins");
+        if (table != null) {
+            for (var key : table.keySet()) {
+                plugins.put(key, readCoordinate("plugins", table, key));
+            }
+        }
+    }
+
+    /**
+     * An entry is either {@code 'group:artifact[:version]'}, or a table of {@code group}, {@code artifact}
+     * (or {@code module = 'group:artifact'}) and {@code version} (or {@code version.ref}).
+     */
+    private Coordinate readCoordinate(String section, TomlTable config, String key) throws ModelParseException {
+        var value = config.get(TomlModelBinder.path(key));
+        String groupId = null, artifactId = null, version = null;
+        if (value instanceof String line) {
+            var parts = line.split(":");
+            if (parts.length < 2 || parts.length > 3) {
+                throw error(section + "." + key, "'group:artifact[:version]'", config, key);
+            }
+            groupId = parts[0];
+            artifactId = parts[1];
+            version = parts.length == 3 ? parts[2] : null;
+        } else if (value instanceof TomlTable table) {
+            for (var name : table.keySet()) {
+                var path = TomlModelBinder.path(name);
+                switch (TomlModelBinder.toCamelCase(name)) {
+                case "module":
+                    var parts = table.getString(path).split(":");
+                    if (parts.length != 2) {
+                        throw error(section + "." + key + ".module", "'group:artifact'", table, name);
+                    }
+                    groupId = parts[0];
+                    artifactId = parts[1];
+                    break;
+                case "group":
+                case "groupId":
+                    groupId = table.getString(path);
+                    break;
+                case "artifact":
+                case "artifactId":
+                case "name":
+                    artifactId = table.getString(path);
+                    break;
+                case "version":
+                    if (table.isTable(path)) {
+                        version = "@" + table.getTable(path).getString("ref");
+                    } else {
+                        version = table.getString(path);
+                    }
+                    break;
+                default:
+                    throw error(section + "." + key + "." + name, "group|artifact|module|version", table, name);
+                }
+            }
+        } else {
+            throw error(section + "." + key, "String|Table", config, key);
+        }
+
+        if (groupId == null || artifactId == null) {
+            throw error(section + "." + key, "group and artifact", config, key);
+        }
+        if (version != null && version.startsWith("@")) {
+            var ref = version.substring(1);
+            version = versions.get(ref);
+            if (version == null) {
+                throw error("unknown version '" + ref + "' of '" + section + "." + key + "'", config, key);
+            }
+        }
+        return new Coordinate(groupId.intern(), artifactId.intern(), version);
+    }
+
+    private ModelParseException error(String key, String expected, TomlTable config, String name) {
+        return error("'" + key + "' expects " + expected, config, name);
+    }
+
+    private ModelParseException error(String message, TomlTable config, String name) {
+        var pos = config.inputPositionOf(TomlModelBinder.path(name));
+        return new ModelParseException(file + ": " + message, pos == null ? -1 : pos.line(), pos == null ? -1 : pos.column());
+    }
+}
@@ -0,0 +1,22 @@
+package io.ast.maven.polyglot.toml;
+
+import org.apache.maven.model.Model;
+
+/**
+ * The model of one pom.toml, built in code by a class generated by {@link TomlModelCompiler}.
+ *
+ * @see TomlCompiledModels
+ */
+abstract class TomlCompiledModel {
+
+    /**
+     * @return key of the document it was compiled from, see {@link TomlModelCompiler#key}.
+     */
+    abstract String key();
+
+    /**
+     * @param locations input locations of the new model, {@code null} when not tracked.
+     * @return a new Model, as {@link TomlModelBinder} binds the document.
+     */
+    abstract Model create(TomlLocations locations);
+}
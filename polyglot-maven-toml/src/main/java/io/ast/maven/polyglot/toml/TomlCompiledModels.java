@@ -0,0 +1,114 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipFile;
+
+import org.apache.maven.model.Model;
+
+/**
+ * A jar of models compiled by {@link TomlModelCompiler}, as configured by {@link TomlOptions#MODELS}.
+ * <p>
+ * The class of a model is named after the key of its document, so it is only looked up, and defined in this
+ * package, when a pom.toml of the same content is read. The classes are hidden ones, held by the jar they are
+ * read from: a jar written again is opened again, and the models of the replaced one are unloaded with it.
+ */
+final class TomlCompiledModels {
+
+    private static final Map<Path, TomlCompiledModels> JARS = new ConcurrentHashMap<>();
+
+    private final Path jar;
+    private final FileTime modified;
+    private final ZipFile zip;
+
+    /**
+     * the models of the jar defined so far, by key.
+     */
+    private final Map<String, TomlCompiledModel> models = new ConcurrentHashMap<>();
+
+    private TomlCompiledModels(Path jar, FileTime modified) throws IOException {
+        this.jar = jar;
+        this.modified = modified;
+        this.zip = new ZipFile(jar.toFile());
+    }
+
+    /**
+     * @param options reading options
+     * @return the jar of {@link TomlOptions#MODELS}, {@code null} when it is not set or cannot be read.
+     */
+    static TomlCompiledModels of(TomlOptions options) {
+        var jar = options.models;
+        if (jar == null) return null;
+        try {
+            var modified = Files.getLastModifiedTime(jar);
+            var ret = JARS.get(jar);
+            if (ret != null && ret.modified.equals(modified)) return ret;
+
+            var opened = new TomlCompiledModels(jar, modified);
+            if (ret != null && JARS.replace(jar, ret, opened) || ret == null && JARS.putIfAbsent(jar, opened) == null) {
+                if (ret != null) ret.close();
+                return opened;
+            }
+            opened.close();
+            return JARS.get(jar);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.out.println(new TomlDiagnostic(jar, TomlDiagnostic.Severity.WARNING, "Cannot read the compiled models: " + e.getMessage(), -1, -1));
+            return null;
+        }
+    }
+
+    /**
+     * @param key     key of the document, from {@link TomlModelCompiler#key}.
+     * @param options reading options
+     * @return a new Model of the document, {@code null} when it is not compiled.
+     */
+    Model create(String key, TomlOptions options) {
+        var model = models.get(key);
+        if (model == null) {
+            model = define(key);
+            if (model == null) return null;
+        }
+        return model.create(options.inputSource != null ? new TomlLocations(options.inputSource) : null);
+    }
+
+    private TomlCompiledModel define(String key) {
+        var name = TomlModelCompiler.CLASS_PREFIX + key;
+        try {
+            var entry = zip.getEntry(TomlCompiledModel.class.getPackageName().replace('.', '/') + "/" + name + ".class");
+            if (entry == null) return null;
+            byte[] bytes;
+            try (var in = zip.getInputStream(entry)) {
+                bytes = in.readAllBytes();
+            }
+            return models.computeIfAbsent(key, k -> {
+                try {
+                    var type = MethodHandles.lookup().defineHiddenClass(bytes, true).lookupClass();
+                    var ret = (TomlCompiledModel) type.getDeclaredConstructor().newInstance();
+                    return ret.key().equals(k) ? ret : null;
+                } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+                    System.out.println(new TomlDiagnostic(jar, TomlDiagnostic.Severity.WARNING, "Cannot load " + name + ": " + e, -1, -1));
+                    return null;
+                }
+            });
+        } catch (IOException | IllegalStateException e) {
+            // closed by a concurrent reopening, read as usual
+            return null;
+        }
+    }
+
+    private void close() {
+        try {
+            zip.close();
+        } catch (IOException e) {
+            // read only
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.ModelParseException;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * Convert the pom.xml files of whole trees to pom.toml.
+ * <pre>
+ *     java -cp ... io.ast.maven.polyglot.toml.TomlConverter [--check] [--force] [--threads N] [--name pom.xml] dir...
+ * </pre>
+ * Each pom.xml is written with {@link TomlModelWriter}, and the TOML is read back and compared to the XML
+ * model; a pom.toml is written next to the pom.xml only when they are equal. With {@code --check} nothing is
+ * written, so it reports the POMs which do not convert. The trees are walked lazily and at most twice as many
+ * files as threads are in memory at once.
+ */
+public final class TomlConverter {
+
+    private final boolean check;
+    private final boolean force;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+
+    private final AtomicLong converted = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    private TomlConverter(boolean check, boolean force, int threads) {
+        this.check = check;
+        this.force = force;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.inFlight = new Semaphore(threads * 2);
+    }
+
+    public static void main(String[] args) throws Exception {
+        var check = false;
+        var force = false;
+        var threads = Runtime.getRuntime().availableProcessors();
+        var name = "pom.xml";
+        var dirs = new ArrayList<Path>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--check":
+                check = true;
+                break;
+            case "--force":
+                force = true;
+                break;
+            case "--threads":
+                threads = Math.max(1, Integer.parseInt(args[++i]));
+                break;
+            case "--name":
+                name = args[++i];
+                break;
+            default:
+                if (args[i].startsWith("--")) {
+                    System.err.println("Usage: TomlConverter [--check] [--force] [--threads N] [--name pom.xml] dir...");
+                    System.exit(2);
+                }
+                dirs.add(Path.of(args[i]));
+            }
+        }
+        if (dirs.isEmpty()) {
+            dirs.add(Path.of("."));
+        }
+
+        var converter = new TomlConverter(check, force, threads);
+        var start = System.nanoTime();
+        try {
+            for (var dir : dirs) {
+                converter.convertTree(dir, name);
+            }
+        } finally {
+            converter.executor.shutdown();
+            converter.executor.awaitTermination(1, TimeUnit.DAYS);
+        }
+        var seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+        var files = converter.converted.get() + converter.failed.get();
+        System.out.printf("%s %d, skipped %d, failed %d in %.2f s (%.0f files/s, %.2f MB/s)%n",
+          check ? "Checked" : "Converted", converter.converted.get(), converter.skipped.get(), converter.failed.get(),
+          seconds, files / seconds, converter.bytes.get() / seconds / (1024 * 1024));
+        System.exit(converter.failed.get() == 0 ? 0 : 1);
+    }
+
+    private void convertTree(Path dir, String name) throws IOException, InterruptedException {
+        try (var paths = Files.walk(dir)) {
+            var it = paths.filter(p -> p.getFileName() != null && p.getFileName().toString().equals(name)).iterator();
+            while (it.hasNext()) {
+                var pom = it.next();
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        convert(pom);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void convert(Path pom) {
+        var target = pom.resolveSibling("pom.toml");
+        if (!check && !force && Files.exists(target)) {
+            skipped.incrementAndGet();
+            System.out.println(pom + ": skipped, " + target.getFileName() + " exists");
+            return;
+        }
+
+        try {
+            var xml = Files.readAllBytes(pom);
+            bytes.addAndGet(xml.length);
+            var model = new MavenXpp3Reader().read(new ByteArrayInputStream(xml), false);
+
+            var toml = new StringWriter(xml.length);
+            new TomlModelWriter().write(toml, null, model);
+
+            var diagnostics = new ArrayList<TomlDiagnostic>();
+            var read = new TomlModelBinder(null, TomlOptions.of(Map.of()), null, diagnostics::add)
+              .readToml(new StringReader(toml.toString()));
+            var difference = difference(model, read);
+            if (difference != null) {
+                failed.incrementAndGet();
+                System.out.println(pom + ": does not round-trip, " + difference);
+                return;
+            }
+            for (var diagnostic : diagnostics) {
+                System.out.println(pom + ": " + diagnostic);
+            }
+
+            if (!check) {
+                Files.writeString(target, toml.toString(), StandardCharsets.UTF_8);
+            }
+            converted.incrementAndGet();
+        } catch (IOException | XmlPullParserException | RuntimeException e) {
+            failed.incrementAndGet();
+            var line = e instanceof ModelParseException mpe ? " at line " + mpe.getLineNumber() : "";
+            System.out.println(pom + ": " + e.getMessage() + line);
+        }
+    }
+
+    /**
+     * @return the first difference between the XML forms of {@code expected} and {@code actual}, {@code null} when
+     * there is none. The properties are compared by content, as their XML order is not kept, and the encoding
+     * is not compared.
+     */
+    static String difference(Model expected, Model actual) throws IOException {
+        if (!expected.getProperties().equals(actual.getProperties())) {
+            var missing = new TreeMap<>(expected.getProperties());
+            missing.entrySet().removeAll(actual.getProperties().entrySet());
+            return "properties differ: " + missing;
+        }
+
+        var left = xml(expected).split("\n");
+        var right = xml(actual).split("\n");
+        for (int i = 0; i < Math.max(left.length, right.length); i++) {
+            var l = i < left.length ? left[i].strip() : "<end>";
+            var r = i < right.length ? right[i].strip() : "<end>";
+            if (!l.equals(r)) {
+                return "line " + (i + 1) + ": expected " + l + " but was " + r;
+            }
+        }
+        return null;
+    }
+
+    private static String xml(Model model) throws IOException {
+        model = model.clone();
+        model.setProperties(new Properties());
+        model.setModelEncoding("UTF-8");
+        var ret = new StringWriter();
+        new MavenXpp3Writer().write(ret, model);
+        return ret.toString();
+    }
+}
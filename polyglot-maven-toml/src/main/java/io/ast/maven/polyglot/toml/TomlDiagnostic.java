@@ -0,0 +1,29 @@
+package io.ast.maven.polyglot.toml;
+
+import java.nio.file.Path;
+
+/**
+ * A problem found while reading a pom.toml.
+ *
+ * @param source   pom file, {@code null} when reading from a stream.
+ * @param severity severity
+ * @param message  message
+ * @param line     line number, or -1 if unknown.
+ * @param column   column number, or -1 if unknown.
+ */
+public record TomlDiagnostic(Path source, Severity severity, String message, int line, int column) {
+
+    public enum Severity {
+        WARNING, ERROR
+    }
+
+    public boolean isError() {
+        return severity == Severity.ERROR;
+    }
+
+    @Override
+    public String toString() {
+        var ret = message + " @ line:" + line + ", col:" + column;
+        return source == null ? ret : source + ": " + ret;
+    }
+}
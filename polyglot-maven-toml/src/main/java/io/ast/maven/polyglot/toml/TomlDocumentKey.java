@@ -0,0 +1,90 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+
+import org.apache.maven.model.Model;
+
+/**
+ * Key of the model read from a pom.toml, which names it in the {@link TomlModelCache} and the jar of
+ * {@link TomlModelCompiler}.
+ * <p>
+ * It is the digest of the document, its lock file, the reading options which change the model, the system
+ * properties it references when interpolated, and the versions of the extension and of the Maven model. The path
+ * of the pom.toml is left out, so a project checked out twice gets the same key.
+ */
+final class TomlDocumentKey {
+
+    /**
+     * version of the extension.
+     */
+    static final String VERSION = version();
+
+    private TomlDocumentKey() {
+    }
+
+    /**
+     * @param format   format of the keyed entries, and the options only its user depends on.
+     * @param pom      pom file, the location of the lock file.
+     * @param options  reading options
+     * @param document content of {@code pom}
+     * @return key of the model read from {@code document}, as 64 hexadecimal digits.
+     * @throws IOException when the lock file cannot be read.
+     */
+    static String of(String format, Path pom, TomlOptions options, String document) throws IOException {
+        var digest = sha256();
+        var header = new StringBuilder().append(format)
+          .append('\0').append(VERSION)
+          .append('\0').append(Model.class.getPackage().getImplementationVersion())
+          .append('\0').append(options.lock).append(',').append(options.interpolate)
+          .append(',').append(options.maxFileSize).append(',').append(options.maxDepth)
+          .append(',').append(options.maxArrayLength).append(',').append(options.maxStringLength)
+          .append('\0');
+        if (options.interpolate) {
+            header.append(String.join(",", TomlInterpolator.external(document))).append('\0');
+        }
+        digest.update(header.toString().getBytes(StandardCharsets.UTF_8));
+        digest.update(document.getBytes(StandardCharsets.UTF_8));
+        if (options.lock) {
+            try {
+                var lock = Files.readAllBytes(pom.resolveSibling(TomlLockfile.FILE_NAME));
+                digest.update((byte) 0);
+                digest.update(lock);
+            } catch (NoSuchFileException e) {
+                // no lock file
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the version of the extension, from its jar.
+     */
+    private static String version() {
+        try (var in = TomlDocumentKey.class.getResourceAsStream("/META-INF/maven/io.ast.polyglot-maven/maven-polyglot-toml/pom.properties")) {
+            if (in != null) {
+                var properties = new Properties();
+                properties.load(in);
+                return properties.getProperty("version");
+            }
+        } catch (IOException e) {
+            // unknown
+        }
+        return String.valueOf(TomlDocumentKey.class.getPackage().getImplementationVersion());
+    }
+}
@@ -0,0 +1,262 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lexical pre-scanner which keeps only the {@code [project]} and {@code [parent]} tables of a pom.toml.
+ * <p>
+ * Every other table is skipped character by character without building any value. Skipped content
+ * is replaced by its line breaks, so positions reported by the parser still match the original file.
+ * Scanning stops at the first other table following the project table, so a {@code [parent]} table is only
+ * found before it or right after it, where {@link TomlModelWriter} writes it.
+ */
+final class TomlHeaderScanner {
+
+    private static final int EOF = -1;
+
+    private final Reader input;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+    private final StringBuilder output = new StringBuilder(1024);
+    private boolean keep = true;
+    private boolean seenProject;
+
+    private TomlHeaderScanner(Reader input) {
+        this.input = input;
+    }
+
+    /**
+     * @param input pom input reader
+     * @return toml content which only contains root keys, project and parent tables.
+     * @throws IOException
+     */
+    static String scan(Reader input) throws IOException {
+        var scanner = new TomlHeaderScanner(input);
+        scanner.scanDocument();
+        return scanner.output.toString();
+    }
+
+    private void scanDocument() throws IOException {
+        int c;
+        while ((c = peek(0)) != EOF) {
+            switch (c) {
+            case ' ':
+            case '\t':
+                emit(next());
+                break;
+            case '\r':
+            case '\n':
+                newline(next());
+                break;
+            case '#':
+                skipComment();
+                break;
+            case '[':
+                if (!scanTableHeader()) {
+                    return;
+                }
+                break;
+            default:
+                scanKeyValue();
+            }
+        }
+    }
+
+    /**
+     * @return {@code false} when the rest of document could be skipped.
+     */
+    private boolean scanTableHeader() throws IOException {
+        var header = new StringBuilder();
+        int c;
+        while ((c = peek(0)) != EOF && c != '\n' && c != '\r' && c != '#') {
+            if (c == '"' || c == '\'') {
+                next();
+                header.append((char) c);
+                int d;
+                while ((d = next()) != EOF && d != c && d != '\n') {
+                    header.append((char) d);
+                    if (d == '\\' && c == '"' && peek(0) != EOF) {
+                        header.append((char) next());
+                    }
+                }
+                header.append((char) c);
+            } else {
+                header.append((char) next());
+            }
+        }
+
+        var table = tableName(header);
+        var inProject = "project".equals(table[0]);
+        var inParent = "parent".equals(table[0]) || (inProject && "parent".equals(table[1]));
+        if (!inProject && !inParent && seenProject) {
+            return false;
+        }
+
+        seenProject |= inProject;
+        keep = inProject || inParent;
+        if (keep) {
+            output.append(header);
+        }
+        return true;
+    }
+
+    /**
+     * @param header table header, including brackets
+     * @return first two (unquoted, camel-cased) segments of the table name.
+     */
+    private static String[] tableName(CharSequence header) {
+        var ret = new String[2];
+        var segment = new StringBuilder();
+        int index = 0;
+        char quote = 0;
+        for (int i = 0; i < header.length() && index < ret.length; i++) {
+            var c = header.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    segment.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '.' || c == ']') {
+                ret[index++] = TomlModelBinder.toCamelCase(segment.toString());
+                segment.setLength(0);
+                if (c == ']') break;
+            } else if (c != '[' && c != ' ' && c != '\t') {
+                segment.append(c);
+            }
+        }
+        return ret;
+    }
+
+    private void scanKeyValue() throws IOException {
+        int depth = 0;
+        int c;
+        while ((c = peek(0)) != EOF) {
+            switch (c) {
+            case '\r':
+            case '\n':
+                if (depth == 0) {
+                    return;
+                }
+                newline(next());
+                break;
+            case '#':
+                skipComment();
+                break;
+            case '"':
+            case '\'':
+                scanString((char) c);
+                break;
+            case '[':
+            case '{':
+                depth++;
+                emit(next());
+                break;
+            case ']':
+            case '}':
+                depth--;
+                emit(next());
+                break;
+            default:
+                emit(next());
+            }
+        }
+    }
+
+    private void scanString(char quote) throws IOException {
+        var multiline = peek(1) == quote && peek(2) == quote;
+        if (multiline) {
+            emit(next());
+            emit(next());
+        }
+        emit(next());
+
+        int c;
+        while ((c = next()) != EOF) {
+            if (c == quote) {
+                if (!multiline) {
+                    emit(c);
+                    return;
+                } else if (peek(0) == quote && peek(1) == quote) {
+                    emit(c);
+                    emit(next());
+                    emit(next());
+                    // a multi-line string may end with up to two additional quotes
+                    while (peek(0) == quote) {
+                        emit(next());
+                    }
+                    return;
+                }
+                emit(c);
+            } else if (c == '\\' && quote == '"') {
+                emit(c);
+                var d = next();
+                if (d == '\n' || d == '\r') {
+                    newline(d);
+                } else if (d != EOF) {
+                    emit(d);
+                }
+            } else if (c == '\n' || c == '\r') {
+                newline(c);
+                if (!multiline) return;
+            } else {
+                emit(c);
+            }
+        }
+    }
+
+    private void skipComment() throws IOException {
+        int c;
+        while ((c = peek(0)) != EOF && c != '\n' && c != '\r') {
+            next();
+        }
+    }
+
+    private void emit(int c) {
+        if (keep) {
+            output.append((char) c);
+        }
+    }
+
+    private void newline(int c) {
+        output.append((char) c);
+    }
+
+    private int next() throws IOException {
+        if (position >= limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position++];
+    }
+
+    private int peek(int offset) throws IOException {
+        while (position + offset >= limit) {
+            if (!fill()) {
+                return EOF;
+            }
+        }
+        return buffer[position + offset];
+    }
+
+    private boolean fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            return false;
+        }
+        var read = input.read(buffer, limit, buffer.length - limit);
+        if (read <= 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+}
@@ -0,0 +1,378 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.model.io.ModelParseException;
+import org.apache.tuweni.toml.Toml;
+import org.apache.tuweni.toml.TomlArray;
+import org.apache.tuweni.toml.TomlParseResult;
+import org.apache.tuweni.toml.TomlPosition;
+import org.apache.tuweni.toml.TomlTable;
+
+/**
+ * Resolve the root {@code include} key of a pom.toml, before binding.
+ * <pre>
+ *     include = ['../shared/test-deps.toml', '../shared/plugins.toml']
+ * </pre>
+ * Fragments are merged in order, then the including document is merged over them: tables are merged key by key,
+ * arrays are concatenated (fragment items first), and any other value of the including document wins.
+ * Paths are relative to the including file, and a fragment may include other fragments.
+ * <p>
+ * A fragment is parsed once for all the modules of the reactor. It is re-read when its modification time or size
+ * changes, and only re-parsed when its content hash changes; identical fragments share one parsed table, which
+ * is dropped once no fragment file has its content any more. Positions of merged values refer to the fragment
+ * they come from.
+ */
+final class TomlIncludes {
+
+    /**
+     * the fragment files read, and the parsed tables by content hash, shared by the files of the same content.
+     */
+    static final Map<Path, Fragment> FRAGMENTS = new ConcurrentHashMap<>();
+    static final Map<String, TomlTable> PARSED = new ConcurrentHashMap<>();
+
+    /**
+     * @param table    parsed fragment
+     * @param modified file modification time when parsed
+     * @param size     file size when parsed
+     * @param hash     content hash
+     */
+    record Fragment(TomlTable table, FileTime modified, long size, String hash) {
+    }
+
+    private TomlIncludes() {
+    }
+
+    /**
+     * @param config POM toml
+     * @param source pom file, optional; includes are relative to its directory.
+     * @param limits limits of the read, which each fragment is read within.
+     * @return {@code config} merged over its included fragments, or {@code config} when it includes nothing.
+     * @throws IOException
+     * @throws ModelParseException when a fragment is missing, invalid or includes itself.
+     */
+    static TomlTable resolve(TomlTable config, Path source, TomlLimits limits) throws IOException, ModelParseException {
+        if (!config.contains(TomlModelBinder.path("include"))) {
+            return config;
+        }
+        var file = source != null ? source.toAbsolutePath().normalize() : Path.of("pom.toml").toAbsolutePath();
+        return resolve(config, file, limits, new ArrayDeque<>());
+    }
+
+    private static TomlTable resolve(TomlTable config, Path file, TomlLimits limits, Deque<Path> stack) throws IOException, ModelParseException {
+        var key = TomlModelBinder.path("include");
+        var value = config.get(key);
+        if (value == null) {
+            return config;
+        }
+
+        var pos = config.inputPositionOf(key);
+        var includes = new ArrayList<String>();
+        if (value instanceof String include) {
+            includes.add(include);
+        } else if (value instanceof TomlArray array && (array.isEmpty() || array.containsStrings())) {
+            for (int i = 0; i < array.size(); i++) {
+                includes.add(array.getString(i));
+            }
+        } else {
+            throw error(file, "'include' expects a path or an array of paths", pos);
+        }
+
+        stack.push(file);
+        try {
+            TomlTable ret = null;
+            for (var include : includes) {
+                var fragmentFile = file.resolveSibling(include).normalize();
+                if (stack.contains(fragmentFile)) {
+                    var cycle = new StringBuilder();
+                    stack.descendingIterator().forEachRemaining(p -> cycle.append(p).append(" -> "));
+                    throw error(file, "Include cycle: " + cycle + fragmentFile, pos);
+                }
+
+                var fragment = resolve(load(fragmentFile, file, pos, limits), fragmentFile, limits, stack);
+                ret = ret == null ? fragment : merge(ret, fragment);
+            }
+            return ret == null ? config : merge(ret, new MergedTable(config, key));
+        } finally {
+            stack.pop();
+        }
+    }
+
+    /**
+     * @return parsed fragment, from the cache when its content did not change.
+     */
+    private static TomlTable load(Path file, Path includer, TomlPosition pos, TomlLimits limits) throws IOException, ModelParseException {
+        FileTime modified;
+        long size;
+        try {
+            modified = Files.getLastModifiedTime(file);
+            size = Files.size(file);
+        } catch (NoSuchFileException e) {
+            forget(FRAGMENTS.remove(file));
+            throw error(includer, "Included file not found: " + file, pos);
+        }
+
+        var cached = FRAGMENTS.get(file);
+        if (cached != null && cached.modified().equals(modified) && cached.size() == size) {
+            return cached.table();
+        }
+
+        var content = Files.readAllBytes(file);
+        var hash = hash(content);
+        var table = PARSED.get(hash);
+        if (table == null) {
+            TomlParseResult parsed;
+            try {
+                parsed = Toml.parse(limits.limit(new StringReader(new String(content, StandardCharsets.UTF_8))));
+            } catch (ModelParseException e) {
+                throw new ModelParseException(file + ": " + e.getMessage(), e.getLineNumber(), e.getColumnNumber());
+            }
+            if (parsed.hasErrors()) {
+                var error = parsed.errors().get(0);
+                throw error(file, error.getMessage(), error.position());
+            }
+            table = parsed;
+            PARSED.put(hash, table);
+        }
+        var replaced = FRAGMENTS.put(file, new Fragment(table, modified, size, hash));
+        if (replaced != null && !replaced.hash().equals(hash)) {
+            forget(replaced);
+        }
+        return table;
+    }
+
+    /**
+     * drop the parsed table of a fragment no longer read, unless another fragment file has the same content.
+     */
+    private static void forget(Fragment fragment) {
+        if (fragment == null) return;
+        for (var other : FRAGMENTS.values()) {
+            if (other.hash().equals(fragment.hash())) return;
+        }
+        PARSED.remove(fragment.hash(), fragment.table());
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ModelParseException error(Path file, String message, TomlPosition pos) {
+        return new ModelParseException(file + ": " + message, pos == null ? -1 : pos.line(), pos == null ? -1 : pos.column());
+    }
+
+    /**
+     * @return {@code overlay} merged over {@code base}.
+     */
+    private static TomlTable merge(TomlTable base, TomlTable overlay) {
+        var ret = new MergedTable(base, null);
+        for (var key : overlay.keySet()) {
+            var path = TomlModelBinder.path(key);
+            var value = overlay.get(path);
+            var old = ret.values.get(key);
+            if (old instanceof TomlTable table && value instanceof TomlTable add) {
+                value = merge(table, add);
+            } else if (old instanceof TomlArray array && value instanceof TomlArray add) {
+                value = new MergedArray(array, add);
+            }
+            ret.values.put(key, value);
+            ret.positions.put(key, overlay.inputPositionOf(path));
+        }
+        return ret;
+    }
+
+    /**
+     * Table of merged values. The values themselves are shared with the merged tables.
+     */
+    private static final class MergedTable implements TomlTable {
+        private final Map<String, Object> values = new LinkedHashMap<>();
+        private final Map<String, TomlPosition> positions = new HashMap<>();
+
+        /**
+         * @param table   copied table
+         * @param exclude key which is not copied, optional.
+         */
+        MergedTable(TomlTable table, List<String> exclude) {
+            for (var key : table.keySet()) {
+                var path = TomlModelBinder.path(key);
+                if (!path.equals(exclude)) {
+                    values.put(key, table.get(path));
+                    positions.put(key, table.inputPositionOf(path));
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return values.isEmpty();
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return values.keySet();
+        }
+
+        @Override
+        public Set<List<String>> keyPathSet(boolean includeTables) {
+            var ret = new LinkedHashSet<List<String>>();
+            for (var entry : values.entrySet()) {
+                var key = TomlModelBinder.path(entry.getKey());
+                if (entry.getValue() instanceof TomlTable table) {
+                    if (includeTables) {
+                        ret.add(key);
+                    }
+                    for (var path : table.keyPathSet(includeTables)) {
+                        var sub = new ArrayList<String>(path.size() + 1);
+                        sub.addAll(key);
+                        sub.addAll(path);
+                        ret.add(sub);
+                    }
+                } else {
+                    ret.add(key);
+                }
+            }
+            return ret;
+        }
+
+        @Override
+        public Object get(List<String> path) {
+            if (path.isEmpty()) return this;
+            var value = values.get(path.get(0));
+            if (path.size() == 1) return value;
+            return value instanceof TomlTable table ? table.get(path.subList(1, path.size())) : null;
+        }
+
+        @Override
+        public TomlPosition inputPositionOf(List<String> path) {
+            if (path.isEmpty()) return TomlPosition.positionAt(1, 1);
+            if (path.size() == 1) return positions.get(path.get(0));
+            var value = values.get(path.get(0));
+            return value instanceof TomlTable table ? table.inputPositionOf(path.subList(1, path.size())) : null;
+        }
+
+        @Override
+        public Map<String, Object> toMap() {
+            var ret = new LinkedHashMap<String, Object>();
+            for (var entry : values.entrySet()) {
+                ret.put(entry.getKey(), toJava(entry.getValue()));
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * Concatenation of two arrays.
+     */
+    private static final class MergedArray implements TomlArray {
+        private final TomlArray first;
+        private final TomlArray second;
+
+        MergedArray(TomlArray first, TomlArray second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int size() {
+            return first.size() + second.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return first.isEmpty() && second.isEmpty();
+        }
+
+        @Override
+        public boolean containsStrings() {
+            return first.containsStrings() || second.containsStrings();
+        }
+
+        @Override
+        public boolean containsLongs() {
+            return first.containsLongs() || second.containsLongs();
+        }
+
+        @Override
+        public boolean containsDoubles() {
+            return first.containsDoubles() || second.containsDoubles();
+        }
+
+        @Override
+        public boolean containsBooleans() {
+            return first.containsBooleans() || second.containsBooleans();
+        }
+
+        @Override
+        public boolean containsOffsetDateTimes() {
+            return first.containsOffsetDateTimes() || second.containsOffsetDateTimes();
+        }
+
+        @Override
+        public boolean containsLocalDateTimes() {
+            return first.containsLocalDateTimes() || second.containsLocalDateTimes();
+        }
+
+        @Override
+        public boolean containsLocalDates() {
+            return first.containsLocalDates() || second.containsLocalDates();
+        }
+
+        @Override
+        public boolean containsLocalTimes() {
+            return first.containsLocalTimes() || second.containsLocalTimes();
+        }
+
+        @Override
+        public boolean containsArrays() {
+            return first.containsArrays() || second.containsArrays();
+        }
+
+        @Override
+        public boolean containsTables() {
+            return first.containsTables() || second.containsTables();
+        }
+
+        @Override
+        public Object get(int index) {
+            return index < first.size() ? first.get(index) : second.get(index - first.size());
+        }
+
+        @Override
+        public TomlPosition inputPositionOf(int index) {
+            return index < first.size() ? first.inputPositionOf(index) : second.inputPositionOf(index - first.size());
+        }
+
+        @Override
+        public List<Object> toList() {
+            var ret = new ArrayList<Object>(size());
+            for (int i = 0; i < size(); i++) {
+                ret.add(toJava(get(i)));
+            }
+            return ret;
+        }
+    }
+
+    private static Object toJava(Object value) {
+        if (value instanceof TomlTable table) return table.toMap();
+        if (value instanceof TomlArray array) return array.toList();
+        return value;
+    }
+}
@@ -0,0 +1,334 @@
+package io.ast.maven.polyglot.toml;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.model.io.ModelParseException;
+import org.apache.tuweni.toml.TomlArray;
+import org.apache.tuweni.toml.TomlPosition;
+import org.apache.tuweni.toml.TomlTable;
+
+/**
+ * Resolve the {@code ${...}} references to the properties of the same pom.toml while binding it.
+ * <pre>
+ *     [properties]
+ *     junit.version = '5.11.3'
+ *     junit.bom = 'org.junit:junit-bom:${junit.version}'
+ * </pre>
+ * The properties are resolved once, with their cycles reported as a parse error. The document is then bound
+ * through a view which returns its strings with the local references replaced, so fewer expressions are left
+ * to the Maven interpolation. References to {@code project.*}, {@code pom.*}, {@code env.*}, undefined
+ * properties and properties given externally (such as {@code -Dname=value}) are left to Maven.
+ * <p>
+ * As the references are resolved before inheritance, a child module or a profile cannot redefine a property
+ * used by this document; so it is only enabled by {@link TomlOptions#INTERPOLATE}.
+ */
+final class TomlInterpolator {
+
+    private final Map<String, String> properties = new HashMap<>();
+    private final Map<String, TomlPosition> positions = new HashMap<>();
+    private final Map<String, String> resolved = new HashMap<>();
+    private final Map<String, String> interpolated = new ConcurrentHashMap<>();
+    private final Map<Object, Object> views = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private TomlInterpolator() {
+    }
+
+    /**
+     * @param config POM toml
+     * @return a view of {@code config} with its local property references resolved, or {@code config} when it
+     * defines no property.
+     * @throws ModelParseException on a property cycle.
+     */
+    static TomlTable interpolate(TomlTable config) throws ModelParseException {
+        var interpolator = new TomlInterpolator();
+        for (var key : List.of("properties", "property")) {
+            if (config.isTable(key)) {
+                interpolator.flatten(config.getTable(key), "");
+            }
+        }
+        if (interpolator.properties.isEmpty()) {
+            return config;
+        }
+
+        for (var name : interpolator.properties.keySet()) {
+            interpolator.resolve(name, new ArrayDeque<>());
+        }
+        return interpolator.new Table(config);
+    }
+
+    /**
+     * @param document POM toml
+     * @return the names referenced by {@code document} which are set as system properties, sorted: the references
+     * it leaves to Maven whatever the document defines, so part of the keys of the cached and compiled models.
+     */
+    static SortedSet<String> external(String document) {
+        var ret = new TreeSet<String>();
+        for (int start = document.indexOf("${"); start >= 0; start = document.indexOf("${", start + 2)) {
+            var end = document.indexOf('}', start + 2);
+            if (end < 0) break;
+            var name = document.substring(start + 2, end);
+            if (System.getProperty(name) != null) {
+                ret.add(name);
+            }
+        }
+        return ret;
+    }
+
+    private void flatten(TomlTable config, String prefix) {
+        for (var key : config.keySet()) {
+            var path = TomlModelBinder.path(key);
+            var value = config.get(path);
+            if (value instanceof TomlTable table) {
+                flatten(table, prefix + key + ".");
+            } else if (value instanceof String || value instanceof Boolean || value instanceof Number) {
+                properties.put(prefix + key, value.toString());
+                positions.put(prefix + key, config.inputPositionOf(path));
+            }
+        }
+    }
+
+    /**
+     * @return is {@code name} a property of this document which can be resolved before Maven.
+     */
+    private boolean isLocal(String name) {
+        return properties.containsKey(name)
+          && !name.startsWith("project.") && !name.startsWith("pom.") && !name.startsWith("env.")
+          && System.getProperty(name) == null;
+    }
+
+    /**
+     * @param name  property name
+     * @param stack properties being resolved, to detect cycles.
+     * @return resolved value of property {@code name}, memoized.
+     */
+    private String resolve(String name, Deque<String> stack) throws ModelParseException {
+        var ret = resolved.get(name);
+        if (ret != null) {
+            return ret;
+        }
+        if (stack.contains(name)) {
+            var cycle = new StringBuilder();
+            stack.descendingIterator().forEachRemaining(p -> cycle.append(p).append(" -> "));
+            var pos = positions.get(name);
+            throw new ModelParseException("Property cycle: " + cycle + name,
+              pos == null ? -1 : pos.line(), pos == null ? -1 : pos.column());
+        }
+
+        stack.push(name);
+        try {
+            ret = substitute(properties.get(name), stack);
+        } finally {
+            stack.pop();
+        }
+        resolved.put(name, ret);
+        return ret;
+    }
+
+    /**
+     * @param value string holding {@code ${...}} references
+     * @param stack properties being resolved, or {@code null} once all are resolved.
+     * @return {@code value} with the local references replaced.
+     */
+    private String substitute(String value, Deque<String> stack) throws ModelParseException {
+        var start = value.indexOf("${");
+        if (start < 0) {
+            return value;
+        }
+
+        var ret = new StringBuilder(value.length());
+        int from = 0;
+        while (start >= 0) {
+            var end = value.indexOf('}', start + 2);
+            if (end < 0) break;
+
+            var name = value.substring(start + 2, end);
+            ret.append(value, from, start);
+            if (isLocal(name)) {
+                ret.append(stack != null ? resolve(name, stack) : resolved.get(name));
+            } else {
+                ret.append(value, start, end + 1);
+            }
+            from = end + 1;
+            start = value.indexOf("${", from);
+        }
+        return ret.append(value, from, value.length()).toString();
+    }
+
+    /**
+     * @return {@code value} with the local references replaced, memoized.
+     */
+    private String interpolate(String value) {
+        if (value.indexOf("${") < 0) {
+            return value;
+        }
+        return interpolated.computeIfAbsent(value, v -> {
+            try {
+                return substitute(v, null);
+            } catch (ModelParseException e) {
+                // all the properties are resolved already
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * @return the interpolated view of a toml value, the same instance for each table or array.
+     */
+    private Object view(Object value) {
+        if (value instanceof String string) {
+            return interpolate(string);
+        } else if (value instanceof TomlTable table) {
+            return views.computeIfAbsent(table, t -> new Table((TomlTable) t));
+        } else if (value instanceof TomlArray array) {
+            return views.computeIfAbsent(array, a -> new Array((TomlArray) a));
+        }
+        return value;
+    }
+
+    private static Object toJava(Object value) {
+        if (value instanceof TomlTable table) return table.toMap();
+        if (value instanceof TomlArray array) return array.toList();
+        return value;
+    }
+
+    /**
+     * Interpolated view of a table.
+     */
+    private final class Table implements TomlTable {
+        private final TomlTable table;
+
+        Table(TomlTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public int size() {
+            return table.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return table.isEmpty();
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return table.keySet();
+        }
+
+        @Override
+        public Set<List<String>> keyPathSet(boolean includeTables) {
+            return table.keyPathSet(includeTables);
+        }
+
+        @Override
+        public Object get(List<String> path) {
+            return view(table.get(path));
+        }
+
+        @Override
+        public TomlPosition inputPositionOf(List<String> path) {
+            return table.inputPositionOf(path);
+        }
+
+        @Override
+        public Map<String, Object> toMap() {
+            var ret = new LinkedHashMap<String, Object>();
+            for (var key : table.keySet()) {
+                ret.put(key, toJava(get(TomlModelBinder.path(key))));
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * Interpolated view of an array.
+     */
+    private final class Array implements TomlArray {
+        private final TomlArray array;
+
+        Array(TomlArray array) {
+            this.array = array;
+        }
+
+        @Override
+        public int size() {
+            return array.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return array.isEmpty();
+        }
+
+        @Override
+        public boolean containsStrings() {
+            return array.containsStrings();
+        }
+
+        @Override
+        public boolean containsLongs() {
+            return array.containsLongs();
+        }
+
+        @Override
+        public boolean containsDoubles() {
+            return array.containsDoubles();
+        }
+
+        @Override
+        public boolean containsBooleans() {
+            return array.containsBooleans();
+        }
+
+        @Override
+        public boolean containsOffsetDateTimes() {
+            return array.containsOffsetDateTimes();
+        }
+
+        @Override
+        public boolean containsLocalDateTimes() {
+            return array.containsLocalDateTimes();
+        }
+
+        @Override
+        public boolean containsLocalDates() {
+            return array.containsLocalDates();
+        }
+
+        @Override
+        public boolean containsLocalTimes() {
+            return array.containsLocalTimes();
+        }
+
+        @Override
+        public boolean containsArrays() {
+            return array.containsArrays();
+        }
+
+        @Override
+        public boolean containsTables() {
+            return array.containsTables();
+        }
+
+        @Override
+        public Object get(int index) {
+            return view(array.get(index));
+        }
+
+        @Override
+        public TomlPosition inputPositionOf(int index) {
+            return array.inputPositionOf(index);
+        }
+
+        @Override
+        public List<Object> toList() {
+            var ret = new ArrayList<Object>(size());
+            for (int i = 0; i < size(); i++) {
+                ret.add(toJava(get(i)));
+            }
+            return ret;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.ObjectStreamException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.model.*;
+import org.apache.maven.model.io.ModelParseException;
+
+/**
+ * A Model binding its descriptive sections on their first access: organization, licenses, developers,
+ * contributors, mailing lists, scm, issue, ci and distribution management. Most reads only look at the
+ * coordinates, the dependencies and the build.
+ * <p>
+ * The sections keep their toml subtrees until any of them is accessed, then they are all bound at once, as
+ * {@link TomlModelBinder} would have bound them, in the document order. Their input locations are tracked the
+ * same way. A clone and a serialized copy are bound first, so they are complete and independent. The warnings of
+ * a deferred section are reported when it is bound, and a section which cannot be bound fails every access to the
+ * deferred sections. So the sections are only deferred with {@link TomlOptions#LAZY}, and not by the reads which
+ * throw on the first problem, as strict ones.
+ *
+ * @see TomlModelBinder#readToml(org.apache.tuweni.toml.TomlTable)
+ */
+final class TomlLazyModel extends Model implements TomlLocations.Tracked {
+    private static final long serialVersionUID = 1L;
+
+    private final TomlLocations locations;
+    private final int element;
+
+    /**
+     * binder of the deferred sections, {@code null} once bound.
+     */
+    private transient TomlModelBinder binder;
+
+    /**
+     * deferred sections, in the document order; {@code null} once bound.
+     */
+    private transient volatile List<Section> pending;
+
+    /**
+     * is the current thread binding the sections; guarded by {@code this}.
+     */
+    private transient boolean binding;
+
+    /**
+     * why a section could not be bound, {@code null} if none failed; guarded by {@code this}.
+     */
+    private transient Exception failure;
+
+    /**
+     * a deferred section, which sets itself on the model.
+     */
+    @FunctionalInterface
+    interface Section {
+        void bind(TomlModelBinder binder) throws ModelParseException;
+    }
+
+    /**
+     * @param locations input locations, {@code null} when not tracked.
+     * @param binder    binder of the deferred sections, reporting to the diagnostics of the read.
+     */
+    TomlLazyModel(TomlLocations locations, TomlModelBinder binder) {
+        this.locations = locations;
+        this.element = locations != null ? locations.newElement() : -1;
+        this.binder = binder;
+    }
+
+    /**
+     * Bind {@code section} on the first access to a deferred section.
+     */
+    synchronized void defer(Section section) {
+        if (pending == null) {
+            pending = new ArrayList<>(4);
+        }
+        pending.add(section);
+    }
+
+    /**
+     * @return {@code model}, with its deferred sections bound.
+     */
+    static Model bind(Model model) {
+        if (model instanceof TomlLazyModel lazy) {
+            lazy.bind();
+        }
+        return model;
+    }
+
+    /**
+     * Bind the deferred sections.
+     *
+     * @throws IllegalStateException when a section cannot be bound, on this access and the next ones.
+     */
+    private void bind() {
+        if (pending == null) return;
+        synchronized (this) {
+            if (pending == null || binding) return;
+            if (failure == null) {
+                binding = true;
+                try {
+                    for (var section : pending) {
+                        section.bind(binder);
+                    }
+                    pending = null;
+                } catch (ModelParseException | RuntimeException e) {
+                    failure = e;
+                } finally {
+                    binder = null;
+                    binding = false;
+                }
+            }
+            if (failure instanceof ModelParseException e) {
+                throw new IllegalStateException(e.getMessage() + " @ line:" + e.getLineNumber() + ", col:" + e.getColumnNumber(), e);
+            } else if (failure != null) {
+                throw new IllegalStateException(failure.getMessage(), failure);
+            }
+        }
+    }
+
+    @Override
+    public int element() {
+        return element;
+    }
+
+    @Override
+    public InputLocation getLocation(Object key) {
+        var ret = super.getLocation(key);
+        return ret != null || locations == null ? ret : locations.get(element, key);
+    }
+
+    @Override
+    public Model clone() {
+        bind();
+        return super.clone();
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        bind();
+        return this;
+    }
+
+    @Override
+    public Organization getOrganization() {
+        bind();
+        return super.getOrganization();
+    }
+
+    @Override
+    public void setOrganization(Organization organization) {
+        bind();
+        super.setOrganization(organization);
+    }
+
+    @Override
+    public List<License> getLicenses() {
+        bind();
+        return super.getLicenses();
+    }
+
+    @Override
+    public void setLicenses(List<License> licenses) {
+        bind();
+        super.setLicenses(licenses);
+    }
+
+    @Override
+    public List<Developer> getDevelopers() {
+        bind();
+        return super.getDevelopers();
+    }
+
+    @Override
+    public void setDevelopers(List<Developer> developers) {
+        bind();
+        super.setDevelopers(developers);
+    }
+
+    @Override
+    public List<Contributor> getContributors() {
+        bind();
+        return super.getContributors();
+    }
+
+    @Override
+    public void setContributors(List<Contributor> contributors) {
+        bind();
+        super.setContributors(contributors);
+    }
+
+    @Override
+    public List<MailingList> getMailingLists() {
+        bind();
+        return super.getMailingLists();
+    }
+
+    @Override
+    public void setMailingLists(List<MailingList> mailingLists) {
+        bind();
+        super.setMailingLists(mailingLists);
+    }
+
+    @Override
+    public Scm getScm() {
+        bind();
+        return super.getScm();
+    }
+
+    @Override
+    public void setScm(Scm scm) {
+        bind();
+        super.setScm(scm);
+    }
+
+    @Override
+    public IssueManagement getIssueManagement() {
+        bind();
+        return super.getIssueManagement();
+    }
+
+    @Override
+    public void setIssueManagement(IssueManagement issueManagement) {
+        bind();
+        super.setIssueManagement(issueManagement);
+    }
+
+    @Override
+    public CiManagement getCiManagement() {
+        bind();
+        return super.getCiManagement();
+    }
+
+    @Override
+    public void setCiManagement(CiManagement ciManagement) {
+        bind();
+        super.setCiManagement(ciManagement);
+    }
+
+    @Override
+    public DistributionManagement getDistributionManagement() {
+        bind();
+        return super.getDistributionManagement();
+    }
+
+    @Override
+    public void setDistributionManagement(DistributionManagement distributionManagement) {
+        bind();
+        super.setDistributionManagement(distributionManagement);
+    }
+}
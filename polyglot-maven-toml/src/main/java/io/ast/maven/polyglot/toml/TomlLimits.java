@@ -0,0 +1,392 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.model.io.ModelParseException;
+import org.apache.tuweni.toml.TomlArray;
+import org.apache.tuweni.toml.TomlPosition;
+import org.apache.tuweni.toml.TomlTable;
+
+/**
+ * Resource limits of a single read, which protect a shared build daemon from pathological documents.
+ * <p>
+ * The document is checked while it is read, before the parser sees it: its size, and a lexical scan of its
+ * nesting depth, array lengths and string lengths, which fails early on the documents which the exact check
+ * would reject anyway. Nesting depth, array length and string length are then checked exactly by one walk
+ * over the parsed document. The deadline is checked while reading, during the walk and while binding, but
+ * not within the parser.
+ *
+ * @see TomlOptions#MAX_FILE_SIZE
+ * @see TomlOptions#MAX_DEPTH
+ * @see TomlOptions#MAX_ARRAY_LENGTH
+ * @see TomlOptions#MAX_STRING_LENGTH
+ * @see TomlOptions#MAX_PARSE_TIME
+ */
+final class TomlLimits {
+
+    private final TomlOptions options;
+    private final long deadline;
+    private int visited;
+
+    TomlLimits(TomlOptions options) {
+        this.options = options;
+        this.deadline = options.maxParseTime > 0 ? System.nanoTime() + options.maxParseTime * 1_000_000 : Long.MAX_VALUE;
+    }
+
+    /**
+     * @param input pom input reader
+     * @return reader which fails once it has read more than {@link TomlOptions#MAX_FILE_SIZE} characters, or
+     * a nesting, an array or a string beyond the limits.
+     */
+    Reader limit(Reader input) {
+        var scan = options.maxDepth >= 0 || options.maxArrayLength >= 0 || options.maxStringLength >= 0;
+        return options.maxFileSize < 0 && !scan && deadline == Long.MAX_VALUE ? input : new LimitReader(input, scan);
+    }
+
+    /**
+     * @param config parsed document
+     * @throws ModelParseException when a limit is exceeded.
+     */
+    void checkDocument(TomlTable config) throws ModelParseException {
+        checkTime(null);
+        if (options.maxDepth >= 0 || options.maxArrayLength >= 0 || options.maxStringLength >= 0) {
+            checkTable(config, 0);
+        }
+    }
+
+    /**
+     * @param pos current position, optional.
+     * @throws ModelParseException when the deadline has passed.
+     */
+    void checkTime(TomlPosition pos) throws ModelParseException {
+        if (deadline != Long.MAX_VALUE && System.nanoTime() > deadline) {
+            throw error("Reading exceeds the time limit of " + options.maxParseTime + " ms", pos);
+        }
+    }
+
+    /**
+     * @param config current table
+     * @param key    current key of {@code config}, used as the position
+     * @throws ModelParseException when the deadline has passed.
+     */
+    void checkTime(TomlTable config, String key) throws ModelParseException {
+        if (deadline != Long.MAX_VALUE && System.nanoTime() > deadline) {
+            checkTime(config.inputPositionOf(List.of(key)));
+        }
+    }
+
+    private void checkTable(TomlTable config, int depth) throws ModelParseException {
+        for (var key : config.keySet()) {
+            var path = TomlModelBinder.path(key);
+            checkValue(config.get(path), depth, config, path, null, -1);
+        }
+    }
+
+    private void checkArray(TomlArray config, int depth) throws ModelParseException {
+        for (int i = 0; i < config.size(); i++) {
+            checkValue(config.get(i), depth, null, null, config, i);
+        }
+    }
+
+    /**
+     * The value is either {@code table[key]} or {@code array[index]}, which is only used to locate it.
+     */
+    private void checkValue(Object value, int depth, TomlTable table, List<String> key, TomlArray array, int index) throws ModelParseException {
+        if ((++visited & 0x3FF) == 0) {
+            checkTime(null);
+        }
+
+        String message = null;
+        if (value instanceof String string) {
+            if (options.maxStringLength >= 0 && string.length() > options.maxStringLength) {
+                message = "String exceeds the maximum length of " + options.maxStringLength;
+            }
+        } else if (value instanceof TomlTable || value instanceof TomlArray) {
+            if (options.maxDepth >= 0 && depth + 1 > options.maxDepth) {
+                message = "Nesting exceeds the maximum depth of " + options.maxDepth;
+            } else if (value instanceof TomlTable child) {
+                checkTable(child, depth + 1);
+            } else if (value instanceof TomlArray child) {
+                if (options.maxArrayLength >= 0 && child.size() > options.maxArrayLength) {
+                    message = "Array exceeds the maximum length of " + options.maxArrayLength;
+                } else {
+                    checkArray(child, depth + 1);
+                }
+            }
+        }
+
+        if (message != null) {
+            throw error(message, table != null ? table.inputPositionOf(key) : array.inputPositionOf(index));
+        }
+    }
+
+    private static ModelParseException error(String message, TomlPosition pos) {
+        return pos == null
+          ? new ModelParseException(message, -1, -1)
+          : new ModelParseException(message, pos.line(), pos.column());
+    }
+
+    /**
+     * Reader which counts the characters and scans them lexically. The scan only sees the nesting of inline
+     * arrays and tables and the dotted keys, counts the array separators, and skips the escapes and the quotes
+     * in strings, so it never finds more than {@link #checkDocument(TomlTable)}: it rejects no document which
+     * is within the limits.
+     */
+    private final class LimitReader extends FilterReader {
+        private static final int KEY = 0;
+        private static final int VALUE = 1;
+        private static final int HEADER = 2;
+
+        private static final int NONE = 0;
+        private static final int BASIC = 1;
+        private static final int LITERAL = 2;
+        private static final int MULTILINE_BASIC = 3;
+        private static final int MULTILINE_LITERAL = 4;
+        private static final int COMMENT = 5;
+
+        private final boolean scan;
+        private long size;
+        private int line = 1;
+        private int column = 1;
+
+        /**
+         * open inline arrays and tables, {@code '['} or <code>'{'</code>, and the separators read in each.
+         */
+        private char[] nesting = new char[16];
+        private long[] separators = new long[16];
+        private int depth;
+        /**
+         * dots of the current key, which nest its value as deep.
+         */
+        private int dots;
+        private int context = KEY;
+
+        private int string = NONE;
+        private char quote;
+        /**
+         * consecutive quotes read of an opening or a closing delimiter.
+         */
+        private int quotes;
+        private boolean backslash;
+        /**
+         * characters of an escape left to skip, -1 to skip the white space after a line ending backslash.
+         */
+        private int escape;
+        private boolean leading;
+        private boolean value;
+        private long length;
+
+        LimitReader(Reader input, boolean scan) {
+            super(input);
+            this.scan = scan;
+        }
+
+        @Override
+        public int read() throws IOException {
+            var c = super.read();
+            if (c != -1) {
+                count((char) c);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            var read = super.read(buffer, offset, length);
+            for (int i = 0; i < read; i++) {
+                count(buffer[offset + i]);
+            }
+            return read;
+        }
+
+        private void count(char c) throws ModelParseException {
+            if (++size > options.maxFileSize && options.maxFileSize >= 0) {
+                throw error("Document exceeds the maximum size of " + options.maxFileSize + " characters");
+            }
+            if ((size & 0xFFF) == 0) {
+                checkTime(null);
+            }
+            if (scan) {
+                scan(c);
+            }
+            if (c == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+
+        private void scan(char c) throws ModelParseException {
+            if (string == NONE && quotes > 0) {
+                if (c == quote && quotes < 3) {
+                    quotes++;
+                    return;
+                }
+                // two quotes are an empty string
+                if (quotes != 2) {
+                    string = quote == '"' ? (quotes == 1 ? BASIC : MULTILINE_BASIC) : (quotes == 1 ? LITERAL : MULTILINE_LITERAL);
+                    leading = quotes == 3;
+                    backslash = false;
+                    escape = 0;
+                    value = context == VALUE;
+                    length = 0;
+                }
+                quotes = 0;
+            }
+
+            switch (string) {
+                case NONE -> scanToken(c);
+                case COMMENT -> {
+                    if (c == '\n') {
+                        string = NONE;
+                        scanToken(c);
+                    }
+                }
+                case BASIC, LITERAL -> {
+                    if (c == '\n') {
+                        string = NONE;
+                        scanToken(c);
+                    } else if (c == quote && !backslash) {
+                        string = NONE;
+                    } else {
+                        scanContent(c);
+                    }
+                }
+                default -> {
+                    if (c == quote && !backslash) {
+                        quotes++;
+                    } else if (quotes >= 3) {
+                        string = NONE;
+                        quotes = 0;
+                        scanToken(c);
+                    } else {
+                        quotes = 0;
+                        scanContent(c);
+                    }
+                }
+            }
+        }
+
+        private void scanContent(char c) throws ModelParseException {
+            if (c == '\r') {
+                return;
+            }
+            if (leading) {
+                leading = false;
+                if (c == '\n') {
+                    return;
+                }
+            }
+            if (escape > 0) {
+                escape--;
+                return;
+            }
+            if (escape < 0) {
+                if (c == ' ' || c == '\t' || c == '\n') {
+                    return;
+                }
+                escape = 0;
+            }
+            if (backslash) {
+                backslash = false;
+                if (c == 'u' || c == 'U') {
+                    escape = c == 'u' ? 4 : 8;
+                } else if (c == ' ' || c == '\t' || c == '\n') {
+                    escape = -1;
+                    return;
+                }
+            } else if (c == '\\' && (string == BASIC || string == MULTILINE_BASIC)) {
+                backslash = true;
+                return;
+            }
+            if (value && options.maxStringLength >= 0 && ++length > options.maxStringLength) {
+                throw error("String exceeds the maximum length of " + options.maxStringLength);
+            }
+        }
+
+        private void scanToken(char c) throws ModelParseException {
+            switch (c) {
+                case '\n' -> {
+                    if (depth == 0) {
+                        context = KEY;
+                        dots = 0;
+                    }
+                }
+                case '#' -> string = COMMENT;
+                case '"', '\'' -> {
+                    quote = c;
+                    quotes = 1;
+                }
+                case '=' -> {
+                    if (context == KEY) {
+                        context = VALUE;
+                    }
+                }
+                case '.' -> {
+                    if (context != VALUE) {
+                        dots++;
+                        checkDepth(depth + dots + (context == HEADER ? 1 : 0));
+                    }
+                }
+                case '[' -> {
+                    if (depth == 0 && context != VALUE) {
+                        context = HEADER;
+                        checkDepth(1);
+                    } else {
+                        push(c);
+                    }
+                }
+                case '{' -> {
+                    push(c);
+                    context = KEY;
+                    dots = 0;
+                }
+                case ']', '}' -> {
+                    if (depth > 0 && nesting[depth - 1] == (c == ']' ? '[' : '{')) {
+                        depth--;
+                        context = VALUE;
+                        dots = 0;
+                    }
+                }
+                case ',' -> {
+                    if (depth > 0 && nesting[depth - 1] == '[') {
+                        if (options.maxArrayLength >= 0 && ++separators[depth - 1] > options.maxArrayLength) {
+                            throw error("Array exceeds the maximum length of " + options.maxArrayLength);
+                        }
+                    } else if (depth > 0) {
+                        context = KEY;
+                        dots = 0;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void push(char c) throws ModelParseException {
+            if (depth == nesting.length) {
+                nesting = Arrays.copyOf(nesting, depth * 2);
+                separators = Arrays.copyOf(separators, depth * 2);
+            }
+            nesting[depth] = c;
+            separators[depth] = 0;
+            depth++;
+            checkDepth(depth + dots);
+        }
+
+        private void checkDepth(int nesting) throws ModelParseException {
+            if (options.maxDepth >= 0 && nesting > options.maxDepth) {
+                throw error("Nesting exceeds the maximum depth of " + options.maxDepth);
+            }
+        }
+
+        private ModelParseException error(String message) {
+            return new ModelParseException(message, line, column);
+        }
+    }
+}
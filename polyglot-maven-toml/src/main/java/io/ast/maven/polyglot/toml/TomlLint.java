@@ -0,0 +1,149 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Validate the pom.toml files of whole trees without starting Maven, for pre-commit hooks and CI.
+ * <pre>
+ *     java -cp ... io.ast.maven.polyglot.toml.TomlLint [--threads N] [--quiet] path...
+ * </pre>
+ * Each file is bound as strictly as Maven reads it, with every unrecognised tag, wrong type and syntax error
+ * reported as {@code file:line:column: error: message}. Paths may be files or directories, which are walked
+ * for pom.toml files, skipping hidden and {@code target} directories. The exit status is 1 when an error is
+ * found, 2 on a usage error.
+ */
+public final class TomlLint {
+
+    private TomlLint() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var threads = Runtime.getRuntime().availableProcessors();
+        var quiet = false;
+        var paths = new ArrayList<Path>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--threads":
+                threads = Math.max(1, Integer.parseInt(args[++i]));
+                break;
+            case "--quiet":
+                quiet = true;
+                break;
+            default:
+                if (args[i].startsWith("--")) {
+                    System.err.println("Usage: TomlLint [--threads N] [--quiet] path...");
+                    System.exit(2);
+                }
+                paths.add(Path.of(args[i]));
+            }
+        }
+        if (paths.isEmpty()) {
+            paths.add(Path.of("."));
+        }
+
+        var start = System.nanoTime();
+        var files = new ArrayList<Path>();
+        for (var path : paths) {
+            files.addAll(find(path));
+        }
+        var diagnostics = lint(files, threads);
+
+        var errors = 0;
+        var warnings = 0;
+        for (var diagnostic : diagnostics) {
+            if (diagnostic.isError()) {
+                errors++;
+            } else {
+                warnings++;
+                if (quiet) continue;
+            }
+            System.out.println(format(diagnostic));
+        }
+        if (!quiet) {
+            System.out.printf("%d files, %d errors, %d warnings in %d ms%n",
+              files.size(), errors, warnings, (System.nanoTime() - start) / 1_000_000);
+        }
+        System.exit(errors == 0 ? 0 : 1);
+    }
+
+    /**
+     * @param files   pom.toml files
+     * @param threads number of files read at once
+     * @return diagnostics of all files, grouped by file in the input order.
+     */
+    static List<TomlDiagnostic> lint(List<Path> files, int threads) throws InterruptedException {
+        var options = TomlOptions.of(Map.of(TomlOptions.IS_STRICT, "true"));
+        var executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())));
+        try {
+            var tasks = new ArrayList<Future<List<TomlDiagnostic>>>(files.size());
+            for (var file : files) {
+                tasks.add(executor.submit(() -> lint(file, options)));
+            }
+
+            var ret = new ArrayList<TomlDiagnostic>();
+            for (var task : tasks) {
+                try {
+                    ret.addAll(task.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return ret;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<TomlDiagnostic> lint(Path file, TomlOptions options) {
+        var ret = new ArrayList<TomlDiagnostic>();
+        var binder = new TomlModelBinder(file, options, null, ret::add);
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            binder.lint(reader);
+        } catch (IOException | RuntimeException e) {
+            ret.add(new TomlDiagnostic(file, TomlDiagnostic.Severity.ERROR, e.toString(), -1, -1));
+        }
+        return ret;
+    }
+
+    /**
+     * @return {@code path} when it is a file, the pom.toml files under it in path order when it is a directory.
+     */
+    private static List<Path> find(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            return walk
+              .filter(p -> p.getFileName() != null && p.getFileName().toString().equals("pom.toml"))
+              .filter(p -> !isSkipped(path.relativize(p)))
+              .sorted()
+              .toList();
+        }
+    }
+
+    private static boolean isSkipped(Path relative) {
+        for (int i = 0; i < relative.getNameCount() - 1; i++) {
+            var name = relative.getName(i).toString();
+            if (name.startsWith(".") || name.equals("target")) return true;
+        }
+        return false;
+    }
+
+    private static String format(TomlDiagnostic diagnostic) {
+        var ret = new StringBuilder(String.valueOf(diagnostic.source()));
+        if (diagnostic.line() >= 0) {
+            ret.append(':').append(diagnostic.line());
+            if (diagnostic.column() >= 0) {
+                ret.append(':').append(diagnostic.column());
+            }
+        }
+        ret.append(diagnostic.isError() ? ": error: " : ": warning: ").append(diagnostic.message());
+        return ret.toString();
+    }
+}
@@ -0,0 +1,257 @@
+package io.ast.maven.polyglot.toml;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+import org.apache.tuweni.toml.Toml;
+import org.apache.tuweni.toml.TomlArray;
+import org.apache.tuweni.toml.TomlPosition;
+import org.apache.tuweni.toml.TomlTable;
+
+/**
+ * View of a document for {@link TomlModelBinder#lint(java.io.Reader)}, which reports a value of the wrong type
+ * instead of throwing on it.
+ * <p>
+ * The typed getters of a parsed table throw an unchecked exception without position on the first value of the
+ * wrong type, which would end the lint there. Through this view, such a value is reported as an error at its
+ * position, and read as an empty value of the expected type so the binding goes on.
+ */
+final class TomlLintTable {
+
+    private static final TomlTable EMPTY_TABLE = Toml.parse("");
+    private static final TomlArray EMPTY_ARRAY = Toml.parse("a = []").getArray("a");
+
+    private final BiConsumer<String, TomlPosition> errors;
+    private final Map<Object, Object> views = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private TomlLintTable(BiConsumer<String, TomlPosition> errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * @param config POM toml
+     * @param errors consumer of the type errors, by message and position.
+     * @return the checked view of {@code config}.
+     */
+    static TomlTable of(TomlTable config, BiConsumer<String, TomlPosition> errors) {
+        return (TomlTable) new TomlLintTable(errors).view(config, "");
+    }
+
+    /**
+     * @return the checked view of a toml value, the same instance for each table or array.
+     */
+    private Object view(Object value, String name) {
+        if (value instanceof TomlTable table) {
+            return views.computeIfAbsent(table, t -> new Table((TomlTable) t, name));
+        } else if (value instanceof TomlArray array) {
+            return views.computeIfAbsent(array, a -> new Array((TomlArray) a, name));
+        }
+        return value;
+    }
+
+    /**
+     * @return {@code value} when it is of {@code type}, or {@code fallback} once reported.
+     */
+    private <T> T checked(Object value, Class<T> type, T fallback, String name, TomlPosition pos) {
+        if (value == null || type.isInstance(value)) {
+            return type.cast(value);
+        }
+        errors.accept("Expect tag type " + type.getSimpleName().replace("Toml", "") + " for '" + name + "'", pos);
+        return fallback;
+    }
+
+    private static Object toJava(Object value) {
+        if (value instanceof TomlTable table) return table.toMap();
+        if (value instanceof TomlArray array) return array.toList();
+        return value;
+    }
+
+    /**
+     * Checked view of a table.
+     */
+    private final class Table implements TomlTable {
+        private final TomlTable table;
+        private final String name;
+
+        Table(TomlTable table, String name) {
+            this.table = table;
+            this.name = name;
+        }
+
+        private String name(List<String> path) {
+            var key = String.join(".", path);
+            return name.isEmpty() ? key : name + "." + key;
+        }
+
+        @Override
+        public int size() {
+            return table.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return table.isEmpty();
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return table.keySet();
+        }
+
+        @Override
+        public Set<List<String>> keyPathSet(boolean includeTables) {
+            return table.keyPathSet(includeTables);
+        }
+
+        @Override
+        public Object get(List<String> path) {
+            return view(table.get(path), name(path));
+        }
+
+        @Override
+        public TomlPosition inputPositionOf(List<String> path) {
+            return table.inputPositionOf(path);
+        }
+
+        @Override
+        public String getString(List<String> path) {
+            var value = get(path);
+            var ret = checked(value, String.class, null, name(path), inputPositionOf(path));
+            return ret != null || value == null ? ret : String.valueOf(toJava(value));
+        }
+
+        @Override
+        public Boolean getBoolean(List<String> path) {
+            return checked(get(path), Boolean.class, false, name(path), inputPositionOf(path));
+        }
+
+        @Override
+        public TomlArray getArray(List<String> path) {
+            return checked(get(path), TomlArray.class, EMPTY_ARRAY, name(path), inputPositionOf(path));
+        }
+
+        @Override
+        public TomlTable getTable(List<String> path) {
+            return checked(get(path), TomlTable.class, EMPTY_TABLE, name(path), inputPositionOf(path));
+        }
+
+        @Override
+        public Map<String, Object> toMap() {
+            return table.toMap();
+        }
+    }
+
+    /**
+     * Checked view of an array.
+     */
+    private final class Array implements TomlArray {
+        private final TomlArray array;
+        private final String name;
+
+        Array(TomlArray array, String name) {
+            this.array = array;
+            this.name = name;
+        }
+
+        private String name(int index) {
+            return name + "[" + index + "]";
+        }
+
+        @Override
+        public int size() {
+            return array.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return array.isEmpty();
+        }
+
+        @Override
+        public boolean containsStrings() {
+            return array.containsStrings();
+        }
+
+        @Override
+        public boolean containsLongs() {
+            return array.containsLongs();
+        }
+
+        @Override
+        public boolean containsDoubles() {
+            return array.containsDoubles();
+        }
+
+        @Override
+        public boolean containsBooleans() {
+            return array.containsBooleans();
+        }
+
+        @Override
+        public boolean containsOffsetDateTimes() {
+            return array.containsOffsetDateTimes();
+        }
+
+        @Override
+        public boolean containsLocalDateTimes() {
+            return array.containsLocalDateTimes();
+        }
+
+        @Override
+        public boolean containsLocalDates() {
+            return array.containsLocalDates();
+        }
+
+        @Override
+        public boolean containsLocalTimes() {
+            return array.containsLocalTimes();
+        }
+
+        @Override
+        public boolean containsArrays() {
+            return array.containsArrays();
+        }
+
+        @Override
+        public boolean containsTables() {
+            return array.containsTables();
+        }
+
+        @Override
+        public Object get(int index) {
+            return view(array.get(index), name(index));
+        }
+
+        @Override
+        public TomlPosition inputPositionOf(int index) {
+            return array.inputPositionOf(index);
+        }
+
+        @Override
+        public String getString(int index) {
+            var value = get(index);
+            var ret = checked(value, String.class, null, name(index), inputPositionOf(index));
+            return ret != null ? ret : String.valueOf(toJava(value));
+        }
+
+        @Override
+        public boolean getBoolean(int index) {
+            return checked(get(index), Boolean.class, false, name(index), inputPositionOf(index));
+        }
+
+        @Override
+        public TomlArray getArray(int index) {
+            return checked(get(index), TomlArray.class, EMPTY_ARRAY, name(index), inputPositionOf(index));
+        }
+
+        @Override
+        public TomlTable getTable(int index) {
+            return checked(get(index), TomlTable.class, EMPTY_TABLE, name(index), inputPositionOf(index));
+        }
+
+        @Override
+        public List<Object> toList() {
+            return array.toList();
+        }
+    }
+}
@@ -0,0 +1,825 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.model.*;
+import org.apache.tuweni.toml.TomlPosition;
+
+/**
+ * Input locations of the elements bound from a single pom.toml.
+ * <p>
+ * While binding, each (element, key) position is appended to primitive arrays. {@link InputLocation}s are
+ * only created when Maven asks a bound element for one, through the {@link Tracked} subclasses of the model
+ * classes. The element location ({@code ""}) is the location of its first key in the document.
+ * <p>
+ * Keys are recorded as written (camel-cased), and matched to the model field name on lookup, so that
+ * {@code group} answers {@code groupId}, {@code dependency} answers {@code dependencies} and
+ * {@code source} answers {@code sourceDirectory}.
+ *
+ * @see org.apache.maven.model.building.ModelProcessor#INPUT_SOURCE
+ */
+final class TomlLocations implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * not serialized: a deserialized copy is {@link #rebind rebound} to the source of its read.
+     */
+    private transient InputSource source;
+
+    private int elements;
+    private int size;
+    /**
+     * (element, line, column) of each entry.
+     */
+    private int[] entries = new int[3 * 64];
+    private String[] keys = new String[64];
+
+    /**
+     * index by element, built on the first lookup: first entry of each element, and next entry of the same element.
+     */
+    private transient int indexed = -1;
+    private transient int[] first;
+    private transient int[] next;
+    private transient InputLocation[] cache;
+
+    /**
+     * @param source input source shared by all locations, which Maven completes after reading.
+     */
+    TomlLocations(InputSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Answer the locations in {@code source}, as for a copy read from the model cache.
+     *
+     * @param source input source shared by all locations
+     */
+    synchronized void rebind(InputSource source) {
+        this.source = source;
+        indexed = -1;
+        cache = null;
+    }
+
+    /**
+     * @return id of a new element.
+     */
+    synchronized int newElement() {
+        return elements++;
+    }
+
+    /**
+     * @param element element id
+     * @param key     camel-cased toml key
+     * @param pos     key position, optional.
+     */
+    synchronized void add(int element, String key, TomlPosition pos) {
+        if (pos == null) return;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            entries = Arrays.copyOf(entries, size * 6);
+        }
+        entries[3 * size] = element;
+        entries[3 * size + 1] = pos.line();
+        entries[3 * size + 2] = pos.column();
+        keys[size++] = key;
+    }
+
+    /**
+     * Add the entries written by {@link TomlModelCompiler}: an {@code element,line,column,key} line per entry.
+     *
+     * @param entries encoded entries
+     */
+    synchronized void add(String entries) {
+        for (int start = 0, end; start < entries.length(); start = end + 1) {
+            end = entries.indexOf('\n', start);
+            var c1 = entries.indexOf(',', start);
+            var c2 = entries.indexOf(',', c1 + 1);
+            var c3 = entries.indexOf(',', c2 + 1);
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                this.entries = Arrays.copyOf(this.entries, size * 6);
+            }
+            this.entries[3 * size] = Integer.parseInt(entries, start, c1, 10);
+            this.entries[3 * size + 1] = Integer.parseInt(entries, c1 + 1, c2, 10);
+            this.entries[3 * size + 2] = Integer.parseInt(entries, c2 + 1, c3, 10);
+            keys[size++] = entries.substring(c3 + 1, end).intern();
+        }
+    }
+
+    /**
+     * @return the recorded entries, in the recorded order.
+     */
+    synchronized List<Entry> entries() {
+        var ret = new ArrayList<Entry>(size);
+        for (int i = 0; i < size; i++) {
+            ret.add(new Entry(entries[3 * i], keys[i], entries[3 * i + 1], entries[3 * i + 2]));
+        }
+        return ret;
+    }
+
+    /**
+     * a recorded position.
+     *
+     * @param element element id
+     * @param key     camel-cased toml key
+     * @param line    line of the key
+     * @param column  column of the key
+     */
+    record Entry(int element, String key, int line, int column) {
+    }
+
+    /**
+     * @param element element id
+     * @param key     model field name, or {@code ""} for the element itself.
+     * @return location, or {@code null} when it was not recorded.
+     */
+    synchronized InputLocation get(int element, Object key) {
+        if (!(key instanceof String field)) return null;
+        if (indexed != size) {
+            index();
+        }
+        if (element >= first.length) return null;
+
+        int found = -1;
+        for (int i = first[element]; i >= 0; i = next[i]) {
+            if (field.isEmpty()) {
+                if (found < 0 || before(i, found)) found = i;
+            } else if (matches(keys[i], field)) {
+                found = i;
+                break;
+            }
+        }
+        if (found < 0) return null;
+
+        if (cache[found] == null) {
+            cache[found] = new InputLocation(entries[3 * found + 1], entries[3 * found + 2], source);
+        }
+        return cache[found];
+    }
+
+    /**
+     * @return is entry {@code i} before entry {@code j} in the document.
+     */
+    private boolean before(int i, int j) {
+        var line = entries[3 * i + 1] - entries[3 * j + 1];
+        return line < 0 || (line == 0 && entries[3 * i + 2] < entries[3 * j + 2]);
+    }
+
+    private void index() {
+        first = new int[elements];
+        next = new int[size];
+        Arrays.fill(first, -1);
+        for (int i = size - 1; i >= 0; i--) {
+            var element = entries[3 * i];
+            next[i] = first[element];
+            first[element] = i;
+        }
+        cache = cache == null ? new InputLocation[size] : Arrays.copyOf(cache, size);
+        indexed = size;
+    }
+
+    /**
+     * @param key   recorded key
+     * @param field model field name
+     * @return does {@code key} bind {@code field}.
+     */
+    private static boolean matches(String key, String field) {
+        return field.equals(key)
+          || (field.startsWith(key) && (field.length() == key.length() + 1 && field.endsWith("s")
+            || field.length() == key.length() + 2 && field.endsWith("Id")
+            || field.length() == key.length() + 9 && field.endsWith("Directory")))
+          || (key.endsWith("y") && field.length() == key.length() + 2 && field.endsWith("ies")
+            && field.regionMatches(0, key, 0, key.length() - 1));
+    }
+
+    /**
+     * A bound element, which looks up its unset locations in the {@link TomlLocations} of its document.
+     */
+    interface Tracked {
+        int element();
+    }
+
+    static final class TrackedModel extends Model implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedModel(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedParent extends Parent implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedParent(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedOrganization extends Organization implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedOrganization(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedLicense extends License implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedLicense(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedDeveloper extends Developer implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedDeveloper(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedContributor extends Contributor implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedContributor(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedMailingList extends MailingList implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedMailingList(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedPrerequisites extends Prerequisites implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedPrerequisites(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedScm extends Scm implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedScm(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedIssueManagement extends IssueManagement implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedIssueManagement(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedCiManagement extends CiManagement implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedCiManagement(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedNotifier extends Notifier implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedNotifier(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedDistributionManagement extends DistributionManagement implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedDistributionManagement(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedDeploymentRepository extends DeploymentRepository implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedDeploymentRepository(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedSite extends Site implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedSite(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedRelocation extends Relocation implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedRelocation(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedDependencyManagement extends DependencyManagement implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedDependencyManagement(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedDependency extends Dependency implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedDependency(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedExclusion extends Exclusion implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedExclusion(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedRepository extends Repository implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedRepository(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedRepositoryPolicy extends RepositoryPolicy implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedRepositoryPolicy(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedBuild extends Build implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedBuild(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedExtension extends Extension implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedExtension(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedResource extends Resource implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedResource(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedPluginManagement extends PluginManagement implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedPluginManagement(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedPlugin extends Plugin implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedPlugin(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+
+    static final class TrackedPluginExecution extends PluginExecution implements Tracked {
+        private static final long serialVersionUID = 1L;
+
+        private final TomlLocations locations;
+        private final int element;
+
+        TrackedPluginExecution(TomlLocations locations) {
+            this.locations = locations;
+            this.element = locations.newElement();
+        }
+
+        @Override
+        public int element() {
+            return element;
+        }
+
+        @Override
+        public InputLocation getLocation(Object key) {
+            var ret = super.getLocation(key);
+            return ret != null ? ret : locations.get(element, key);
+        }
+    }
+}
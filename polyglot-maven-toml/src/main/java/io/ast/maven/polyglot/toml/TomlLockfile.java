@@ -0,0 +1,165 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.model.io.ModelParseException;
+import org.apache.tuweni.toml.Toml;
+import org.apache.tuweni.toml.TomlParseResult;
+
+/**
+ * Versions pinned for the dynamic dependency versions of a pom.toml, read from the pom.lock.toml next to it.
+ * <pre>
+ *     [dependencies]
+ *     "org.slf4j:slf4j-api" = { requested = '[2.0,3.0)', version = '2.0.16' }
+ *     "com.google.guava:guava" = { requested = 'LATEST', version = '33.3.1-jre' }
+ * </pre>
+ * A dependency whose version is a range, {@code LATEST} or {@code RELEASE} gets the locked version at read time,
+ * as long as the pom.toml still requests the locked version. So Maven does not look up the repository metadata
+ * for it. Fixed versions are never changed.
+ * <p>
+ * The lock file is regenerated by the {@code toml:lock} goal, and is ignored when {@link TomlOptions#LOCK} is false.
+ * A lock file is parsed once, and kept as long as the file is not modified.
+ */
+public final class TomlLockfile {
+
+    /**
+     * lock file name, next to the pom.toml.
+     */
+    public static final String FILE_NAME = "pom.lock.toml";
+
+    private static final Map<Path, TomlLockfile> LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * @param requested version requested by the pom.toml
+     * @param version   locked version
+     */
+    public record Entry(String requested, String version) {
+    }
+
+    private final Path file;
+    private final FileTime modified;
+    private final long size;
+    private final Map<String, Entry> dependencies = new HashMap<>();
+
+    private TomlLockfile(Path file, FileTime modified, long size) {
+        this.file = file;
+        this.modified = modified;
+        this.size = size;
+    }
+
+    /**
+     * @param pom pom file
+     * @return the lock file next to {@code pom}, or {@code null} when there is none.
+     * @throws IOException
+     * @throws ModelParseException
+     */
+    static TomlLockfile load(Path pom) throws IOException, ModelParseException {
+        var file = pom.toAbsolutePath().normalize().resolveSibling(FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            LOCKS.remove(file);
+            return null;
+        }
+        var modified = Files.getLastModifiedTime(file);
+        var size = Files.size(file);
+
+        var cached = LOCKS.get(file);
+        if (cached != null && cached.modified.equals(modified) && cached.size == size) {
+            return cached;
+        }
+
+        var lock = new TomlLockfile(file, modified, size);
+        lock.read(Toml.parse(file));
+        LOCKS.put(file, lock);
+        return lock;
+    }
+
+    /**
+     * @param version dependency version
+     * @return is {@code version} resolved from the repository metadata: a range, {@code LATEST} or {@code RELEASE}.
+     */
+    public static boolean isDynamic(String version) {
+        return version != null
+          && (version.startsWith("[") || version.startsWith("(") || version.equals("LATEST") || version.equals("RELEASE"));
+    }
+
+    /**
+     * @param groupId    group id
+     * @param artifactId artifact id
+     * @param requested  version requested by the pom.toml
+     * @return locked version, or {@code null} when not locked for this requested version.
+     */
+    String version(String groupId, String artifactId, String requested) {
+        var entry = dependencies.get(groupId + ":" + artifactId);
+        return entry != null && entry.requested().equals(requested) ? entry.version() : null;
+    }
+
+    private void read(TomlParseResult config) throws ModelParseException {
+        if (config.hasErrors()) {
+            var error = config.errors().get(0);
+            throw new ModelParseException(file + ": " + error.getMessage(), error.position().line(), error.position().column());
+        }
+
+        var table = config.getTable("dependencies");
+        if (table == null) return;
+        for (var key : table.keySet()) {
+            var path = TomlModelBinder.path(key);
+            var pos = table.inputPositionOf(path);
+            var entry = table.isTable(path) ? table.getTable(path) : null;
+            if (key.split(":").length != 2 || entry == null || entry.getString("requested") == null || entry.getString("version") == null) {
+                throw new ModelParseException(file + ": 'dependencies.\"" + key + "\"' expects"
+                  + " \"group:artifact\" = { requested = '...', version = '...' }", pos.line(), pos.column());
+            }
+            dependencies.put(key, new Entry(entry.getString("requested"), entry.getString("version")));
+        }
+    }
+
+    /**
+     * Write the lock file next to {@code pom}, in key order.
+     *
+     * @param pom          pom file
+     * @param dependencies locked versions, keyed by {@code "group:artifact"}
+     * @throws IOException
+     */
+    public static void write(Path pom, Map<String, Entry> dependencies) throws IOException {
+        var file = pom.toAbsolutePath().normalize().resolveSibling(FILE_NAME);
+        var buffer = new StringBuilder();
+        buffer.append("# Generated by 'mvn toml:lock', edits are overwritten.\n");
+        buffer.append("[dependencies]\n");
+        for (var entry : new TreeMap<>(dependencies).entrySet()) {
+            buffer.append(quote(entry.getKey()))
+              .append(" = { requested = ").append(quote(entry.getValue().requested()))
+              .append(", version = ").append(quote(entry.getValue().version()))
+              .append(" }\n");
+        }
+        Files.writeString(file, buffer, StandardCharsets.UTF_8);
+        LOCKS.remove(file);
+    }
+
+    private static String quote(String value) {
+        var ret = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            switch (c) {
+            case '"':
+            case '\\':
+                ret.append('\\').append(c);
+                break;
+            default:
+                if (c < 0x20) {
+                    ret.append(String.format("\\u%04x", (int) c));
+                } else {
+                    ret.append(c);
+                }
+            }
+        }
+        return ret.append('"').toString();
+    }
+}
@@ -0,0 +1,84 @@
+package io.ast.maven.polyglot.toml;
+
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+
+/**
+ * Reactor-wide manifest of the dependency coordinates declared by each pom.toml, recorded as Maven reads it when
+ * {@link TomlOptions#PREFETCH} is enabled, and cleared at the end of the session.
+ * <p>
+ * It holds the dependencies, the plugin dependencies and the imported BOMs. Versions are kept as declared,
+ * so they may be missing (managed) or hold {@code ${...}} expressions, which {@link TomlPrefetchParticipant}
+ * completes from the built project before prefetching them.
+ */
+final class TomlManifest {
+
+    private static final Map<Path, Set<Coordinate>> POMS = new ConcurrentHashMap<>();
+
+    /**
+     * @param groupId    group id
+     * @param artifactId artifact id
+     * @param version    declared version, optional.
+     * @param type       type, optional.
+     * @param classifier classifier, optional.
+     * @param plugin     is it a plugin dependency, resolved from the plugin repositories.
+     */
+    record Coordinate(String groupId, String artifactId, String version, String type, String classifier, boolean plugin) {
+    }
+
+    private TomlManifest() {
+    }
+
+    /**
+     * Record the coordinates of {@code model}, replacing the ones of the same pom file read by a former build.
+     *
+     * @param pom   pom file
+     * @param model POM bound from {@code pom}
+     */
+    static void put(Path pom, Model model) {
+        var ret = new LinkedHashSet<Coordinate>();
+        for (var dep : model.getDependencies()) {
+            ret.add(coordinate(dep, false));
+        }
+        if (model.getDependencyManagement() != null) {
+            for (var dep : model.getDependencyManagement().getDependencies()) {
+                if ("import".equals(dep.getScope())) {
+                    ret.add(coordinate(dep, false));
+                }
+            }
+        }
+        if (model.getBuild() != null) {
+            for (var plugin : model.getBuild().getPlugins()) {
+                for (var dep : plugin.getDependencies()) {
+                    ret.add(coordinate(dep, true));
+                }
+            }
+        }
+        POMS.put(pom.toAbsolutePath().normalize(), ret);
+    }
+
+    /**
+     * @param pom pom file
+     * @return the coordinates recorded for {@code pom}, empty when it was not read.
+     */
+    static Set<Coordinate> get(Path pom) {
+        return POMS.getOrDefault(pom.toAbsolutePath().normalize(), Set.of());
+    }
+
+    /**
+     * Forget all the recorded coordinates.
+     */
+    static void clear() {
+        POMS.clear();
+    }
+
+    private static Coordinate coordinate(Dependency dep, boolean plugin) {
+        return new Coordinate(dep.getGroupId(), dep.getArtifactId(), dep.getVersion(), dep.getType(), dep.getClassifier(), plugin);
+    }
+}
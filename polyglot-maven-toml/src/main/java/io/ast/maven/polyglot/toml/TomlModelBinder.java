@@ -0,0 +1,2672 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.maven.model.*;
+import org.apache.maven.model.io.ModelParseException;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.tuweni.toml.Toml;
+import org.apache.tuweni.toml.TomlArray;
+import org.apache.tuweni.toml.TomlParseResult;
+import org.apache.tuweni.toml.TomlPosition;
+import org.apache.tuweni.toml.TomlTable;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.pull.XmlPullParser;
+
+/**
+ * Bind a parsed pom.toml onto a Maven {@link Model}.
+ * <p>
+ * A binder carries the state of a single read, so it is not shared between threads.
+ * The {@link TomlStringPool} and the diagnostics consumer may be shared by the binders of a batch.
+ */
+@SuppressWarnings({"unused", "JavadocReference"})
+final class TomlModelBinder {
+
+    /**
+     * upper bound of the key caches, which are shared by all reads of a (long living) Maven process.
+     */
+    private static final int CACHE_LIMIT = 4096;
+    private static final Map<String, List<String>> PATHS = new ConcurrentHashMap<>();
+    private static final Map<String, String> CAMEL_CASES = new ConcurrentHashMap<>();
+
+    private final Path source;
+    private final TomlOptions options;
+    private final boolean isStrict;
+    private final TomlStringPool strings;
+    private final Consumer<TomlDiagnostic> diagnostics;
+    private final TomlLimits limits;
+
+    /**
+     * input locations of the bound elements, {@code null} when not tracked.
+     */
+    private final TomlLocations locations;
+
+    /**
+     * version catalog referenced by the document, optional.
+     */
+    private TomlCatalog catalog;
+
+    /**
+     * versions locked by the pom.lock.toml next to the pom file, optional.
+     */
+    private TomlLockfile lock;
+
+    /**
+     * document of the last read, as it was bound.
+     */
+    private TomlTable document;
+
+    /**
+     * is the last read bound from its document and lock file only, without includes, catalog or modules found
+     * on the file system.
+     */
+    private boolean isSelfContained = true;
+
+    /**
+     * report the binding errors as diagnostics and go on, instead of failing on the first one.
+     */
+    private boolean lint;
+
+    /**
+     * sections bound ahead in parallel, keyed by the identity of their toml value.
+     */
+    private Map<Object, ForkJoinTask<Prebound<?>>> prebound;
+
+    /**
+     * @param source      pom file, optional.
+     * @param options     reader options.
+     * @param strings     string pool, optional.
+     * @param diagnostics consumer of non-fatal problems.
+     */
+    TomlModelBinder(Path source, TomlOptions options, TomlStringPool strings, Consumer<TomlDiagnostic> diagnostics) {
+        this(source, options, strings, diagnostics, new TomlLimits(options),
+          options.inputSource != null ? new TomlLocations(options.inputSource) : null);
+    }
+
+    private TomlModelBinder(Path source, TomlOptions options, TomlStringPool strings, Consumer<TomlDiagnostic> diagnostics, TomlLimits limits,
+                            TomlLocations locations) {
+        this.source = source;
+        this.options = Objects.requireNonNull(options, "options");
+        this.isStrict = options.isStrict;
+        this.strings = strings;
+        this.diagnostics = Objects.requireNonNull(diagnostics, "diagnostics");
+        this.limits = limits;
+        this.locations = locations;
+    }
+
+    /**
+     * Parse and bind a pom.toml.
+     * <p>
+     * When the document is larger than {@link TomlOptions#PARALLEL_THRESHOLD}, the independent top-level
+     * tables are bound in parallel first, and then merged into the model in the document order.
+     *
+     * @param input pom input reader
+     * @return Model
+     * @throws IOException
+     * @throws ModelParseException
+     */
+    Model readToml(Reader input) throws IOException, ModelParseException {
+        input = limits.limit(skipBom(input));
+        if (options.parallelThreshold < 0) {
+            var config = parse(input);
+            catalog = readCatalog(config);
+            lock = readLock(source);
+            return readToml(config);
+        }
+
+        var content = new StringWriter();
+        input.transferTo(content);
+        var document = content.toString();
+        var config = parse(new StringReader(document));
+        catalog = readCatalog(config);
+        lock = readLock(source);
+        if (document.length() < options.parallelThreshold) {
+            return readToml(config);
+        }
+
+        prebound = new IdentityHashMap<>();
+        try {
+            prebindSections(config);
+            return readToml(config);
+        } finally {
+            prebound = null;
+        }
+    }
+
+    /**
+     * @return the document bound by the last {@link #readToml(Reader)} or {@link #readModule(TomlModules.Inline)},
+     * with its includes merged and interpolated.
+     */
+    TomlTable document() {
+        return document;
+    }
+
+    /**
+     * @return input locations of the elements bound so far, {@code null} when not tracked.
+     */
+    TomlLocations locations() {
+        return locations;
+    }
+
+    /**
+     * @return whether the last read depends on no other file than its document and the lock file, so its model
+     * can be reused as long as they are unchanged.
+     * @see TomlModelCache
+     */
+    boolean isSelfContained() {
+        return isSelfContained;
+    }
+
+    /**
+     * Parse and bind the header of a pom.toml.
+     *
+     * @param input pom input reader
+     * @return partial Model
+     * @throws IOException
+     * @throws ModelParseException
+     * @see TomlPomReader#readHeader(java.nio.file.Path)
+     */
+    Model readHeader(Reader input) throws IOException, ModelParseException {
+        var config = checkSyntax(Toml.parse(TomlHeaderScanner.scan(limits.limit(skipBom(input)))));
+        limits.checkDocument(config);
+        return readHeader(config);
+    }
+
+    /**
+     * Bind a pom.toml as strictly as {@link #readToml(Reader)}, but report each unrecognised tag and wrong type
+     * as an error diagnostic instead of failing on the first one. Errors which stop the binding, such as a
+     * syntax error, are reported as a last diagnostic.
+     *
+     * @param input pom input reader
+     * @throws IOException
+     * @see TomlLint
+     * @see TomlLintTable
+     */
+    void lint(Reader input) throws IOException {
+        lint = true;
+        try {
+            readToml(input);
+        } catch (ModelParseException e) {
+            diagnostics.accept(new TomlDiagnostic(source, TomlDiagnostic.Severity.ERROR, e.getMessage(), e.getLineNumber(), e.getColumnNumber()));
+        }
+    }
+
+    /**
+     * @return {@code config}
+     * @throws ModelParseException on its first syntax error.
+     */
+    private static TomlParseResult checkSyntax(TomlParseResult config) throws ModelParseException {
+        if (config.hasErrors()) {
+            var error = config.errors().get(0);
+            throw new ModelParseException(error.getMessage(), error.position().line(), error.position().column());
+        }
+        return config;
+    }
+
+    /**
+     * @param input pom input reader, already limited.
+     * @return parsed document merged over its included fragments, which is within the limits.
+     * @throws IOException
+     * @throws ModelParseException
+     * @see TomlIncludes
+     * @see TomlInterpolator
+     */
+    /**
+     * @return {@code input} without its leading byte order mark, which a TOML parser takes for a key character.
+     */
+    private static Reader skipBom(Reader input) throws IOException {
+        var ret = new PushbackReader(input);
+        var c = ret.read();
+        if (c != -1 && c != '\uFEFF') {
+            ret.unread(c);
+        }
+        return ret;
+    }
+
+    private TomlTable parse(Reader input) throws IOException, ModelParseException {
+        var parsed = checkSyntax(Toml.parse(input));
+        TomlTable config = TomlIncludes.resolve(parsed, source, limits);
+        if (config != parsed) {
+            isSelfContained = false;
+        }
+        limits.checkDocument(config);
+        if (options.interpolate) {
+            config = TomlInterpolator.interpolate(config);
+        }
+        if (lint) {
+            config = TomlLintTable.of(config, (message, pos) ->
+              diagnostics.accept(new TomlDiagnostic(source, TomlDiagnostic.Severity.ERROR, message, pos.line(), pos.column())));
+        }
+        return config;
+    }
+
+    /**
+     * @param config POM toml
+     * @return Model
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseModel(XmlPullParser, boolean)
+     */
+    Model readToml(TomlTable config) throws ModelParseException {
+        document = config;
+        // a read which throws on the first problem binds all of it at once
+        var model = !options.lazy || isStrict || lint ? create(Model::new, TomlLocations.TrackedModel::new)
+          : new TomlLazyModel(locations, new TomlModelBinder(source, options, strings, diagnostics, new TomlLimits(options), locations));
+        TomlTable modules = null;
+        for (var key : keys(config)) {
+            limits.checkTime(config, key);
+            track(model, config, key);
+            switch (toCamelCase(key)) {
+            case "project":
+                readTomlProject(model, config.getTable(path(key)));
+                break;
+            case "parent":
+                model.setParent(readTomlParent(config.getTable(path(key))));
+                break;
+            case "property":
+            case "properties":
+                for (var entry : bound(config.getTable(path(key)), TomlModelBinder::readTomlProperties).entrySet()) {
+                    model.addProperty(entry.getKey(), entry.getValue());
+                }
+                break;
+            case "scm":
+                var scm = config.getTable(path(key));
+                defer(model, binder -> model.setScm(binder.readTomlScm(scm)));
+                break;
+
+            case "management":
+                readTomlManagement(model, config.getTable(path(key)));
+                break;
+            case "dependency":
+                readTomlDependencies(model, config.getArray(path(key)), null);
+                break;
+            case "dependencies":
+                readTomlDependencies(model, config.getTable(path(key)));
+                break;
+            case "directory":
+            case "directories":
+                model.setBuild(readTomlBuildDirectory(model.getBuild(), config.getTable(path(key))));
+                break;
+            case "repositories":
+                model.setRepositories(readTomlRepositories(config.getArray(path(key))));
+                break;
+            case "pluginRepositories":
+                model.setPluginRepositories(readTomlRepositories(config.getArray(path(key))));
+                break;
+            case "build":
+                model.setBuild(readTomlBuild(model.getBuild(), config.getTable(path(key))));
+                break;
+            case "catalog":
+                // loaded before binding, see readCatalog(TomlTable)
+                break;
+            case "include":
+                // merged before binding, see TomlIncludes
+                break;
+            case "module":
+                modules = config.getTable(path(key));
+                break;
+            default:
+                checkTag(key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        if (modules != null) {
+            readTomlModules(model, modules);
+        }
+        return model;
+    }
+
+    /**
+     * Bind a module declared inline by a root pom.toml.
+     *
+     * @param module inline module
+     * @return Model
+     * @throws ModelParseException
+     * @see TomlModules
+     */
+    Model readModule(TomlModules.Inline module) throws ModelParseException {
+        isSelfContained = false;
+        catalog = module.catalog();
+        try {
+            lock = readLock(module.pom());
+        } catch (IOException e) {
+            throw new ModelParseException("Cannot read " + module.pom().resolveSibling(TomlLockfile.FILE_NAME) + ": " + e, -1, -1, e);
+        }
+        var config = options.interpolate ? TomlInterpolator.interpolate(module.config()) : module.config();
+        var model = readToml(config);
+        if (model.getParent() == null && module.parent() != null) {
+            model.setParent(module.parent().clone());
+        }
+        return model;
+    }
+
+    /**
+     * @param modules module directories or globs
+     * @param pos     position of the modules key
+     * @return modules, with the globs expanded.
+     * @throws ModelParseException when the module directories cannot be listed.
+     * @see TomlModuleIndex
+     */
+    private List<String> readTomlModules(List<String> modules, TomlPosition pos) throws ModelParseException {
+        if (modules == null || modules.stream().noneMatch(TomlModuleIndex::isGlob)) {
+            return modules;
+        }
+        isSelfContained = false;
+        var dir = source != null ? source.toAbsolutePath().getParent() : Path.of("").toAbsolutePath();
+        try {
+            return TomlModuleIndex.expand(dir, modules);
+        } catch (IOException e) {
+            throw new ModelParseException("Cannot expand modules: " + e, pos == null ? -1 : pos.line(), pos == null ? -1 : pos.column(), e);
+        }
+    }
+
+    /**
+     * Register the modules declared inline, after the root project is bound, and add them to its modules.
+     *
+     * @param model  root POM
+     * @param config module tables, keyed by module directory
+     * @throws ModelParseException
+     * @see TomlModules
+     */
+    private void readTomlModules(Model model, TomlTable config) throws ModelParseException {
+        var root = source != null ? source.toAbsolutePath().normalize() : null;
+        var dir = root != null ? root.getParent() : Path.of("").toAbsolutePath();
+
+        Parent parent = null;
+        var groupId = model.getGroupId() != null ? model.getGroupId() : (model.getParent() != null ? model.getParent().getGroupId() : null);
+        var version = model.getVersion() != null ? model.getVersion() : (model.getParent() != null ? model.getParent().getVersion() : null);
+        if (groupId != null && model.getArtifactId() != null && version != null) {
+            parent = new Parent();
+            parent.setGroupId(groupId);
+            parent.setArtifactId(model.getArtifactId());
+            parent.setVersion(version);
+        }
+
+        for (var name : keys(config)) {
+            if (!config.isTable(path(name))) {
+                checkType("module." + name, "Table", config.inputPositionOf(path(name)));
+                continue;
+            }
+
+            var pom = dir.resolve(name).resolve("pom.toml").normalize();
+            var moduleParent = parent;
+            if (parent != null && root != null) {
+                moduleParent = parent.clone();
+                moduleParent.setRelativePath(pom.getParent().relativize(root).toString());
+            }
+            isSelfContained = false;
+            TomlModules.register(new TomlModules.Inline(root, name, pom, config.getTable(path(name)), catalog, moduleParent));
+            model.addModule(name);
+        }
+    }
+
+    /**
+     * @param config POM toml, only contains the header tables
+     * @return partial Model
+     * @throws ModelParseException
+     * @see TomlPomReader#readHeader(java.nio.file.Path)
+     */
+    Model readHeader(TomlTable config) throws ModelParseException {
+        var model = create(Model::new, TomlLocations.TrackedModel::new);
+        for (var key : config.keySet()) {
+            track(model, config, key);
+            switch (toCamelCase(key)) {
+            case "project":
+                readTomlProject(model, config.getTable(path(key)));
+                break;
+            case "parent":
+                model.setParent(readTomlParent(config.getTable(path(key))));
+                break;
+            default:
+                // other root keys are not part of the header
+            }
+        }
+
+        return model;
+    }
+
+    /**
+     * @param model  POM
+     * @param config POM toml
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseModel(XmlPullParser, boolean)
+     */
+    private void readTomlProject(Model model, TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "project");
+
+        for (var key : config.keySet()) {
+            track(model, config, key);
+            switch (toCamelCase(key)) {
+            case "parent":
+                model.setParent(readTomlParent(config.getTable(path(key))));
+                break;
+            case "modelVersion":
+                model.setModelVersion(config.getString(path(key)));
+                break;
+            case "group":
+            case "groupId":
+                model.setGroupId(config.getString(path(key)));
+                break;
+            case "artifact":
+            case "artifactId":
+                model.setArtifactId(config.getString(path(key)));
+                break;
+            case "version":
+                model.setVersion(config.getString(path(key)));
+                break;
+            case "packaging":
+                model.setPackaging(config.getString(path(key)));
+                break;
+            case "name":
+                model.setName(config.getString(path(key)));
+                break;
+            case "description":
+                model.setDescription(config.getString(path(key)));
+                break;
+            case "url":
+                model.setUrl(config.getString(path(key)));
+                break;
+            case "inceptionYear":
+                model.setInceptionYear(config.getString(path(key)));
+                break;
+            case "organization":
+                var organization = config.getTable(path(key));
+                defer(model, binder -> model.setOrganization(binder.readTomlOrganization(organization)));
+                break;
+            case "license":
+            case "licenses":
+                var licenses = config.getArray(path(key));
+                defer(model, binder -> model.setLicenses(binder.readTomlLicense(licenses)));
+                break;
+            case "developer":
+                var developer = config.getArray(path(key));
+                defer(model, binder -> model.setDevelopers(append(model.getDevelopers(), binder.readTomlDeveloper(developer))));
+                break;
+            case "developers":
+                var developers = config.getArray(path(key));
+                defer(model, binder -> model.setDevelopers(append(model.getDevelopers(), binder.readTomlDevelopers(developers))));
+                break;
+            case "contributor":
+                var contributor = config.getArray(path(key));
+                defer(model, binder -> model.setContributors(append(model.getContributors(), binder.readTomlContributor(contributor))));
+                break;
+            case "contributors":
+                var contributors = config.getArray(path(key));
+                defer(model, binder -> model.setContributors(append(model.getContributors(), binder.readTomlContributors(contributors))));
+                break;
+            case "mailingList":
+            case "mailingLists":
+                var mailingLists = config.getArray(path(key));
+                defer(model, binder -> model.setMailingLists(binder.readTomlMailingList(mailingLists)));
+                break;
+            case "prerequisites":
+                model.setPrerequisites(readTomlPrerequisites(config.getTable(path(key))));
+                break;
+            case "module":
+            case "modules":
+                model.setModules(readTomlModules(asStringList(config.get(path(key))), config.inputPositionOf(path(key))));
+                break;
+            default:
+                checkTag("project", key, config.inputPositionOf(path(key)));
+            }
+        }
+    }
+
+    /**
+     * @param config parent toml
+     * @return Parent
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseParent(XmlPullParser, boolean)
+     */
+    private Parent readTomlParent(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "parent");
+
+        var parent = create(Parent::new, TomlLocations.TrackedParent::new);
+        for (var key : config.keySet()) {
+            track(parent, config, key);
+            switch (toCamelCase(key)) {
+            case "group":
+            case "groupId":
+                parent.setGroupId(config.getString(path(key)));
+                break;
+            case "artifact":
+            case "artifactId":
+                parent.setArtifactId(config.getString(path(key)));
+                break;
+            case "version":
+                parent.setVersion(config.getString(path(key)));
+                break;
+            case "relativePath":
+                parent.setRelativePath(config.getString(path(key)));
+                break;
+            default:
+                checkTag("parent", key, config.inputPositionOf(path(key)));
+            }
+        }
+        return parent;
+    }
+
+    /**
+     * @param config Organization toml
+     * @return Organization
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseOrganization(XmlPullParser, boolean)
+     */
+    private Organization readTomlOrganization(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "organization");
+
+        var organization = create(Organization::new, TomlLocations.TrackedOrganization::new);
+        for (var key : config.keySet()) {
+            track(organization, config, key);
+            switch (toCamelCase(key)) {
+            case "name":
+                organization.setName(config.getString(path(key)));
+                break;
+            case "url":
+                organization.setUrl(config.getString(path(key)));
+                break;
+            default:
+                checkTag("project.organization", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return organization;
+    }
+
+
+    /**
+     * @param config License toml array
+     * @return list of License
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseLicense(XmlPullParser, boolean)
+     */
+    private List<License> readTomlLicense(TomlArray config) throws ModelParseException {
+        Objects.requireNonNull(config, "licenses");
+
+        var ret = new ArrayList<License>(config.size());
+        for (int i = 0; i < config.size(); i++) {
+            ret.add(readTomlLicense(config.getTable(i)));
+        }
+        return ret;
+    }
+
+    /**
+     * @param config License toml
+     * @return License
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseLicense(XmlPullParser, boolean)
+     */
+    private License readTomlLicense(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "license");
+
+        var license = create(License::new, TomlLocations.TrackedLicense::new);
+        for (var key : config.keySet()) {
+            track(license, config, key);
+            switch (toCamelCase(key)) {
+            case "name":
+                license.setName(config.getString(path(key)));
+                break;
+            case "url":
+                license.setUrl(config.getString(path(key)));
+                break;
+            case "distribution":
+                license.setDistribution(config.getString(path(key)));
+                break;
+            case "comments":
+                license.setComments(config.getString(path(key)));
+                break;
+            default:
+                checkTag("project.license[" + license.getName() + "]", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return license;
+    }
+
+    /**
+     * <pre>
+     *     [[project.developer]]
+     *     name = '...'
+     *     email = '...'
+     * </pre>
+     *
+     * @param config Developer toml array
+     * @return list of Developer
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseDeveloper(XmlPullParser, boolean)
+     */
+    private List<Developer> readTomlDeveloper(TomlArray config) throws ModelParseException {
+        Objects.requireNonNull(config, "developers");
+        var ret = new ArrayList<Developer>(config.size());
+        for (int i = 0; i < config.size(); i++) {
+            ret.add(readTomlContributor(create(Developer::new, TomlLocations.TrackedDeveloper::new), config.getTable(i)));
+        }
+        return ret;
+    }
+
+    /**
+     * <pre>
+     *     [project]
+     *     developers = [
+     *      'Name',
+     *      'Name &lt;Email&gt;',
+     *      {name = '...', email = '...'}
+     *     ]
+     * </pre>
+     *
+     * @param config Developer toml array
+     * @return list of Developer
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseDeveloper(XmlPullParser, boolean)
+     */
+    private List<Developer> readTomlDevelopers(TomlArray config) throws ModelParseException {
+        Objects.requireNonNull(config, "developers");
+        var ret = new ArrayList<Developer>(config.size());
+        for (int i = 0; i < config.size(); i++) {
+            var content = config.get(i);
+            if (content instanceof String developer) {
+                ret.add(parseContributor(create(Developer::new, TomlLocations.TrackedDeveloper::new), developer));
+            } else if (content instanceof TomlTable developer) {
+                ret.add(readTomlContributor(create(Developer::new, TomlLocations.TrackedDeveloper::new), developer));
+            } else {
+                checkType("developer", "String|Table", config.inputPositionOf(i));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * <pre>
+     *     [[project.contributor]]
+     *     name = '...'
+     *     email = '...'
+     * </pre>
+     *
+     * @param config Contributor toml array
+     * @return list of Contributor
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseContributor(XmlPullParser, boolean)
+     */
+    private List<Contributor> readTomlContributor(TomlArray config) throws ModelParseException {
+        Objects.requireNonNull(config, "contributors");
+        var ret = new ArrayList<Contributor>(config.size());
+        for (int i = 0; i < config.size(); i++) {
+            ret.add(readTomlContributor(create(Contributor::new, TomlLocations.TrackedContributor::new), config.getTable(i)));
+        }
+        return ret;
+    }
+
+    /**
+     * <pre>
+     *     [project]
+     *     contributors = [
+     *      'Name',
+     *      'Name &lt;Email&gt;',
+     *      {name = '...', email = '...'}
+     *     ]
+     * </pre>
+     *
+     * @param config Contributor toml array
+     * @return list of Contributor
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseContributor(XmlPullParser, boolean)
+     */
+    private List<Contributor> readTomlContributors(TomlArray config) throws ModelParseException {
+        Objects.requireNonNull(config, "contributors");
+        var ret = new ArrayList<Contributor>(config.size());
+        for (int i = 0; i < config.size(); i++) {
+            var content = config.get(i);
+            if (content instanceof String developer) {
+                ret.add(parseContributor(create(Contributor::new, TomlLocations.TrackedContributor::new), developer));
+            } else if (content instanceof TomlTable developer) {
+                ret.add(readTomlContributor(create(Contributor::new, TomlLocations.TrackedContributor::new), developer));
+            } else {
+                throw new ModelParseException("Unrecognised 'contributor' value: " + content, -1, -1);
+            }
+        }
+        return ret;
+    }
+
+    private <T extends Contributor> T parseContributor(T contributor, String content) throws ModelParseException {
+        if (content.contains("<") && content.endsWith(">")) {
+            var i = content.indexOf('<');
+            var name = content.substring(0, i).strip();
+            var email = content.substring(i + 1, content.length() - 1).strip();
+            contributor.setName(name);
+            contributor.setEmail(email);
+        } else {
+            contributor.setName(content);
+        }
+        return contributor;
+    }
+
+    /**
+     * @param contributor Developer or Contributor instance
+     * @param config Developer or Contributor toml
+     * @param <T> type of {@code contributor}
+     * @return {@code contributor}
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseContributor(XmlPullParser, boolean)
+     * @see MavenXpp3Reader#parseDeveloper(XmlPullParser, boolean)
+     */
+    private <T extends Contributor> T readTomlContributor(T contributor, TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config);
+
+        for (var key : config.keySet()) {
+            track(contributor, config, key);
+            switch (toCamelCase(key)) {
+            case "name":
+                contributor.setName(config.getString(path(key)));
+                break;
+            case "email":
+                contributor.setEmail(config.getString(path(key)));
+                break;
+            case "url":
+                contributor.setUrl(config.getString(path(key)));
+                break;
+            case "organization":
+                contributor.setOrganization(config.getString(path(key)));
+                break;
+            case "organizationUrl":
+                contributor.setOrganizationUrl(config.getString(path(key)));
+                break;
+            case "role":
+            case "roles":
+                contributor.setRoles(asStringList(config.get(path(key))));
+                break;
+            case "timezone":
+                contributor.setTimezone(config.getString(path(key)));
+                break;
+            case "properties":
+                for (var entry : config.getTable(path(key)).toMap().entrySet()) {
+                    contributor.addProperty(entry.getKey(), (String) entry.getValue());
+                }
+                break;
+            case "id":
+                if (contributor instanceof Developer developer) {
+                    developer.setId(config.getString(path(key)));
+                    break;
+                }
+            default:
+                var role = (contributor instanceof Developer) ? "developer" : "contributor";
+                checkTag("project." + role + "[" + contributor.getName() + "]", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return contributor;
+    }
+
+    /**
+     * @param config MailingList toml array
+     * @return list of MailingList
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseMailingList(XmlPullParser, boolean)
+     */
+    private List<MailingList> readTomlMailingList(TomlArray config) throws ModelParseException {
+        Objects.requireNonNull(config, "mailingLists");
+        var ret = new ArrayList<MailingList>(config.size());
+        for (int i = 0; i < config.size(); i++) {
+            ret.add(readTomlMailingList(config.getTable(i)));
+        }
+        return ret;
+    }
+
+    /**
+     * @param config MailingList toml
+     * @return MailingList
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseMailingList(XmlPullParser, boolean)
+     */
+    private MailingList readTomlMailingList(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "mailingList");
+
+        var mail = create(MailingList::new, TomlLocations.TrackedMailingList::new);
+        for (var key : config.keySet()) {
+            track(mail, config, key);
+            switch (toCamelCase(key)) {
+            case "name":
+                mail.setName(config.getString(path(key)));
+                break;
+            case "subscribe":
+                mail.setSubscribe(config.getString(path(key)));
+                break;
+            case "unsubscribe":
+                mail.setUnsubscribe(config.getString(path(key)));
+                break;
+            case "post":
+                mail.setPost(config.getString(path(key)));
+                break;
+            case "archive":
+                mail.setArchive(config.getString(path(key)));
+                break;
+            case "other":
+            case "archives":
+            case "otherArchive":
+            case "otherArchives":
+                mail.setOtherArchives(asStringList(config.get(path(key))));
+                break;
+            default:
+                checkTag("project.mailingList[" + mail.getName() + "]", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return mail;
+    }
+
+    /**
+     * @param config Prerequisites toml
+     * @return Prerequisites
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parsePrerequisites(XmlPullParser, boolean)
+     */
+    private Prerequisites readTomlPrerequisites(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "prerequisites");
+
+        var pre = create(Prerequisites::new, TomlLocations.TrackedPrerequisites::new);
+        for (var key : config.keySet()) {
+            track(pre, config, key);
+            switch (toCamelCase(key)) {
+            case "maven":
+                pre.setMaven(config.getString(path(key)));
+                break;
+            default:
+                checkTag("project.prerequisites", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return pre;
+    }
+
+    /**
+     * @param config toml property table
+     * @return properties map
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseModel(XmlPullParser, boolean)
+     */
+    private Map<String, String> readTomlProperties(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config);
+
+        var map = new HashMap<String, String>();
+        for (var key : config.keySet()) {
+            var value = config.get(path(key));
+            if (value instanceof Boolean v) {
+                map.put(key, v.toString());
+            } else if (value instanceof String v) {
+                map.put(key, v);
+            } else if (value instanceof TomlTable table) {
+                readTomlProperties(map, table, key);
+            } else {
+                checkTag("properties[" + key + "]", "Boolean|String|Number|Table", config.inputPositionOf(path(key)));
+            }
+        }
+
+        return map;
+    }
+
+    /**
+     * @param map    properties map
+     * @param config toml property  sub-table
+     * @param p      parent key
+     * @throws ModelParseException
+     */
+    private void readTomlProperties(Map<String, String> map, TomlTable config, String p) throws ModelParseException {
+        for (var key : config.keySet()) {
+            var value = config.get(path(key));
+            if (value instanceof Boolean v) {
+                map.put(p + "." + key, v.toString());
+            } else if (value instanceof String v) {
+                map.put(p + "." + key, v);
+            } else if (value instanceof Integer v) {
+                map.put(p + "." + key, v.toString());
+            } else if (value instanceof Double v) {
+                map.put(p + "." + key, v.toString());
+            } else if (value instanceof TomlTable table) {
+                readTomlProperties(map, table, p + "." + key);
+            } else {
+                checkType("properties[" + p + "." + key + "]", "Boolean|String|Number|Table", config.inputPositionOf(path(key)));
+            }
+        }
+    }
+
+    /**
+     *
+     * @param config Scm toml
+     * @return Scm
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseScm(XmlPullParser, boolean)
+     */
+    private Scm readTomlScm(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "scm");
+
+        var scm = create(Scm::new, TomlLocations.TrackedScm::new);
+        for (var key : config.keySet()) {
+            track(scm, config, key);
+            switch (toCamelCase(key)) {
+            case "child":
+                for (var entry : readTomlProperties(config.getTable(path(key))).entrySet()) {
+                    switch (entry.getKey()) {
+                    case "scm.connection.inherit.append.path":
+                        scm.setChildScmConnectionInheritAppendPath(entry.getValue());
+                        break;
+                    case "child.scm.developerConnection.inherit.append.path":
+                        scm.setChildScmDeveloperConnectionInheritAppendPath(entry.getValue());
+                        break;
+                    case "child.scm.url.inherit.append.path":
+                        scm.setChildScmUrlInheritAppendPath(entry.getValue());
+                        break;
+                    default:
+                        checkAttribute("scm", entry.getKey(), config.inputPositionOf(path(key)));
+                    }
+                }
+                break;
+            case "connection":
+                scm.setConnection(config.getString(path(key)));
+                break;
+            case "developerConnection":
+                scm.setDeveloperConnection(config.getString(path(key)));
+                break;
+            case "tag":
+                scm.setTag(config.getString(path(key)));
+                break;
+            case "url":
+                scm.setUrl(config.getString(path(key)));
+                break;
+            default:
+                checkTag("scm", key, config.inputPositionOf(path(key)));
+            }
+        }
+        return scm;
+    }
+
+    /**
+     * <pre>
+     *     [management]
+     *     issue = {}
+     *     ci = {}
+     *     distribution = {}
+     *     dependency = {}
+     *     plugin = {}
+     * </pre>
+     *
+     * @param model  POM
+     * @param config Management toml
+     * @throws ModelParseException
+     */
+    private void readTomlManagement(Model model, TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "management");
+
+        for (var key : config.keySet()) {
+            switch (toCamelCase(key)) {
+            case "issue":
+                var issue = config.getTable(path(key));
+                defer(model, binder -> model.setIssueManagement(binder.readTomlIssueManagement(issue)));
+                break;
+            case "ci":
+                var ci = config.getTable(path(key));
+                defer(model, binder -> model.setCiManagement(binder.readTomlCiManagement(ci)));
+                break;
+            case "distribution":
+                var distribution = config.getTable(path(key));
+                defer(model, binder -> model.setDistributionManagement(binder.readTomlDistributionManagement(distribution)));
+                break;
+            case "dependency":
+                model.setDependencyManagement(bound(config.getTable(path(key)), TomlModelBinder::readTomlDependencyManager));
+                break;
+            case "plugin":
+            case "plugins":
+                var build = model.getBuild();
+                if (build == null) {
+                    build = create(Build::new, TomlLocations.TrackedBuild::new);
+                    model.setBuild(build);
+                }
+                build.setPluginManagement(bound(config.getTable(path(key)), TomlModelBinder::readTomlPluginManagement));
+                break;
+            default:
+                checkTag("management", key, config.inputPositionOf(path(key)));
+            }
+        }
+    }
+
+    /**
+     * @param config IssueManagement toml
+     * @return IssueManagement
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseIssueManagement(XmlPullParser, boolean)
+     */
+    private IssueManagement readTomlIssueManagement(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "issueManagement");
+
+        var manager = create(IssueManagement::new, TomlLocations.TrackedIssueManagement::new);
+        for (var key : config.keySet()) {
+            track(manager, config, key);
+            switch (toCamelCase(key)) {
+            case "system":
+                manager.setSystem(config.getString(path(key)));
+                break;
+            case "url":
+                manager.setUrl(config.getString(path(key)));
+                break;
+            default:
+                checkTag("issueManagement", key, config.inputPositionOf(path(key)));
+            }
+        }
+        return manager;
+    }
+
+    /**
+     * @param config CiManagement toml
+     * @return CiManagement
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseCiManagement(XmlPullParser, boolean)
+     */
+    private CiManagement readTomlCiManagement(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "ciManagement");
+
+        var manager = create(CiManagement::new, TomlLocations.TrackedCiManagement::new);
+        for (var key : config.keySet()) {
+            track(manager, config, key);
+            switch (toCamelCase(key)) {
+            case "system":
+                manager.setSystem(config.getString(path(key)));
+                break;
+            case "url":
+                manager.setUrl(config.getString(path(key)));
+                break;
+            case "notifiers":
+                manager.setNotifiers(readTomlNotifier(config.getArray(path(key))));
+                break;
+            default:
+                checkTag("ciManagement", key, config.inputPositionOf(path(key)));
+            }
+        }
+        return manager;
+    }
+
+    /**
+     * @param config Notifier toml array
+     * @return list of Notifier
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseNotifiers(XmlPullParser, boolean)
+     */
+    private List<Notifier> readTomlNotifier(TomlArray config) throws ModelParseException {
+        Objects.requireNonNull(config, "notifiers");
+
+        var ret = new ArrayList<Notifier>(config.size());
+        for (int i = 0; i < config.size(); i++) {
+            ret.add(readTomlNotifier(config.getTable(i)));
+        }
+
+        return ret;
+    }
+
+    /**
+     * @param config Notifier toml
+     * @return Notifier
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseNotifiers(XmlPullParser, boolean)
+     */
+    private Notifier readTomlNotifier(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "notifier");
+
+        var not = create(Notifier::new, TomlLocations.TrackedNotifier::new);
+        for (var key : config.keySet()) {
+            track(not, config, key);
+            switch (toCamelCase(key)) {
+            case "type":
+                not.setType(config.getString(path(key)));
+                break;
+            case "onError":
+            case "sendOnError":
+                not.setSendOnError(config.getBoolean(path(key)));
+                break;
+            case "onFailure":
+            case "sendOnFailure":
+                not.setSendOnFailure(config.getBoolean(path(key)));
+                break;
+            case "onSuccess":
+            case "sendOnSuccess":
+                not.setSendOnSuccess(config.getBoolean(path(key)));
+                break;
+            case "onWarning":
+            case "sendOnWarning":
+                not.setSendOnWarning(config.getBoolean(path(key)));
+                break;
+            case "address":
+                not.setAddress(config.getString(path(key)));
+                break;
+            case "configuration":
+                for (var entry : readTomlProperties(config.getTable(path(key))).entrySet()) {
+                    not.addConfiguration(entry.getKey(), entry.getValue());
+                }
+                break;
+            default:
+                checkTag("ciManagement.notifier[" + not.getType() + "]", key, config.inputPositionOf(path(key)));
+            }
+        }
+        return not;
+    }
+
+    /**
+     * @param config DistributionManagement toml
+     * @return DistributionManagement
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseDistributionManagement(XmlPullParser, boolean)
+     */
+    private DistributionManagement readTomlDistributionManagement(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "distributionManagement");
+
+        var manager = create(DistributionManagement::new, TomlLocations.TrackedDistributionManagement::new);
+        for (var key : config.keySet()) {
+            track(manager, config, key);
+            switch (toCamelCase(key)) {
+            case "repository":
+                manager.setRepository(readTomlDeploymentRepository(config.getTable(path(key))));
+                break;
+            case "snapshotRepository":
+                manager.setSnapshotRepository(readTomlDeploymentRepository(config.getTable(path(key))));
+                break;
+            case "site":
+                manager.setSite(readTomlSite(config.getTable(path(key))));
+                break;
+            case "downloadUrl":
+                manager.setDownloadUrl(config.getString(path(key)));
+                break;
+            case "relocation":
+                manager.setRelocation(readTomlRelocation(config.getTable(path(key))));
+                break;
+            case "status":
+                manager.setStatus(config.getString(path(key)));
+                break;
+            default:
+                checkTag("distributionManagement", key, config.inputPositionOf(path(key)));
+            }
+        }
+        return manager;
+    }
+
+    /**
+     * @param config DeploymentRepository toml
+     * @return DeploymentRepository
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseDeploymentRepository(XmlPullParser, boolean)
+     */
+    private DeploymentRepository readTomlDeploymentRepository(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "repository");
+
+        var repo = create(DeploymentRepository::new, TomlLocations.TrackedDeploymentRepository::new);
+        for (var key : config.keySet()) {
+            track(repo, config, key);
+            switch (toCamelCase(key)) {
+            case "uniqueVersion":
+                repo.setUniqueVersion(config.getBoolean(path(key)));
+                break;
+            case "releases":
+                repo.setReleases(readTomlRepositoryPolicy(repo.getName(), "releases", config.getTable(path(key))));
+                break;
+            case "snapshots":
+                repo.setSnapshots(readTomlRepositoryPolicy(repo.getName(), "snapshots", config.getTable(path(key))));
+                break;
+            case "id":
+                repo.setId(config.getString(path(key)));
+                break;
+            case "name":
+                repo.setName(config.getString(path(key)));
+                break;
+            case "url":
+                repo.setUrl(config.getString(path(key)));
+                break;
+            case "layout":
+                repo.setLayout(config.getString(path(key)));
+                break;
+            default:
+                checkTag("repository[" + repo.getName() + "]", key, config.inputPositionOf(path(key)));
+            }
+        }
+        return repo;
+    }
+
+
+    /**
+     * @param config Site toml
+     * @return Site
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseSite(XmlPullParser, boolean)
+     */
+    private Site readTomlSite(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "site");
+
+        var site = create(Site::new, TomlLocations.TrackedSite::new);
+        for (var key : config.keySet()) {
+            track(site, config, key);
+            switch (toCamelCase(key)) {
+            case "child":
+                for (var entry : readTomlProperties(config.getTable(path(key))).entrySet()) {
+                    switch (entry.getKey()) {
+                    case "site.url.inherit.append.path":
+                        site.setChildSiteUrlInheritAppendPath(entry.getValue());
+                        break;
+                    default:
+                        checkAttribute("site", entry.getKey(), config.inputPositionOf(path(key)));
+                    }
+                }
+                break;
+            case "id":
+                site.setId(config.getString(path(key)));
+                break;
+            case "name":
+                site.setName(config.getString(path(key)));
+                break;
+            case "url":
+                site.setUrl(config.getString(path(key)));
+                break;
+            default:
+                checkTag("site", key, config.inputPositionOf(path(key)));
+            }
+        }
+        return site;
+    }
+
+    /**
+     * @param config toml
+     * @return Relocation
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseRelocation(XmlPullParser, boolean)
+     */
+    private Relocation readTomlRelocation(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "relocation");
+
+        var loc = create(Relocation::new, TomlLocations.TrackedRelocation::new);
+        for (var key : config.keySet()) {
+            track(loc, config, key);
+            switch (toCamelCase(key)) {
+            case "group":
+            case "groupId":
+                loc.setGroupId(config.getString(path(key)));
+                break;
+            case "artifact":
+            case "artifactId":
+                loc.setArtifactId(config.getString(path(key)));
+                break;
+            case "version":
+                loc.setVersion(config.getString(path(key)));
+                break;
+            case "message":
+                loc.setMessage(config.getString(path(key)));
+                break;
+            default:
+                checkTag("relocation", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return loc;
+    }
+
+    /**
+     * @param config DependencyManagement toml
+     * @return DependencyManagement
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseDependencyManagement(XmlPullParser, boolean)
+     */
+    private DependencyManagement readTomlDependencyManager(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "dependencyManager");
+
+        var manager = create(DependencyManagement::new, TomlLocations.TrackedDependencyManagement::new);
+        for (var key : config.keySet()) {
+            track(manager, config, key);
+            switch (toCamelCase(key)) {
+            case "dependencies":
+                manager.setDependencies(readTomlDependencies(config.getArray(path(key)), null));
+                break;
+            default:
+                checkTag("dependencyManagement", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return manager;
+    }
+
+    /**
+     * <pre>
+     * [[dependency]]
+     * group = '...'
+     * artifact = '...'
+     * version = '...'
+     * </pre>
+     *
+     * @param model  POM
+     * @param config Dependency toml array
+     * @param scope Dependency scope, optional.
+     * @throws ModelParseException
+     */
+    private void readTomlDependencies(Model model, TomlArray config, String scope) throws ModelParseException {
+        Objects.requireNonNull(model, "model");
+        Objects.requireNonNull(config, "dependencies");
+
+        appendDependencies(model, config, scope);
+    }
+
+    /**
+     * <pre>
+     * [dependencies]
+     * compile = [
+     *      'group:artifact:version',
+     *      {group = '...', artifact = '...', version = '...'},
+     * ]
+     * </pre>
+     *
+     * <pre>
+     * [dependencies.test]
+     * "group:artifact" = 'version'
+     * "group:artifact" = {version = '...'}
+     * </pre>
+     *
+     * @param model  POM
+     * @param config Dependency toml array
+     * @param scope Dependency scope, optional.
+     * @throws ModelParseException
+     */
+    private void readTomlDependencies(Model model, TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(model, "mode");
+        Objects.requireNonNull(config, "dependencies");
+
+        for (var key : keys(config)) {
+            var scope = dependencyScope(key);
+            var value = config.get(path(key));
+            if (scope != null && (value instanceof TomlArray || value instanceof TomlTable)) {
+                appendDependencies(model, value, scope);
+            } else {
+                checkTag("dependency", key, config.inputPositionOf(path(key)));
+            }
+        }
+    }
+
+    /**
+     * @param key key of a {@code [dependencies]} table
+     * @return the scope of the dependencies of {@code key}, {@code null} when it is not a scope.
+     */
+    private static String dependencyScope(String key) {
+        switch (toCamelCase(key)) {
+        case "provided":
+        case "provider":
+            return "provided";
+        case "system":
+        case "compile":
+        case "runtime":
+        case "test":
+            return toCamelCase(key);
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Bind dependencies directly into the model dependency list, unless they were bound ahead in parallel.
+     *
+     * @param model  POM
+     * @param config Dependencies toml array or table
+     * @param scope Dependency scope, optional.
+     * @throws ModelParseException
+     */
+    private void appendDependencies(Model model, Object config, String scope) throws ModelParseException {
+        var dependencies = model.getDependencies();
+        var ret = bound(config, (b, c) -> (c instanceof TomlArray array)
+          ? b.readTomlDependencies(dependencies, array, scope)
+          : b.readTomlDependencies(dependencies, (TomlTable) c, scope));
+        if (ret != dependencies) {
+            dependencies.addAll(ret);
+        }
+    }
+
+    /**
+     * @param config Dependencies toml array, contains dependency expr or dependency table.
+     * @param scope Dependency scope, optional.
+     * @return list of Dependency
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseDependency(XmlPullParser, boolean)
+     */
+    private List<Dependency> readTomlDependencies(TomlArray config, String scope) throws ModelParseException {
+        Objects.requireNonNull(config, "dependencies");
+        return readTomlDependencies(new ArrayList<>(config.size()), config, scope);
+    }
+
+    /**
+     * @param ret list where the dependencies are added to
+     * @param config Dependencies toml array, contains dependency expr or dependency table.
+     * @param scope Dependency scope, optional.
+     * @return {@code ret}
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseDependency(XmlPullParser, boolean)
+     */
+    private List<Dependency> readTomlDependencies(List<Dependency> ret, TomlArray config, String scope) throws ModelParseException {
+        for (int i = 0; i < config.size(); i++) {
+            var child = config.get(i);
+            if (child instanceof String table) {
+                ret.add(lock(parseDependencyName(table, null, scope, config.inputPositionOf(i))));
+            } else if (child instanceof TomlTable table) {
+                ret.add(lock(readTomlDependency(table, scope)));
+            } else {
+                checkTag("dependency", config.inputPositionOf(i));
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * @param config Dependencies toml table contains dependency expr ("group:artifact") map to version or a table.
+     * @param scope Dependency scope, optional.
+     * @return list of Dependency
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseDependency(XmlPullParser, boolean)
+     */
+    private List<Dependency> readTomlDependencies(TomlTable config, String scope) throws ModelParseException {
+        Objects.requireNonNull(config, "dependencies");
+        return readTomlDependencies(new ArrayList<>(config.size()), config, scope);
+    }
+
+    /**
+     * @param ret list where the dependencies are added to
+     * @param config Dependencies toml table contains dependency expr ("group:artifact") map to version or a table.
+     * @param scope Dependency scope, optional.
+     * @return {@code ret}
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseDependency(XmlPullParser, boolean)
+     */
+    private List<Dependency> readTomlDependencies(List<Dependency> ret, TomlTable config, String scope) throws ModelParseException {
+        for (var key : keys(config)) {
+            ret.add(lock(parseDependencyName(key, config.get(path(key)), scope, config.inputPositionOf(path(key)))));
+        }
+
+        return ret;
+    }
+
+
+    /**
+     * @param config Dependency toml
+     * @param scope Dependency scope, optional.
+     * @return list of Dependency
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseDependency(XmlPullParser, boolean)
+     */
+    private Dependency readTomlDependency(TomlTable config, String scope) throws ModelParseException {
+        Objects.requireNonNull(config, "dependency");
+
+        var dep = create(Dependency::new, TomlLocations.TrackedDependency::new);
+        if (scope != null) {
+            dep.setScope(intern(scope));
+        }
+
+        return readTomlDependency(dep, config);
+    }
+
+    /**
+     *
+     * @param line Dependency expression, example "group[:artifact[:version]]"
+     * @param config ({@code String}) version, or ({@link TomlTable}) table.
+     * @param scope Dependency scope, optional.
+     * @param pos position of the {@code config}
+     * @return Dependency
+     * @throws ModelParseException
+     */
+    private Dependency parseDependencyName(String line, Object config, String scope, TomlPosition pos) throws ModelParseException {
+        Objects.requireNonNull(line, "dependency");
+
+        var dep = create(Dependency::new, TomlLocations.TrackedDependency::new);
+        if (scope != null) {
+            dep.setScope(intern(scope));
+        }
+
+        // group:artifact:version
+        // group[:artifact] = version | {...}
+        // @alias[:version][ = version | {...}]
+        if (line.startsWith("@")) {
+            setLibrary(dep, line, pos);
+        } else {
+            var parts = line.split(":");
+            switch (parts.length) {
+            case 3:
+                dep.setVersion(version(parts[2], pos));
+            case 2:
+                dep.setArtifactId(intern(parts[1]));
+            case 1:
+                dep.setGroupId(intern(parts[0]));
+                break;
+            default:
+                throw new ModelParseException("Unrecognised tag: 'dependency." + line + "'", -1, -1);
+            }
+        }
+        track(dep, "groupId", pos);
+        track(dep, "artifactId", pos);
+        track(dep, "version", pos);
+
+        if (config != null) {
+            if (config instanceof String version) {
+                dep.setVersion(version(version, pos));
+            } else if (config instanceof TomlTable table) {
+                readTomlDependency(dep, table);
+            } else {
+                checkType(line, "String|Table", pos);
+            }
+        }
+        return dep;
+    }
+
+    /**
+     * @param dep Dependency
+     * @param config Dependency table
+     * @return {@code dep}
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseDependency(XmlPullParser, boolean)
+     */
+    private Dependency readTomlDependency(Dependency dep, TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "dependency");
+        Objects.requireNonNull(dep, "dependency");
+
+        for (var key : config.keySet()) {
+            track(dep, config, key);
+            switch (toCamelCase(key)) {
+            case "group":
+            case "groupId":
+                dep.setGroupId(intern(config.getString(path(key))));
+                break;
+            case "artifact":
+            case "artifactId":
+                dep.setArtifactId(intern(config.getString(path(key))));
+                break;
+            case "version":
+                dep.setVersion(version(config.getString(path(key)), config.inputPositionOf(path(key))));
+                break;
+            case "alias":
+                setLibrary(dep, "@" + config.getString(path(key)), config.inputPositionOf(path(key)));
+                break;
+            case "type":
+                dep.setType(intern(config.getString(path(key))));
+                break;
+            case "classifier":
+                dep.setClassifier(intern(config.getString(path(key))));
+                break;
+            case "scope":
+                dep.setScope(intern(config.getString(path(key))));
+                break;
+            case "systemPath":
+                dep.setSystemPath(config.getString(path(key)));
+                break;
+            case "optional":
+                dep.setOptional(config.getBoolean(path(key)));
+                break;
+            case "exclusions":
+                dep.setExclusions(readTomlExclusion(dep, config.getArray(path(key))));
+                break;
+            default:
+                checkTag("dependency[" + dep.getGroupId() + ":" + dep.getArtifactId() + "]", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return dep;
+    }
+
+    /**
+     * @param dep Dependency belongs to
+     * @param config Exclusion toml array
+     * @return list of Exclusion
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseExclusion(XmlPullParser, boolean)
+     */
+    private List<Exclusion> readTomlExclusion(Dependency dep, TomlArray config) throws ModelParseException {
+        Objects.requireNonNull(config, "exclusions");
+
+        var ret = new ArrayList<Exclusion>(config.size());
+        for (int i = 0; i < config.size(); i++) {
+            ret.add(readTomlExclusion(dep, config.getTable(i)));
+        }
+
+        return ret;
+    }
+
+    /**
+     * @param dep Dependency belongs to
+     * @param config Exclusion toml
+     * @return Exclusion
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseExclusion(XmlPullParser, boolean)
+     */
+    private Exclusion readTomlExclusion(Dependency dep, TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "exclusion");
+
+        var ext = create(Exclusion::new, TomlLocations.TrackedExclusion::new);
+        for (var key : config.keySet()) {
+            track(ext, config, key);
+            switch (toCamelCase(key)) {
+            case "group":
+            case "groupId":
+                ext.setGroupId(intern(config.getString(path(key))));
+                break;
+            case "artifact":
+            case "artifactId":
+                ext.setArtifactId(intern(config.getString(path(key))));
+                break;
+            default:
+                var depName = dep.getGroupId() + ":" + dep.getArtifactId();
+                var name = ext.getGroupId() + ":" + ext.getArtifactId();
+                checkTag("dependency[" + depName + "].exclusion[" + name + "]", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return ext;
+    }
+
+
+    /**
+     * @param config Repository toml array
+     * @return list of Repository
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseRepository(XmlPullParser, boolean)
+     */
+    private List<Repository> readTomlRepositories(TomlArray config) throws ModelParseException {
+        Objects.requireNonNull(config, "repositories");
+
+        var ret = new ArrayList<Repository>(config.size());
+        for (int i = 0; i < config.size(); i++) {
+            ret.add(readTomlRepositories(config.getTable(i)));
+        }
+
+        return ret;
+    }
+
+    /**
+     * @param config Repository toml
+     * @return Repository
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseRepository(XmlPullParser, boolean)
+     */
+    private Repository readTomlRepositories(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "repository");
+
+        var rep = create(Repository::new, TomlLocations.TrackedRepository::new);
+        for (var key : config.keySet()) {
+            track(rep, config, key);
+            switch (toCamelCase(key)) {
+            case "releases":
+                rep.setReleases(readTomlRepositoryPolicy(rep.getName(), key, config.getTable(path(key))));
+                break;
+            case "snapshots":
+                rep.setSnapshots(readTomlRepositoryPolicy(rep.getName(), key, config.getTable(path(key))));
+                break;
+            case "id":
+                rep.setId(config.getString(path(key)));
+                break;
+            case "name":
+                rep.setName(config.getString(path(key)));
+                break;
+            case "url":
+                rep.setUrl(config.getString(path(key)));
+                break;
+            case "layout":
+                rep.setLayout(config.getString(path(key)));
+                break;
+            default:
+                checkTag("repository[" + rep.getName() + "]", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return rep;
+    }
+
+    /**
+     * @param repository The name of the Repository belongs to
+     * @param tag current tag, either {@code "releases"} or {@code "snapshots"}
+     * @param config RepositoryPolicy toml
+     * @return RepositoryPolicy
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseRepositoryPolicy(XmlPullParser, boolean)
+     */
+    private RepositoryPolicy readTomlRepositoryPolicy(String repository, String tag, TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "repositoryPolicy");
+
+        var rep = create(RepositoryPolicy::new, TomlLocations.TrackedRepositoryPolicy::new);
+        for (var key : config.keySet()) {
+            track(rep, config, key);
+            switch (toCamelCase(key)) {
+            case "enabled":
+                rep.setEnabled(config.getBoolean(path(key)));
+                break;
+            case "updatePolicy":
+                rep.setUpdatePolicy(config.getString(path(key)));
+                break;
+            case "checksumPolicy":
+                rep.setChecksumPolicy(config.getString(path(key)));
+                break;
+            default:
+                checkTag("repository[" + repository + "]." + tag, key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return rep;
+    }
+
+    /**
+     * @param build Pom build
+     * @param config Build toml
+     * @return Build
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseBuild(XmlPullParser, boolean)
+     */
+    private Build readTomlBuild(Build build, TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "build");
+
+        if (build == null) build = create(Build::new, TomlLocations.TrackedBuild::new);
+
+        for (var key : config.keySet()) {
+            track(build, config, key);
+            switch (toCamelCase(key)) {
+            case "sourceDirectory":
+                deprecated("use '[directory] source=...' instead", config.inputPositionOf(path(key)));
+                build.setSourceDirectory(config.getString(path(key)));
+                break;
+            case "scriptSourceDirectory":
+                deprecated("use '[directory] script-source=...' instead", config.inputPositionOf(path(key)));
+                build.setScriptSourceDirectory(config.getString(path(key)));
+                break;
+            case "testSourceDirectory":
+                deprecated("use '[directory] test-source=...' instead", config.inputPositionOf(path(key)));
+                build.setTestSourceDirectory(config.getString(path(key)));
+                break;
+            case "outputDirectory":
+                deprecated("use '[directory] output=...' instead", config.inputPositionOf(path(key)));
+                build.setOutputDirectory(config.getString(path(key)));
+                break;
+            case "testOutputDirectory":
+                deprecated("use '[directory] test-output=...' instead", config.inputPositionOf(path(key)));
+                build.setTestOutputDirectory(config.getString(path(key)));
+                break;
+            case "extension":
+            case "extensions":
+                build.setExtensions(readTomlExtension(config.getArray(path(key))));
+                break;
+            case "defaultGoal":
+                build.setDefaultGoal(config.getString(path(key)));
+                break;
+            case "resource":
+            case "resources":
+                deprecated("use '[[directory.resource]]' instead", config.inputPositionOf(path(key)));
+                build.setResources(readTomlResource(config.getArray(path(key))));
+                break;
+            case "testResource":
+            case "testResources":
+                deprecated("use '[[directory.test-resource]]' instead", config.inputPositionOf(path(key)));
+                build.setTestResources(readTomlResource(config.getArray(path(key))));
+                break;
+            case "directory":
+                build.setDirectory(config.getString(path(key)));
+                break;
+            case "finalName":
+                build.setFinalName(config.getString(path(key)));
+                break;
+            case "filter":
+            case "filters":
+                build.setFilters(asStringList(config.get(path(key))));
+                break;
+            case "plugin":
+            case "plugins":
+                build.setPlugins(bound(config.get(path(key)), (b, c) -> b.readTomlPlugins(c, config.inputPositionOf(path(key)))));
+                break;
+            case "pluginManagement":
+                deprecated("use '[management.plugin]' instead", config.inputPositionOf(path(key)));
+                build.setPluginManagement(readTomlPluginManagement(config.getTable(path(key))));
+                break;
+            default:
+                checkTag("build", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return build;
+    }
+
+    /**
+     * <pre>
+     * [directory]
+     * source = '...'
+     * test-source = '...'
+     * </pre>
+     * @param build POM Build
+     * @param config Directory toml
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseBuild(XmlPullParser, boolean)
+     */
+    private Build readTomlBuildDirectory(Build build, TomlTable config) throws ModelParseException {
+        if (build == null) build = create(Build::new, TomlLocations.TrackedBuild::new);
+
+        for (var key : config.keySet()) {
+            track(build, config, key);
+            switch (toCamelCase(key)) {
+            case "source":
+                build.setSourceDirectory(config.getString(path(key)));
+                break;
+            case "scriptSource":
+                build.setScriptSourceDirectory(config.getString(path(key)));
+                break;
+            case "testSource":
+                build.setTestSourceDirectory(config.getString(path(key)));
+                break;
+            case "output":
+                build.setOutputDirectory(config.getString(path(key)));
+                break;
+            case "testOutput":
+                build.setTestOutputDirectory(config.getString(path(key)));
+                break;
+            case "resource":
+            case "resources":
+                build.setResources(readTomlResource(config.getArray(path(key))));
+                break;
+            case "testResource":
+            case "testResources":
+                build.setTestResources(readTomlResource(config.getArray(path(key))));
+                break;
+            default:
+                checkTag("build", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return build;
+    }
+
+    /**
+     * @param config Extension toml array
+     * @return list of Extension
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseExtension(XmlPullParser, boolean)
+     */
+    private List<Extension> readTomlExtension(TomlArray config) throws ModelParseException {
+        Objects.requireNonNull(config, "extensions");
+        var ret = new ArrayList<Extension>(config.size());
+        for (int i = 0; i < config.size(); i++) {
+            ret.add(readTomlExtension(config.getTable(i)));
+        }
+        return ret;
+    }
+
+    /**
+     * @param config Extension toml
+     * @return Extension
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseExtension(XmlPullParser, boolean)
+     */
+    private Extension readTomlExtension(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "extension");
+
+        var ext = create(Extension::new, TomlLocations.TrackedExtension::new);
+        for (var key : config.keySet()) {
+            track(ext, config, key);
+            switch (toCamelCase(key)) {
+            case "group":
+            case "groupId":
+                ext.setGroupId(config.getString(path(key)));
+                break;
+            case "artifact":
+            case "artifactId":
+                ext.setArtifactId(config.getString(path(key)));
+                break;
+            case "version":
+                ext.setVersion(config.getString(path(key)));
+                break;
+            default:
+                checkTag("extension[" + ext.getGroupId() + ":" + ext.getArtifactId() + "]", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return ext;
+    }
+
+    /**
+     * @param config Resource toml array
+     * @return list of Resource
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseResource(XmlPullParser, boolean)
+     */
+    private List<Resource> readTomlResource(TomlArray config) throws ModelParseException {
+        Objects.requireNonNull(config, "resources");
+        var ret = new ArrayList<Resource>(config.size());
+        for (int i = 0; i < config.size(); i++) {
+            ret.add(readTomlResource(config.getTable(i)));
+        }
+        return ret;
+    }
+
+    /**
+     * @param config Resource toml
+     * @return Resource
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parseResource(XmlPullParser, boolean)
+     */
+    private Resource readTomlResource(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "resource");
+
+        var res = create(Resource::new, TomlLocations.TrackedResource::new);
+        for (var key : config.keySet()) {
+            track(res, config, key);
+            switch (toCamelCase(key)) {
+            case "directory":
+                res.setDirectory(config.getString(path(key)));
+                break;
+            case "targetPath":
+                res.setTargetPath(config.getString(path(key)));
+                break;
+            case "filtering":
+                res.setFiltering(config.getBoolean(path(key)));
+                break;
+            case "include":
+            case "includes":
+                res.setIncludes(asStringList(config.get(path(key))));
+                break;
+            case "exclude":
+            case "excludes":
+                res.setExcludes(asStringList(config.get(path(key))));
+                break;
+            default:
+                checkTag("resource", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * @param config PluginManagement toml
+     * @return PluginManagement
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parsePluginManagement(XmlPullParser, boolean)
+     */
+    private PluginManagement readTomlPluginManagement(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "pluginManagement");
+
+        var manager = create(PluginManagement::new, TomlLocations.TrackedPluginManagement::new);
+        for (var key : config.keySet()) {
+            track(manager, config, key);
+            switch (toCamelCase(key)) {
+            case "plugins":
+                manager.setPlugins(readTomlPlugins(config.getArray(path(key))));
+                break;
+            default:
+                checkTag("pluginManagement", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return manager;
+    }
+
+    /**
+     * <pre>
+     *     [[build.plugin]]
+     *     group = '...'
+     *     artifact = '..'
+     *     version = '...'
+     *     configuration = '...'
+     * </pre>
+     * <pre>
+     *     [build.plugin."group:artifact:version"]
+     *     configuration = '...'
+     * </pre>
+     *
+     * @param config Plugin toml array or table
+     * @param pos position of config
+     * @return list of Plugin
+     * @throws ModelParseException
+     */
+    private List<Plugin> readTomlPlugins(Object config, TomlPosition pos) throws ModelParseException {
+        Objects.requireNonNull(config, "plugins");
+
+        if (config instanceof TomlArray array) {
+            return readTomlPlugins(array);
+
+        } else if (config instanceof TomlTable table) {
+            var ret = new ArrayList<Plugin>(table.size());
+            for (var key : keys(table)) {
+                var plugin = create(Plugin::new, TomlLocations.TrackedPlugin::new);
+                var keyPos = table.inputPositionOf(path(key));
+                if (key.startsWith("@")) {
+                    setPlugin(plugin, key, keyPos);
+                } else {
+                    var parts = key.split(":");
+                    plugin.setGroupId(intern(parts[0]));
+                    plugin.setArtifactId(intern(parts[1]));
+
+                    if (parts.length == 3) {
+                        plugin.setVersion(version(parts[2], keyPos));
+                    } else if (parts.length > 3) {
+                        throw new IllegalArgumentException("");
+                    }
+                }
+
+                track(plugin, "groupId", keyPos);
+                track(plugin, "artifactId", keyPos);
+                track(plugin, "version", keyPos);
+
+                var pluginConfig = table.getTable(path(key));
+                for (var subkey : pluginConfig.keySet()) {
+                    track(plugin, pluginConfig, subkey);
+                    readTomlPlugin(plugin, pluginConfig, subkey);
+                }
+
+                ret.add(plugin);
+            }
+            return ret;
+        } else {
+            checkType("build.plugin", "Array|Table", pos);
+            return List.of();
+        }
+    }
+
+    /**
+     * <pre>
+     *     [[build.plugin]]
+     *     group = '...'
+     *     artifact = '..'
+     *     version = '...'
+     *     configuration = '...'
+     * </pre>
+     *
+     * @param config Plugin toml array
+     * @return list of Plugin
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parsePlugin(XmlPullParser, boolean)
+     */
+    private List<Plugin> readTomlPlugins(TomlArray config) throws ModelParseException {
+        Objects.requireNonNull(config, "plugins");
+        var ret = new ArrayList<Plugin>(config.size());
+        for (int i = 0; i < config.size(); i++) {
+            ret.add(readTomlPlugin(config.getTable(i)));
+        }
+        return ret;
+    }
+
+
+    /**
+     * @param config Plugin toml
+     * @return Plugin
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parsePlugin(XmlPullParser, boolean)
+     */
+    private Plugin readTomlPlugin(TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "plugin");
+
+        var plugin = create(Plugin::new, TomlLocations.TrackedPlugin::new);
+        for (var key : config.keySet()) {
+            track(plugin, config, key);
+            switch (toCamelCase(key)) {
+            case "group":
+            case "groupId":
+                plugin.setGroupId(intern(config.getString(path(key))));
+                break;
+            case "artifact":
+            case "artifactId":
+                plugin.setArtifactId(intern(config.getString(path(key))));
+                break;
+            case "alias":
+                setPlugin(plugin, "@" + config.getString(path(key)), config.inputPositionOf(path(key)));
+                break;
+            default:
+                readTomlPlugin(plugin, config, key);
+            }
+        }
+
+        return plugin;
+    }
+
+    /**
+     * set {@code plugin}.
+     *
+     * @param plugin current Plugin
+     * @param config Plugin toml
+     * @param key current property
+     * @return {@code plugin}
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parsePlugin(XmlPullParser, boolean)
+     */
+    private Plugin readTomlPlugin(Plugin plugin, TomlTable config, String key) throws ModelParseException {
+        Objects.requireNonNull(config, "plugin");
+
+        switch (toCamelCase(key)) {
+        case "version":
+            plugin.setVersion(version(config.getString(path(key)), config.inputPositionOf(path(key))));
+            break;
+        case "extensions":
+            plugin.setExtensions(config.getBoolean(path(key)));
+            break;
+        case "executions":
+            plugin.setExecutions(readTomlPluginExecutions(plugin, config.getArray(path(key))));
+            break;
+        case "dependency":
+        case "dependencies":
+            plugin.setDependencies(readTomlDependencies(config.getArray(path(key)), null));
+            break;
+        case "goal":
+        case "goals":
+            plugin.setGoals(asDOM("goals", config.getTable(path(key))));
+            break;
+        case "inherited":
+            plugin.setInherited(config.getBoolean(path(key)));
+            break;
+        case "configuration":
+            plugin.setConfiguration(asDOM("configuration", config.getTable(path(key))));
+            break;
+        default:
+            checkTag("plugin[" + plugin.getGroupId() + ":" + plugin.getArtifactId() + "]", key, config.inputPositionOf(path(key)));
+        }
+
+        return plugin;
+    }
+
+    /**
+     * @param plugin current plugin
+     * @param config PluginExecution toml array
+     * @return list of PluginExecution
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parsePluginExecution(XmlPullParser, boolean)
+     */
+    private List<PluginExecution> readTomlPluginExecutions(Plugin plugin, TomlArray config) throws ModelParseException {
+        Objects.requireNonNull(config, "pluginExecutions");
+        var ret = new ArrayList<PluginExecution>(config.size());
+        for (int i = 0; i < config.size(); i++) {
+            ret.add(readTomlPluginExecutions(plugin, config.getTable(i)));
+        }
+        return ret;
+    }
+
+    /**
+     * @param plugin current plugin
+     * @param config PluginExecution toml
+     * @return PluginExecution
+     * @throws ModelParseException
+     * @see MavenXpp3Reader#parsePluginExecution(XmlPullParser, boolean)
+     */
+    private PluginExecution readTomlPluginExecutions(Plugin plugin, TomlTable config) throws ModelParseException {
+        Objects.requireNonNull(config, "pluginExecution");
+
+        var exe = create(PluginExecution::new, TomlLocations.TrackedPluginExecution::new);
+        for (var key : config.keySet()) {
+            track(exe, config, key);
+            switch (toCamelCase(key)) {
+            case "id":
+                exe.setId(config.getString(path(key)));
+                break;
+            case "phase":
+                exe.setPhase(config.getString(path(key)));
+                break;
+            case "goal":
+            case "goals":
+                exe.setGoals(asStringList(config.get(path(key))));
+                break;
+            case "inherited":
+                exe.setInherited(config.getBoolean(path(key)));
+                break;
+            case "configuration":
+                exe.setConfiguration(asDOM("configuration", config.getTable(path(key))));
+                break;
+            default:
+                checkTag("plugin[" + plugin.getGroupId() + ":" + plugin.getArtifactId() + "].execution", key, config.inputPositionOf(path(key)));
+            }
+        }
+
+        return exe;
+    }
+
+    /**
+     * Submit the heavy parts of the independent top-level tables ({@code properties}, {@code dependency},
+     * {@code dependencies}, {@code management} and {@code build}) to be bound in parallel.
+     *
+     * @param config POM toml
+     * @see #bound(Object, Binding)
+     */
+    private void prebindSections(TomlTable config) {
+        for (var key : config.keySet()) {
+            switch (toCamelCase(key)) {
+            case "property":
+            case "properties":
+                if (config.isTable(path(key))) {
+                    prebind(config.getTable(path(key)), TomlModelBinder::readTomlProperties);
+                }
+                break;
+            case "dependency":
+                if (config.isArray(path(key))) {
+                    prebind(config.getArray(path(key)), (b, c) -> b.readTomlDependencies(c, null));
+                }
+                break;
+            case "dependencies":
+                if (config.isTable(path(key))) {
+                    var table = config.getTable(path(key));
+                    for (var sub : table.keySet()) {
+                        var scope = dependencyScope(sub);
+                        if (scope == null) {
+                            continue;
+                        }
+                        if (table.isArray(path(sub))) {
+                            prebind(table.getArray(path(sub)), (b, c) -> b.readTomlDependencies(c, scope));
+                        } else if (table.isTable(path(sub))) {
+                            prebind(table.getTable(path(sub)), (b, c) -> b.readTomlDependencies(c, scope));
+                        }
+                    }
+                }
+                break;
+            case "management":
+                if (config.isTable(path(key))) {
+                    var table = config.getTable(path(key));
+                    for (var sub : table.keySet()) {
+                        switch (toCamelCase(sub)) {
+                        case "dependency":
+                            if (table.isTable(path(sub))) {
+                                prebind(table.getTable(path(sub)), TomlModelBinder::readTomlDependencyManager);
+                            }
+                            break;
+                        case "plugin":
+                        case "plugins":
+                            if (table.isTable(path(sub))) {
+                                prebind(table.getTable(path(sub)), TomlModelBinder::readTomlPluginManagement);
+                            }
+                            break;
+                        }
+                    }
+                }
+                break;
+            case "build":
+                if (config.isTable(path(key))) {
+                    var table = config.getTable(path(key));
+                    for (var sub : table.keySet()) {
+                        switch (toCamelCase(sub)) {
+                        case "plugin":
+                        case "plugins":
+                            var value = table.get(path(sub));
+                            if (value != null) {
+                                prebind(value, (b, c) -> b.readTomlPlugins(c, table.inputPositionOf(path(sub))));
+                            }
+                            break;
+                        }
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Bind {@code config} on a forked binder in the common pool. Diagnostics of the forked binder are
+     * buffered, and replayed when the result is taken by {@link #bound(Object, Binding)}.
+     */
+    private <C, T> void prebind(C config, Binding<C, T> binding) {
+        prebound.put(config, ForkJoinPool.commonPool().submit(() -> {
+            var collected = new ArrayList<TomlDiagnostic>();
+            var binder = new TomlModelBinder(source, options, strings, collected::add, limits, locations);
+            binder.catalog = catalog;
+            binder.lock = lock;
+            binder.lint = lint;
+            try {
+                return new Prebound<>(binding.bind(binder, config), null, collected);
+            } catch (ModelParseException | RuntimeException e) {
+                return new Prebound<>(null, e, collected);
+            }
+        }));
+    }
+
+    /**
+     * @return the value bound ahead by {@link #prebind(Object, Binding)}, or bind {@code config} now.
+     */
+    @SuppressWarnings("unchecked")
+    private <C, T> T bound(C config, Binding<C, T> binding) throws ModelParseException {
+        var task = (prebound == null || config == null) ? null : prebound.get(config);
+        if (task == null) {
+            return binding.bind(this, config);
+        }
+
+        var result = (Prebound<T>) task.join();
+        result.diagnostics().forEach(diagnostics);
+        if (result.error() instanceof ModelParseException e) {
+            throw e;
+        } else if (result.error() instanceof RuntimeException e) {
+            throw e;
+        }
+        return result.value();
+    }
+
+    @FunctionalInterface
+    private interface Binding<C, T> {
+        T bind(TomlModelBinder binder, C config) throws ModelParseException;
+    }
+
+    private record Prebound<T>(T value, Exception error, List<TomlDiagnostic> diagnostics) {
+    }
+
+    private List<String> asStringList(Object obj) {
+        if (obj instanceof String s) {
+            return List.of(s);
+        } else if (obj instanceof TomlArray array) {
+            var ret = new ArrayList<String>(array.size());
+            for (int i = 0; i < array.size(); i++) {
+                ret.add(array.get(i).toString());
+            }
+            return ret;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * transform toml table to dom object.
+     * <p>
+     * An array {@code items = [...]} (or {@code item = [...]}) becomes an {@code <items>} element holding one
+     * {@code <item>} element per table or string. Keys holding an upper case letter, such as {@code "Main-Class"},
+     * are not kebab case, so they are kept as element names.
+     */
+    private Xpp3Dom asDOM(String name, TomlTable config) throws ModelParseException {
+        var dom = new Xpp3Dom(name);
+        for (var key : keys(config)) {
+            limits.checkTime(config, key);
+            if (config.isString(path(key))) {
+                var child = new Xpp3Dom(intern(domName(key)));
+                child.setValue(intern(config.getString(path(key))));
+                dom.addChild(child);
+            } else if (config.isBoolean(path(key))) {
+                var child = new Xpp3Dom(intern(domName(key)));
+                child.setValue(config.getBoolean(path(key)).toString());
+                dom.addChild(child);
+            } else if (config.isTable(path(key))) {
+                dom.addChild(asDOM(intern(domName(key)), config.getTable(path(key))));
+            } else if (config.isArray(path(key))) {
+                var list = domName(key);
+                String item;
+                if (list.endsWith("s")) {
+                    item = list.substring(0, list.length() - 1);
+                } else {
+                    item = list;
+                    list = list + "s";
+                }
+
+                var array = config.getArray(path(key));
+                var child = new Xpp3Dom(intern(list));
+                for (int i = 0; i < array.size(); i++) {
+                    if (array.get(i) instanceof String value) {
+                        var text = new Xpp3Dom(intern(item));
+                        text.setValue(intern(value));
+                        child.addChild(text);
+                    } else {
+                        child.addChild(asDOM(intern(item), array.getTable(i)));
+                    }
+                }
+                dom.addChild(child);
+            } else {
+                checkTag(name, key, config.inputPositionOf(path(key)));
+            }
+        }
+        return dom;
+    }
+
+    private static String domName(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            if (Character.isUpperCase(key.charAt(i))) return key;
+        }
+        return toCamelCase(key);
+    }
+
+    /**
+     * Keys of {@code config} in the document order, as {@link TomlTable#keySet()} is not ordered. Used where
+     * the order is significant: root tables, dependencies, plugins and plugin configurations.
+     */
+    static Collection<String> keys(TomlTable config) {
+        var keys = config.keySet();
+        if (keys.size() < 2) {
+            return keys;
+        }
+        var ret = new ArrayList<>(keys);
+        ret.sort(Comparator.comparingLong(key -> order(config.inputPositionOf(path(key)))));
+        return ret;
+    }
+
+    private static long order(TomlPosition pos) {
+        return pos == null ? Long.MAX_VALUE : ((long) pos.line() << 32) | pos.column();
+    }
+
+    /**
+     * Single-segment key path of {@code key}.
+     * <p>
+     * Keys are always looked up by path, because {@code TomlTable.get(String)} parses its argument as a
+     * dotted key on every call. Paths of known keys are cached, so looking them up allocates nothing.
+     */
+    static List<String> path(String key) {
+        var ret = PATHS.get(key);
+        if (ret == null) {
+            ret = List.of(key);
+            if (PATHS.size() < CACHE_LIMIT) {
+                PATHS.putIfAbsent(key, ret);
+            }
+        }
+        return ret;
+    }
+
+    static String toCamelCase(String key) {
+        if (key.indexOf('-') < 0) {
+            return key;
+        }
+
+        var ret = CAMEL_CASES.get(key);
+        if (ret == null) {
+            ret = kebabToCamelCase(key);
+            if (CAMEL_CASES.size() < CACHE_LIMIT) {
+                CAMEL_CASES.putIfAbsent(key, ret);
+            }
+        }
+        return ret;
+    }
+
+    private static String kebabToCamelCase(String key) {
+        var length = key.length();
+        var buffer = new StringBuilder(length);
+        int i = 0;
+        int j;
+        while (i < length && (j = key.indexOf('-', i)) != -1) {
+            buffer.append(key, i, j);
+            if (j + 1 < length) {
+                buffer.append(Character.toUpperCase(key.charAt(j + 1)));
+            }
+            i = j + 2;
+        }
+
+        if (i < length) {
+            buffer.append(key, i, length);
+        }
+
+        return buffer.toString();
+    }
+
+    /**
+     * @param config POM toml
+     * @return the version catalog referenced by the root {@code catalog} key, relative to the pom file.
+     * @throws IOException
+     * @throws ModelParseException
+     */
+    private TomlCatalog readCatalog(TomlTable config) throws IOException, ModelParseException {
+        var value = config.get(path("catalog"));
+        if (value == null) return null;
+        isSelfContained = false;
+
+        var pos = config.inputPositionOf(path("catalog"));
+        if (!(value instanceof String file)) {
+            throw new ModelParseException("'catalog' expects a path to versions.toml", pos.line(), pos.column());
+        }
+        var dir = source != null ? source.toAbsolutePath().getParent() : Path.of("");
+        try {
+            return TomlCatalog.load(dir.resolve(file));
+        } catch (NoSuchFileException e) {
+            throw new ModelParseException("Catalog not found: " + e.getFile(), pos.line(), pos.column(), e);
+        }
+    }
+
+    /**
+     * @param pom pom file, optional.
+     * @return the lock file next to {@code pom}, or {@code null} when there is none or it is disabled.
+     * @throws IOException
+     * @throws ModelParseException
+     * @see TomlOptions#LOCK
+     */
+    private TomlLockfile readLock(Path pom) throws IOException, ModelParseException {
+        return options.lock && pom != null ? TomlLockfile.load(pom) : null;
+    }
+
+    /**
+     * Pin the dynamic version of {@code dep} to its locked version.
+     *
+     * @param dep Dependency
+     * @return {@code dep}
+     * @see TomlLockfile
+     */
+    private Dependency lock(Dependency dep) {
+        if (lock != null && TomlLockfile.isDynamic(dep.getVersion())) {
+            var version = lock.version(dep.getGroupId(), dep.getArtifactId(), dep.getVersion());
+            if (version != null) {
+                dep.setVersion(intern(version));
+            }
+        }
+        return dep;
+    }
+
+    /**
+     * @param version version, or {@code '@name'} of a catalog version.
+     * @param pos     position of the {@code version}
+     * @return version
+     * @throws ModelParseException when the catalog does not declare it.
+     */
+    private String version(String version, TomlPosition pos) throws ModelParseException {
+        if (version == null || !version.startsWith("@")) {
+            return intern(version);
+        }
+        var ret = catalog(version, pos).version(version.substring(1));
+        if (ret == null) {
+            throw new ModelParseException("Unknown catalog version: '" + version + "'", pos.line(), pos.column());
+        }
+        return intern(ret);
+    }
+
+    /**
+     * set the coordinate of catalog library {@code '@alias[:version]'} onto {@code dep}.
+     */
+    private void setLibrary(Dependency dep, String alias, TomlPosition pos) throws ModelParseException {
+        var sep = alias.indexOf(':');
+        var name = sep < 0 ? alias.substring(1) : alias.substring(1, sep);
+        var library = catalog(alias, pos).library(name);
+        if (library == null) {
+            throw new ModelParseException("Unknown catalog library: '@" + name + "'", pos.line(), pos.column());
+        }
+        dep.setGroupId(library.groupId());
+        dep.setArtifactId(library.artifactId());
+        dep.setVersion(sep < 0 ? intern(library.version()) : version(alias.substring(sep + 1), pos));
+    }
+
+    /**
+     * set the coordinate of catalog plugin {@code '@alias[:version]'} onto {@code plugin}.
+     */
+    private void setPlugin(Plugin plugin, String alias, TomlPosition pos) throws ModelParseException {
+        var sep = alias.indexOf(':');
+        var name = sep < 0 ? alias.substring(1) : alias.substring(1, sep);
+        var ret = catalog(alias, pos).plugin(name);
+        if (ret == null) {
+            throw new ModelParseException("Unknown catalog plugin: '@" + name + "'", pos.line(), pos.column());
+        }
+        plugin.setGroupId(ret.groupId());
+        plugin.setArtifactId(ret.artifactId());
+        plugin.setVersion(sep < 0 ? intern(ret.version()) : version(alias.substring(sep + 1), pos));
+    }
+
+    private TomlCatalog catalog(String ref, TomlPosition pos) throws ModelParseException {
+        if (catalog == null) {
+            throw new ModelParseException("'" + ref + "' needs a root 'catalog' key", pos.line(), pos.column());
+        }
+        return catalog;
+    }
+
+    /**
+     * @param untracked constructor of the model element
+     * @param tracked   constructor of its {@link TomlLocations.Tracked} subclass
+     * @return new model element, which tracks its input locations when requested.
+     */
+    private <T> T create(Supplier<T> untracked, Function<TomlLocations, T> tracked) {
+        return locations == null ? untracked.get() : tracked.apply(locations);
+    }
+
+    /**
+     * Bind a section of {@code model} on its first access when it is a {@link TomlLazyModel}, or now.
+     */
+    private void defer(Model model, TomlLazyModel.Section section) throws ModelParseException {
+        if (model instanceof TomlLazyModel lazy) {
+            lazy.defer(section);
+        } else {
+            section.bind(this);
+        }
+    }
+
+    /**
+     * Record the input location of {@code config[key]}, bound onto {@code element}.
+     */
+    private void track(Object element, TomlTable config, String key) {
+        if (locations != null && element instanceof TomlLocations.Tracked tracked) {
+            locations.add(tracked.element(), toCamelCase(key), config.inputPositionOf(path(key)));
+        }
+    }
+
+    /**
+     * Record the input location of {@code key}, bound onto {@code element}.
+     */
+    private void track(Object element, String key, TomlPosition pos) {
+        if (locations != null && element instanceof TomlLocations.Tracked tracked) {
+            locations.add(tracked.element(), key, pos);
+        }
+    }
+
+    private static <T> List<T> append(List<T> old, List<T> add) {
+        if (old == null || old.isEmpty()) return add;
+        old.addAll(add);
+        return old;
+    }
+
+    private void checkAttribute(String key, String attr, TomlPosition pos) throws ModelParseException {
+        report("Unrecognised attribute: '" + key + "." + attr + "'", pos);
+    }
+
+    private void checkTag(String tag, TomlPosition pos) throws ModelParseException {
+        report("Unrecognised tag: '" + tag + "'", pos);
+    }
+
+    private void checkTag(String key, String tag, TomlPosition pos) throws ModelParseException {
+        report("Unrecognised tag: '" + key + "." + tag + "'", pos);
+    }
+
+    private void checkType(String key, String type, TomlPosition pos) throws ModelParseException {
+        report("Expect tag type " + type + " for '" + key + "'", pos);
+    }
+
+    private void deprecated(String message, TomlPosition pos) {
+        diagnostics.accept(new TomlDiagnostic(source, TomlDiagnostic.Severity.WARNING, message, pos.line(), pos.column()));
+    }
+
+    private void report(String message, TomlPosition pos) throws ModelParseException {
+        if (lint) {
+            diagnostics.accept(new TomlDiagnostic(source, TomlDiagnostic.Severity.ERROR, message, pos.line(), pos.column()));
+        } else if (isStrict) {
+            throw new ModelParseException(message, pos.line(), pos.column());
+        } else {
+            diagnostics.accept(new TomlDiagnostic(source, TomlDiagnostic.Severity.WARNING, message, pos.line(), pos.column()));
+        }
+    }
+
+    private String intern(String value) {
+        return strings == null ? value : strings.intern(value);
+    }
+}
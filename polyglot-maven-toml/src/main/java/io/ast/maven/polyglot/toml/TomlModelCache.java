@@ -0,0 +1,385 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.maven.model.InputSource;
+import org.apache.maven.model.Model;
+
+/**
+ * Cache of the read models, shared by the Maven processes of a host or of a fleet through a {@link TomlCacheBackend}.
+ * <p>
+ * A model is keyed by the SHA-256 of the extension version, its document, its lock file, the reading options and,
+ * when interpolated, the system properties it references, and is stored with the warnings of its read, so a hit is
+ * the model the read would bind. The key does not cover the pom file path, so the checkouts of a project in other
+ * directories or on other hosts share their entries: the input locations of a hit are those of the current read.
+ * Only the models bound from their document and lock file alone are stored, see
+ * {@link TomlModelBinder#isSelfContained()}.
+ * <p>
+ * An entry starts with the HMAC-SHA256 of its key and content under {@link TomlOptions#CACHE_SECRET}, which is
+ * checked before anything is deserialized, so an entry not written by a holder of the secret, corrupted or
+ * misplaced is a miss. A shared cache is not used without a secret; a {@link TomlCacheServer}, only accessible to
+ * its owner, is used without, its entries then starting with the SHA-256 of their key and content. An entry is
+ * deserialized with {@link #FILTER}, which only accepts the model classes within bounds of size, depth,
+ * references and array length. See {@link TomlOptions#CACHE} for the trust model.
+ * <p>
+ * The cache is an optimisation only. A lookup waits for the backend at most {@link TomlOptions#CACHE_TIMEOUT}, and
+ * an entry is stored in the background. Any failure is a miss, and a cache which fails or times out is not tried
+ * again for {@link #RETRY_DELAY} nanoseconds.
+ *
+ * @see TomlOptions#CACHE
+ */
+final class TomlModelCache {
+
+    /**
+     * largest entry stored, in bytes.
+     */
+    static final int MAX_ENTRY_SIZE = 16 << 20;
+
+    private static final long RETRY_DELAY = 10_000_000_000L;
+    private static final int FORMAT = 3;
+    private static final int DIGEST_LENGTH = 32;
+
+    /**
+     * the only classes read from a cache entry, and the bounds of its graph: a model of a thousand dependencies
+     * is 12 deep, with about 36,000 references and arrays of about 12,000 entries.
+     */
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+      "maxbytes=" + MAX_ENTRY_SIZE + ";maxdepth=1000;maxrefs=1000000;maxarray=" + MAX_ENTRY_SIZE / 4 + ";"
+        + "java.lang.Object;java.lang.String;java.lang.Boolean;java.lang.Number;java.lang.Integer;java.lang.Long;"
+        + "java.util.Map$Entry;"
+        + "java.util.ArrayList;java.util.HashMap;java.util.LinkedHashMap;java.util.Hashtable;java.util.Properties;"
+        + "org.apache.maven.model.**;org.codehaus.plexus.util.xml.**;io.ast.maven.polyglot.toml.**;!*");
+
+    /**
+     * caches which failed, with the time to try them again.
+     */
+    private static final Map<URI, Long> UNAVAILABLE = new ConcurrentHashMap<>();
+
+    /**
+     * caches refused by {@link #of}, reported once.
+     */
+    private static final Set<URI> REFUSED = ConcurrentHashMap.newKeySet();
+
+    /**
+     * the last secret read, with the time its file was modified.
+     */
+    private static volatile Secret secret;
+
+    private record Secret(Path file, FileTime modified, byte[] key) {
+    }
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(task -> {
+        var thread = new Thread(task, "toml-model-cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * entries being stored.
+     */
+    private static final Set<Future<?>> PENDING = ConcurrentHashMap.newKeySet();
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder TIMEOUTS = new LongAdder();
+    private static final LongAdder ERRORS = new LongAdder();
+    private static final LongAdder STORES = new LongAdder();
+
+    /**
+     * a cached read.
+     *
+     * @param model       bound Model
+     * @param diagnostics warnings of the read
+     */
+    record Entry(Model model, List<TomlDiagnostic> diagnostics) {
+    }
+
+    private final URI uri;
+    private final TomlCacheBackend backend;
+    private final long timeout;
+    private final InputSource inputSource;
+    private final byte[] key;
+
+    private TomlModelCache(URI uri, TomlCacheBackend backend, long timeout, InputSource inputSource, byte[] key) {
+        this.uri = uri;
+        this.backend = backend;
+        this.timeout = timeout;
+        this.inputSource = inputSource;
+        this.key = key;
+    }
+
+    /**
+     * @param options  reading options
+     * @param backends backends by URI scheme, over the built-in ones.
+     * @return the cache of {@link TomlOptions#CACHE}, {@code null} when it is not set, has no backend, is refused
+     * or failed lately.
+     */
+    static TomlModelCache of(TomlOptions options, Map<String, TomlCacheBackend> backends) {
+        var uri = options.cache;
+        if (uri == null || uri.getScheme() == null) return null;
+        if (uri.getScheme().equals("http")) {
+            return refuse(uri, "plain http is not accepted, use https");
+        }
+        byte[] key = null;
+        if (options.cacheSecret != null) {
+            try {
+                key = secret(options.cacheSecret);
+            } catch (IOException e) {
+                return refuse(uri, "cannot read the secret " + options.cacheSecret + ": " + e);
+            }
+        } else if (!uri.getScheme().equals("unix")) {
+            return refuse(uri, "a shared cache needs " + TomlOptions.CACHE_SECRET);
+        }
+
+        var backend = backends.get(uri.getScheme());
+        if (backend == null) {
+            backend = TomlCacheBackends.of(uri.getScheme());
+            if (backend == null) return null;
+        }
+
+        var retry = UNAVAILABLE.get(uri);
+        if (retry != null) {
+            if (System.nanoTime() - retry < 0) return null;
+            UNAVAILABLE.remove(uri, retry);
+        }
+        return new TomlModelCache(uri, backend, options.cacheTimeout, options.inputSource, key);
+    }
+
+    private static TomlModelCache refuse(URI uri, String reason) {
+        if (REFUSED.add(uri)) {
+            System.out.println("[WARNING] Model cache " + uri + " is not used: " + reason);
+        }
+        return null;
+    }
+
+    /**
+     * @return the content of the secret file, read again when it changes.
+     * @throws IOException when it cannot be read or is empty.
+     */
+    private static byte[] secret(Path file) throws IOException {
+        var modified = Files.getLastModifiedTime(file);
+        var ret = secret;
+        if (ret == null || !ret.file().equals(file) || !ret.modified().equals(modified)) {
+            var key = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).strip().getBytes(StandardCharsets.UTF_8);
+            if (key.length == 0) throw new IOException("empty secret");
+            ret = new Secret(file, modified, key);
+            secret = ret;
+        }
+        return ret.key();
+    }
+
+    /**
+     * @param pom      pom file, the location of the lock file.
+     * @param options  reading options
+     * @param document content of {@code pom}
+     * @return key of the model read from {@code document}, as 64 hexadecimal digits.
+     * @throws IOException when the lock file cannot be read.
+     */
+    static String key(Path pom, TomlOptions options, String document) throws IOException {
+        return TomlDocumentKey.of(FORMAT + "," + options.isStrict + "," + (options.inputSource != null), pom, options, document);
+    }
+
+    /**
+     * @param key    key of the read, from {@link #key(Path, TomlOptions, String)}.
+     * @param source pom file, the source of the diagnostics.
+     * @return the cached read, {@code null} on a miss, a time out or a failure.
+     */
+    Entry get(String key, Path source) {
+        var task = EXECUTOR.submit(() -> backend.get(uri, key));
+        try {
+            var payload = task.get(timeout, TimeUnit.MILLISECONDS);
+            if (payload == null) {
+                MISSES.increment();
+                return null;
+            }
+            var ret = decode(key, this.key, payload, source, inputSource);
+            HITS.increment();
+            return ret;
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            TIMEOUTS.increment();
+            UNAVAILABLE.put(uri, System.nanoTime() + RETRY_DELAY);
+        } catch (ExecutionException e) {
+            ERRORS.increment();
+            UNAVAILABLE.put(uri, System.nanoTime() + RETRY_DELAY);
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            // unreadable entry, replaced by the next put
+            ERRORS.increment();
+        }
+        return null;
+    }
+
+    /**
+     * Store a read in the background; a failure is ignored.
+     *
+     * @param key         key of the read, from {@link #key(Path, TomlOptions, String)}.
+     * @param model       bound Model, which is serialized at once.
+     * @param diagnostics warnings of the read
+     */
+    void put(String key, Model model, List<TomlDiagnostic> diagnostics) {
+        byte[] payload;
+        try {
+            payload = encode(key, this.key, model, diagnostics);
+        } catch (IOException | RuntimeException e) {
+            return;
+        }
+        if (payload.length > MAX_ENTRY_SIZE) return;
+
+        var task = new CompletableFuture<Void>();
+        PENDING.add(task);
+        try {
+            EXECUTOR.execute(() -> {
+                try {
+                    backend.put(uri, key, payload);
+                    STORES.increment();
+                } catch (IOException | RuntimeException e) {
+                    ERRORS.increment();
+                    UNAVAILABLE.put(uri, System.nanoTime() + RETRY_DELAY);
+                } finally {
+                    PENDING.remove(task);
+                    task.complete(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            PENDING.remove(task);
+        }
+    }
+
+    /**
+     * Wait for the entries being stored.
+     *
+     * @param timeout maximal time to wait, in milliseconds.
+     */
+    static void flush(long timeout) {
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        for (var task : List.copyOf(PENDING)) {
+            try {
+                task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | TimeoutException e) {
+                // abandoned
+            }
+        }
+    }
+
+    /**
+     * @return the counters of the process.
+     */
+    static TomlCacheMetrics metrics() {
+        return new TomlCacheMetrics(HITS.sum(), MISSES.sum(), TIMEOUTS.sum(), ERRORS.sum(), STORES.sum());
+    }
+
+    /**
+     * @param key         key of the read
+     * @param secret      secret of the cache, {@code null} for a {@link TomlCacheServer} without one.
+     * @param model       bound Model
+     * @param diagnostics warnings of the read
+     * @return the entry of the read: the digest of {@code key} and the content, then the content.
+     */
+    static byte[] encode(String key, byte[] secret, Model model, List<TomlDiagnostic> diagnostics) throws IOException {
+        var bytes = new ByteArrayOutputStream(8192);
+        bytes.write(new byte[DIGEST_LENGTH]);
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(model);
+            out.writeInt(diagnostics.size());
+            for (var diagnostic : diagnostics) {
+                out.writeUTF(diagnostic.severity().name());
+                out.writeUTF(diagnostic.message());
+                out.writeInt(diagnostic.line());
+                out.writeInt(diagnostic.column());
+            }
+        }
+        var ret = bytes.toByteArray();
+        System.arraycopy(digest(key, secret, ret), 0, ret, 0, DIGEST_LENGTH);
+        return ret;
+    }
+
+    /**
+     * @param key         key of the read
+     * @param secret      secret of the cache, {@code null} for a {@link TomlCacheServer} without one.
+     * @param payload     entry of the read, from {@link #encode}.
+     * @param source      pom file, the source of the diagnostics.
+     * @param inputSource input source of the read, {@code null} when the locations are not tracked.
+     * @return the cached read, with its input locations in {@code inputSource}.
+     * @throws InvalidObjectException when the digest does not match {@code key} and the content.
+     */
+    static Entry decode(String key, byte[] secret, byte[] payload, Path source, InputSource inputSource)
+      throws IOException, ClassNotFoundException {
+        if (payload.length < DIGEST_LENGTH
+          || !MessageDigest.isEqual(Arrays.copyOf(payload, DIGEST_LENGTH), digest(key, secret, payload))) {
+            throw new InvalidObjectException("Entry does not match key " + key);
+        }
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(payload, DIGEST_LENGTH, payload.length - DIGEST_LENGTH)) {
+            {
+                enableResolveObject(true);
+            }
+
+            @Override
+            protected Object resolveObject(Object obj) {
+                if (obj instanceof TomlLocations locations) {
+                    locations.rebind(inputSource);
+                }
+                return obj;
+            }
+
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                // the classes of the extension realm, which the caller of readObject may not see
+                try {
+                    return Class.forName(desc.getName(), false, TomlModelCache.class.getClassLoader());
+                } catch (ClassNotFoundException e) {
+                    return super.resolveClass(desc);
+                }
+            }
+        }) {
+            in.setObjectInputFilter(FILTER);
+            var model = (Model) in.readObject();
+            var count = in.readInt();
+            var diagnostics = new ArrayList<TomlDiagnostic>(count);
+            for (int i = 0; i < count; i++) {
+                diagnostics.add(new TomlDiagnostic(source, TomlDiagnostic.Severity.valueOf(in.readUTF()), in.readUTF(), in.readInt(), in.readInt()));
+            }
+            return new Entry(model, diagnostics);
+        }
+    }
+
+    /**
+     * @return the HMAC-SHA256 under {@code secret}, or the SHA-256 without, of {@code key} and of the content of
+     * {@code payload}, after its digest.
+     */
+    private static byte[] digest(String key, byte[] secret, byte[] payload) {
+        if (secret == null) {
+            var digest = TomlDocumentKey.sha256();
+            digest.update(key.getBytes(StandardCharsets.UTF_8));
+            digest.update(payload, DIGEST_LENGTH, payload.length - DIGEST_LENGTH);
+            return digest.digest();
+        }
+        try {
+            var mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            mac.update(key.getBytes(StandardCharsets.UTF_8));
+            mac.update(payload, DIGEST_LENGTH, payload.length - DIGEST_LENGTH);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,530 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import javax.tools.*;
+
+import org.apache.maven.model.InputSource;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.ModelParseException;
+import org.apache.maven.model.io.ModelReader;
+import org.apache.tuweni.toml.TomlPosition;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Compile the models of pom.toml files ahead of time, into a jar of classes building them in code.
+ * <pre>
+ *     var compiled = TomlModelCompiler.compile(poms, Map.of(), Path.of(".mvn/toml-models.jar"), System.err::println);
+ * </pre>
+ * With the jar given as {@link TomlOptions#MODELS}, {@link TomlModelProcessor} reads a pom.toml by creating its
+ * compiled model, without parsing nor binding it, as long as the key of its content matches the one it was
+ * compiled from. The key covers the document, its lock file, the reading options which change the model, the
+ * system properties it references when interpolated and the extension version, so an edited pom.toml is read as
+ * usual until it is compiled again.
+ * <p>
+ * Only the pom.toml files bound from their document and lock file alone, without any warning, are compiled, see
+ * {@link TomlModelBinder#isSelfContained()}. A compiled model tracks the same input locations as a bound one.
+ * Compiling needs a JDK, reading the compiled models does not.
+ *
+ * @see TomlCompiledModels
+ */
+public final class TomlModelCompiler {
+
+    /**
+     * prefix of the names of the compiled classes, followed by the key of their document.
+     */
+    static final String CLASS_PREFIX = "TomlCompiledModel_";
+
+    private static final int FORMAT = 1;
+    private static final String PACKAGE = TomlModelCompiler.class.getPackageName();
+
+    /**
+     * statements of a generated method, and list elements added by a method, beyond which the next ones go to
+     * another method, far below the 64 KB of byte code of a method.
+     */
+    private static final int STATEMENTS = 256;
+    private static final int CHUNK = 64;
+
+    /**
+     * the setter of each bean property of the model classes.
+     */
+    private static final Map<Class<?>, List<Property>> PROPERTIES = new ConcurrentHashMap<>();
+
+    private TomlModelCompiler() {
+    }
+
+    /**
+     * Compile pom.toml files into a jar, which replaces {@code jar} at once.
+     *
+     * @param poms        pom.toml files
+     * @param options     model reading options, as the compiled models will be read with.
+     * @param jar         jar written
+     * @param diagnostics consumer of the problems; a pom.toml which cannot be compiled is reported as a warning.
+     * @return the compiled pom.toml files, in the input order.
+     * @throws IOException when the jar cannot be written, or there is no Java compiler.
+     */
+    public static List<Path> compile(Collection<Path> poms, Map<String, ?> options, Path jar, Consumer<TomlDiagnostic> diagnostics)
+      throws IOException {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IOException("No Java compiler: run on a JDK");
+        }
+
+        var sources = new LinkedHashMap<Path, Source>();
+        for (var pom : poms) {
+            try {
+                var source = generate(pom, options);
+                if (source.reason() != null) {
+                    diagnostics.accept(new TomlDiagnostic(pom, TomlDiagnostic.Severity.WARNING, "Not compiled: " + source.reason(), -1, -1));
+                } else {
+                    sources.put(pom, source);
+                }
+            } catch (ModelParseException e) {
+                diagnostics.accept(new TomlDiagnostic(pom, TomlDiagnostic.Severity.ERROR, e.getMessage(), e.getLineNumber(), e.getColumnNumber()));
+            } catch (IOException | IllegalArgumentException e) {
+                diagnostics.accept(new TomlDiagnostic(pom, TomlDiagnostic.Severity.WARNING, "Not compiled: " + e.getMessage(), -1, -1));
+            }
+        }
+
+        var classes = new TreeMap<String, byte[]>();
+        var errors = new ArrayList<String>();
+        if (!javac(compiler, sources.values(), classes, errors)) {
+            // one by one, to keep the others
+            classes.clear();
+            for (var it = sources.entrySet().iterator(); it.hasNext(); ) {
+                var entry = it.next();
+                errors.clear();
+                if (!javac(compiler, List.of(entry.getValue()), classes, errors)) {
+                    diagnostics.accept(new TomlDiagnostic(entry.getKey(), TomlDiagnostic.Severity.WARNING,
+                      "Not compiled: " + (errors.isEmpty() ? "javac failed" : errors.get(0)), -1, -1));
+                    it.remove();
+                }
+            }
+        }
+
+        var parent = jar.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        var temp = Files.createTempFile(parent, jar.getFileName().toString(), ".tmp");
+        try {
+            try (var out = new JarOutputStream(Files.newOutputStream(temp))) {
+                for (var entry : classes.entrySet()) {
+                    out.putNextEntry(new JarEntry(entry.getKey().replace('.', '/') + ".class"));
+                    out.write(entry.getValue());
+                    out.closeEntry();
+                }
+            }
+            Files.move(temp, jar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return List.copyOf(sources.keySet());
+    }
+
+    /**
+     * @param pom      pom file
+     * @param options  reading options
+     * @param document content of {@code pom}
+     * @return key of the model compiled from {@code document}, as 64 hexadecimal digits.
+     * @throws IOException when the lock file cannot be read.
+     */
+    static String key(Path pom, TomlOptions options, String document) throws IOException {
+        return TomlDocumentKey.of("compiled," + FORMAT, pom, options, document);
+    }
+
+    /**
+     * a generated class.
+     *
+     * @param name   simple class name, {@code null} when not compiled.
+     * @param code   Java source
+     * @param reason why the pom.toml is not compiled, {@code null} when it is.
+     */
+    private record Source(String name, String code, String reason) {
+    }
+
+    /**
+     * Bind {@code pom}, tracking its input locations, and generate the class creating its model.
+     */
+    private static Source generate(Path pom, Map<String, ?> options) throws IOException, ModelParseException {
+        var tracked = options != null ? new HashMap<String, Object>(options) : new HashMap<String, Object>();
+        tracked.put(ModelReader.INPUT_SOURCE, new InputSource());
+        var tomlOptions = TomlOptions.of(tracked);
+        // decoded as TomlModelProcessor reads it
+        var document = Files.readString(pom, StandardCharsets.UTF_8);
+
+        var warnings = new ArrayList<TomlDiagnostic>();
+        var binder = new TomlModelBinder(pom, tomlOptions, null, warnings::add);
+        var model = TomlLazyModel.bind(binder.readToml(new StringReader(document)));
+        if (!binder.isSelfContained()) {
+            return new Source(null, null, "it reads files other than its lock file");
+        }
+        if (!warnings.isEmpty()) {
+            return new Source(null, null, "its read reports " + warnings.size() + " warnings");
+        }
+
+        var key = key(pom, tomlOptions, document);
+        var name = CLASS_PREFIX + key;
+        return new Source(name, new Generator().generate(name, key, model, binder.locations()), null);
+    }
+
+    /**
+     * Compile {@code sources} in memory.
+     *
+     * @param classes compiled classes, by binary name.
+     * @param errors  compilation errors
+     * @return whether all sources compiled.
+     */
+    private static boolean javac(JavaCompiler compiler, Collection<Source> sources, Map<String, byte[]> classes, List<String> errors)
+      throws IOException {
+        if (sources.isEmpty()) return true;
+        var collector = new DiagnosticCollector<JavaFileObject>();
+        try (var files = compiler.getStandardFileManager(collector, Locale.ROOT, StandardCharsets.UTF_8)) {
+            files.setLocation(StandardLocation.CLASS_PATH, List.of(
+              location(Model.class), location(Xpp3Dom.class), location(TomlPosition.class), location(TomlCompiledModel.class)));
+
+            var units = new ArrayList<JavaFileObject>();
+            for (var source : sources) {
+                units.add(new SimpleJavaFileObject(URI.create("string:///" + PACKAGE.replace('.', '/') + "/" + source.name() + ".java"),
+                  JavaFileObject.Kind.SOURCE) {
+                    @Override
+                    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                        return source.code();
+                    }
+                });
+            }
+
+            var compiled = new HashMap<String, ByteArrayOutputStream>();
+            var output = new ForwardingJavaFileManager<>(files) {
+                @Override
+                public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+                    return new SimpleJavaFileObject(URI.create("bytes:///" + className.replace('.', '/') + kind.extension), kind) {
+                        @Override
+                        public OutputStream openOutputStream() {
+                            var ret = new ByteArrayOutputStream(8192);
+                            compiled.put(className, ret);
+                            return ret;
+                        }
+                    };
+                }
+            };
+
+            var ok = compiler.getTask(null, output, collector, List.of("--release", "17", "-proc:none", "-g:none", "-nowarn"), null, units).call();
+            for (var diagnostic : collector.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    errors.add(diagnostic.getMessage(Locale.ROOT));
+                }
+            }
+            if (ok) {
+                compiled.forEach((name, bytes) -> classes.put(name, bytes.toByteArray()));
+            }
+            return ok;
+        }
+    }
+
+    /**
+     * @return the jar or directory {@code type} is loaded from.
+     */
+    private static java.io.File location(Class<?> type) throws IOException {
+        try {
+            return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toFile();
+        } catch (URISyntaxException | NullPointerException e) {
+            throw new IOException("Cannot locate " + type.getName() + " for javac", e);
+        }
+    }
+
+    /**
+     * A bean property of a model class.
+     *
+     * @param name   property name, as in {@code set<Name>}.
+     * @param getter getter
+     * @param setter setter of the getter type
+     */
+    private record Property(String name, Method getter, Method setter) {
+    }
+
+    /**
+     * @return the settable properties of {@code type}, by name.
+     */
+    private static List<Property> properties(Class<?> type) {
+        return PROPERTIES.computeIfAbsent(type, t -> {
+            var ret = new TreeMap<String, Property>();
+            for (var method : t.getMethods()) {
+                if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0
+                  || !method.getDeclaringClass().getPackageName().equals(Model.class.getPackageName())) continue;
+                String name;
+                if (method.getName().startsWith("get") && method.getName().length() > 3) {
+                    name = method.getName().substring(3);
+                } else if (method.getName().startsWith("is") && method.getReturnType() == boolean.class) {
+                    name = method.getName().substring(2);
+                    // the boolean view of a string property, such as isOptional() of getOptional()
+                    if (hasMethod(t, "get" + name)) continue;
+                } else {
+                    continue;
+                }
+                if (method.getReturnType() == java.io.File.class) continue;
+                try {
+                    ret.put(name, new Property(name, method, t.getMethod("set" + name, method.getReturnType())));
+                } catch (NoSuchMethodException e) {
+                    // derived, such as getManagementKey()
+                }
+            }
+            return List.copyOf(ret.values());
+        });
+    }
+
+    private static boolean hasMethod(Class<?> type, String name) {
+        try {
+            type.getMethod(name);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Java code creating a model. Each model element is a local variable, created in the walk order, so that the
+     * {@link TomlLocations.Tracked} elements get their ids in that order; long lists and deep trees go to other
+     * methods, called in place.
+     */
+    private static final class Generator {
+
+        /**
+         * original element id, for each generated one.
+         */
+        private final Map<Integer, Integer> elements = new HashMap<>();
+        private final StringBuilder methods = new StringBuilder();
+        private StringBuilder body = new StringBuilder();
+        private int statements;
+        private int names;
+
+        String generate(String name, String key, Model model, TomlLocations locations) {
+            var root = element(model);
+            if (locations != null) {
+                var encoded = new StringBuilder();
+                for (var entry : locations.entries()) {
+                    var element = elements.get(entry.element());
+                    if (element == null || entry.key().indexOf('\n') >= 0) continue;
+                    encoded.append(element).append(',').append(entry.line()).append(',').append(entry.column())
+                      .append(',').append(entry.key()).append('\n');
+                }
+                for (int i = 0; i < encoded.length(); ) {
+                    var end = Math.min(encoded.length(), encoded.indexOf("\n", Math.min(encoded.length() - 1, i + 8192)) + 1);
+                    line("if (l != null) l.add(" + literal(encoded.substring(i, end)) + ");");
+                    i = end;
+                }
+            }
+            line("return " + root + ";");
+
+            return "package " + PACKAGE + ";\n\n"
+              + "import org.apache.maven.model.*;\n"
+              + "import org.codehaus.plexus.util.xml.Xpp3Dom;\n\n"
+              + "/**\n * Generated by TomlModelCompiler, do not edit.\n */\n"
+              + "final class " + name + " extends TomlCompiledModel {\n\n"
+              + "    @Override\n    String key() {\n        return \"" + key + "\";\n    }\n\n"
+              + "    @Override\n    Model create(TomlLocations l) {\n" + body + "    }\n"
+              + methods
+              + "}\n";
+        }
+
+        /**
+         * Emit the creation of a model element, or of a configuration.
+         *
+         * @return the local variable holding it.
+         */
+        private String element(Object value) {
+            if (statements >= STATEMENTS) {
+                var type = value instanceof Xpp3Dom ? "Xpp3Dom" : modelClass(value.getClass()).getSimpleName();
+                return method(type, () -> element(value));
+            }
+            if (value instanceof Xpp3Dom dom) return dom(dom);
+
+            var type = modelClass(value.getClass());
+            if (type == null) {
+                throw new IllegalArgumentException("unsupported model element " + value.getClass().getName());
+            }
+            var ret = local();
+            if (value instanceof TomlLocations.Tracked tracked) {
+                elements.put(tracked.element(), elements.size());
+                line("var " + ret + " = l == null ? new " + type.getSimpleName() + "() : new TomlLocations.Tracked" + type.getSimpleName() + "(l);");
+            } else {
+                line("var " + ret + " = new " + type.getSimpleName() + "();");
+            }
+
+            var fresh = invoke(() -> type.getConstructor().newInstance());
+            for (var property : properties(type)) {
+                var v = invoke(() -> property.getter().invoke(value));
+                if (Objects.equals(v, invoke(() -> property.getter().invoke(fresh)))) continue;
+                var setter = ret + "." + property.setter().getName();
+                if (v == null) {
+                    line(setter + "((" + property.setter().getParameterTypes()[0].getSimpleName() + ") null);");
+                } else if (v instanceof String || v instanceof Boolean || v instanceof Integer) {
+                    line(setter + "(" + literal(v) + ");");
+                } else if (v instanceof List<?> list) {
+                    var item = ((ParameterizedType) property.getter().getGenericReturnType()).getActualTypeArguments()[0];
+                    list(ret + "." + property.getter().getName() + "()", "java.util.List<" + ((Class<?>) item).getSimpleName() + ">",
+                      list, (target, e) -> line(target + ".add(" + (e instanceof String ? literal(e) : element(e)) + ");"));
+                } else if (v instanceof Properties properties) {
+                    // in the iteration order, which the writers of the model keep
+                    var entries = new ArrayList<Map.Entry<String, String>>();
+                    for (var entry : properties.entrySet()) {
+                        if (!(entry.getKey() instanceof String name) || !(entry.getValue() instanceof String text)) {
+                            throw new IllegalArgumentException("unsupported non string " + type.getSimpleName() + "." + property.name());
+                        }
+                        entries.add(Map.entry(name, text));
+                    }
+                    list(ret + "." + property.getter().getName() + "()", "java.util.Properties",
+                      entries, (target, e) -> line(target + ".setProperty(" + literal(e.getKey()) + ", " + literal(e.getValue()) + ");"));
+                } else if (v instanceof Xpp3Dom || modelClass(v.getClass()) != null) {
+                    line(setter + "(" + element(v) + ");");
+                } else {
+                    throw new IllegalArgumentException("unsupported " + type.getSimpleName() + "." + property.name() + " value " + v.getClass().getName());
+                }
+            }
+            return ret;
+        }
+
+        private String dom(Xpp3Dom dom) {
+            if (dom.getInputLocation() != null) {
+                throw new IllegalArgumentException("unsupported input location of configuration " + dom.getName());
+            }
+            var ret = local();
+            line("var " + ret + " = new Xpp3Dom(" + literal(dom.getName()) + ");");
+            if (dom.getValue() != null) {
+                line(ret + ".setValue(" + literal(dom.getValue()) + ");");
+            }
+            for (var attribute : dom.getAttributeNames()) {
+                line(ret + ".setAttribute(" + literal(attribute) + ", " + literal(dom.getAttribute(attribute)) + ");");
+            }
+            list(ret, "Xpp3Dom", Arrays.asList(dom.getChildren()), (target, child) -> line(target + ".addChild(" + element(child) + ");"));
+            return ret;
+        }
+
+        /**
+         * Emit the additions of {@code values} to {@code target}, in other methods when they are many.
+         */
+        private <T> void list(String target, String type, List<T> values, Item<T> item) {
+            if (values.size() <= CHUNK && statements + values.size() < STATEMENTS) {
+                for (var value : values) {
+                    item.emit(target, value);
+                }
+                return;
+            }
+            for (int i = 0; i < values.size(); i += CHUNK) {
+                var chunk = values.subList(i, Math.min(values.size(), i + CHUNK));
+                var name = "m" + names++;
+                var caller = body;
+                var callerStatements = statements;
+                body = new StringBuilder();
+                statements = 0;
+                for (var value : chunk) {
+                    item.emit("t", value);
+                }
+                methods.append("\n    private static void ").append(name).append("(TomlLocations l, ").append(type).append(" t) {\n")
+                  .append(body).append("    }\n");
+                body = caller;
+                statements = callerStatements;
+                line(name + "(l, " + target + ");");
+            }
+        }
+
+        /**
+         * Emit {@code emitter} in a new method, and its call.
+         *
+         * @return the local variable holding the value returned by the method.
+         */
+        private String method(String type, Supplier<String> emitter) {
+            var name = "m" + names++;
+            var caller = body;
+            var callerStatements = statements;
+            body = new StringBuilder();
+            statements = 0;
+            line("return " + emitter.get() + ";");
+            methods.append("\n    private static ").append(type).append(' ').append(name).append("(TomlLocations l) {\n")
+              .append(body).append("    }\n");
+            body = caller;
+            statements = callerStatements;
+            var ret = local();
+            line("var " + ret + " = " + name + "(l);");
+            return ret;
+        }
+
+        private void line(String statement) {
+            body.append("        ").append(statement).append('\n');
+            statements++;
+        }
+
+        private String local() {
+            return "o" + names++;
+        }
+
+        /**
+         * @return {@code type} or the model class it extends, as a tracked element does; {@code null} when none.
+         */
+        private static Class<?> modelClass(Class<?> type) {
+            for (var ret = type; ret != null; ret = ret.getSuperclass()) {
+                if (ret.getPackageName().equals(Model.class.getPackageName())) return ret;
+            }
+            return null;
+        }
+
+        private static String literal(Object value) {
+            if (!(value instanceof String s)) return String.valueOf(value);
+            var ret = new StringBuilder(s.length() + 2).append('"');
+            for (int i = 0; i < s.length(); i++) {
+                var c = s.charAt(i);
+                switch (c) {
+                case '"' -> ret.append("\\\"");
+                case '\\' -> ret.append("\\\\");
+                case '\n' -> ret.append("\\n");
+                case '\r' -> ret.append("\\r");
+                case '\t' -> ret.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        ret.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        ret.append(c);
+                    }
+                }
+                }
+            }
+            return ret.append('"').toString();
+        }
+
+        private static <T> T invoke(Reflective<T> call) {
+            try {
+                return call.call();
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException(e.getCause());
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @FunctionalInterface
+        private interface Item<T> {
+            void emit(String target, T value);
+        }
+
+        @FunctionalInterface
+        private interface Reflective<T> {
+            T call() throws ReflectiveOperationException;
+        }
+    }
+}
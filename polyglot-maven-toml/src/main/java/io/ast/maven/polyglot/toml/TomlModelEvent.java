@@ -0,0 +1,22 @@
+package io.ast.maven.polyglot.toml;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.maven.model.Model;
+import org.apache.tuweni.toml.TomlTable;
+
+/**
+ * A pom.toml read by {@link TomlModelProcessor}.
+ *
+ * @param source      pom file, {@code null} when read from a stream.
+ * @param document    parsed document, with its includes merged and interpolated as it was bound; {@code null}
+ *                    when the model was served by the {@link TomlOptions#CACHE model cache} or
+ *                    {@link TomlModelCompiler compiled}.
+ * @param model       the raw model returned to Maven, before inheritance and interpolation. It is shared with
+ *                    Maven, so listeners only read it.
+ * @param diagnostics warnings of the read, in the reported order.
+ * @see TomlModelListener
+ */
+public record TomlModelEvent(Path source, TomlTable document, Model model, List<TomlDiagnostic> diagnostics) {
+}
@@ -0,0 +1,28 @@
+package io.ast.maven.polyglot.toml;
+
+/**
+ * Extension point called with each pom.toml read by {@link TomlModelProcessor}, so other build extensions
+ * reuse the parsed document and the bound model instead of reading the file again.
+ * <pre>
+ *     &#64;Component(role = TomlModelListener.class, hint = "license-check")
+ *     public class LicenseCheck implements TomlModelListener {
+ *         public void modelRead(TomlModelEvent event) {
+ *             ...
+ *         }
+ *     }
+ * </pre>
+ * Listeners are called asynchronously, after the read has returned to Maven, one event after the other on a
+ * single thread: a listener does not need to be thread safe, but must not block for long, as it delays the
+ * events of the other listeners. The pending events are all delivered before the Maven session ends.
+ *
+ * @see TomlModelListeners
+ */
+public interface TomlModelListener {
+
+    /**
+     * Called once a pom.toml has been read successfully.
+     *
+     * @param event the read file, document, model and diagnostics, which must not be modified.
+     */
+    void modelRead(TomlModelEvent event);
+}
@@ -0,0 +1,69 @@
+package io.ast.maven.polyglot.toml;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.execution.MavenSession;
+import org.codehaus.plexus.component.annotations.Component;
+
+/**
+ * Deliver the {@link TomlModelEvent}s to the {@link TomlModelListener}s on a single daemon thread, shared by all
+ * reads of the Maven process, so the listeners add nothing to the read latency.
+ * <p>
+ * As a lifecycle participant, it waits for the pending events at the end of the session, so the listeners see
+ * every read before Maven exits. A failing listener is reported and does not fail the build.
+ */
+@Component(role = AbstractMavenLifecycleParticipant.class, hint = "toml-listeners")
+public class TomlModelListeners extends AbstractMavenLifecycleParticipant {
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(task -> {
+        var thread = new Thread(task, "toml-model-listeners");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Submit {@code event} to {@code listeners}, in their order.
+     *
+     * @param listeners listeners, not empty.
+     * @param event     event
+     */
+    static void fire(List<TomlModelListener> listeners, TomlModelEvent event) {
+        EXECUTOR.execute(() -> {
+            for (var listener : listeners) {
+                try {
+                    listener.modelRead(event);
+                } catch (RuntimeException | LinkageError e) {
+                    System.out.println(new TomlDiagnostic(event.source(), TomlDiagnostic.Severity.WARNING,
+                      "Listener " + listener.getClass().getName() + " failed: " + e, -1, -1));
+                }
+            }
+        });
+    }
+
+    /**
+     * Wait for the events submitted so far to be delivered.
+     *
+     * @throws InterruptedException
+     */
+    static void await() throws InterruptedException {
+        try {
+            EXECUTOR.submit(() -> {
+            }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void afterSessionEnd(MavenSession session) {
+        try {
+            await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
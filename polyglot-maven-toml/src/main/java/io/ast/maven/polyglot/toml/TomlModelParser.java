@@ -0,0 +1,119 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import org.apache.maven.api.di.Named;
+import org.apache.maven.api.di.Singleton;
+import org.apache.maven.api.model.Model;
+import org.apache.maven.api.services.Source;
+import org.apache.maven.api.services.Sources;
+import org.apache.maven.api.spi.ModelParser;
+import org.apache.maven.api.spi.ModelParserException;
+import org.apache.maven.model.InputSource;
+import org.apache.maven.model.io.ModelParseException;
+import org.apache.maven.model.io.ModelReader;
+
+/**
+ * Maven 4 entry point, which reads pom.toml into the immutable API model.
+ * <p>
+ * The binding is shared with {@link TomlModelProcessor}, the Maven 3 entry point.
+ */
+@Named("toml")
+@Singleton
+public class TomlModelParser implements ModelParser {
+
+    @Override
+    public Optional<Source> locate(Path dir) {
+        var pom = dir.resolve("pom.toml");
+        var inline = TomlModules.get(pom);
+        if (inline != null) {
+            return Optional.of(new InlineSource(inline));
+        }
+        return Files.isRegularFile(pom) ? Optional.of(Sources.fromPath(pom)) : Optional.empty();
+    }
+
+    @Override
+    public Model parse(Source source, Map<String, ?> options) throws ModelParserException {
+        var path = source.getPath();
+        var inline = path != null ? TomlModules.get(path) : null;
+        if (inline != null) {
+            try {
+                var binder = new TomlModelBinder(path, TomlOptions.of(getOptions(options, inline.root().toString())), null, System.out::println);
+                var model = binder.readModule(inline);
+                model.setPomFile(path.toFile());
+                return TomlApiModelConverter.toApiModel(model);
+            } catch (ModelParseException e) {
+                throw new ModelParserException(e.getMessage(), e.getLineNumber(), e.getColumnNumber(), e);
+            }
+        }
+
+        try (var input = new BufferedReader(new InputStreamReader(source.openStream(), StandardCharsets.UTF_8))) {
+            if ((path == null || !path.toString().endsWith(".toml")) && !TomlModelProcessor.isTomlContent(input)) {
+                throw new ModelParserException("Not a TOML document: " + source.getLocation());
+            }
+
+            var binder = new TomlModelBinder(path, TomlOptions.of(getOptions(options, source.getLocation())), null, System.out::println);
+            var model = binder.readToml(input);
+            if (path != null) {
+                model.setPomFile(path.toFile());
+            }
+            return TomlApiModelConverter.toApiModel(model);
+        } catch (ModelParseException e) {
+            throw new ModelParserException(e.getMessage(), e.getLineNumber(), e.getColumnNumber(), e);
+        } catch (IOException e) {
+            throw new ModelParserException("Unable to read " + source.getLocation(), e);
+        }
+    }
+
+    /**
+     * Source of a module declared inline by a root pom.toml, which has no content of its own.
+     *
+     * @see TomlModules
+     */
+    private record InlineSource(TomlModules.Inline module) implements Source {
+        @Override
+        public Path getPath() {
+            return module.pom();
+        }
+
+        @Override
+        public InputStream openStream() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public String getLocation() {
+            return module.root() + "#module." + module.name();
+        }
+
+        @Override
+        public Source resolve(String relative) {
+            return Sources.fromPath(module.pom().resolveSibling(relative).normalize());
+        }
+    }
+
+    /**
+     * @param options  Maven 4 parser options
+     * @param location location of the read document
+     * @return model reading options, with {@link ModelParser#STRICT} given as {@link TomlOptions#IS_STRICT}, and
+     * the input locations tracked in {@code location}.
+     */
+    private static Map<String, ?> getOptions(Map<String, ?> options, String location) {
+        var source = new InputSource();
+        source.setLocation(location);
+        var ret = new HashMap<String, Object>();
+        ret.put(ModelReader.INPUT_SOURCE, source);
+        if (options != null) {
+            ret.putAll(options);
+            var strict = options.get(STRICT);
+            if (strict != null) {
+                ret.put(TomlOptions.IS_STRICT, strict.toString());
+            }
+        }
+        return ret;
+    }
+}
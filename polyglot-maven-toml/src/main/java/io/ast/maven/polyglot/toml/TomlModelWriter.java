@@ -0,0 +1,932 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import org.apache.maven.model.*;
+import org.apache.maven.model.io.ModelWriter;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Write a {@link Model} as a pom.toml, in the form read by {@link TomlModelProcessor}.
+ * <pre>
+ *     [project]
+ *     group = '...'
+ *
+ *     [dependencies.test]
+ *     "group:artifact" = 'version'
+ *
+ *     [directories]
+ *     source = '...'
+ *
+ *     [build.plugin."group:artifact:version"]
+ *     configuration.archive.manifest.main-class = '...'
+ * </pre>
+ * The document is streamed section by section. Dependencies are grouped by scope when it keeps their order,
+ * and written as {@code [[dependency]]} tables otherwise. Content which has no TOML form (profiles, reporting,
+ * XML attributes of a configuration, ...) is written as a {@code # not converted:} comment holding its XML.
+ */
+@Component(role = ModelWriter.class, hint = "toml")
+public class TomlModelWriter implements ModelWriter {
+
+    private static final Pattern BARE_KEY = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final List<String> SCOPES = List.of("compile", "provided", "runtime", "test", "system");
+
+    @Override
+    public void write(File output, Map<String, Object> options, Model model) throws IOException {
+        Objects.requireNonNull(output, "output");
+        try (var writer = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8)) {
+            write(writer, options, model);
+        }
+    }
+
+    @Override
+    public void write(OutputStream output, Map<String, Object> options, Model model) throws IOException {
+        Objects.requireNonNull(output, "output");
+        var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        write(writer, options, model);
+        writer.flush();
+    }
+
+    @Override
+    public void write(Writer output, Map<String, Object> options, Model model) throws IOException {
+        Objects.requireNonNull(output, "output");
+        Objects.requireNonNull(model, "model");
+        new Emitter(output).writeModel(model);
+        output.flush();
+    }
+
+    /**
+     * Streams the sections of one model.
+     */
+    private static final class Emitter {
+        private final Writer out;
+        private boolean first = true;
+
+        Emitter(Writer out) {
+            this.out = out;
+        }
+
+        void writeModel(Model model) throws IOException {
+            writeProject(model);
+            writeParent(model.getParent());
+            writeProperties(model.getProperties());
+            writeScm(model.getScm());
+            writeRepositories("repositories", model.getRepositories());
+            writeRepositories("plugin-repositories", model.getPluginRepositories());
+            writeDependencies(model.getDependencies());
+            writeBuild(model.getBuild());
+            writeManagement(model);
+
+            if (!model.getProfiles().isEmpty() || model.getReporting() != null) {
+                var rest = new Model();
+                rest.setProfiles(model.getProfiles());
+                rest.setReporting(model.getReporting());
+                section();
+                notConverted("profiles and reporting", rest);
+            }
+        }
+
+        // ---------------------------------------------------------------- sections
+
+        private void writeProject(Model model) throws IOException {
+            table("project");
+            kv("model-version", model.getModelVersion());
+            kv("group", model.getGroupId());
+            kv("artifact", model.getArtifactId());
+            kv("version", model.getVersion());
+            if (model.getPackaging() != null && !model.getPackaging().equals("jar")) {
+                kv("packaging", model.getPackaging());
+            }
+            kv("name", model.getName());
+            kv("description", model.getDescription());
+            kv("url", model.getUrl());
+            kv("inception-year", model.getInceptionYear());
+            if (model.getOrganization() != null) {
+                var org = new Inline();
+                org.kv("name", model.getOrganization().getName());
+                org.kv("url", model.getOrganization().getUrl());
+                raw("organization", org.toString());
+            }
+            if (!model.getLicenses().isEmpty()) {
+                var items = new ArrayList<String>();
+                for (var license : model.getLicenses()) {
+                    var item = new Inline();
+                    item.kv("name", license.getName());
+                    item.kv("url", license.getUrl());
+                    item.kv("distribution", license.getDistribution());
+                    item.kv("comments", license.getComments());
+                    items.add(item.toString());
+                }
+                array("licenses", items);
+            }
+            if (!model.getDevelopers().isEmpty()) {
+                var items = new ArrayList<String>();
+                for (var developer : model.getDevelopers()) {
+                    var item = new Inline();
+                    item.kv("id", developer.getId());
+                    contributor(item, developer);
+                    items.add(item.toString());
+                }
+                array("developers", items);
+            }
+            if (!model.getContributors().isEmpty()) {
+                var items = new ArrayList<String>();
+                for (var contributor : model.getContributors()) {
+                    var item = new Inline();
+                    contributor(item, contributor);
+                    items.add(item.toString());
+                }
+                array("contributors", items);
+            }
+            if (!model.getMailingLists().isEmpty()) {
+                var items = new ArrayList<String>();
+                for (var list : model.getMailingLists()) {
+                    var item = new Inline();
+                    item.kv("name", list.getName());
+                    item.kv("subscribe", list.getSubscribe());
+                    item.kv("unsubscribe", list.getUnsubscribe());
+                    item.kv("post", list.getPost());
+                    item.kv("archive", list.getArchive());
+                    item.strings("other-archives", list.getOtherArchives());
+                    items.add(item.toString());
+                }
+                array("mailing-lists", items);
+            }
+            if (model.getPrerequisites() != null) {
+                var pre = new Inline();
+                pre.kv("maven", model.getPrerequisites().getMaven());
+                raw("prerequisites", pre.toString());
+            }
+            if (!model.getModules().isEmpty()) {
+                raw("modules", strings(model.getModules()));
+            }
+            if (model.getChildProjectUrlInheritAppendPath() != null) {
+                comment("not converted: child.project.url.inherit.append.path=" + model.getChildProjectUrlInheritAppendPath());
+            }
+        }
+
+        private void contributor(Inline item, Contributor contributor) {
+            item.kv("name", contributor.getName());
+            item.kv("email", contributor.getEmail());
+            item.kv("url", contributor.getUrl());
+            item.kv("organization", contributor.getOrganization());
+            item.kv("organization-url", contributor.getOrganizationUrl());
+            item.strings("roles", contributor.getRoles());
+            item.kv("timezone", contributor.getTimezone());
+            if (!contributor.getProperties().isEmpty()) {
+                item.raw("properties", properties(contributor.getProperties()));
+            }
+        }
+
+        private void writeParent(Parent parent) throws IOException {
+            if (parent == null) return;
+            table("parent");
+            kv("group", parent.getGroupId());
+            kv("artifact", parent.getArtifactId());
+            kv("version", parent.getVersion());
+            if (!"../pom.xml".equals(parent.getRelativePath())) {
+                kv("relative-path", parent.getRelativePath());
+            }
+        }
+
+        private void writeProperties(Properties properties) throws IOException {
+            if (properties.isEmpty()) return;
+            table("properties");
+            var names = new TreeSet<String>();
+            for (var name : properties.stringPropertyNames()) {
+                names.add(name);
+            }
+            for (var name : names) {
+                line(propertyKey(name, names) + " = " + string(properties.getProperty(name)));
+            }
+        }
+
+        private void writeScm(Scm scm) throws IOException {
+            if (scm == null) return;
+            table("scm");
+            kv("connection", scm.getConnection());
+            kv("developer-connection", scm.getDeveloperConnection());
+            if (!"HEAD".equals(scm.getTag())) {
+                kv("tag", scm.getTag());
+            }
+            kv("url", scm.getUrl());
+            // the keys read by TomlModelBinder#readTomlScm
+            var child = new Inline();
+            child.kv(key("scm.connection.inherit.append.path"), scm.getChildScmConnectionInheritAppendPath());
+            child.kv(key("child.scm.developerConnection.inherit.append.path"), scm.getChildScmDeveloperConnectionInheritAppendPath());
+            child.kv(key("child.scm.url.inherit.append.path"), scm.getChildScmUrlInheritAppendPath());
+            if (!child.isEmpty()) {
+                raw("child", child.toString());
+            }
+        }
+
+        private void writeRepositories(String name, List<Repository> repositories) throws IOException {
+            for (var repository : repositories) {
+                arrayTable(name);
+                kv("id", repository.getId());
+                kv("name", repository.getName());
+                kv("url", repository.getUrl());
+                if (!"default".equals(repository.getLayout())) {
+                    kv("layout", repository.getLayout());
+                }
+                if (repository.getReleases() != null) {
+                    raw("releases", policy(repository.getReleases()));
+                }
+                if (repository.getSnapshots() != null) {
+                    raw("snapshots", policy(repository.getSnapshots()));
+                }
+            }
+        }
+
+        private void writeDependencies(List<Dependency> dependencies) throws IOException {
+            if (dependencies.isEmpty()) return;
+
+            // scope runs, in order
+            var runs = new ArrayList<String>();
+            var groupable = true;
+            for (var dep : dependencies) {
+                var scope = dep.getScope() == null ? "" : dep.getScope();
+                if (!scope.isEmpty() && !SCOPES.contains(scope)) {
+                    groupable = false;
+                }
+                if (runs.isEmpty() || !runs.get(runs.size() - 1).equals(scope)) {
+                    if (runs.contains(scope)) {
+                        groupable = false;
+                    }
+                    runs.add(scope);
+                }
+            }
+            var unscoped = runs.indexOf("");
+            if (unscoped > 0 && unscoped < runs.size() - 1) {
+                groupable = false;
+            }
+            if (groupable) {
+                for (var scope : runs) {
+                    var names = new HashSet<String>();
+                    for (var dep : dependencies) {
+                        if (scope.equals(dep.getScope()) && !names.add(dep.getGroupId() + ":" + dep.getArtifactId())) {
+                            groupable = false;
+                        }
+                    }
+                }
+            }
+
+            if (!groupable) {
+                for (var dep : dependencies) {
+                    dependencyTable(dep);
+                }
+                return;
+            }
+
+            if (unscoped == 0) {
+                for (var dep : dependencies) {
+                    if (dep.getScope() == null) dependencyTable(dep);
+                }
+            }
+            for (var scope : runs) {
+                if (scope.isEmpty()) continue;
+                table("dependencies." + scope);
+                for (var dep : dependencies) {
+                    if (!scope.equals(dep.getScope())) continue;
+                    var item = dependency(dep, false);
+                    item.remove("scope");
+                    var name = key(dep.getGroupId() + ":" + dep.getArtifactId());
+                    if (item.size() == 1 && item.has("version")) {
+                        line(name + " = " + string(dep.getVersion()));
+                    } else {
+                        item.remove("version");
+                        var table = new Inline();
+                        table.kv("version", dep.getVersion());
+                        table.addAll(item);
+                        line(name + " = " + table);
+                    }
+                }
+            }
+            if (unscoped > 0) {
+                for (var dep : dependencies) {
+                    if (dep.getScope() == null) dependencyTable(dep);
+                }
+            }
+        }
+
+        private void dependencyTable(Dependency dep) throws IOException {
+            arrayTable("dependency");
+            for (var entry : dependency(dep, true).entries) {
+                line(entry);
+            }
+        }
+
+        private void writeBuild(Build build) throws IOException {
+            if (build == null) return;
+
+            if (build.getSourceDirectory() != null || build.getScriptSourceDirectory() != null
+              || build.getTestSourceDirectory() != null || build.getOutputDirectory() != null
+              || build.getTestOutputDirectory() != null || !build.getResources().isEmpty() || !build.getTestResources().isEmpty()) {
+                table("directories");
+                kv("source", build.getSourceDirectory());
+                kv("script-source", build.getScriptSourceDirectory());
+                kv("test-source", build.getTestSourceDirectory());
+                kv("output", build.getOutputDirectory());
+                kv("test-output", build.getTestOutputDirectory());
+                resources("resources", build.getResources());
+                resources("test-resources", build.getTestResources());
+            }
+
+            var scalars = build.getDefaultGoal() != null || build.getDirectory() != null || build.getFinalName() != null
+              || !build.getFilters().isEmpty() || !build.getExtensions().isEmpty();
+            if (scalars) {
+                table("build");
+                kv("default-goal", build.getDefaultGoal());
+                kv("directory", build.getDirectory());
+                kv("final-name", build.getFinalName());
+                if (!build.getFilters().isEmpty()) {
+                    raw("filters", strings(build.getFilters()));
+                }
+                if (!build.getExtensions().isEmpty()) {
+                    var items = new ArrayList<String>();
+                    for (var extension : build.getExtensions()) {
+                        var item = new Inline();
+                        item.kv("group", extension.getGroupId());
+                        item.kv("artifact", extension.getArtifactId());
+                        item.kv("version", extension.getVersion());
+                        items.add(item.toString());
+                    }
+                    array("extensions", items);
+                }
+            }
+
+            var keys = new HashSet<String>();
+            var unique = true;
+            for (var plugin : build.getPlugins()) {
+                unique &= keys.add(plugin.getGroupId() + ":" + plugin.getArtifactId());
+            }
+            for (var plugin : build.getPlugins()) {
+                if (unique) {
+                    var name = plugin.getGroupId() + ":" + plugin.getArtifactId()
+                      + (plugin.getVersion() != null ? ":" + plugin.getVersion() : "");
+                    table("build.plugin." + key(name));
+                } else {
+                    arrayTable("build.plugin");
+                    kv("group", plugin.getGroupId());
+                    kv("artifact", plugin.getArtifactId());
+                    kv("version", plugin.getVersion());
+                }
+                plugin(plugin);
+            }
+        }
+
+        private void writeManagement(Model model) throws IOException {
+            if (model.getIssueManagement() != null) {
+                table("management.issue");
+                kv("system", model.getIssueManagement().getSystem());
+                kv("url", model.getIssueManagement().getUrl());
+            }
+            if (model.getCiManagement() != null) {
+                var ci = model.getCiManagement();
+                table("management.ci");
+                kv("system", ci.getSystem());
+                kv("url", ci.getUrl());
+                if (!ci.getNotifiers().isEmpty()) {
+                    var items = new ArrayList<String>();
+                    for (var notifier : ci.getNotifiers()) {
+                        var item = new Inline();
+                        if (!"mail".equals(notifier.getType())) {
+                            item.kv("type", notifier.getType());
+                        }
+                        if (!notifier.isSendOnError()) item.raw("send-on-error", "false");
+                        if (!notifier.isSendOnFailure()) item.raw("send-on-failure", "false");
+                        if (!notifier.isSendOnSuccess()) item.raw("send-on-success", "false");
+                        if (!notifier.isSendOnWarning()) item.raw("send-on-warning", "false");
+                        item.kv("address", notifier.getAddress());
+                        if (!notifier.getConfiguration().isEmpty()) {
+                            item.raw("configuration", properties(notifier.getConfiguration()));
+                        }
+                        items.add(item.toString());
+                    }
+                    array("notifiers", items);
+                }
+            }
+            if (model.getDistributionManagement() != null) {
+                var dist = model.getDistributionManagement();
+                table("management.distribution");
+                if (dist.getRepository() != null) {
+                    raw("repository", deploymentRepository(dist.getRepository()));
+                }
+                if (dist.getSnapshotRepository() != null) {
+                    raw("snapshot-repository", deploymentRepository(dist.getSnapshotRepository()));
+                }
+                if (dist.getSite() != null) {
+                    var site = new Inline();
+                    site.kv("id", dist.getSite().getId());
+                    site.kv("name", dist.getSite().getName());
+                    site.kv("url", dist.getSite().getUrl());
+                    if (dist.getSite().getChildSiteUrlInheritAppendPath() != null) {
+                        var child = new Inline();
+                        child.kv(key("site.url.inherit.append.path"), dist.getSite().getChildSiteUrlInheritAppendPath());
+                        site.raw("child", child.toString());
+                    }
+                    raw("site", site.toString());
+                }
+                kv("download-url", dist.getDownloadUrl());
+                if (dist.getRelocation() != null) {
+                    var relocation = new Inline();
+                    relocation.kv("group", dist.getRelocation().getGroupId());
+                    relocation.kv("artifact", dist.getRelocation().getArtifactId());
+                    relocation.kv("version", dist.getRelocation().getVersion());
+                    relocation.kv("message", dist.getRelocation().getMessage());
+                    raw("relocation", relocation.toString());
+                }
+                kv("status", dist.getStatus());
+            }
+            if (model.getDependencyManagement() != null) {
+                table("management.dependency");
+                array("dependencies", dependencyItems(model.getDependencyManagement().getDependencies()));
+            }
+            if (model.getBuild() != null && model.getBuild().getPluginManagement() != null) {
+                var plugins = model.getBuild().getPluginManagement().getPlugins();
+                if (plugins.isEmpty()) {
+                    table("management.plugin");
+                    raw("plugins", "[]");
+                }
+                for (var plugin : plugins) {
+                    arrayTable("management.plugin.plugins");
+                    kv("group", plugin.getGroupId());
+                    kv("artifact", plugin.getArtifactId());
+                    kv("version", plugin.getVersion());
+                    plugin(plugin);
+                }
+            }
+        }
+
+        // ---------------------------------------------------------------- elements
+
+        /**
+         * Write the body of a plugin table, but its coordinate.
+         */
+        private void plugin(Plugin plugin) throws IOException {
+            bool("extensions", plugin.getExtensions());
+            bool("inherited", plugin.getInherited());
+            if (!plugin.getDependencies().isEmpty()) {
+                array("dependencies", dependencyItems(plugin.getDependencies()));
+            }
+            if (!plugin.getExecutions().isEmpty()) {
+                var items = new ArrayList<String>();
+                for (var execution : plugin.getExecutions()) {
+                    var item = new Inline();
+                    if (!"default".equals(execution.getId())) {
+                        item.kv("id", execution.getId());
+                    }
+                    item.kv("phase", execution.getPhase());
+                    item.strings("goals", execution.getGoals());
+                    item.bool("inherited", execution.getInherited());
+                    if (execution.getConfiguration() instanceof Xpp3Dom dom) {
+                        if (isConvertible(dom)) {
+                            item.raw("configuration", inlineDom(dom));
+                        } else {
+                            comment("not converted: configuration of execution '" + execution.getId() + "'");
+                            comment(dom.toString());
+                        }
+                    }
+                    items.add(item.toString());
+                }
+                array("executions", items);
+            }
+            if (plugin.getGoals() != null) {
+                comment("not converted: goals");
+                comment(plugin.getGoals().toString());
+            }
+            if (plugin.getConfiguration() instanceof Xpp3Dom dom) {
+                if (dom.getAttributeNames().length > 0 || dom.getValue() != null) {
+                    comment("not converted: configuration");
+                    comment(dom.toString());
+                } else if (dom.getChildCount() == 0) {
+                    raw("configuration", "{}");
+                } else {
+                    dottedDom("configuration", dom);
+                }
+            }
+        }
+
+        /**
+         * @return the dependencies as {@code 'group:artifact:version'} strings, or all as inline tables when one
+         * of them has more fields: the arrays of the TOML parser hold a single type.
+         */
+        private List<String> dependencyItems(List<Dependency> dependencies) {
+            var items = new ArrayList<Inline>();
+            var strings = true;
+            for (var dep : dependencies) {
+                var item = dependency(dep, true);
+                strings &= item.size() == 3 && item.has("group") && item.has("artifact") && item.has("version")
+                  && !dep.getGroupId().startsWith("@");
+                items.add(item);
+            }
+
+            var ret = new ArrayList<String>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                var dep = dependencies.get(i);
+                ret.add(strings ? string(dep.getGroupId() + ":" + dep.getArtifactId() + ":" + dep.getVersion()) : items.get(i).toString());
+            }
+            return ret;
+        }
+
+        private Inline dependency(Dependency dep, boolean coordinate) {
+            var item = new Inline();
+            if (coordinate) {
+                item.kv("group", dep.getGroupId());
+                item.kv("artifact", dep.getArtifactId());
+            }
+            item.kv("version", dep.getVersion());
+            if (!"jar".equals(dep.getType())) {
+                item.kv("type", dep.getType());
+            }
+            item.kv("classifier", dep.getClassifier());
+            item.kv("scope", dep.getScope());
+            item.kv("system-path", dep.getSystemPath());
+            item.bool("optional", dep.getOptional());
+            if (!dep.getExclusions().isEmpty()) {
+                var items = new StringJoiner(", ", "[", "]");
+                for (var exclusion : dep.getExclusions()) {
+                    var ex = new Inline();
+                    ex.kv("group", exclusion.getGroupId());
+                    ex.kv("artifact", exclusion.getArtifactId());
+                    items.add(ex.toString());
+                }
+                item.raw("exclusions", items.toString());
+            }
+            return item;
+        }
+
+        private void resources(String name, List<Resource> resources) throws IOException {
+            if (resources.isEmpty()) return;
+            var items = new ArrayList<String>();
+            for (var resource : resources) {
+                var item = new Inline();
+                item.kv("directory", resource.getDirectory());
+                item.kv("target-path", resource.getTargetPath());
+                item.bool("filtering", resource.getFiltering());
+                item.strings("includes", resource.getIncludes());
+                item.strings("excludes", resource.getExcludes());
+                items.add(item.toString());
+            }
+            array(name, items);
+        }
+
+        private String policy(RepositoryPolicy policy) {
+            var item = new Inline();
+            item.bool("enabled", policy.getEnabled());
+            item.kv("update-policy", policy.getUpdatePolicy());
+            item.kv("checksum-policy", policy.getChecksumPolicy());
+            return item.toString();
+        }
+
+        private String deploymentRepository(DeploymentRepository repository) {
+            var item = new Inline();
+            if (!repository.isUniqueVersion()) {
+                item.raw("unique-version", "false");
+            }
+            if (repository.getReleases() != null) {
+                item.raw("releases", policy(repository.getReleases()));
+            }
+            if (repository.getSnapshots() != null) {
+                item.raw("snapshots", policy(repository.getSnapshots()));
+            }
+            item.kv("id", repository.getId());
+            item.kv("name", repository.getName());
+            item.kv("url", repository.getUrl());
+            if (!"default".equals(repository.getLayout())) {
+                item.kv("layout", repository.getLayout());
+            }
+            return item.toString();
+        }
+
+        private String properties(Properties properties) {
+            var item = new Inline();
+            for (var name : new TreeSet<>(properties.stringPropertyNames())) {
+                item.kv(key(name), properties.getProperty(name));
+            }
+            return item.toString();
+        }
+
+        // ---------------------------------------------------------------- configuration
+
+        /**
+         * Write the children of {@code dom} as dotted keys, one line per value, so they keep their order.
+         */
+        private void dottedDom(String prefix, Xpp3Dom dom) throws IOException {
+            for (var child : dom.getChildren()) {
+                var name = domKey(child.getName());
+                if (name == null || !isConvertible(child)) {
+                    comment("not converted: " + prefix + "." + child.getName());
+                    comment(child.toString());
+                } else if (isList(child)) {
+                    line(prefix + "." + name + " = " + domList(child));
+                } else if (child.getChildCount() == 0) {
+                    line(prefix + "." + name + " = " + (child.getValue() == null ? "{}" : string(child.getValue())));
+                } else {
+                    dottedDom(prefix + "." + name, child);
+                }
+            }
+        }
+
+        private String inlineDom(Xpp3Dom dom) {
+            var item = new Inline();
+            for (var child : dom.getChildren()) {
+                var name = domKey(child.getName());
+                if (isList(child)) {
+                    item.raw(name, domList(child));
+                } else if (child.getChildCount() == 0) {
+                    item.raw(name, child.getValue() == null ? "{}" : string(child.getValue()));
+                } else {
+                    item.raw(name, inlineDom(child));
+                }
+            }
+            return item.toString();
+        }
+
+        private String domList(Xpp3Dom dom) {
+            var items = new StringJoiner(", ", "[", "]");
+            for (var child : dom.getChildren()) {
+                items.add(child.getChildCount() == 0 ? string(child.getValue() == null ? "" : child.getValue()) : inlineDom(child));
+            }
+            return items.toString();
+        }
+
+        /**
+         * @return is {@code dom} an {@code <items>} element of {@code <item>} elements.
+         */
+        private static boolean isList(Xpp3Dom dom) {
+            if (dom.getChildCount() == 0 || !dom.getName().endsWith("s")) return false;
+            var item = dom.getName().substring(0, dom.getName().length() - 1);
+            for (var child : dom.getChildren()) {
+                if (!child.getName().equals(item)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return can {@code dom} be read back by {@code TomlModelBinder.asDOM}: no attribute, no mixed content,
+         * no repeated name but in a list, lists of either values or elements, and names which are not changed by
+         * the camel case conversion.
+         */
+        private static boolean isConvertible(Xpp3Dom dom) {
+            if (dom.getAttributeNames().length > 0 || domKey(dom.getName()) == null) return false;
+            if (dom.getChildCount() == 0) return true;
+            if (dom.getValue() != null && !dom.getValue().isBlank()) return false;
+
+            var list = isList(dom);
+            var names = new HashSet<String>();
+            var tables = 0;
+            for (var child : dom.getChildren()) {
+                if (!list && !names.add(child.getName())) return false;
+                if (child.getChildCount() > 0) tables++;
+                if (list && child.getChildCount() == 0 && child.getValue() == null) return false;
+                if (!isConvertible(child)) return false;
+            }
+            // the arrays of the TOML parser hold a single type
+            return !list || tables == 0 || tables == dom.getChildCount();
+        }
+
+        /**
+         * @return the key of an element name, in kebab case when it reads back the same; {@code null} when the
+         * name cannot be read back.
+         */
+        private static String domKey(String name) {
+            var upper = name.chars().anyMatch(Character::isUpperCase);
+            if (name.indexOf('-') >= 0) {
+                // read unchanged as it is not kebab case, such as 'Main-Class'
+                return upper ? key(name) : null;
+            }
+            if (!upper || !Character.isLowerCase(name.charAt(0))) {
+                return key(name);
+            }
+
+            var kebab = new StringBuilder(name.length() + 4);
+            for (int i = 0; i < name.length(); i++) {
+                var c = name.charAt(i);
+                if (Character.isUpperCase(c)) {
+                    if (Character.isUpperCase(name.charAt(i - 1))) {
+                        // acronyms, such as 'useURL', read better unchanged
+                        return key(name);
+                    }
+                    kebab.append('-').append(Character.toLowerCase(c));
+                } else {
+                    kebab.append(c);
+                }
+            }
+            var ret = kebab.toString();
+            return TomlModelBinder.toCamelCase(ret).equals(name) ? key(ret) : key(name);
+        }
+
+        private void notConverted(String what, Model model) throws IOException {
+            var xml = new StringWriter();
+            new MavenXpp3Writer().write(xml, model);
+            comment("not converted: " + what);
+            // the children of <project>, which start tag may span several lines
+            var text = xml.toString();
+            var start = text.indexOf('>', text.indexOf("<project")) + 1;
+            var end = text.lastIndexOf("</project>");
+            for (var line : text.substring(start, Math.max(start, end)).split("\n")) {
+                if (!line.isBlank() && !line.strip().startsWith("<modelVersion>")) {
+                    comment(line);
+                }
+            }
+        }
+
+        // ---------------------------------------------------------------- output
+
+        private void section() throws IOException {
+            if (!first) {
+                out.write('\n');
+            }
+            first = false;
+        }
+
+        private void table(String name) throws IOException {
+            section();
+            out.write("[" + name + "]\n");
+        }
+
+        private void arrayTable(String name) throws IOException {
+            section();
+            out.write("[[" + name + "]]\n");
+        }
+
+        private void line(String line) throws IOException {
+            out.write(line);
+            out.write('\n');
+        }
+
+        private void comment(String text) throws IOException {
+            for (var line : text.split("\n")) {
+                if (line.startsWith("<?xml")) continue;
+                out.write("# " + line.stripTrailing() + "\n");
+            }
+        }
+
+        private void kv(String key, String value) throws IOException {
+            if (value != null) {
+                line(key + " = " + string(value));
+            }
+        }
+
+        private void raw(String key, String value) throws IOException {
+            line(key + " = " + value);
+        }
+
+        private void bool(String key, String value) throws IOException {
+            if (value == null) return;
+            if (value.equals("true") || value.equals("false")) {
+                line(key + " = " + value);
+            } else {
+                comment("not converted: " + key + " = " + value);
+            }
+        }
+
+        private void array(String key, List<String> items) throws IOException {
+            out.write(key + " = [\n");
+            for (var item : items) {
+                out.write("    " + item + ",\n");
+            }
+            out.write("]\n");
+        }
+    }
+
+    /**
+     * Inline table, built as a list of {@code key = value} entries.
+     */
+    private static final class Inline {
+        private final List<String> entries = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+
+        void kv(String key, String value) {
+            if (value != null) raw(key, string(value));
+        }
+
+        void raw(String key, String value) {
+            keys.add(key);
+            entries.add(key + " = " + value);
+        }
+
+        void bool(String key, String value) {
+            if (value != null && (value.equals("true") || value.equals("false"))) raw(key, value);
+        }
+
+        void strings(String key, List<String> values) {
+            if (values != null && !values.isEmpty()) raw(key, TomlModelWriter.strings(values));
+        }
+
+        boolean has(String key) {
+            return keys.contains(key);
+        }
+
+        void remove(String key) {
+            var i = keys.indexOf(key);
+            if (i >= 0) {
+                keys.remove(i);
+                entries.remove(i);
+            }
+        }
+
+        void addAll(Inline other) {
+            keys.addAll(other.keys);
+            entries.addAll(other.entries);
+        }
+
+        int size() {
+            return entries.size();
+        }
+
+        boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return entries.isEmpty() ? "{}" : "{ " + String.join(", ", entries) + " }";
+        }
+    }
+
+    /**
+     * @param name  property name
+     * @param names all the property names
+     * @return {@code name} as a dotted key when none of its prefixes is a property itself, quoted otherwise.
+     */
+    private static String propertyKey(String name, SortedSet<String> names) {
+        var segments = name.split("\\.", -1);
+        if (segments.length < 2 || !names.subSet(name + ".", name + "/").isEmpty()) {
+            return key(name);
+        }
+        var prefix = new StringBuilder();
+        for (int i = 0; i < segments.length; i++) {
+            if (!BARE_KEY.matcher(segments[i]).matches()) return key(name);
+            if (i > 0) {
+                if (names.contains(prefix.toString())) return key(name);
+                prefix.append('.');
+            }
+            prefix.append(segments[i]);
+        }
+        return name;
+    }
+
+    private static String key(String key) {
+        return BARE_KEY.matcher(key).matches() ? key : basic(key);
+    }
+
+    private static String strings(List<String> values) {
+        var ret = new StringJoiner(", ", "[", "]");
+        for (var value : values) {
+            ret.add(string(value));
+        }
+        return ret.toString();
+    }
+
+    /**
+     * @return {@code value} as a literal string when possible, as a basic string otherwise.
+     */
+    private static String string(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c == '\'' || (c < 0x20 && c != '\t') || c == 0x7f) {
+                return basic(value);
+            }
+        }
+        return "'" + value + "'";
+    }
+
+    private static String basic(String value) {
+        var ret = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            switch (c) {
+            case '"':
+                ret.append("\\\"");
+                break;
+            case '\\':
+                ret.append("\\\\");
+                break;
+            case '\n':
+                ret.append("\\n");
+                break;
+            case '\r':
+                ret.append("\\r");
+                break;
+            case '\t':
+                ret.append("\\t");
+                break;
+            default:
+                if (c < 0x20 || c == 0x7f) {
+                    ret.append(String.format("\\u%04x", (int) c));
+                } else {
+                    ret.append(c);
+                }
+            }
+        }
+        return ret.append('"').toString();
+    }
+}
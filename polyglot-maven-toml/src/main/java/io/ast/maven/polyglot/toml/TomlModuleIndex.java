@@ -0,0 +1,185 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Expand module globs, and remember where the pom file of each walked directory is.
+ * <pre>
+ *     [project]
+ *     modules = ['services/*', 'libs/**']
+ * </pre>
+ * The directories below the literal prefix of a glob are walked in parallel, once. A directory containing a
+ * pom.toml or a pom.xml is a module candidate, and the walk does not descend below it (its own modules are
+ * declared by its pom). Candidates matching the glob are added in path order.
+ * <p>
+ * The index built by the walk answers {@link TomlModelProcessor#locatePom(File)} for the module directories
+ * with one check of the directory modification time instead of probing its pom files. It is refreshed each
+ * time the globs are expanded, and an entry is dropped once its directory changes, so a long living Maven
+ * process never answers from a stale walk.
+ */
+final class TomlModuleIndex {
+
+    /**
+     * pom file of each walked directory: pom.toml when present, pom.xml otherwise.
+     */
+    private static final Map<Path, Walked> POMS = new ConcurrentHashMap<>();
+
+    /**
+     * @param pom      pom file of the directory
+     * @param modified directory modification time when walked
+     */
+    private record Walked(Path pom, FileTime modified) {
+    }
+
+    private TomlModuleIndex() {
+    }
+
+    /**
+     * @param module module entry
+     * @return does {@code module} contain a glob pattern.
+     */
+    static boolean isGlob(String module) {
+        for (int i = 0; i < module.length(); i++) {
+            switch (module.charAt(i)) {
+            case '*':
+            case '?':
+            case '[':
+            case '{':
+                return true;
+            default:
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param dir     directory of the pom file
+     * @param modules module entries, either directories or globs.
+     * @return module directories, relative to {@code dir}, with the globs expanded.
+     * @throws IOException
+     */
+    static List<String> expand(Path dir, List<String> modules) throws IOException {
+        dir = dir.toAbsolutePath().normalize();
+        var ret = new LinkedHashSet<String>();
+        for (var module : modules) {
+            if (!isGlob(module)) {
+                ret.add(module);
+                continue;
+            }
+
+            var segments = module.split("/");
+            int literal = 0;
+            while (literal < segments.length - 1 && !isGlob(segments[literal])) {
+                literal++;
+            }
+            var base = dir;
+            for (int i = 0; i < literal; i++) {
+                base = base.resolve(segments[i]);
+            }
+            var depth = module.contains("**") ? Integer.MAX_VALUE : segments.length - literal;
+
+            var found = new ConcurrentHashMap<Path, Boolean>();
+            var walked = base;
+            POMS.keySet().removeIf(p -> p.startsWith(walked));
+            if (Files.isDirectory(base)) {
+                try {
+                    ForkJoinPool.commonPool().invoke(new Walk(base, depth, found));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+
+            var matcher = FileSystems.getDefault().getPathMatcher("glob:" + module);
+            var matched = new ArrayList<String>();
+            for (var candidate : found.keySet()) {
+                var relative = dir.relativize(candidate);
+                if (!candidate.equals(dir) && matcher.matches(relative)) {
+                    matched.add(relative.toString().replace(File.separatorChar, '/'));
+                }
+            }
+            Collections.sort(matched);
+            ret.addAll(matched);
+        }
+        return new ArrayList<>(ret);
+    }
+
+    /**
+     * @param dir project directory
+     * @return its pom file, or {@code null} when the directory was not walked.
+     */
+    static Path locate(Path dir) {
+        if (POMS.isEmpty()) return null;
+        var key = dir.toAbsolutePath().normalize();
+        var walked = POMS.get(key);
+        if (walked == null) return null;
+        try {
+            if (Files.getLastModifiedTime(key).equals(walked.modified())) {
+                return walked.pom();
+            }
+        } catch (IOException e) {
+            // gone since the walk
+        }
+        POMS.remove(key, walked);
+        return null;
+    }
+
+    /**
+     * List one directory, and fork the walk of its sub directories.
+     */
+    @SuppressWarnings("serial")
+    private static final class Walk extends RecursiveAction {
+        private final Path dir;
+        private final int depth;
+        private final Map<Path, Boolean> found;
+
+        Walk(Path dir, int depth, Map<Path, Boolean> found) {
+            this.dir = dir;
+            this.depth = depth;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            boolean toml = false, xml = false;
+            var children = new ArrayList<Path>();
+            FileTime modified;
+            try (var entries = Files.newDirectoryStream(dir)) {
+                modified = Files.getLastModifiedTime(dir);
+                for (var entry : entries) {
+                    var name = entry.getFileName().toString();
+                    if (name.equals("pom.toml")) {
+                        toml = true;
+                    } else if (name.equals("pom.xml")) {
+                        xml = true;
+                    } else if (depth > 0 && !name.startsWith(".")
+                      && Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isDirectory()) {
+                        children.add(entry);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            POMS.put(dir, new Walked(dir.resolve(toml ? "pom.toml" : "pom.xml"), modified));
+            if (toml || xml) {
+                found.put(dir, Boolean.TRUE);
+                return;
+            }
+
+            var tasks = new ArrayList<Walk>(children.size());
+            for (var child : children) {
+                tasks.add(new Walk(child, depth - 1, found));
+            }
+            invokeAll(tasks);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.model.Parent;
+import org.apache.tuweni.toml.TomlTable;
+
+/**
+ * Modules declared inline by a root pom.toml, each holding a full project definition.
+ * <pre>
+ *     [module.api.project]
+ *     artifact = 'api'
+ *
+ *     [module."libs/impl".project]
+ *     artifact = 'impl'
+ *     [module."libs/impl".dependencies.compile]
+ *     "org.example:api" = '${project.version}'
+ * </pre>
+ * The key is the module directory, relative to the root pom.toml. Reading the root registers its modules,
+ * and they are served later from the parsed root document, without reading any file of the module directory.
+ * A module without a parent gets the root project as parent.
+ * <p>
+ * Maven 3 still requires an (empty) pom.toml in each module directory, which is only checked to be empty.
+ * The Maven 4 {@link TomlModelParser} serves the modules without any file.
+ * <p>
+ * A registered module is only served while its root pom.toml keeps the modification time and size it had
+ * when registered, so a long living Maven process drops the modules of an edited root until it is read again.
+ */
+final class TomlModules {
+
+    private static final Map<Path, Registered> INLINE = new ConcurrentHashMap<>();
+
+    /**
+     * @param root    root pom file, optional.
+     * @param name    module key in the root document
+     * @param pom     virtual pom file of the module
+     * @param config  module project definition
+     * @param catalog version catalog of the root document, optional.
+     * @param parent  default parent, optional.
+     */
+    record Inline(Path root, String name, Path pom, TomlTable config, TomlCatalog catalog, Parent parent) {
+    }
+
+    /**
+     * @param module   registered module
+     * @param modified modification time of its root when registered, {@code null} without root.
+     * @param size     size of its root when registered
+     */
+    private record Registered(Inline module, FileTime modified, long size) {
+    }
+
+    private TomlModules() {
+    }
+
+    /**
+     * Register a module, replacing the one of the same pom file read by a former build.
+     */
+    static void register(Inline module) {
+        FileTime modified = null;
+        long size = -1;
+        if (module.root() != null) {
+            var attributes = attributes(module.root());
+            if (attributes == null) return;
+            modified = attributes.lastModifiedTime();
+            size = attributes.size();
+        }
+        INLINE.put(module.pom(), new Registered(module, modified, size));
+    }
+
+    /**
+     * @param pom pom file
+     * @return the inline module of this pom file, or {@code null} when it is not declared inline, or its root
+     * changed since.
+     */
+    static Inline get(Path pom) {
+        if (INLINE.isEmpty()) return null;
+        var key = pom.toAbsolutePath().normalize();
+        var registered = INLINE.get(key);
+        if (registered == null) return null;
+        if (registered.modified() != null) {
+            var attributes = attributes(registered.module().root());
+            if (attributes == null || !attributes.lastModifiedTime().equals(registered.modified()) || attributes.size() != registered.size()) {
+                INLINE.remove(key, registered);
+                return null;
+            }
+        }
+        return registered.module();
+    }
+
+    /**
+     * @return attributes of {@code file}, or {@code null} when it cannot be read.
+     */
+    private static BasicFileAttributes attributes(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
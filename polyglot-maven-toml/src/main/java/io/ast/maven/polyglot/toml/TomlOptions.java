@@ -0,0 +1,260 @@
+package io.ast.maven.polyglot.toml;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.model.InputSource;
+import org.apache.maven.model.io.ModelReader;
+
+/**
+ * Options of the TOML model reader.
+ * <p>
+ * Each option is taken from the model reading options map first, then from the system properties
+ * (so it can be given as {@code -Dkey=value} on the Maven command line). A malformed number is warned about
+ * once, and its default is used.
+ */
+public final class TomlOptions {
+
+    /**
+     * Throw {@link org.apache.maven.model.io.ModelParseException} on unrecognised content.
+     */
+    public static final String IS_STRICT = "org.apache.maven.model.io.isStrict";
+
+    /**
+     * Minimal document size, in characters, to bind the top-level tables in parallel. Negative to disable (default).
+     */
+    public static final String PARALLEL_THRESHOLD = "io.ast.maven.polyglot.toml.parallelThreshold";
+
+    /**
+     * Maximal document size, in characters. Negative for unlimited. Default 8M.
+     */
+    public static final String MAX_FILE_SIZE = "io.ast.maven.polyglot.toml.maxFileSize";
+
+    /**
+     * Maximal nesting depth of tables and arrays, such as nested {@code configuration} tables. Negative for unlimited. Default 64.
+     */
+    public static final String MAX_DEPTH = "io.ast.maven.polyglot.toml.maxDepth";
+
+    /**
+     * Maximal array length. Negative for unlimited. Default 100000.
+     */
+    public static final String MAX_ARRAY_LENGTH = "io.ast.maven.polyglot.toml.maxArrayLength";
+
+    /**
+     * Maximal string length, in characters. Negative for unlimited. Default 1M.
+     */
+    public static final String MAX_STRING_LENGTH = "io.ast.maven.polyglot.toml.maxStringLength";
+
+    /**
+     * Maximal time to parse and bind a document, in milliseconds. Zero or negative for unlimited (default).
+     */
+    public static final String MAX_PARSE_TIME = "io.ast.maven.polyglot.toml.maxParseTime";
+
+    /**
+     * Apply the versions locked by the pom.lock.toml next to the pom.toml. Default true.
+     *
+     * @see TomlLockfile
+     */
+    public static final String LOCK = "io.ast.maven.polyglot.toml.lock";
+
+    /**
+     * Resolve the references to the properties of the same pom.toml while binding it. Default false.
+     *
+     * @see TomlInterpolator
+     */
+    public static final String INTERPOLATE = "io.ast.maven.polyglot.toml.interpolate";
+
+    /**
+     * Bind the descriptive sections of a pom.toml (organization, licenses, developers, contributors, mailing lists,
+     * scm, issue, ci and distribution management) on their first access rather than while reading it; their
+     * warnings and errors are then reported on that access. Default false.
+     *
+     * @see TomlLazyModel
+     */
+    public static final String LAZY = "io.ast.maven.polyglot.toml.lazy";
+
+    /**
+     * Prefetch the dependencies declared by the pom.toml files in the background, once the projects are read.
+     * Default false.
+     *
+     * @see TomlPrefetchParticipant
+     */
+    public static final String PREFETCH = "io.ast.maven.polyglot.toml.prefetch";
+
+    /**
+     * Number of prefetch batches resolved in parallel. Default 8.
+     */
+    public static final String PREFETCH_THREADS = "io.ast.maven.polyglot.toml.prefetchThreads";
+
+    /**
+     * Number of artifacts resolved by one prefetch batch. Default 32.
+     */
+    public static final String PREFETCH_BATCH_SIZE = "io.ast.maven.polyglot.toml.prefetchBatchSize";
+
+    /**
+     * URI of a cache of the read models, shared by Maven processes: {@code unix:/path/to/socket} of a
+     * {@link TomlCacheServer}, {@code file:/shared/dir}, {@code https://host/path/}, or a scheme of a
+     * {@link TomlCacheBackend} component. Unset to disable (default); the models are read as usual when the cache
+     * fails.
+     * <p>
+     * A hit is used as the model of the pom.toml, with its plugins, repositories and dependencies, so whoever can
+     * write to the cache can change the builds which read it. A {@link TomlCacheServer} socket is only accessible
+     * to its owner, so it is trusted as the user's own files are. Any other cache is shared, and is only used with
+     * a {@link #CACHE_SECRET}: each entry is authenticated with an HMAC under the secret, and an entry which does
+     * not verify is a miss. So a shared cache is as trusted as the agents holding the secret. Plain {@code http:}
+     * is refused, and redirects are not followed.
+     *
+     * @see TomlModelCache
+     */
+    public static final String CACHE = "io.ast.maven.polyglot.toml.cache";
+
+    /**
+     * Unix domain socket of a {@link TomlCacheServer}, short for {@link #CACHE} {@code unix:<path>}.
+     */
+    public static final String CACHE_SOCKET = "io.ast.maven.polyglot.toml.cacheSocket";
+
+    /**
+     * File holding the secret shared by the agents reading and writing a shared {@link #CACHE}, rather than the
+     * secret itself, which would show in the command lines. A relative path is resolved from the root directory
+     * of the build. Unset by default, which disables the caches other than a {@link TomlCacheServer}.
+     */
+    public static final String CACHE_SECRET = "io.ast.maven.polyglot.toml.cacheSecret";
+
+    /**
+     * Maximal time to wait for a model cache lookup, in milliseconds. Default 500.
+     */
+    public static final String CACHE_TIMEOUT = "io.ast.maven.polyglot.toml.cacheTimeout";
+
+    /**
+     * Jar of the models compiled by {@link TomlModelCompiler}, which are used instead of reading the pom.toml files
+     * of the same content. A relative path is resolved from the root directory of the build. Unset to disable
+     * (default).
+     */
+    public static final String MODELS = "io.ast.maven.polyglot.toml.models";
+
+    final boolean isStrict;
+    final long parallelThreshold;
+    final long maxFileSize;
+    final long maxDepth;
+    final long maxArrayLength;
+    final long maxStringLength;
+    final long maxParseTime;
+    final boolean lock;
+    final boolean interpolate;
+    final boolean lazy;
+    final boolean prefetch;
+    final URI cache;
+    final Path cacheSecret;
+    final long cacheTimeout;
+    final Path models;
+
+    /**
+     * source of the tracked input locations, given by Maven as {@link ModelReader#INPUT_SOURCE}. {@code null} disables tracking.
+     */
+    final InputSource inputSource;
+
+    /**
+     * the malformed values warned about, once per process as the options are read for each pom.
+     */
+    private static final Set<String> WARNED = ConcurrentHashMap.newKeySet();
+
+    private TomlOptions(Map<String, ?> options) {
+        isStrict = getModelIsStrict(options);
+        parallelThreshold = getLong(options, PARALLEL_THRESHOLD, -1);
+        maxFileSize = getLong(options, MAX_FILE_SIZE, 8 << 20);
+        maxDepth = getLong(options, MAX_DEPTH, 64);
+        maxArrayLength = getLong(options, MAX_ARRAY_LENGTH, 100_000);
+        maxStringLength = getLong(options, MAX_STRING_LENGTH, 1 << 20);
+        maxParseTime = getLong(options, MAX_PARSE_TIME, 0);
+        lock = getBoolean(options, LOCK, true);
+        interpolate = getBoolean(options, INTERPOLATE, false);
+        lazy = getBoolean(options, LAZY, false);
+        prefetch = getBoolean(options, PREFETCH, false);
+        cache = getCache(options);
+        cacheSecret = getPath(options, CACHE_SECRET);
+        cacheTimeout = Math.max(1, getLong(options, CACHE_TIMEOUT, 500));
+        models = getPath(options, MODELS);
+        inputSource = (options != null && options.get(ModelReader.INPUT_SOURCE) instanceof InputSource source) ? source : null;
+    }
+
+    static TomlOptions of(Map<String, ?> options) {
+        return new TomlOptions(options);
+    }
+
+    private static boolean getModelIsStrict(Map<String, ?> options) {
+        Object value = (options != null) ? options.get(IS_STRICT) : "false";
+        if (value instanceof String source) {
+            return Boolean.parseBoolean(source);
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * @return the URI of {@link #CACHE} or {@link #CACHE_SOCKET}, {@code null} when unset or invalid.
+     */
+    private static URI getCache(Map<String, ?> options) {
+        if (get(options, CACHE) instanceof String uri && !uri.isBlank()) {
+            try {
+                return new URI(uri.strip());
+            } catch (URISyntaxException e) {
+                return null;
+            }
+        }
+        if (get(options, CACHE_SOCKET) instanceof String socket && !socket.isBlank()) {
+            return URI.create("unix:" + Path.of(socket.strip()).toAbsolutePath().toUri().getRawPath());
+        }
+        return null;
+    }
+
+    /**
+     * @return the file of option {@code key}, resolved from the root directory of the build; {@code null} when
+     * unset.
+     */
+    private static Path getPath(Map<String, ?> options, String key) {
+        if (get(options, key) instanceof String file && !file.isBlank()) {
+            var root = System.getProperty("maven.multiModuleProjectDirectory");
+            return (root != null ? Path.of(root).resolve(file.strip()) : Path.of(file.strip())).toAbsolutePath().normalize();
+        }
+        return null;
+    }
+
+    private static Object get(Map<String, ?> options, String key) {
+        Object value = (options != null) ? options.get(key) : null;
+        return (value != null) ? value : System.getProperty(key);
+    }
+
+    static boolean getBoolean(Map<String, ?> options, String key, boolean defaultValue) {
+        Object value = get(options, key);
+        if (value instanceof Boolean bool) {
+            return bool;
+        } else if (value instanceof String source && !source.isBlank()) {
+            return Boolean.parseBoolean(source.strip());
+        } else {
+            return defaultValue;
+        }
+    }
+
+    static long getLong(Map<String, ?> options, String key, long defaultValue) {
+        Object value = get(options, key);
+        if (value instanceof Number number) {
+            return number.longValue();
+        } else if (value instanceof String source && !source.isBlank()) {
+            try {
+                return Long.parseLong(source.strip());
+            } catch (NumberFormatException e) {
+                if (WARNED.add(key + "=" + source)) {
+                    System.out.println(new TomlDiagnostic(null, TomlDiagnostic.Severity.WARNING,
+                      "Invalid value of option " + key + ": '" + source + "' is not an integer, using " + defaultValue, -1, -1));
+                }
+                return defaultValue;
+            }
+        } else {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,521 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import io.ast.maven.polyglot.toml.TomlSyntax.Kind;
+import io.ast.maven.polyglot.toml.TomlSyntax.Node;
+import org.apache.maven.model.io.ModelParseException;
+
+/**
+ * Edit pom.toml files in place, keeping their comments, layout and quoting, for bulk version updates.
+ * <pre>
+ *     var changed = TomlPomEditor.editAll(poms, editor -&gt; editor.setDependencyVersion("org.slf4j", "slf4j-api", "2.0.16"),
+ *       System.err::println);
+ * </pre>
+ * Only the text of the edited keys and values is replaced: dependencies and plugins are found in all the forms
+ * the pom.toml format accepts, and are edited in the form they are written in. An editor is not thread safe,
+ * but {@link #editAll(Collection, Edit, Consumer)} edits many files in parallel, one editor per file.
+ *
+ * @see TomlSyntax
+ */
+public final class TomlPomEditor {
+
+    private static final String DEFAULT_PLUGIN_GROUP = "org.apache.maven.plugins";
+    private static final Pattern PROPERTY_REFERENCE = Pattern.compile("\\$\\{([^}]+)}");
+    private static final Pattern LITERAL = Pattern.compile("true|false|[+-]?[0-9]+(\\.[0-9]+)?");
+
+    /**
+     * an edit of one pom.toml.
+     */
+    @FunctionalInterface
+    public interface Edit {
+        /**
+         * @param editor editor of the pom.toml
+         * @return whether the pom.toml was changed
+         */
+        boolean edit(TomlPomEditor editor);
+    }
+
+    private final String original;
+    private TomlSyntax syntax;
+
+    private TomlPomEditor(TomlSyntax syntax) {
+        this.original = syntax.text;
+        this.syntax = syntax;
+    }
+
+    /**
+     * @param text pom.toml content
+     * @return editor of {@code text}
+     * @throws ModelParseException on a syntax error.
+     */
+    public static TomlPomEditor parse(String text) throws ModelParseException {
+        return new TomlPomEditor(TomlSyntax.parse(Objects.requireNonNull(text, "text")));
+    }
+
+    /**
+     * @return the edited pom.toml content
+     */
+    public String text() {
+        return syntax.text;
+    }
+
+    /**
+     * @return whether the content differs from the parsed one
+     */
+    public boolean isModified() {
+        return !original.equals(syntax.text);
+    }
+
+    /**
+     * Set the version of a dependency wherever it is declared: in the dependencies, the dependency management
+     * and the dependencies of the plugins. A version referencing a property of the file, as
+     * {@code '${slf4j.version}'}, is set by setting the property. Catalog aliases are left alone.
+     *
+     * @return whether a version was changed
+     */
+    public boolean setDependencyVersion(String groupId, String artifactId, String version) {
+        var edits = new ArrayList<TomlSyntax.Edit>();
+        var properties = new LinkedHashSet<String>();
+        for (var dependency : dependencies(true)) {
+            if (dependency.matches(groupId, artifactId)) {
+                dependency.setVersion(edits, properties, version);
+            }
+        }
+        return setVersion(edits, properties, version);
+    }
+
+    /**
+     * Set the version of a plugin in the build plugins and the plugin management, or the property its version
+     * references, as {@link #setDependencyVersion(String, String, String)}. A plugin without a group is one of
+     * {@code org.apache.maven.plugins}.
+     *
+     * @return whether a version was changed
+     */
+    public boolean setPluginVersion(String groupId, String artifactId, String version) {
+        var edits = new ArrayList<TomlSyntax.Edit>();
+        var properties = new LinkedHashSet<String>();
+        for (var plugin : plugins()) {
+            if (plugin.matches(groupId, artifactId)) {
+                plugin.setVersion(edits, properties, version);
+            }
+        }
+        return setVersion(edits, properties, version);
+    }
+
+    /**
+     * Set a property, adding it to the {@code [properties]} table when it is not declared.
+     *
+     * @return whether the property was changed
+     * @throws IllegalArgumentException when {@code name} is the prefix of other properties.
+     */
+    public boolean setProperty(String name, String value) {
+        Objects.requireNonNull(value, "value");
+        var tables = children(syntax.root, "properties", "property");
+        for (var table : tables) {
+            var node = propertyIn(table, name);
+            if (node == null) continue;
+            if (node.kind != Kind.VALUE) {
+                throw new IllegalArgumentException("Property '" + name + "' is a table of properties");
+            }
+            if (node.string == null && LITERAL.matcher(value).matches()) {
+                // a boolean or a number stays one
+                return apply(List.of(new TomlSyntax.Edit(node.value.start(), node.value.end(), value)));
+            }
+            return apply(List.of(syntax.setString(node, value)));
+        }
+
+        var segments = name.split("\\.", -1);
+        if (tables.isEmpty()) {
+            var key = Arrays.stream(segments).allMatch(s -> TomlSyntax.BARE_KEY.matcher(s).matches()) ? name : TomlSyntax.key(name);
+            return apply(List.of(syntax.section(null, "properties", List.of(key + " = " + TomlSyntax.string(value, '\'')))));
+        }
+
+        // as a dotted key in the tables already declared for its prefix, when there is no value in the way
+        var table = tables.get(0);
+        var i = 0;
+        for (; i < segments.length - 1; i++) {
+            var child = table.child(segments[i]);
+            if (child == null || child.kind != Kind.TABLE) break;
+            table = child;
+        }
+        var rest = Arrays.asList(segments).subList(i, segments.length);
+        String key;
+        if (table.child(rest.get(0)) == null && rest.stream().allMatch(s -> TomlSyntax.BARE_KEY.matcher(s).matches())) {
+            key = String.join(".", rest);
+        } else {
+            table = tables.get(0);
+            key = TomlSyntax.key(name);
+        }
+        return apply(List.of(syntax.put(table, key, TomlSyntax.string(value, '\''))));
+    }
+
+    /**
+     * Add a dependency to the dependencies of a scope, in the form the scope is already written in. A
+     * dependency already declared, in any scope, is left as it is.
+     *
+     * @param scope   dependency scope, {@code compile} when {@code null}.
+     * @param version dependency version, {@code null} when it is managed.
+     * @return whether the dependency was added
+     */
+    public boolean addDependency(String scope, String groupId, String artifactId, String version) {
+        Objects.requireNonNull(groupId, "groupId");
+        Objects.requireNonNull(artifactId, "artifactId");
+        var name = groupId + ":" + artifactId;
+        if (scope == null) scope = "compile";
+        for (var dependency : dependencies(false)) {
+            if (dependency.matches(groupId, artifactId)) return false;
+        }
+
+        var dependencies = child(syntax.root, "dependencies");
+        var table = dependencies == null ? null : scope(dependencies, scope);
+        if (table != null && table.kind == Kind.ARRAY && table.isInline()) {
+            var first = table.items.isEmpty() ? null : table.items.get(0);
+            if (first != null && first.kind == Kind.TABLE) {
+                var item = new StringBuilder("{ group = ").append(TomlSyntax.string(groupId, '\''))
+                  .append(", artifact = ").append(TomlSyntax.string(artifactId, '\''));
+                if (version != null) item.append(", version = ").append(TomlSyntax.string(version, '\''));
+                return apply(List.of(syntax.add(table, item.append(" }").toString())));
+            }
+            var quote = first == null || first.quote == 0 ? '\'' : first.quote;
+            return apply(List.of(syntax.add(table, TomlSyntax.string(version == null ? name : name + ":" + version, quote))));
+        }
+
+        var value = version == null ? "{}" : TomlSyntax.string(version, '\'');
+        if (table != null && table.kind == Kind.TABLE) {
+            return apply(List.of(syntax.put(table, TomlSyntax.key(name), value)));
+        }
+        if (table != null) {
+            throw new IllegalArgumentException("Dependencies of scope '" + scope + "' are neither an array nor a table");
+        }
+        if (dependencies != null && dependencies.isInline()) {
+            return apply(List.of(syntax.put(dependencies, TomlSyntax.key(scope), "{ " + TomlSyntax.key(name) + " = " + value + " }")));
+        }
+        return apply(List.of(syntax.section(dependencies, "dependencies." + TomlSyntax.key(scope), List.of(TomlSyntax.key(name) + " = " + value))));
+    }
+
+    /**
+     * Remove a dependency from the dependencies of all scopes; the dependency management and the plugins are
+     * left alone.
+     *
+     * @return whether the dependency was removed
+     */
+    public boolean removeDependency(String groupId, String artifactId) {
+        var edits = new ArrayList<TomlSyntax.Edit>();
+        for (var dependency : dependencies(false)) {
+            if (dependency.matches(groupId, artifactId)) {
+                edits.add(syntax.remove(dependency.node));
+            }
+        }
+        return apply(edits);
+    }
+
+    /**
+     * Edit pom.toml files in parallel, read and written as UTF-8. Only the changed files are written, each one
+     * replaced at once; a file which cannot be read, edited or written is reported as an error diagnostic and
+     * left as it is.
+     *
+     * @param poms        pom.toml files
+     * @param edit        edit applied to each file
+     * @param diagnostics consumer of the errors, called by the editing threads.
+     * @return the changed files, in the input order.
+     */
+    public static List<Path> editAll(Collection<Path> poms, Edit edit, Consumer<TomlDiagnostic> diagnostics) {
+        Objects.requireNonNull(edit, "edit");
+        Objects.requireNonNull(diagnostics, "diagnostics");
+        var files = List.copyOf(poms);
+        var threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), files.size()));
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var tasks = new ArrayList<Future<Boolean>>(files.size());
+            for (var file : files) {
+                tasks.add(executor.submit(() -> edit(file, edit, diagnostics)));
+            }
+
+            var ret = new ArrayList<Path>();
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    if (tasks.get(i).get()) ret.add(files.get(i));
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return ret;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean edit(Path file, Edit edit, Consumer<TomlDiagnostic> diagnostics) {
+        try {
+            var editor = parse(Files.readString(file, StandardCharsets.UTF_8));
+            edit.edit(editor);
+            if (!editor.isModified()) return false;
+
+            var temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                Files.writeString(temp, editor.text(), StandardCharsets.UTF_8);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return true;
+        } catch (ModelParseException e) {
+            diagnostics.accept(new TomlDiagnostic(file, TomlDiagnostic.Severity.ERROR, e.getMessage(), e.getLineNumber(), e.getColumnNumber()));
+        } catch (IOException | RuntimeException e) {
+            diagnostics.accept(new TomlDiagnostic(file, TomlDiagnostic.Severity.ERROR, e.toString(), -1, -1));
+        }
+        return false;
+    }
+
+    private boolean setVersion(List<TomlSyntax.Edit> edits, Set<String> properties, String version) {
+        var ret = apply(edits);
+        for (var property : properties) {
+            ret |= setProperty(property, version);
+        }
+        return ret;
+    }
+
+    /**
+     * apply {@code edits} and parse the result again.
+     */
+    private boolean apply(List<TomlSyntax.Edit> edits) {
+        if (edits.isEmpty()) return false;
+        var text = syntax.apply(edits);
+        if (text.equals(syntax.text)) return false;
+        try {
+            syntax = TomlSyntax.parse(text);
+        } catch (ModelParseException e) {
+            throw new IllegalStateException("Edit produced an invalid document: " + e.getMessage(), e);
+        }
+        return true;
+    }
+
+    // ---------------------------------------------------------------- dependencies and plugins
+
+    /**
+     * a dependency or plugin declaration.
+     *
+     * @param node     the declaration: a {@code 'g:a:v'} string, a table with group, artifact and version, or a
+     *                 {@code "g:a:v"} key of a version or a table.
+     * @param keyed    whether the coordinates are the name of {@code node}
+     * @param coords   declared coordinates, {@code [group, artifact, version]}, version {@code null} when absent.
+     */
+    private record Declaration(TomlSyntax syntax, Node node, boolean keyed, String[] coords) {
+
+        boolean matches(String groupId, String artifactId) {
+            return groupId.equals(coords[0]) && artifactId.equals(coords[1]);
+        }
+
+        /**
+         * add the edits setting the version to {@code edits}, or the property it references to {@code properties}.
+         */
+        void setVersion(List<TomlSyntax.Edit> edits, Set<String> properties, String version) {
+            var current = keyed && node.kind == Kind.VALUE ? node.string : versionNode() != null ? versionNode().string : coords[2];
+            var reference = current == null ? null : PROPERTY_REFERENCE.matcher(current);
+            if (reference != null && reference.matches() && property(syntax.root, reference.group(1)) != null) {
+                properties.add(reference.group(1));
+                return;
+            }
+
+            if (keyed) {
+                var explicit = node.section != null || node.isInline();
+                if (node.kind == Kind.VALUE) {
+                    edits.add(syntax.setString(node, version));
+                } else if (versionNode() != null) {
+                    edits.add(syntax.setString(versionNode(), version));
+                } else if (coords[2] != null || !explicit) {
+                    // a table declared only by its sub-tables is given the version in its name
+                    edits.addAll(syntax.rename(node, coords[0] + ":" + coords[1] + ":" + version));
+                } else {
+                    edits.add(syntax.put(node, "version", TomlSyntax.string(version, '\'')));
+                }
+            } else if (node.kind == Kind.VALUE) {
+                edits.add(syntax.setString(node, coords[0] + ":" + coords[1] + ":" + version));
+            } else if (versionNode() != null) {
+                edits.add(syntax.setString(versionNode(), version));
+            } else {
+                edits.add(syntax.put(node, "version", TomlSyntax.string(version, '\'')));
+            }
+        }
+
+        private Node versionNode() {
+            var ret = child(node, "version");
+            return ret != null && ret.kind == Kind.VALUE ? ret : null;
+        }
+    }
+
+    /**
+     * @param all also the dependency management and the dependencies of the plugins
+     */
+    private List<Declaration> dependencies(boolean all) {
+        var ret = new ArrayList<Declaration>();
+        for (var array : children(syntax.root, "dependency")) {
+            arrayDependencies(ret, array);
+        }
+        var dependencies = child(syntax.root, "dependencies");
+        if (dependencies != null && dependencies.kind == Kind.TABLE) {
+            for (var scope : dependencies.children.values()) {
+                if (scope.kind == Kind.ARRAY) {
+                    arrayDependencies(ret, scope);
+                } else if (scope.kind == Kind.TABLE) {
+                    for (var entry : scope.children.values()) {
+                        var coords = coords(entry.name);
+                        if (coords != null) ret.add(new Declaration(syntax, entry, true, coords));
+                    }
+                }
+            }
+        }
+        if (!all) return ret;
+
+        var management = child(child(syntax.root, "management"), "dependency");
+        for (var array : children(management, "dependencies")) {
+            arrayDependencies(ret, array);
+        }
+        for (var plugin : plugins()) {
+            for (var array : children(plugin.node, "dependency", "dependencies")) {
+                arrayDependencies(ret, array);
+            }
+        }
+        return ret;
+    }
+
+    private void arrayDependencies(List<Declaration> ret, Node array) {
+        if (array.kind != Kind.ARRAY) return;
+        for (var item : array.items) {
+            String[] coords = null;
+            if (item.kind == Kind.VALUE && item.string != null) {
+                coords = coords(item.string);
+            } else if (item.kind == Kind.TABLE) {
+                coords = coords(item, null);
+            }
+            if (coords != null) ret.add(new Declaration(syntax, item, false, coords));
+        }
+    }
+
+    private List<Declaration> plugins() {
+        var ret = new ArrayList<Declaration>();
+        var build = child(syntax.root, "build");
+        for (var plugins : children(build, "plugin", "plugins")) {
+            if (plugins.kind == Kind.TABLE) {
+                for (var entry : plugins.children.values()) {
+                    var coords = coords(entry.name);
+                    if (coords != null && entry.kind == Kind.TABLE) ret.add(new Declaration(syntax, entry, true, coords));
+                }
+            } else {
+                arrayPlugins(ret, plugins);
+            }
+        }
+        for (var management : children(build, "pluginManagement")) {
+            for (var array : children(management, "plugins")) {
+                arrayPlugins(ret, array);
+            }
+        }
+        for (var management : children(child(syntax.root, "management"), "plugin", "plugins")) {
+            for (var array : children(management, "plugins")) {
+                arrayPlugins(ret, array);
+            }
+        }
+        return ret;
+    }
+
+    private void arrayPlugins(List<Declaration> ret, Node array) {
+        if (array.kind != Kind.ARRAY) return;
+        for (var item : array.items) {
+            var coords = item.kind == Kind.TABLE ? coords(item, DEFAULT_PLUGIN_GROUP) : null;
+            if (coords != null) ret.add(new Declaration(syntax, item, false, coords));
+        }
+    }
+
+    /**
+     * @return coordinates of {@code "group:artifact[:version]"}, {@code null} for an alias or another name.
+     */
+    private static String[] coords(String name) {
+        if (name == null || name.startsWith("@")) return null;
+        var parts = name.split(":");
+        return switch (parts.length) {
+            case 2 -> new String[]{parts[0], parts[1], null};
+            case 3 -> parts;
+            default -> null;
+        };
+    }
+
+    /**
+     * @return coordinates of a table with group, artifact and version keys, {@code null} without an artifact.
+     */
+    private static String[] coords(Node table, String defaultGroup) {
+        var group = child(table, "group", "groupId");
+        var artifact = child(table, "artifact", "artifactId");
+        var version = child(table, "version");
+        if (artifact == null || artifact.string == null) return null;
+        var groupId = group == null ? defaultGroup : group.string;
+        if (groupId == null) return null;
+        return new String[]{groupId, artifact.string, version == null ? null : version.string};
+    }
+
+    // ---------------------------------------------------------------- tree
+
+    private static Node child(Node table, String... names) {
+        var ret = children(table, names);
+        return ret.isEmpty() ? null : ret.get(0);
+    }
+
+    /**
+     * @return children of {@code table} named one of {@code names}, in kebab or camel case.
+     */
+    private static List<Node> children(Node table, String... names) {
+        if (table == null || table.kind != Kind.TABLE) return List.of();
+        var ret = new ArrayList<Node>(1);
+        for (var child : table.children.values()) {
+            var name = TomlModelBinder.toCamelCase(child.name);
+            for (var n : names) {
+                if (n.equals(name)) ret.add(child);
+            }
+        }
+        return ret;
+    }
+
+    private static Node scope(Node dependencies, String scope) {
+        for (var child : dependencies.children.values()) {
+            var name = child.name.equals("provider") ? "provided" : child.name;
+            if (name.equals(scope)) return child;
+        }
+        return null;
+    }
+
+    /**
+     * @return the value of property {@code name} in the document {@code root}.
+     */
+    private static Node property(Node root, String name) {
+        for (var table : children(root, "properties", "property")) {
+            var ret = propertyIn(table, name);
+            if (ret != null) return ret;
+        }
+        return null;
+    }
+
+    /**
+     * @return the value of property {@code name} in {@code table}, declared with nested or dotted keys.
+     */
+    private static Node propertyIn(Node table, String name) {
+        for (var child : table.children.values()) {
+            if (child.name.equals(name)) return child;
+            if (child.kind == Kind.TABLE && name.startsWith(child.name + ".")) {
+                var ret = propertyIn(child, name.substring(child.name.length() + 1));
+                if (ret != null) return ret;
+            }
+        }
+        return null;
+    }
+}
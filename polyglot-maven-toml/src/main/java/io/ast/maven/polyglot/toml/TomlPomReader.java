@@ -0,0 +1,137 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.ModelParseException;
+
+/**
+ * Read pom.toml files outside of Maven, without a Plexus container.
+ * <pre>
+ *     var reader = new TomlPomReader(Map.of(), System.err::println);
+ *     Model model = reader.read(Path.of("pom.toml"));
+ * </pre>
+ * The options are the ones of {@link TomlModelProcessor}, read once by the constructor. A reader holds no
+ * state between reads, so one instance can be shared by threads and reused for any number of files; the
+ * diagnostics consumer is then called concurrently. Files are read as UTF-8, and the models are the raw ones,
+ * before inheritance and interpolation.
+ *
+ * @see TomlOptions
+ */
+public final class TomlPomReader {
+
+    private final TomlOptions options;
+    private final Consumer<TomlDiagnostic> diagnostics;
+
+    /**
+     * Reader with the default options, ignoring the diagnostics.
+     */
+    public TomlPomReader() {
+        this(Map.of(), diagnostic -> {
+        });
+    }
+
+    /**
+     * @param options     reading options, such as {@link TomlOptions#IS_STRICT}. Unset options are read from
+     *                    the system properties.
+     * @param diagnostics consumer of the warnings, called by the reading threads.
+     */
+    public TomlPomReader(Map<String, ?> options, Consumer<TomlDiagnostic> diagnostics) {
+        this.options = TomlOptions.of(Objects.requireNonNull(options, "options"));
+        this.diagnostics = Objects.requireNonNull(diagnostics, "diagnostics");
+    }
+
+    /**
+     * @param pom pom.toml file. The lock file, catalog and includes are read beside it.
+     * @return Model
+     * @throws IOException
+     * @throws ModelParseException
+     */
+    public Model read(Path pom) throws IOException, ModelParseException {
+        return TomlModelProcessor.readToml(pom, new TomlModelBinder(pom, options, null, diagnostics));
+    }
+
+    /**
+     * @param input pom.toml content. Relative includes and catalogs cannot be resolved without a file.
+     * @return Model
+     * @throws IOException
+     * @throws ModelParseException
+     */
+    public Model read(Reader input) throws IOException, ModelParseException {
+        return new TomlModelBinder(null, options, null, diagnostics).readToml(input);
+    }
+
+    /**
+     * Read only the project coordinates, the parent and the modules.
+     * <p>
+     * Tables other than {@code [project]} and {@code [parent]} are skipped by a lexical scan, which stops at the
+     * first other table following {@code [project]}, so no values are built for dependencies, plugins or
+     * properties. A {@code [parent]} table further down is not read: declare it before {@code [project]}, right
+     * after it, or as {@code [project.parent]}.
+     *
+     * @param pom pom.toml file
+     * @return partial Model
+     * @throws IOException
+     * @throws ModelParseException
+     * @see TomlHeaderScanner
+     */
+    public Model readHeader(Path pom) throws IOException, ModelParseException {
+        try (var reader = Files.newBufferedReader(pom, StandardCharsets.UTF_8)) {
+            var model = new TomlModelBinder(pom, options, null, diagnostics).readHeader(reader);
+            model.setPomFile(pom.toFile());
+            return model;
+        }
+    }
+
+    /**
+     * Read the module tree of a build: the header of a pom.toml, as {@link #readHeader(Path)}, then the ones of
+     * its modules, recursively. A module is read from the pom.toml of its directory; the modules with a pom.xml
+     * only, and the ones declared inline by {@code [module]} tables, are left out.
+     *
+     * @param pom root pom.toml file
+     * @return partial Model of each pom.toml, by file: the root, then its modules depth first, in declaration
+     * order.
+     * @throws IOException
+     * @throws ModelParseException
+     */
+    public Map<Path, Model> readModules(Path pom) throws IOException, ModelParseException {
+        var ret = new LinkedHashMap<Path, Model>();
+        readModules(pom.toAbsolutePath().normalize(), ret);
+        return ret;
+    }
+
+    private void readModules(Path pom, Map<Path, Model> ret) throws IOException, ModelParseException {
+        if (ret.containsKey(pom)) return;
+        var model = readHeader(pom);
+        ret.put(pom, model);
+        for (var module : model.getModules()) {
+            var file = pom.resolveSibling(module).normalize();
+            if (Files.isDirectory(file)) {
+                file = file.resolve("pom.toml");
+            }
+            if (file.getFileName().toString().endsWith(".toml") && Files.isRegularFile(file)) {
+                readModules(file, ret);
+            }
+        }
+    }
+
+    /**
+     * Read many pom.toml files in parallel, sharing one string pool, as
+     * {@link TomlModelProcessor#readAll(Collection, Map)}. The diagnostics are collected in the result instead of
+     * being given to the consumer, and a file which fails to read is reported as an error diagnostic.
+     *
+     * @param poms pom.toml files
+     * @return models and diagnostics, both in the input order.
+     */
+    public TomlBatchResult readAll(Collection<Path> poms) {
+        var strings = new TomlStringPool();
+        return TomlBatchResult.readAll(poms, (file, diagnostics) ->
+          TomlModelProcessor.readToml(file, new TomlModelBinder(file, options, strings, diagnostics)));
+    }
+}
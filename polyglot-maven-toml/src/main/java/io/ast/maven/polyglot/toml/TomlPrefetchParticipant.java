@@ -0,0 +1,191 @@
+package io.ast.maven.polyglot.toml;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.logging.Logger;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+
+/**
+ * Prefetch the artifacts and POMs recorded in the {@link TomlManifest}, once all the projects are read.
+ * <p>
+ * The coordinates are resolved through the resolver in parallel batches, in the background, so they are in the
+ * local repository when Maven resolves the project dependencies one project after the other. Coordinates of the
+ * reactor projects are skipped, and the coordinates which fail to resolve are only counted in a warning: Maven
+ * reports them later, if it needs them. The prefetch is cancelled and the manifest cleared when the session ends.
+ *
+ * @see TomlOptions#PREFETCH
+ */
+@Component(role = AbstractMavenLifecycleParticipant.class, hint = "toml-prefetch")
+public class TomlPrefetchParticipant extends AbstractMavenLifecycleParticipant {
+
+    @Requirement
+    private RepositorySystem repositorySystem;
+
+    @Requirement
+    private Logger logger;
+
+    /**
+     * running prefetch, {@code null} when none.
+     */
+    private volatile ExecutorService executor;
+
+    /**
+     * number of artifacts prefetched by the last prefetch, completed when it has ended.
+     */
+    private volatile CompletableFuture<Integer> prefetched = CompletableFuture.completedFuture(0);
+
+    public TomlPrefetchParticipant() {
+    }
+
+    TomlPrefetchParticipant(RepositorySystem repositorySystem, Logger logger) {
+        this.repositorySystem = repositorySystem;
+        this.logger = logger;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void afterProjectsRead(MavenSession session) {
+        var properties = (Map<String, ?>) (Map) session.getUserProperties();
+        if (!TomlOptions.getBoolean(properties, TomlOptions.PREFETCH, false)) {
+            return;
+        }
+        var threads = (int) Math.max(1, TomlOptions.getLong(properties, TomlOptions.PREFETCH_THREADS, 8));
+        var batchSize = (int) Math.max(1, TomlOptions.getLong(properties, TomlOptions.PREFETCH_BATCH_SIZE, 32));
+
+        var reactor = new HashSet<String>();
+        for (var project : session.getProjects()) {
+            reactor.add(project.getGroupId() + ":" + project.getArtifactId());
+        }
+
+        var requests = new LinkedHashMap<String, ArtifactRequest>();
+        for (var project : session.getProjects()) {
+            if (project.getFile() == null) continue;
+            for (var coordinate : TomlManifest.get(project.getFile().toPath())) {
+                var version = version(project, coordinate);
+                if (version == null || reactor.contains(coordinate.groupId() + ":" + coordinate.artifactId())) continue;
+
+                var repositories = coordinate.plugin() ? project.getRemotePluginRepositories() : project.getRemoteProjectRepositories();
+                var pom = new DefaultArtifact(coordinate.groupId(), coordinate.artifactId(), "pom", version);
+                requests.putIfAbsent(pom.toString(), new ArtifactRequest(pom, repositories, null));
+
+                var type = coordinate.type() != null ? coordinate.type() : "jar";
+                if (type.equals("jar")) {
+                    var jar = new DefaultArtifact(coordinate.groupId(), coordinate.artifactId(), coordinate.classifier(), "jar", version);
+                    requests.putIfAbsent(jar.toString(), new ArtifactRequest(jar, repositories, null));
+                }
+            }
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        var start = System.nanoTime();
+        var all = new ArrayList<>(requests.values());
+        var counter = new AtomicInteger();
+        var pool = Executors.newFixedThreadPool(Math.min(threads, (all.size() + batchSize - 1) / batchSize), task -> {
+            var thread = new Thread(task, "toml-prefetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        var failed = new AtomicInteger();
+        var tasks = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < all.size(); i += batchSize) {
+            var batch = all.subList(i, Math.min(i + batchSize, all.size()));
+            tasks.add(CompletableFuture.runAsync(() -> resolve(session, batch, failed), pool));
+        }
+        executor = pool;
+        prefetched = CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).handle((ignored, e) -> {
+            pool.shutdown();
+            var count = all.size() - failed.get();
+            if (e != null) {
+                logger.warn("Prefetch stopped: " + e);
+            } else if (failed.get() > 0) {
+                logger.warn("Prefetched " + count + " artifacts, " + failed.get() + " could not be resolved in advance (see the debug log)");
+            } else {
+                logger.info("Prefetched " + count + " artifacts in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+            return count;
+        });
+    }
+
+    @Override
+    public void afterSessionEnd(MavenSession session) {
+        var pool = executor;
+        executor = null;
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+        TomlManifest.clear();
+    }
+
+    /**
+     * @return number of artifacts prefetched by the last prefetch, completed when it has ended.
+     */
+    CompletableFuture<Integer> prefetched() {
+        return prefetched;
+    }
+
+    private void resolve(MavenSession session, List<ArtifactRequest> batch, AtomicInteger failed) {
+        if (Thread.currentThread().isInterrupted()) {
+            failed.addAndGet(batch.size());
+            return;
+        }
+        try {
+            repositorySystem.resolveArtifacts(session.getRepositorySession(), batch);
+        } catch (ArtifactResolutionException e) {
+            // resolved later by Maven, which reports the missing ones if it needs them
+            for (var result : e.getResults()) {
+                if (!result.isResolved()) {
+                    failed.incrementAndGet();
+                    logger.debug("Not prefetched: " + result.getRequest().getArtifact() + " " + result.getExceptions());
+                }
+            }
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            logger.debug("Prefetch failed", e);
+        }
+    }
+
+    /**
+     * @return the version of {@code coordinate}, completed from the built {@code project}; {@code null} when it is
+     * unknown or dynamic.
+     */
+    private static String version(MavenProject project, TomlManifest.Coordinate coordinate) {
+        var version = coordinate.version();
+        if (version == null || version.contains("${")) {
+            version = null;
+            var deps = new ArrayList<Dependency>();
+            if (coordinate.plugin()) {
+                for (var plugin : project.getBuildPlugins()) {
+                    deps.addAll(plugin.getDependencies());
+                }
+            } else {
+                deps.addAll(project.getDependencies());
+                if (project.getDependencyManagement() != null) {
+                    deps.addAll(project.getDependencyManagement().getDependencies());
+                }
+            }
+            for (var dep : deps) {
+                if (dep.getGroupId().equals(coordinate.groupId()) && dep.getArtifactId().equals(coordinate.artifactId())
+                  && Objects.equals(dep.getClassifier(), coordinate.classifier())) {
+                    version = dep.getVersion();
+                    break;
+                }
+            }
+        }
+        return version == null || version.contains("${") || TomlLockfile.isDynamic(version) ? null : version;
+    }
+}
@@ -0,0 +1,24 @@
+package io.ast.maven.polyglot.toml;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe string pool, shared by the binders of a batch read.
+ * <p>
+ * Coordinates, scopes and configuration element names repeat across the poms of a reactor,
+ * so the bound models of a batch refer to one instance of each of them.
+ */
+final class TomlStringPool {
+
+    private final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<>();
+
+    String intern(String value) {
+        if (value == null) return null;
+        var ret = pool.putIfAbsent(value, value);
+        return ret == null ? value : ret;
+    }
+
+    int size() {
+        return pool.size();
+    }
+}
@@ -0,0 +1,723 @@
+package io.ast.maven.polyglot.toml;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import org.apache.maven.model.io.ModelParseException;
+
+/**
+ * Lossless syntax tree of a TOML document, to edit it in place.
+ * <p>
+ * The text is kept as it is, and the tree records where each key and value is in it: an edit replaces ranges
+ * of the text, so the comments, the layout and the quoting of everything else are left untouched. The tables
+ * are merged as TOML defines them, so a table holds its entries whether they are declared under a header, by
+ * dotted keys or in an inline table.
+ *
+ * @see TomlPomEditor
+ */
+final class TomlSyntax {
+
+    static final Pattern BARE_KEY = Pattern.compile("[A-Za-z0-9_-]+");
+
+    /**
+     * range {@code [start, end)} of the text.
+     */
+    record Span(int start, int end) {
+    }
+
+    /**
+     * replacement of a range of the text.
+     */
+    record Edit(int start, int end, String text) {
+    }
+
+    enum Kind {
+        TABLE, ARRAY, VALUE
+    }
+
+    static final class Node {
+        final Kind kind;
+        final Node parent;
+        final String name;
+
+        /**
+         * TABLE: entries, in the document order.
+         */
+        final Map<String, Node> children = new LinkedHashMap<>();
+
+        /**
+         * ARRAY: items, values or tables of an array of tables.
+         */
+        final List<Node> items = new ArrayList<>();
+
+        /**
+         * ranges of the key segments naming this node: one per header or dotted key going through it.
+         */
+        final List<Span> keys = new ArrayList<>();
+
+        /**
+         * range of a value, or of an inline array or table; {@code null} for the tables and arrays of tables
+         * defined by headers.
+         */
+        Span value;
+
+        /**
+         * range of the {@code key = value} entry defining this node, whole lines when it is not in an inline table.
+         */
+        Span entry;
+
+        /**
+         * decoded string of a string value, {@code null} for other values.
+         */
+        String string;
+
+        /**
+         * quote of a string value.
+         */
+        char quote;
+
+        /**
+         * first section defining a table, or the section of a table of an array of tables.
+         */
+        Section section;
+
+        Node(Kind kind, Node parent, String name) {
+            this.kind = kind;
+            this.parent = parent;
+            this.name = name;
+        }
+
+        Node child(String name) {
+            return kind == Kind.TABLE ? children.get(name) : null;
+        }
+
+        /**
+         * @return the string value of child {@code name}, {@code null} when it is not a string.
+         */
+        String string(String name) {
+            var child = child(name);
+            return child == null ? null : child.string;
+        }
+
+        boolean isInline() {
+            return value != null;
+        }
+    }
+
+    /**
+     * lines from a header to the next header, or the lines before the first header.
+     */
+    static final class Section {
+        final int start;
+
+        /**
+         * end of the header line or of the last entry line: where new entries are appended.
+         */
+        int insert;
+
+        Section(int start) {
+            this.start = start;
+            this.insert = start;
+        }
+    }
+
+    private record Segment(String name, Span span) {
+    }
+
+    final String text;
+    final String newline;
+    final Node root = new Node(Kind.TABLE, null, null);
+    private int pos;
+
+    private TomlSyntax(String text) {
+        this.text = text;
+        this.newline = text.contains("\r\n") ? "\r\n" : "\n";
+    }
+
+    /**
+     * @param text TOML document
+     * @return syntax tree of {@code text}
+     * @throws ModelParseException on a syntax error.
+     */
+    static TomlSyntax parse(String text) throws ModelParseException {
+        var ret = new TomlSyntax(text);
+        ret.parse();
+        return ret;
+    }
+
+    /**
+     * @return the text with {@code edits} applied; they must not overlap.
+     */
+    String apply(List<Edit> edits) {
+        var sorted = new ArrayList<>(edits);
+        sorted.sort(Comparator.comparingInt(Edit::start).thenComparingInt(Edit::end));
+        var ret = new StringBuilder(text.length() + 64);
+        int from = 0;
+        for (var edit : sorted) {
+            ret.append(text, from, edit.start()).append(edit.text());
+            from = edit.end();
+        }
+        return ret.append(text, from, text.length()).toString();
+    }
+
+    // ---------------------------------------------------------------- edits
+
+    /**
+     * @return edit replacing {@code value} by the string {@code string}, in the same quotes when possible.
+     */
+    Edit setString(Node value, String string) {
+        return new Edit(value.value.start(), value.value.end(), string(string, value.quote == 0 ? '\'' : value.quote));
+    }
+
+    /**
+     * @return edits renaming the key segments of {@code node}, in headers and dotted keys.
+     */
+    List<Edit> rename(Node node, String name) {
+        var ret = new ArrayList<Edit>();
+        for (var span : node.keys) {
+            ret.add(new Edit(span.start(), span.end(), key(name)));
+        }
+        return ret;
+    }
+
+    /**
+     * @param table  table, defined by a header, by dotted keys or inline.
+     * @param key    key, rendered
+     * @param value  value, rendered
+     * @return edit appending the entry {@code key = value} to {@code table}.
+     */
+    Edit put(Node table, String key, String value) {
+        if (table.isInline()) {
+            Node last = null;
+            for (var child : table.children.values()) {
+                last = child;
+            }
+            if (last == null) {
+                return new Edit(table.value.start(), table.value.end(), "{ " + key + " = " + value + " }");
+            }
+            return new Edit(last.entry.end(), last.entry.end(), ", " + key + " = " + value);
+        }
+
+        // tables defined by dotted keys are extended in the section of their closest defined ancestor
+        var prefix = new StringBuilder();
+        var owner = table;
+        while (owner.section == null && !owner.isInline() && owner.parent != null) {
+            prefix.insert(0, key(owner.name) + ".");
+            owner = owner.parent;
+        }
+        if (owner.isInline()) {
+            return put(owner, prefix + key, value);
+        }
+        var insert = owner.section.insert;
+        var line = prefix + key + " = " + value + newline;
+        if (insert > 0 && text.charAt(insert - 1) != '\n') {
+            line = newline + line;
+        }
+        return new Edit(insert, insert, line);
+    }
+
+    /**
+     * @return edit appending {@code item}, rendered, to the inline {@code array}.
+     */
+    Edit add(Node array, String item) {
+        if (array.items.isEmpty()) {
+            return new Edit(array.value.start(), array.value.end(), "[" + item + "]");
+        }
+        var last = array.items.get(array.items.size() - 1);
+        var lineStart = lineStart(last.value.start());
+        if (isBlank(lineStart, last.value.start()) && text.substring(array.value.start(), last.value.start()).contains("\n")) {
+            // one item per line: add a line, and a comma after the last item if it has none
+            var indent = text.substring(lineStart, last.value.start());
+            var after = skipSpaces(last.value.end());
+            var comma = after < text.length() && text.charAt(after) == ',';
+            var lineEnd = lineEnd(last.value.end());
+            if (lineEnd >= array.value.end()) {
+                // the closing bracket is on the line of the last item
+                return new Edit(last.value.end(), comma ? after + 1 : last.value.end(),
+                  "," + newline + indent + item + (comma ? "," : ""));
+            }
+            return new Edit(comma ? lineEnd : last.value.end(), lineEnd,
+              (comma ? "" : "," + text.substring(last.value.end(), lineEnd)) + indent + item + "," + newline);
+        }
+        return new Edit(last.value.end(), last.value.end(), ", " + item);
+    }
+
+    /**
+     * @return edit removing {@code node}: an entry, an item of an inline array or a table of an array of tables.
+     */
+    Edit remove(Node node) {
+        var parent = node.parent;
+        if (node.entry == null && node.section != null) {
+            // table declared by a header, with its blank lines
+            return new Edit(node.section.start, skipBlankLines(node.section.insert), "");
+        }
+        if (parent.kind == Kind.TABLE && !parent.isInline()) {
+            return new Edit(node.entry.start(), node.entry.end(), "");
+        }
+
+        var siblings = new ArrayList<Span>();
+        var index = -1;
+        if (parent.kind == Kind.ARRAY) {
+            for (var item : parent.items) {
+                if (item == node) index = siblings.size();
+                siblings.add(item.value);
+            }
+        } else {
+            for (var child : parent.children.values()) {
+                if (child == node) index = siblings.size();
+                siblings.add(child.entry);
+            }
+        }
+        var span = siblings.get(index);
+
+        var lineStart = lineStart(span.start());
+        var after = skipSpaces(span.end());
+        if (after < text.length() && text.charAt(after) == ',') {
+            after = skipSpaces(after + 1);
+        }
+        if (isBlank(lineStart, span.start()) && after < text.length() && (text.charAt(after) == '\n' || text.charAt(after) == '\r')) {
+            // alone on its line
+            return new Edit(lineStart, lineEnd(span.end()), "");
+        }
+        if (index + 1 < siblings.size()) {
+            return new Edit(span.start(), siblings.get(index + 1).start(), "");
+        }
+        if (index > 0) {
+            return new Edit(siblings.get(index - 1).end(), span.end(), "");
+        }
+        return new Edit(span.start(), after, "");
+    }
+
+    /**
+     * @param after  node after which the section is added, at the end of the document when {@code null}.
+     * @param header header of the section
+     * @param lines  entries of the section, rendered
+     * @return edit adding a {@code [header]} section.
+     */
+    Edit section(Node after, String header, List<String> lines) {
+        var at = after == null ? text.length() : end(after);
+        var ret = new StringBuilder();
+        if (at > 0) {
+            if (text.charAt(at - 1) != '\n') ret.append(newline);
+            ret.append(newline);
+        }
+        ret.append('[').append(header).append(']').append(newline);
+        for (var line : lines) {
+            ret.append(line).append(newline);
+        }
+        return new Edit(at, at, ret.toString());
+    }
+
+    /**
+     * @return end of the last line declaring {@code node} or its descendants.
+     */
+    private int end(Node node) {
+        var ret = 0;
+        if (node.entry != null) ret = node.entry.end();
+        if (node.section != null) ret = Math.max(ret, node.section.insert);
+        for (var child : node.children.values()) {
+            ret = Math.max(ret, end(child));
+        }
+        for (var item : node.items) {
+            ret = Math.max(ret, end(item));
+        }
+        return ret;
+    }
+
+    static String key(String name) {
+        return BARE_KEY.matcher(name).matches() ? name : string(name, '"');
+    }
+
+    /**
+     * @return {@code value} as a string in {@code quote} when possible, as a basic string otherwise.
+     */
+    static String string(String value, char quote) {
+        if (quote == '\'') {
+            var literal = true;
+            for (int i = 0; i < value.length() && literal; i++) {
+                var c = value.charAt(i);
+                literal = c != '\'' && (c >= 0x20 || c == '\t') && c != 0x7f;
+            }
+            if (literal) return "'" + value + "'";
+        }
+
+        var ret = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            switch (c) {
+            case '"':
+                ret.append("\\\"");
+                break;
+            case '\\':
+                ret.append("\\\\");
+                break;
+            case '\n':
+                ret.append("\\n");
+                break;
+            case '\r':
+                ret.append("\\r");
+                break;
+            case '\t':
+                ret.append("\\t");
+                break;
+            default:
+                if (c < 0x20 || c == 0x7f) {
+                    ret.append(String.format("\\u%04x", (int) c));
+                } else {
+                    ret.append(c);
+                }
+            }
+        }
+        return ret.append('"').toString();
+    }
+
+    private int lineStart(int at) {
+        return text.lastIndexOf('\n', at - 1) + 1;
+    }
+
+    /**
+     * @return position after the end of line of {@code at}.
+     */
+    private int lineEnd(int at) {
+        var ret = text.indexOf('\n', at);
+        return ret < 0 ? text.length() : ret + 1;
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) != ' ' && text.charAt(i) != '\t') return false;
+        }
+        return true;
+    }
+
+    private int skipSpaces(int at) {
+        while (at < text.length() && (text.charAt(at) == ' ' || text.charAt(at) == '\t')) at++;
+        return at;
+    }
+
+    private int skipBlankLines(int at) {
+        var ret = at;
+        while (ret < text.length()) {
+            var end = lineEnd(ret);
+            if (!text.substring(ret, end).isBlank()) break;
+            ret = end;
+        }
+        return ret;
+    }
+
+    // ---------------------------------------------------------------- parser
+
+    private void parse() throws ModelParseException {
+        var section = new Section(0);
+        root.section = section;
+        var table = root;
+        var length = text.length();
+        while (true) {
+            skipTrivia(true);
+            if (pos >= length) break;
+
+            var lineStart = lineStart(pos);
+            if (text.charAt(pos) == '[') {
+                pos++;
+                var array = pos < length && text.charAt(pos) == '[';
+                if (array) pos++;
+                skipTrivia(false);
+                var path = parseKey();
+                skipTrivia(false);
+                expect(']');
+                if (array) expect(']');
+                endOfLine();
+
+                section = new Section(lineStart);
+                section.insert = pos;
+                table = header(path, array, section);
+            } else {
+                var path = parseKey();
+                skipTrivia(false);
+                expect('=');
+                skipTrivia(false);
+                var start = pos;
+                var parent = navigate(table, path);
+                var last = path.get(path.size() - 1);
+                var value = parseValue(parent, last.name());
+                endOfLine();
+
+                value.keys.add(last.span());
+                value.entry = new Span(lineStart, pos);
+                if (value.value == null) value.value = new Span(start, start);
+                parent.children.put(last.name(), value);
+                section.insert = pos;
+            }
+        }
+    }
+
+    private Node header(List<Segment> path, boolean array, Section section) throws ModelParseException {
+        var node = root;
+        for (int i = 0; i < path.size(); i++) {
+            var segment = path.get(i);
+            var child = node.children.get(segment.name());
+            var last = i == path.size() - 1;
+            if (last && array) {
+                if (child == null) {
+                    child = new Node(Kind.ARRAY, node, segment.name());
+                    node.children.put(segment.name(), child);
+                } else if (child.kind != Kind.ARRAY || child.isInline()) {
+                    throw error("'" + segment.name() + "' is not an array of tables", segment.span().start());
+                }
+                child.keys.add(segment.span());
+                var table = new Node(Kind.TABLE, child, segment.name());
+                table.section = section;
+                child.items.add(table);
+                return table;
+            }
+
+            if (child == null) {
+                child = new Node(Kind.TABLE, node, segment.name());
+                node.children.put(segment.name(), child);
+            }
+            child.keys.add(segment.span());
+            if (child.kind == Kind.ARRAY && !child.isInline() && !child.items.isEmpty()) {
+                child = child.items.get(child.items.size() - 1);
+            } else if (child.kind != Kind.TABLE || child.isInline()) {
+                throw error("'" + segment.name() + "' is not a table", segment.span().start());
+            }
+            if (last && child.section == null) {
+                child.section = section;
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * @return the table of the dotted {@code path} but its last segment, from {@code table}.
+     */
+    private Node navigate(Node table, List<Segment> path) throws ModelParseException {
+        var node = table;
+        for (int i = 0; i < path.size() - 1; i++) {
+            var segment = path.get(i);
+            var child = node.children.get(segment.name());
+            if (child == null) {
+                child = new Node(Kind.TABLE, node, segment.name());
+                node.children.put(segment.name(), child);
+            } else if (child.kind != Kind.TABLE) {
+                throw error("'" + segment.name() + "' is not a table", segment.span().start());
+            }
+            child.keys.add(segment.span());
+            node = child;
+        }
+        return node;
+    }
+
+    private List<Segment> parseKey() throws ModelParseException {
+        var ret = new ArrayList<Segment>();
+        while (true) {
+            var start = pos;
+            String name;
+            if (pos < text.length() && (text.charAt(pos) == '"' || text.charAt(pos) == '\'')) {
+                name = parseString();
+            } else {
+                while (pos < text.length() && isBare(text.charAt(pos))) pos++;
+                if (pos == start) throw error("Expected a key", pos);
+                name = text.substring(start, pos);
+            }
+            ret.add(new Segment(name, new Span(start, pos)));
+
+            var next = pos;
+            while (next < text.length() && (text.charAt(next) == ' ' || text.charAt(next) == '\t')) next++;
+            if (next < text.length() && text.charAt(next) == '.') {
+                pos = next + 1;
+                skipTrivia(false);
+            } else {
+                return ret;
+            }
+        }
+    }
+
+    private Node parseValue(Node parent, String name) throws ModelParseException {
+        if (pos >= text.length()) throw error("Expected a value", pos);
+        var start = pos;
+        var c = text.charAt(pos);
+        Node ret;
+        if (c == '"' || c == '\'') {
+            ret = new Node(Kind.VALUE, parent, name);
+            ret.string = parseString();
+            ret.quote = c;
+        } else if (c == '[') {
+            ret = new Node(Kind.ARRAY, parent, name);
+            pos++;
+            while (true) {
+                skipTrivia(true);
+                if (pos < text.length() && text.charAt(pos) == ']') break;
+                var itemStart = pos;
+                var item = parseValue(ret, name);
+                if (item.value == null) item.value = new Span(itemStart, pos);
+                ret.items.add(item);
+                skipTrivia(true);
+                if (pos < text.length() && text.charAt(pos) == ',') {
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+            expect(']');
+        } else if (c == '{') {
+            ret = new Node(Kind.TABLE, parent, name);
+            ret.value = new Span(start, start);
+            pos++;
+            skipTrivia(false);
+            if (pos < text.length() && text.charAt(pos) != '}') {
+                while (true) {
+                    skipTrivia(false);
+                    var entryStart = pos;
+                    var path = parseKey();
+                    skipTrivia(false);
+                    expect('=');
+                    skipTrivia(false);
+                    var valueStart = pos;
+                    var table = navigate(ret, path);
+                    var last = path.get(path.size() - 1);
+                    var value = parseValue(table, last.name());
+                    if (value.value == null) value.value = new Span(valueStart, pos);
+                    value.keys.add(last.span());
+                    value.entry = new Span(entryStart, pos);
+                    table.children.put(last.name(), value);
+                    skipTrivia(false);
+                    if (pos < text.length() && text.charAt(pos) == ',') {
+                        pos++;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            expect('}');
+        } else {
+            ret = new Node(Kind.VALUE, parent, name);
+            while (pos < text.length() && ",]}#\r\n \t".indexOf(text.charAt(pos)) < 0) pos++;
+            // local date and time separated by a space
+            if (pos + 1 < text.length() && text.charAt(pos) == ' ' && Character.isDigit(text.charAt(pos + 1))
+              && text.substring(start, pos).matches("\\d{4}-\\d{2}-\\d{2}")) {
+                pos++;
+                while (pos < text.length() && ",]}#\r\n \t".indexOf(text.charAt(pos)) < 0) pos++;
+            }
+            if (pos == start) throw error("Expected a value", pos);
+        }
+        ret.value = new Span(start, pos);
+        return ret;
+    }
+
+    /**
+     * @return decoded string at {@code pos}, which is moved after it.
+     */
+    private String parseString() throws ModelParseException {
+        var start = pos;
+        var quote = text.charAt(pos);
+        var multiline = text.startsWith(String.valueOf(quote).repeat(3), pos);
+        var delimiter = multiline ? String.valueOf(quote).repeat(3) : String.valueOf(quote);
+        pos += delimiter.length();
+        if (multiline) {
+            // a newline right after the delimiter is trimmed
+            if (text.startsWith("\r\n", pos)) pos += 2;
+            else if (text.startsWith("\n", pos)) pos++;
+        }
+
+        var ret = new StringBuilder();
+        while (true) {
+            if (pos >= text.length()) throw error("Unterminated string", start);
+            var c = text.charAt(pos);
+            if (text.startsWith(delimiter, pos)) {
+                pos += delimiter.length();
+                // up to two quotes may end a multi-line string
+                while (multiline && pos < text.length() && text.charAt(pos) == quote
+                  && text.startsWith(delimiter, pos - 2)) {
+                    ret.append(quote);
+                    pos++;
+                }
+                return ret.toString();
+            }
+            if (!multiline && (c == '\n' || c == '\r')) throw error("Unterminated string", start);
+            if (c == '\\' && quote == '"') {
+                pos++;
+                if (pos >= text.length()) throw error("Unterminated string", start);
+                var e = text.charAt(pos);
+                switch (e) {
+                case 'b' -> ret.append('\b');
+                case 't' -> ret.append('\t');
+                case 'n' -> ret.append('\n');
+                case 'f' -> ret.append('\f');
+                case 'r' -> ret.append('\r');
+                case 'e' -> ret.append('\u001b');
+                case '"' -> ret.append('"');
+                case '\\' -> ret.append('\\');
+                case 'u', 'U' -> {
+                    var digits = e == 'u' ? 4 : 8;
+                    if (pos + digits >= text.length()) throw error("Invalid escape", pos);
+                    ret.appendCodePoint(Integer.parseInt(text.substring(pos + 1, pos + 1 + digits), 16));
+                    pos += digits;
+                }
+                default -> {
+                    if (!multiline || !Character.isWhitespace(e)) throw error("Invalid escape '\\" + e + "'", pos);
+                    // line ending backslash: trim the whitespace up to the next non-whitespace character
+                    while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+                    continue;
+                }
+                }
+                pos++;
+            } else {
+                ret.append(c);
+                pos++;
+            }
+        }
+    }
+
+    /**
+     * skip spaces and comments, and newlines when {@code lines}.
+     */
+    private void skipTrivia(boolean lines) {
+        while (pos < text.length()) {
+            var c = text.charAt(pos);
+            if (c == ' ' || c == '\t') {
+                pos++;
+            } else if (lines && (c == '\n' || c == '\r')) {
+                pos++;
+            } else if (lines && c == '#') {
+                while (pos < text.length() && text.charAt(pos) != '\n') pos++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void endOfLine() throws ModelParseException {
+        while (pos < text.length() && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) pos++;
+        if (pos < text.length() && text.charAt(pos) == '#') {
+            while (pos < text.length() && text.charAt(pos) != '\n') pos++;
+        }
+        if (pos < text.length() && text.charAt(pos) == '\r') pos++;
+        if (pos < text.length()) {
+            if (text.charAt(pos) != '\n') throw error("Expected the end of the line", pos);
+            pos++;
+        }
+    }
+
+    private void expect(char c) throws ModelParseException {
+        if (pos >= text.length() || text.charAt(pos) != c) throw error("Expected '" + c + "'", pos);
+        pos++;
+    }
+
+    private static boolean isBare(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+    }
+
+    private ModelParseException error(String message, int at) {
+        var line = 1;
+        var lineStart = 0;
+        for (int i = 0; i < at && i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                line++;
+                lineStart = i + 1;
+            }
+        }
+        return new ModelParseException(message, line, at - lineStart + 1);
+    }
+}
@@ -0,0 +1,74 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.apache.tuweni.toml.Toml;
+import org.apache.tuweni.toml.TomlTable;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Allocation budgets of the binding of a parsed document, the model included. Each budget is about 1.5 times the
+ * bytes measured when it was set, so a regression of the hot path, such as a key parsed or a list copied per
+ * dependency, fails it.
+ */
+class TomlAllocationTest {
+
+    private static final TomlOptions OPTIONS = TomlOptions.of(Map.of());
+
+    @Test
+    void exampleKotlin() throws IOException {
+        assertBudget(parse(Files.readString(Path.of("../example-kotlin/pom.toml"))), 8 << 10);
+    }
+
+    @Test
+    void exampleJavaExec() throws IOException {
+        assertBudget(parse(Files.readString(Path.of("../example-java-exec/pom.toml"))), 8 << 10);
+    }
+
+    @Test
+    void perDependency() {
+        assertBudget(parse(TomlDocuments.generate(1000, 50)), 1000 * 768);
+    }
+
+    private static TomlTable parse(String document) {
+        var config = Toml.parse(document);
+        assertFalse(config.hasErrors(), () -> config.errors().toString());
+        return config;
+    }
+
+    /**
+     * @param budget maximal bytes allocated by the current thread to bind {@code config}, once the caches of the
+     *               keys and of the strings are filled and the binder is compiled.
+     */
+    private static void assertBudget(TomlTable config, long budget) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var thread = Thread.currentThread().getId();
+        for (int i = 0; i < 300; i++) {
+            bind(config);
+        }
+
+        var allocated = Long.MAX_VALUE;
+        for (int i = 0; i < 20; i++) {
+            var before = threads.getThreadAllocatedBytes(thread);
+            bind(config);
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(thread) - before);
+        }
+        assertTrue(allocated <= budget, "allocated " + allocated + " bytes, budget " + budget);
+    }
+
+    private static void bind(TomlTable config) {
+        try {
+            TomlLazyModel.bind(new TomlModelBinder(null, OPTIONS, null, diagnostic -> {
+            }).readToml(config));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
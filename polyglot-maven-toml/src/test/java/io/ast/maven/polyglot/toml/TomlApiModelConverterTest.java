@@ -0,0 +1,84 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.api.model.InputLocation;
+import org.apache.maven.api.model.Model;
+import org.apache.maven.model.InputSource;
+import org.apache.maven.model.io.ModelReader;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TomlApiModelConverterTest {
+
+    private static final String DOCUMENT = """
+      [project]
+      model-version = '4.0.0'
+      group = 'org.example'
+      artifact = 'converted'
+      version = '1.0'
+      modules = ['a', 'b']
+
+      [management.ci]
+      system = 'jenkins'
+      notifiers = [{ type = 'mail', address = 'dev@example.org' }]
+
+      [dependencies.compile]
+      "org.example:lib" = '1.0'
+
+      [directories]
+      source = 'src/main/kotlin'
+      test-source = 'src/test/kotlin'
+
+      [[directories.resource]]
+      directory = 'src/main/config'
+      filtering = true
+      """;
+
+    @Test
+    void locations() throws IOException {
+        var model = read(DOCUMENT);
+
+        assertLocation(model.getLocation("groupId"), 3, 1);
+        assertLocation(model.getLocation("subprojects"), 6, 1);
+        assertEquals("pom.toml", model.getLocation("groupId").getSource().getLocation());
+
+        var dependency = model.getDependencies().get(0);
+        assertNotNull(dependency.getLocation(""));
+        assertNotNull(dependency.getLocation("version"));
+    }
+
+    @Test
+    void replacements() throws IOException {
+        var model = read(DOCUMENT);
+
+        assertEquals(List.of("a", "b"), model.getSubprojects());
+        assertEquals(Map.of("address", "dev@example.org"), model.getCiManagement().getNotifiers().get(0).getConfiguration());
+
+        var sources = model.getBuild().getSources();
+        assertEquals(3, sources.size());
+        assertEquals(List.of("main:java:src/main/kotlin", "test:java:src/test/kotlin", "main:resources:src/main/config"),
+          sources.stream().map(source -> source.getScope() + ":" + source.getLang() + ":" + source.getDirectory()).toList());
+        assertTrue(sources.get(2).isStringFiltering());
+        assertLocation(sources.get(0).getLocation("directory"), 16, 1);
+        assertLocation(sources.get(2).getLocation("directory"), 20, 1);
+    }
+
+    private static Model read(String document) throws IOException {
+        var source = new InputSource();
+        source.setLocation("pom.toml");
+        var options = TomlOptions.of(Map.of(ModelReader.INPUT_SOURCE, source));
+        var model = new TomlModelBinder(null, options, null, diagnostic -> fail(diagnostic.toString()))
+          .readToml(new StringReader(document));
+        return TomlApiModelConverter.toApiModel(model);
+    }
+
+    private static void assertLocation(InputLocation location, int line, int column) {
+        assertNotNull(location);
+        assertEquals(line + ":" + column, location.getLineNumber() + ":" + location.getColumnNumber());
+    }
+}
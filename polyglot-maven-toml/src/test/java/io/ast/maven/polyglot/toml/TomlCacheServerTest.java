@@ -0,0 +1,98 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TomlCacheServerTest {
+
+    private static final String KEY = HexFormat.of().formatHex(new byte[32]);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void serveEntries() throws Exception {
+        var socket = dir.resolve("cache.sock");
+        var server = start(socket, 1 << 20);
+        try {
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(socket)));
+            try (var files = Files.list(dir)) {
+                assertEquals(1, files.count());
+            }
+
+            var cache = URI.create("unix:" + socket);
+            var backend = TomlCacheBackends.Unix.INSTANCE;
+            assertNull(backend.get(cache, KEY));
+            backend.put(cache, KEY, new byte[]{1, 2, 3});
+            assertArrayEquals(new byte[]{1, 2, 3}, get(backend, cache, KEY));
+        } finally {
+            server.close();
+        }
+        assertFalse(Files.exists(socket));
+    }
+
+    @Test
+    void evictBeyondTheMaximalSize() throws Exception {
+        var socket = dir.resolve("cache.sock");
+        var server = start(socket, 4);
+        try {
+            var cache = URI.create("unix:" + socket);
+            var backend = TomlCacheBackends.Unix.INSTANCE;
+            backend.put(cache, KEY, new byte[]{1, 2, 3});
+            assertNotNull(get(backend, cache, KEY));
+            var other = KEY.replace('0', '1');
+            backend.put(cache, other, new byte[]{4, 5});
+            assertArrayEquals(new byte[]{4, 5}, get(backend, cache, other));
+            assertNull(backend.get(cache, KEY));
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    void replaceAStaleSocketOnly() throws Exception {
+        var socket = dir.resolve("cache.sock");
+        Files.writeString(socket, "stale");
+        var server = start(socket, 1 << 20);
+        try {
+            assertThrows(IOException.class, () -> new TomlCacheServer(socket, 1 << 20));
+        } finally {
+            server.close();
+        }
+    }
+
+    private static TomlCacheServer start(Path socket, long maxSize) throws IOException {
+        var server = new TomlCacheServer(socket, maxSize);
+        var thread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                // closed
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return server;
+    }
+
+    /**
+     * @return the entry of {@code key}, once the put sent before is handled.
+     */
+    private static byte[] get(TomlCacheBackend backend, URI cache, String key) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            var ret = backend.get(cache, key);
+            if (ret != null) return ret;
+            Thread.sleep(10);
+        }
+        return null;
+    }
+}
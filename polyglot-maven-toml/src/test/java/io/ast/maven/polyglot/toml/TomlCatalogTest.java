@@ -0,0 +1,151 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.ModelParseException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Version catalog aliases in the dependencies, plugins and versions of a pom.toml, and of its inline modules.
+ */
+class TomlCatalogTest {
+
+    static final String CATALOG = """
+      [versions]
+      junit = '5.11.3'
+      exec = '3.3.0'
+
+      [libraries]
+      slf4j-api = 'org.slf4j:slf4j-api:2.0.16'
+      guava = 'com.google.guava:guava'
+      junit-api = { group = 'org.junit.jupiter', artifact = 'junit-jupiter-api', version = '@junit' }
+      junit-engine = { module = 'org.junit.jupiter:junit-jupiter-engine', version.ref = 'junit' }
+
+      [plugins]
+      exec = { module = 'org.codehaus.mojo:exec-maven-plugin', version.ref = 'exec' }
+      jar = 'org.apache.maven.plugins:maven-jar-plugin:3.4.2'
+      """;
+
+    static final String PROJECT = """
+      catalog = 'gradle/versions.toml'
+
+      [project]
+      group = 'org.example'
+      artifact = 'app'
+      version = '1.0'
+      """;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void catalog() throws IOException {
+        write("gradle/versions.toml", CATALOG);
+    }
+
+    @Test
+    void aliases() throws Exception {
+        var model = read("pom.toml", PROJECT + """
+
+          [dependencies]
+          compile = ['@slf4j-api', '@guava:33.3.1-jre', 'org.example:lib:@junit']
+
+          [dependencies.test]
+          "@junit-api" = {}
+          "@junit-engine:@exec" = {}
+
+          [[dependency]]
+          alias = 'slf4j-api'
+          scope = 'runtime'
+
+          [build.plugin."@exec"]
+          configuration = { executable = 'java' }
+
+          [build.plugin."@jar:3.5.0"]
+          """);
+
+        assertEquals(List.of("org.slf4j:slf4j-api:2.0.16", "com.google.guava:guava:33.3.1-jre", "org.example:lib:5.11.3",
+          "org.junit.jupiter:junit-jupiter-api:5.11.3", "org.junit.jupiter:junit-jupiter-engine:3.3.0",
+          "org.slf4j:slf4j-api:2.0.16"), coordinates(model.getDependencies()));
+        assertEquals("runtime", model.getDependencies().get(5).getScope());
+        var plugins = model.getBuild().getPlugins();
+        assertEquals("org.codehaus.mojo:exec-maven-plugin:3.3.0", plugins.get(0).getId());
+        assertEquals("org.apache.maven.plugins:maven-jar-plugin:3.5.0", plugins.get(1).getId());
+    }
+
+    @Test
+    void unknownAliases() throws Exception {
+        assertError("Unknown catalog library: '@nope'", 9, PROJECT + "\n[dependencies]\ncompile = ['@nope']\n");
+        assertError("Unknown catalog version: '@nope'", 9, PROJECT + "\n[dependencies.compile]\n\"org.example:lib\" = '@nope'\n");
+        assertError("Unknown catalog version: '@nope'", 9, PROJECT + "\n[dependencies]\ncompile = ['@slf4j-api:@nope']\n");
+        assertError("Unknown catalog plugin: '@nope'", 8, PROJECT + "\n[build.plugin.\"@nope\"]\n");
+        assertError("'@slf4j-api' needs a root 'catalog' key", 8,
+          PROJECT.replace("catalog = 'gradle/versions.toml'\n", "") + "\n[dependencies]\ncompile = ['@slf4j-api']\n");
+        assertError("Catalog not found", 1, PROJECT.replace("gradle/versions.toml", "missing.toml"));
+    }
+
+    @Test
+    void invalidCatalogs() throws Exception {
+        write("gradle/versions.toml", CATALOG + "broken = { module = 'org.example:broken', version.ref = 'nope' }\n");
+        var e = assertThrows(ModelParseException.class, () -> read("pom.toml", PROJECT));
+        assertTrue(e.getMessage().contains("unknown version 'nope'"), e.getMessage());
+
+        // fixed, read again once modified
+        var catalog = write("gradle/versions.toml", CATALOG.replace(":2.0.16'", ":2.0.17'"));
+        Files.setLastModifiedTime(catalog, FileTime.fromMillis(Files.getLastModifiedTime(catalog).toMillis() + 2000));
+        var model = read("pom.toml", PROJECT + "\n[dependencies]\ncompile = ['@slf4j-api']\n");
+        assertEquals("2.0.17", model.getDependencies().get(0).getVersion());
+    }
+
+    @Test
+    void inlineModulesUseTheCatalogOfTheRoot() throws Exception {
+        var root = read("pom.toml", PROJECT + """
+
+          [module.api.project]
+          artifact = 'api'
+
+          [module.api.dependencies]
+          compile = ['@slf4j-api']
+          test = ['@junit-api']
+
+          [module.api.build.plugin."@exec"]
+          """);
+        assertEquals(List.of("api"), root.getModules());
+
+        var module = read("api/pom.toml", "");
+        assertEquals("api", module.getArtifactId());
+        assertEquals(List.of("org.slf4j:slf4j-api:2.0.16", "org.junit.jupiter:junit-jupiter-api:5.11.3"),
+          coordinates(module.getDependencies()));
+        assertEquals("org.codehaus.mojo:exec-maven-plugin:3.3.0", module.getBuild().getPlugins().get(0).getId());
+    }
+
+    private void assertError(String message, int line, String document) {
+        var e = assertThrows(ModelParseException.class, () -> read("pom.toml", document));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+        assertEquals(line, e.getLineNumber(), e.getMessage());
+    }
+
+    private Path write(String path, String content) throws IOException {
+        var file = dir.resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    private Model read(String path, String content) throws Exception {
+        return new TomlPomReader().read(write(path, content));
+    }
+
+    private static List<String> coordinates(List<Dependency> dependencies) {
+        return dependencies.stream().map(d -> d.getGroupId() + ":" + d.getArtifactId() + ":" + d.getVersion()).toList();
+    }
+}
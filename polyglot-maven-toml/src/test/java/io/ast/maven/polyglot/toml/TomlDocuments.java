@@ -0,0 +1,104 @@
+package io.ast.maven.polyglot.toml;
+
+/**
+ * Generated pom.toml documents of a given size, for the benchmarks and the tests.
+ */
+final class TomlDocuments {
+
+    private TomlDocuments() {
+    }
+
+    /**
+     * @param dependencies number of dependencies, split over the compile, runtime and test scopes.
+     * @param plugins      number of configured plugins
+     * @return a pom.toml with a property per ten dependencies, the dependencies and the plugins.
+     */
+    static String generate(int dependencies, int plugins) {
+        var ret = new StringBuilder(128 * dependencies + 1024 * plugins + 512);
+        ret.append("""
+          [project]
+          model-version = '4.0.0'
+          group = 'org.example'
+          artifact = 'generated'
+          version = '1.0'
+          packaging = 'jar'
+          name = 'Generated project'
+          description = 'A pom.toml of %d dependencies and %d plugins'
+
+          [properties]
+          project.build.sourceEncoding = 'UTF-8'
+          """.formatted(dependencies, plugins));
+        for (int i = 0; i < dependencies; i += 10) {
+            ret.append("group").append(i / 10).append(".version = '1.").append(i / 10).append(".0'\n");
+        }
+
+        String[] scopes = {"compile", "runtime", "test"};
+        for (int s = 0; s < scopes.length; s++) {
+            ret.append("\n[dependencies.").append(scopes[s]).append("]\n");
+            for (int i = s; i < dependencies; i += scopes.length) {
+                ret.append("\"org.example.group").append(i / 10).append(":artifact-").append(i)
+                  .append("\" = '${group").append(i / 10).append(".version}'\n");
+            }
+        }
+
+        for (int i = 0; i < plugins; i++) {
+            ret.append("""
+
+              [build.plugin."org.example.plugins:plugin-%1$d:1.%1$d"]
+              executions = [
+                  { id = 'first-%1$d', phase = 'generate-sources', goals = ['generate'] },
+                  { id = 'second-%1$d', phase = 'process-classes', goals = ['process', 'check'] },
+              ]
+              configuration.skip = false
+              configuration.source-directory = '${project.basedir}/src/main/plugin-%1$d'
+              configuration.output-directory = '${project.build.directory}/generated-sources/plugin-%1$d'
+              configuration.encoding = '${project.build.sourceEncoding}'
+              configuration.includes = ['**/*.java', '**/*.kt', '**/*.xml']
+              configuration.archive.manifest = { add-classpath = true, main-class = 'org.example.Main%1$d' }
+              configuration.options = { verbose = 'true', fork = 'false', max-memory = '512m', level = '%1$d' }
+              """.formatted(i));
+        }
+        return ret.toString();
+    }
+
+    /**
+     * @param people number of developers and of contributors
+     * @return the descriptive sections of a pom.toml: licenses, developers, contributors, mailing lists, scm,
+     * issue and ci management.
+     */
+    static String describe(int people) {
+        var ret = new StringBuilder(256 * people + 1024);
+        ret.append("""
+          [project]
+          group = 'org.example'
+          artifact = 'described'
+          version = '1.0'
+          organization = { name = 'Example', url = 'https://example.org' }
+          licenses = [{ name = 'Apache-2.0', url = 'https://www.apache.org/licenses/LICENSE-2.0', distribution = 'repo' }]
+          mailing-lists = [{ name = 'dev', post = 'dev@example.org', archive = 'https://lists.example.org/dev' }]
+          """);
+        for (var section : new String[]{"developer", "contributor"}) {
+            ret.append(section).append(" = [\n");
+            for (int i = 0; i < people; i++) {
+                ret.append("    { name = '").append(section).append(' ').append(i).append("', email = '").append(section)
+                  .append(i).append("@example.org', roles = ['").append(section).append("'] },\n");
+            }
+            ret.append("]\n");
+        }
+        ret.append("""
+
+          [scm]
+          url = 'https://example.org/scm'
+          connection = 'scm:git:https://example.org/scm.git'
+
+          [management.issue]
+          system = 'github'
+          url = 'https://example.org/issues'
+
+          [management.ci]
+          system = 'jenkins'
+          url = 'https://ci.example.org'
+          """);
+        return ret.toString();
+    }
+}
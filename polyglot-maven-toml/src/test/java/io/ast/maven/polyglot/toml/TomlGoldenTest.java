@@ -0,0 +1,75 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The example projects as golden tests of {@link TomlModelWriter}: the TOML written for each {@code pom_ref.xml}
+ * is {@code src/test/resources/golden/<example>.toml}, and it, as well as the hand written {@code pom.toml},
+ * reads back to the model it was written from.
+ */
+class TomlGoldenTest {
+
+    static List<Path> examples() throws IOException {
+        try (var dirs = Files.list(Path.of(".."))) {
+            return dirs.filter(dir -> dir.getFileName().toString().startsWith("example-"))
+              .filter(dir -> Files.isRegularFile(dir.resolve("pom_ref.xml")))
+              .sorted()
+              .toList();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("examples")
+    void writeReference(Path example) throws Exception {
+        var golden = Path.of("src/test/resources/golden", example.getFileName() + ".toml");
+        assertEquals(Files.readString(golden), write(xml(example)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("examples")
+    void referenceRoundTrips(Path example) throws Exception {
+        var expected = xml(example);
+        assertNull(TomlConverter.difference(expected, read(write(expected))));
+    }
+
+    @ParameterizedTest
+    @MethodSource("examples")
+    void exampleRoundTrips(Path example) throws Exception {
+        var expected = read(Files.readString(example.resolve("pom.toml")));
+        assertNull(TomlConverter.difference(expected, read(write(expected))));
+    }
+
+    private static Model xml(Path example) throws Exception {
+        try (var in = Files.newInputStream(example.resolve("pom_ref.xml"))) {
+            return new MavenXpp3Reader().read(in, false);
+        }
+    }
+
+    private static String write(Model model) throws IOException {
+        var ret = new StringWriter();
+        new TomlModelWriter().write(ret, null, model);
+        return ret.toString();
+    }
+
+    private static Model read(String document) throws IOException {
+        var diagnostics = new ArrayList<TomlDiagnostic>();
+        var model = new TomlModelBinder(null, TomlOptions.of(Map.of()), null, diagnostics::add)
+          .readToml(new StringReader(document));
+        assertEquals(List.of(), diagnostics);
+        return model;
+    }
+}
@@ -0,0 +1,193 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.ModelParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Header reads through {@link TomlHeaderScanner}: where the scan stops, and what it does not take for a header.
+ */
+class TomlHeaderScannerTest {
+
+    /**
+     * a table far larger than the scanner buffer, which a stopped scan never reads.
+     */
+    static final String TAIL = "[dependencies.compile]\n" + "\"org.example:lib\" = '1.0'\n".repeat(40_000);
+
+    static final String PROJECT = """
+      [project]
+      group = 'org.example'
+      artifact = 'app'
+      version = '1.0'
+      modules = ['api']
+      """;
+
+    static final String PARENT = """
+      [parent]
+      group = 'org.example'
+      artifact = 'parent'
+      version = '2.0'
+      """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void stopsOnceProjectAndParentArePassed() throws Exception {
+        var input = new CountingReader(PROJECT + "\n" + PARENT + "\n" + TAIL);
+        var model = readHeader(input);
+        assertCoordinates(model);
+        assertEquals("parent", model.getParent().getArtifactId());
+        assertTrue(input.read < 3 * 8192, input.read + " characters read");
+    }
+
+    @Test
+    void stopsAfterAProjectWithoutParent() throws Exception {
+        var input = new CountingReader(PROJECT + "\n" + TAIL + "\n" + PARENT);
+        var model = readHeader(input);
+        assertCoordinates(model);
+        assertNull(model.getParent());
+        assertTrue(input.read < 3 * 8192, input.read + " characters read");
+    }
+
+    @Test
+    void readsUntilTheProject() throws Exception {
+        var model = readHeader(new StringReader(PARENT + "\n" + TAIL + "\n" + PROJECT + "\n[build]\ndirectory = 'out'\n"));
+        assertCoordinates(model);
+        assertEquals("parent", model.getParent().getArtifactId());
+        assertNull(model.getBuild());
+        assertTrue(model.getDependencies().isEmpty());
+    }
+
+    @Test
+    void projectParentTable() throws Exception {
+        var model = readHeader(new StringReader(PROJECT + "\n[project.parent]\nartifact = 'nested'\n\n" + TAIL));
+        assertCoordinates(model);
+        assertEquals("nested", model.getParent().getArtifactId());
+    }
+
+    @Test
+    void headersInStringsAndCommentsAreNotTables() throws Exception {
+        var model = readHeader(new StringReader("""
+          # [dependencies] in a comment, before the project
+          [properties]
+          text = '''
+          [project]
+          artifact = 'in a literal string'
+          '''
+          other = \"""
+          [project]\\
+          artifact = 'in a basic string'
+          \"""
+          array = [
+            '[project]',
+          [1]]
+
+          [project] # [dependencies]
+          group = 'org.example'
+          artifact = 'app'
+          description = '''
+          [dependencies]
+          still the description'''
+          # [build]
+          version = '1.0'
+          modules = ['api']
+          [parent]
+          artifact = 'parent'
+          """ + TAIL));
+        assertCoordinates(model);
+        assertEquals("[dependencies]\nstill the description", model.getDescription());
+        assertEquals("parent", model.getParent().getArtifactId());
+    }
+
+    @Test
+    void positionsAreTheOnesOfTheDocument() {
+        var e = assertThrows(ModelParseException.class, () -> readHeader(new StringReader("""
+          [properties]
+          a = '''
+          1
+          '''
+
+          [project]
+          artifact = 'app'
+          version = = '1.0'
+          """)));
+        assertEquals(8, e.getLineNumber());
+    }
+
+    @Test
+    void theSameHeaderAsTheFullRead() throws Exception {
+        for (var example : TomlGoldenTest.examples()) {
+            var pom = example.resolve("pom.toml");
+            var reader = new TomlPomReader();
+            var full = reader.read(pom);
+            var header = reader.readHeader(pom);
+            assertEquals(full.getId(), header.getId());
+            assertEquals(full.getName(), header.getName());
+            assertEquals(full.getModules(), header.getModules());
+            assertTrue(header.getDependencies().isEmpty());
+        }
+    }
+
+    @Test
+    void moduleTree() throws Exception {
+        write("pom.toml", PROJECT.replace("modules = ['api']", "modules = ['api', 'libs/*', 'legacy']"));
+        write("api/pom.toml", "[project]\nartifact = 'api'\n\n" + TAIL);
+        write("libs/a/pom.toml", "[project]\nartifact = 'a'\nmodules = ['nested', '../b']\n");
+        write("libs/a/nested/pom.toml", "[project]\nartifact = 'nested'\n");
+        write("libs/b/pom.toml", "[parent]\nartifact = 'app'\n[project]\nartifact = 'b'\n");
+        write("legacy/pom.xml", "<project/>");
+
+        var modules = new TomlPomReader().readModules(dir.resolve("pom.toml"));
+        assertEquals(List.of("pom.toml", "api/pom.toml", "libs/a/pom.toml", "libs/a/nested/pom.toml", "libs/b/pom.toml"),
+          modules.keySet().stream().map(p -> dir.toAbsolutePath().relativize(p).toString().replace('\\', '/')).toList());
+        assertEquals(List.of("app", "api", "a", "nested", "b"),
+          modules.values().stream().map(Model::getArtifactId).toList());
+        assertEquals("app", modules.get(dir.resolve("libs/b/pom.toml").toAbsolutePath()).getParent().getArtifactId());
+    }
+
+    private void write(String path, String content) throws IOException {
+        var file = dir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private static Model readHeader(Reader input) throws IOException, ModelParseException {
+        return new TomlModelBinder(null, TomlOptions.of(Map.of()), null, d -> fail(d.toString())).readHeader(input);
+    }
+
+    private static void assertCoordinates(Model model) {
+        assertEquals("org.example:app:jar:1.0", model.getId());
+        assertEquals(List.of("api"), model.getModules());
+    }
+
+    /**
+     * counts the characters read.
+     */
+    private static final class CountingReader extends FilterReader {
+        int read;
+
+        CountingReader(String text) {
+            super(new StringReader(text));
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            var ret = super.read(buffer, offset, length);
+            if (ret > 0) read += ret;
+            return ret;
+        }
+    }
+}
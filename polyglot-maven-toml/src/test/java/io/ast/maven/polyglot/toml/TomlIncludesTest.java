@@ -0,0 +1,186 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.ModelParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Merging of the included fragments, cycles, and the fragments parsed once.
+ */
+class TomlIncludesTest {
+
+    static final String PROJECT = """
+      [project]
+      group = 'org.example'
+      artifact = 'app'
+      version = '1.0'
+      """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void theIncluderWinsAndFragmentItemsComeFirst() throws Exception {
+        write("shared.toml", """
+          [properties]
+          a = 'fragment'
+          b = 'fragment'
+
+          [dependencies]
+          compile = ['org.example:from-fragment:1.0']
+          """);
+        var model = read("pom.toml", """
+          include = 'shared.toml'
+          """ + PROJECT + """
+
+          [properties]
+          a = 'pom'
+          c = 'pom'
+
+          [dependencies]
+          compile = ['org.example:from-pom:1.0']
+          """);
+
+        assertEquals("pom", model.getProperties().getProperty("a"));
+        assertEquals("fragment", model.getProperties().getProperty("b"));
+        assertEquals("pom", model.getProperties().getProperty("c"));
+        assertEquals(List.of("from-fragment", "from-pom"), artifacts(model));
+    }
+
+    @Test
+    void fragmentsAreMergedInOrderAndIncludeOthers() throws Exception {
+        write("shared/first.toml", """
+          include = 'common/base.toml'
+
+          [properties]
+          a = 'first'
+          b = 'first'
+          """);
+        write("shared/common/base.toml", """
+          [properties]
+          a = 'base'
+          base = 'base'
+
+          [dependencies]
+          compile = ['org.example:base:1.0']
+          """);
+        write("shared/second.toml", """
+          [properties]
+          a = 'second'
+
+          [dependencies]
+          compile = ['org.example:second:1.0']
+          """);
+        var model = read("module/pom.toml", """
+          include = ['../shared/first.toml', '../shared/second.toml']
+          """ + PROJECT + """
+
+          [dependencies]
+          compile = ['org.example:pom:1.0']
+          """);
+
+        assertEquals("second", model.getProperties().getProperty("a"));
+        assertEquals("first", model.getProperties().getProperty("b"));
+        assertEquals("base", model.getProperties().getProperty("base"));
+        assertEquals(List.of("base", "second", "pom"), artifacts(model));
+    }
+
+    @Test
+    void cycles() throws Exception {
+        write("a.toml", "include = 'b.toml'\n");
+        write("b.toml", "include = 'a.toml'\n");
+        var e = assertThrows(ModelParseException.class, () -> read("pom.toml", "include = 'a.toml'\n" + PROJECT));
+        assertTrue(e.getMessage().contains("Include cycle"), e.getMessage());
+        assertTrue(e.getMessage().endsWith(dir.resolve("a.toml").toAbsolutePath().toString()), e.getMessage());
+
+        e = assertThrows(ModelParseException.class, () -> read("self.toml", "include = 'self.toml'\n" + PROJECT));
+        assertTrue(e.getMessage().contains("Include cycle"), e.getMessage());
+
+        // the same fragment twice is no cycle
+        write("c.toml", "[properties]\nc = 'c'\n");
+        assertEquals("c", read("twice.toml", "include = ['c.toml', 'c.toml']\n" + PROJECT).getProperties().getProperty("c"));
+    }
+
+    @Test
+    void missingOrInvalidFragments() throws Exception {
+        var e = assertThrows(ModelParseException.class, () -> read("pom.toml", "include = 'missing.toml'\n" + PROJECT));
+        assertTrue(e.getMessage().contains("Included file not found"), e.getMessage());
+        assertEquals(1, e.getLineNumber());
+
+        write("invalid.toml", "[properties\n");
+        e = assertThrows(ModelParseException.class, () -> read("pom.toml", "include = 'invalid.toml'\n" + PROJECT));
+        assertTrue(e.getMessage().startsWith(dir.resolve("invalid.toml").toAbsolutePath().toString()), e.getMessage());
+    }
+
+    @Test
+    void aChangedFragmentIsReadAgain() throws Exception {
+        var fragment = write("shared.toml", "[properties]\n# " + dir + "\nv = 'one'\n");
+        var pom = "include = 'shared.toml'\n" + PROJECT;
+        assertEquals("one", read("pom.toml", pom).getProperties().getProperty("v"));
+        var first = hash(fragment);
+        assertTrue(TomlIncludes.PARSED.containsKey(first));
+
+        // same size, later modification time
+        Files.writeString(fragment, "[properties]\n# " + dir + "\nv = 'two'\n");
+        touch(fragment);
+        assertEquals("two", read("pom.toml", pom).getProperties().getProperty("v"));
+        assertFalse(TomlIncludes.PARSED.containsKey(first));
+        assertTrue(TomlIncludes.PARSED.containsKey(hash(fragment)));
+    }
+
+    @Test
+    void identicalFragmentsShareTheirTableUntilBothChange() throws Exception {
+        var content = "[properties]\n# " + dir + "\nv = 'same'\n";
+        var a = write("a.toml", content);
+        var b = write("b.toml", content);
+        read("pa.toml", "include = 'a.toml'\n" + PROJECT);
+        read("pb.toml", "include = 'b.toml'\n" + PROJECT);
+        var hash = hash(a);
+        assertSame(TomlIncludes.FRAGMENTS.get(a.toAbsolutePath()).table(), TomlIncludes.FRAGMENTS.get(b.toAbsolutePath()).table());
+
+        Files.writeString(a, content + "w = 'a'\n");
+        touch(a);
+        assertEquals("a", read("pa.toml", "include = 'a.toml'\n" + PROJECT).getProperties().getProperty("w"));
+        assertTrue(TomlIncludes.PARSED.containsKey(hash), "still the content of b.toml");
+
+        Files.delete(b);
+        assertThrows(ModelParseException.class, () -> read("pb.toml", "include = 'b.toml'\n" + PROJECT));
+        assertFalse(TomlIncludes.PARSED.containsKey(hash));
+        assertFalse(TomlIncludes.FRAGMENTS.containsKey(b.toAbsolutePath()));
+    }
+
+    private Path write(String path, String content) throws IOException {
+        var file = dir.resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    private Model read(String path, String content) throws Exception {
+        return new TomlPomReader().read(write(path, content));
+    }
+
+    private static void touch(Path file) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+    }
+
+    private static String hash(Path file) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readString(file).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<String> artifacts(Model model) {
+        return model.getDependencies().stream().map(Dependency::getArtifactId).toList();
+    }
+}
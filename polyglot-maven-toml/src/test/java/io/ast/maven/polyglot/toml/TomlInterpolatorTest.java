@@ -0,0 +1,166 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.model.io.ModelParseException;
+import org.apache.tuweni.toml.Toml;
+import org.apache.tuweni.toml.TomlTable;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Local property references resolved by {@link TomlInterpolator}, and the ones left to Maven.
+ */
+class TomlInterpolatorTest {
+
+    @Test
+    void localReferences() throws Exception {
+        var config = interpolate("""
+          [properties]
+          junit.version = '5.11.3'
+          junit.bom = 'org.junit:junit-bom:${junit.version}'
+          nested = '${junit.bom} ${junit.version}'
+          flag = true
+          uses-flag = '${flag}'
+
+          [dependencies.test]
+          "org.junit.jupiter:junit-jupiter-api" = '${junit.version}'
+          """);
+        assertEquals("org.junit:junit-bom:5.11.3", config.getString("properties.junit.bom"));
+        assertEquals("org.junit:junit-bom:5.11.3 5.11.3", config.getString("properties.nested"));
+        assertEquals("true", config.getString("properties.uses-flag"));
+        assertEquals("5.11.3", config.getTable("dependencies.test").getString(List.of("org.junit.jupiter:junit-jupiter-api")));
+    }
+
+    @Test
+    void referencesLeftToMaven() throws Exception {
+        System.setProperty("from.command.line", "external");
+        try {
+            var config = interpolate("""
+              [properties]
+              project.name = 'local'
+              env.HOME = 'local'
+              pom.version = 'local'
+              from.command.line = 'local'
+              value = 'v'
+              all = '${project.version} ${project.name} ${env.HOME} ${pom.version} ${from.command.line} ${undefined} ${value}'
+              unterminated = '${value'
+              """);
+            assertEquals("${project.version} ${project.name} ${env.HOME} ${pom.version} ${from.command.line} ${undefined} v",
+              config.getString("properties.all"));
+            assertEquals("${value", config.getString("properties.unterminated"));
+        } finally {
+            System.clearProperty("from.command.line");
+        }
+    }
+
+    @Test
+    void externalNames() {
+        System.setProperty("from.command.line", "external");
+        try {
+            assertEquals(List.of("from.command.line"),
+              List.copyOf(TomlInterpolator.external("a = '${from.command.line}${undefined}${from.command.line}' b = '${x")));
+        } finally {
+            System.clearProperty("from.command.line");
+        }
+    }
+
+    @Test
+    void cycles() {
+        var e = assertThrows(ModelParseException.class, () -> interpolate("""
+          [properties]
+          a = '${b}'
+          b = 'x${c}'
+          c = '${a}'
+          """));
+        assertTrue(e.getMessage().matches("Property cycle: (a -> b -> c -> a|b -> c -> a -> b|c -> a -> b -> c)"), e.getMessage());
+        assertTrue(e.getLineNumber() >= 2 && e.getLineNumber() <= 4, e.getMessage());
+
+        e = assertThrows(ModelParseException.class, () -> interpolate("[properties]\nself = '${self}'\n"));
+        assertEquals("Property cycle: self -> self", e.getMessage());
+        assertEquals(2, e.getLineNumber());
+
+        // a property referenced twice is no cycle
+        assertDoesNotThrow(() -> interpolate("[properties]\na = 'a'\nb = '${a}${a}'\nc = '${b}${a}'\n"));
+    }
+
+    @Test
+    void resolvedOnce() throws Exception {
+        // each property references the former one twice: 2^60 substitutions without memoization
+        var document = new StringBuilder("[properties]\np0 = ''\n");
+        for (int i = 1; i <= 60; i++) {
+            document.append('p').append(i).append(" = '${p").append(i - 1).append("}${p").append(i - 1).append("}'\n");
+        }
+        var config = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> interpolate(document.toString()));
+        assertEquals("", config.getString("properties.p60"));
+    }
+
+    @Test
+    void viewsAndStringsAreMemoized() throws Exception {
+        var config = interpolate("""
+          [properties]
+          v = '1.0'
+          a = 'x-${v}'
+          b = 'x-${v}'
+
+          [dependencies]
+          compile = ['org.example:lib:${v}']
+          """);
+        assertSame(config.getString("properties.a"), config.getString("properties.a"));
+        assertSame(config.getString("properties.a"), config.getString("properties.b"));
+        assertSame(config.getTable("properties"), config.getTable("properties"));
+        assertSame(config.getArray("dependencies.compile"), config.getArray("dependencies.compile"));
+        assertEquals("org.example:lib:1.0", config.getArray("dependencies.compile").getString(0));
+    }
+
+    @Test
+    void noPropertiesNoView() throws Exception {
+        var parsed = Toml.parse("[project]\nversion = '${v}'\n");
+        assertSame(parsed, TomlInterpolator.interpolate(parsed));
+    }
+
+    @Test
+    void boundThroughTheOption() throws Exception {
+        var document = """
+          [project]
+          group = 'org.example'
+          artifact = 'app'
+          version = '${revision}'
+
+          [properties]
+          revision = '1.2'
+          slf4j = '2.0.16'
+
+          [dependencies.compile]
+          "org.slf4j:slf4j-api" = '${slf4j}'
+          "org.example:sibling" = '${project.version}'
+          """;
+        var interpolated = bind(document, true);
+        assertEquals("1.2", interpolated.getVersion());
+        assertEquals("2.0.16", interpolated.getDependencies().get(0).getVersion());
+        assertEquals("${project.version}", interpolated.getDependencies().get(1).getVersion());
+
+        var raw = bind(document, false);
+        assertEquals("${revision}", raw.getVersion());
+        assertEquals("${slf4j}", raw.getDependencies().get(0).getVersion());
+    }
+
+    private static TomlTable interpolate(String document) throws ModelParseException {
+        var parsed = Toml.parse(document);
+        assertEquals(List.of(), parsed.errors());
+        return TomlInterpolator.interpolate(parsed);
+    }
+
+    private static org.apache.maven.model.Model bind(String document, boolean interpolate) throws Exception {
+        var diagnostics = new ArrayList<TomlDiagnostic>();
+        var ret = new TomlModelBinder(null, TomlOptions.of(Map.of(TomlOptions.INTERPOLATE, String.valueOf(interpolate))), null,
+          diagnostics::add).readToml(new StringReader(document));
+        assertEquals(List.of(), diagnostics);
+        return ret;
+    }
+}
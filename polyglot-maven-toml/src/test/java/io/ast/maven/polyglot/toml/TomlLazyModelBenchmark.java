@@ -0,0 +1,56 @@
+package io.ast.maven.polyglot.toml;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.model.Model;
+import org.apache.tuweni.toml.Toml;
+import org.apache.tuweni.toml.TomlTable;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Binding time of a parsed pom.toml with its descriptive sections deferred ({@link TomlOptions#LAZY}) or not, for
+ * a read which only looks at the coordinates and one which looks at everything.
+ * <pre>
+ *     mvn -pl polyglot-maven-toml -Pbenchmark test -Djmh.args=TomlLazyModelBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TomlLazyModelBenchmark {
+
+    @Param({"10", "200"})
+    public int people;
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    private TomlTable config;
+    private TomlOptions options;
+
+    @Setup
+    public void setUp() throws Exception {
+        config = Toml.parse(TomlDocuments.describe(people));
+        options = TomlOptions.of(Map.of(TomlOptions.LAZY, String.valueOf(lazy)));
+    }
+
+    @Benchmark
+    public String coordinates() throws Exception {
+        return read().getArtifactId();
+    }
+
+    @Benchmark
+    public int everything() throws Exception {
+        var model = read();
+        return model.getDevelopers().size() + model.getContributors().size();
+    }
+
+    private Model read() throws Exception {
+        return new TomlModelBinder(null, options, null, diagnostic -> {
+        }).readToml(config);
+    }
+}
@@ -0,0 +1,89 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TomlLazyModelTest {
+
+    private static final String INVALID = """
+      [project]
+      artifact = 'invalid'
+      licenses = ['MIT']
+      """;
+
+    private static final String WARNING = """
+      [project]
+      artifact = 'warning'
+
+      [scm]
+      url = 'https://example.org/scm'
+      unknown = true
+      """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void failAtReadTimeByDefault() {
+        assertThrows(RuntimeException.class, () -> read(INVALID, Map.of(), new ArrayList<>()));
+    }
+
+    @Test
+    void failEveryAccessWhenLazy() throws IOException {
+        var model = read(INVALID, Map.of(TomlOptions.LAZY, "true"), new ArrayList<>());
+        assertEquals("invalid", model.getArtifactId());
+        var first = assertThrows(IllegalStateException.class, model::getLicenses);
+        var second = assertThrows(IllegalStateException.class, model::getLicenses);
+        assertEquals(first.getMessage(), second.getMessage());
+        assertThrows(IllegalStateException.class, model::getScm);
+    }
+
+    @Test
+    void reportWarningsOnFirstAccessWhenLazy() throws IOException {
+        var diagnostics = new ArrayList<TomlDiagnostic>();
+        var model = read(WARNING, Map.of(TomlOptions.LAZY, "true"), diagnostics);
+        assertEquals(List.of(), diagnostics);
+        assertEquals("https://example.org/scm", model.getScm().getUrl());
+        assertEquals(1, diagnostics.size());
+    }
+
+    @Test
+    void lazyModelsMatchEagerOnes() throws IOException {
+        var document = TomlDocuments.describe(3);
+        var eager = read(document, Map.of(), new ArrayList<>());
+        var lazy = read(document, Map.of(TomlOptions.LAZY, "true"), new ArrayList<>());
+        assertInstanceOf(TomlLazyModel.class, lazy);
+        assertNull(TomlConverter.difference(eager, lazy));
+        assertEquals(3, lazy.getDevelopers().size());
+    }
+
+    @Test
+    void batchReadsKeepTheDeferredDiagnostics() throws IOException {
+        var warning = Files.writeString(dir.resolve("warning.toml"), WARNING);
+        var invalid = Files.writeString(dir.resolve("invalid.toml"), INVALID);
+        var result = new TomlPomReader(Map.of(TomlOptions.LAZY, "true"), diagnostic -> {
+        }).readAll(List.of(warning, invalid));
+
+        assertEquals(List.of(warning), List.copyOf(result.models().keySet()));
+        assertEquals(2, result.diagnostics().size());
+        assertEquals(warning, result.diagnostics().get(0).source());
+        assertFalse(result.diagnostics().get(0).isError());
+        assertEquals(invalid, result.diagnostics().get(1).source());
+        assertTrue(result.diagnostics().get(1).isError());
+    }
+
+    private static Model read(String document, Map<String, ?> options, List<TomlDiagnostic> diagnostics) throws IOException {
+        return new TomlModelBinder(null, TomlOptions.of(options), null, diagnostics::add).readToml(new StringReader(document));
+    }
+}
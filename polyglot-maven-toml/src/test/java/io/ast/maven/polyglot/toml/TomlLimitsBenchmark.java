@@ -0,0 +1,56 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.model.Model;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of the {@link TomlLimits}: the scan of a generated pom.toml while it is read, and the read of the same
+ * document with the default limits or none.
+ * <pre>
+ *     mvn -pl polyglot-maven-toml -Pbenchmark test -Djmh.args=TomlLimitsBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TomlLimitsBenchmark {
+
+    @Param({"1000"})
+    public int dependencies;
+
+    @Param({"false", "true"})
+    public boolean limited;
+
+    private String document;
+    private TomlOptions options;
+
+    @Setup
+    public void setUp() {
+        document = TomlDocuments.generate(dependencies, dependencies / 20);
+        options = TomlOptions.of(limited ? Map.of() : Map.of(
+          TomlOptions.MAX_FILE_SIZE, "-1",
+          TomlOptions.MAX_DEPTH, "-1",
+          TomlOptions.MAX_ARRAY_LENGTH, "-1",
+          TomlOptions.MAX_STRING_LENGTH, "-1"));
+    }
+
+    @Benchmark
+    public long scan() throws IOException {
+        return new TomlLimits(options).limit(new StringReader(document)).transferTo(Writer.nullWriter());
+    }
+
+    @Benchmark
+    public Model read() throws Exception {
+        return TomlLazyModel.bind(new TomlModelBinder(null, options, null, diagnostic -> {
+        }).readToml(new StringReader(document)));
+    }
+}
@@ -0,0 +1,177 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.model.io.ModelParseException;
+import org.apache.tuweni.toml.Toml;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TomlLimitsTest {
+
+    private static final String TRICKY = """
+      # comment with [ { " ' .
+      "quoted.key" = "a \\"quoted\\" \\u00e9 \\U0001F600 string"
+      a.b.c = 'literal \\ no escape'
+      ml = \"""
+      line one \\
+         continued "quotes" ""\\"
+      \"""
+      mll = '''
+       raw ''quoted'' '''
+      empty = ""
+      arr = [ [1, 2], [ { x.y = "v", z = ['a', 'b,c', "[{"] } ], ]
+      when = 1979-05-27T07:32:00Z
+
+      [table."with.dots".inner]
+      key = { nested = { deep = [1, 2, 3] } }
+
+      [[array.of.tables]]
+      name = "first" # [ trailing
+      [[array.of.tables]]
+      name = 'second'
+      """;
+
+    @Test
+    void nestingFailsWhileReading() {
+        var depth = 100_000;
+        var input = new CountingReader("x = " + "[".repeat(depth) + "]".repeat(depth) + "\n");
+        var e = assertThrows(ModelParseException.class, () -> read(input, Map.of()));
+        assertEquals("Nesting exceeds the maximum depth of 64", e.getMessage());
+        assertEquals(1, e.getLineNumber());
+        assertEquals(69, e.getColumnNumber());
+        assertTrue(input.read < 2 * depth, "read " + input.read);
+    }
+
+    @Test
+    void dottedKeysCountAsNesting() {
+        var e = assertThrows(ModelParseException.class, () -> read(new StringReader("a" + ".a".repeat(100) + " = 1\n"), Map.of()));
+        assertEquals("Nesting exceeds the maximum depth of 64", e.getMessage());
+        e = assertThrows(ModelParseException.class, () -> read(new StringReader("[a" + ".a".repeat(100) + "]\n"), Map.of()));
+        assertEquals("Nesting exceeds the maximum depth of 64", e.getMessage());
+    }
+
+    @Test
+    void arrayFailsWhileReading() {
+        var input = new CountingReader("x = [" + "1, ".repeat(1000) + "]\n");
+        var e = assertThrows(ModelParseException.class, () -> read(input, Map.of(TomlOptions.MAX_ARRAY_LENGTH, "10")));
+        assertEquals("Array exceeds the maximum length of 10", e.getMessage());
+        assertTrue(input.read < 100, "read " + input.read);
+    }
+
+    @Test
+    void stringFailsWhileReading() {
+        var input = new CountingReader("description = '" + "x".repeat(2 << 20) + "'\n");
+        var e = assertThrows(ModelParseException.class, () -> read(input, Map.of()));
+        assertEquals("String exceeds the maximum length of 1048576", e.getMessage());
+        assertTrue(input.read < (3 << 19), "read " + input.read);
+    }
+
+    @Test
+    void sizeFailsWhileReading() {
+        var e = assertThrows(ModelParseException.class, () -> read(new StringReader("a = 1\nb = 2\n"), Map.of(TomlOptions.MAX_FILE_SIZE, "8")));
+        assertEquals("Document exceeds the maximum size of 8 characters", e.getMessage());
+        assertEquals(2, e.getLineNumber());
+    }
+
+    @Test
+    void malformedLimitsAreWarnedAboutOnce() {
+        var out = System.out;
+        var printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        try {
+            var options = Map.of(TomlOptions.MAX_DEPTH, "64k", TomlOptions.MAX_ARRAY_LENGTH, " 10 ");
+            var e = assertThrows(ModelParseException.class, () -> read(new StringReader("x = " + "[".repeat(100) + "]".repeat(100)), options));
+            assertEquals("Nesting exceeds the maximum depth of 64", e.getMessage());
+            e = assertThrows(ModelParseException.class, () -> read(new StringReader("x = [" + "1, ".repeat(20) + "]"), options));
+            assertEquals("Array exceeds the maximum length of 10", e.getMessage());
+        } finally {
+            System.setOut(out);
+        }
+        assertEquals("Invalid value of option " + TomlOptions.MAX_DEPTH + ": '64k' is not an integer, using 64 @ line:-1, col:-1",
+          printed.toString(StandardCharsets.UTF_8).strip());
+    }
+
+    @Test
+    void keysAreNotLimitedAsStrings() throws IOException {
+        read(new StringReader("'" + "k".repeat(100) + "' = 1\n[\"" + "t".repeat(100) + "\"]\n"), Map.of(TomlOptions.MAX_STRING_LENGTH, "10"));
+    }
+
+    /**
+     * The scan while reading rejects no document which the walk over the parsed document accepts.
+     */
+    @Test
+    void scanIsNoStricterThanTheDocument() throws IOException {
+        var documents = new ArrayList<>(List.of(TRICKY, TomlDocuments.generate(50, 5)));
+        for (var example : List.of("../example-java-exec/pom.toml", "../example-kotlin/pom.toml")) {
+            documents.add(Files.readString(Path.of(example)));
+        }
+
+        var checked = 0;
+        for (var document : documents) {
+            var parsed = Toml.parse(document);
+            assertFalse(parsed.hasErrors(), () -> parsed.errors().toString());
+            for (int depth = 0; depth <= 8; depth++) {
+                for (int array : new int[]{0, 1, 2, 3, 4, 8, 1000}) {
+                    for (int string : new int[]{0, 1, 2, 4, 8, 16, 32, 64, 1000}) {
+                        var options = TomlOptions.of(Map.of(
+                          TomlOptions.MAX_DEPTH, String.valueOf(depth),
+                          TomlOptions.MAX_ARRAY_LENGTH, String.valueOf(array),
+                          TomlOptions.MAX_STRING_LENGTH, String.valueOf(string)));
+                        var accepted = accepts(() -> new TomlLimits(options).checkDocument(parsed));
+                        if (accepted) {
+                            checked++;
+                            assertTrue(accepts(() -> new TomlLimits(options).limit(new StringReader(document)).transferTo(Writer.nullWriter())),
+                              "depth " + depth + ", array " + array + ", string " + string + " in\n" + document);
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(checked > 100, "checked " + checked);
+    }
+
+    private static void read(Reader input, Map<String, ?> options) throws IOException {
+        new TomlLimits(TomlOptions.of(options)).limit(input).transferTo(Writer.nullWriter());
+    }
+
+    private static boolean accepts(Check check) throws IOException {
+        try {
+            check.run();
+            return true;
+        } catch (ModelParseException e) {
+            return false;
+        }
+    }
+
+    private interface Check {
+        void run() throws IOException;
+    }
+
+    private static final class CountingReader extends StringReader {
+        long read;
+
+        CountingReader(String content) {
+            super(content);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            var ret = super.read(buffer, offset, Math.min(length, 16));
+            read += Math.max(ret, 0);
+            return ret;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.model.io.ModelParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TomlLint} reports every error of each file, where a strict read stops on the first one.
+ */
+class TomlLintTest {
+
+    static final String PROJECT = """
+      [project]
+      group = 'org.example'
+      artifact = 'app'
+      version = '1.0'
+      """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void allErrorsOfAFile() throws Exception {
+        var pom = write("pom.toml", PROJECT + """
+          colour = 'blue'
+
+          [build]
+          directory = 1
+          unknown = 'x'
+
+          [dependencies]
+          compile = ['org.example:lib:1.0']
+          """);
+
+        var diagnostics = TomlLint.lint(List.of(pom), 1);
+        assertEquals(List.of("5:Unrecognised tag: 'project.colour'", "8:Expect tag type String for 'build.directory'",
+          "9:Unrecognised tag: 'build.unknown'"),
+          diagnostics.stream().map(d -> d.line() + ":" + d.message()).toList());
+        assertTrue(diagnostics.stream().allMatch(d -> d.isError() && d.source().equals(pom)));
+
+        // a strict read stops on the first one
+        var e = assertThrows(ModelParseException.class, () -> new TomlModelBinder(pom, TomlOptions.of(Map.of(TomlOptions.IS_STRICT, "true")),
+          null, d -> fail(d.toString())).readToml(new StringReader(Files.readString(pom))));
+        assertEquals(5, e.getLineNumber());
+    }
+
+    @Test
+    void filesInOrderWhateverTheThreads() throws Exception {
+        var files = List.of(
+          write("a/pom.toml", PROJECT + "a = 1\nb = 2\n"),
+          write("b/pom.toml", PROJECT),
+          write("c/pom.toml", PROJECT + "[build\n"),
+          dir.resolve("missing/pom.toml"),
+          write("e/pom.toml", "[project]\nname = ['not', 'a string']\n"));
+
+        for (var threads : new int[]{1, 3, 8}) {
+            var diagnostics = TomlLint.lint(files, threads);
+            assertEquals(List.of("a", "a", "c", "missing", "e"),
+              diagnostics.stream().map(d -> d.source().getParent().getFileName().toString()).toList(), threads + " threads");
+            assertTrue(diagnostics.stream().allMatch(TomlDiagnostic::isError));
+            assertEquals(6, diagnostics.get(1).line());
+            assertEquals("Expect tag type String for 'project.name'", diagnostics.get(4).message());
+            assertTrue(diagnostics.get(3).message().contains("NoSuchFileException"), diagnostics.get(3).message());
+        }
+    }
+
+    @Test
+    void validFilesHaveNoDiagnostics() throws Exception {
+        var files = TomlGoldenTest.examples().stream().map(example -> example.resolve("pom.toml")).toList();
+        assertEquals(List.of(), TomlLint.lint(files, 2));
+    }
+
+    private Path write(String path, String content) throws IOException {
+        var file = dir.resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
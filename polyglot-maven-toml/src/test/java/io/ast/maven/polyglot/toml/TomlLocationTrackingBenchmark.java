@@ -0,0 +1,65 @@
+package io.ast.maven.polyglot.toml;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.model.InputLocation;
+import org.apache.maven.model.InputSource;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.ModelReader;
+import org.apache.tuweni.toml.Toml;
+import org.apache.tuweni.toml.TomlTable;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Binding time of a parsed pom.toml with the input locations tracked ({@link TomlLocations}) or not, and the
+ * lookup of the locations of every dependency.
+ * <pre>
+ *     mvn -pl polyglot-maven-toml -Pbenchmark test -Djmh.args=TomlLocationTrackingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TomlLocationTrackingBenchmark {
+
+    @Param({"1000"})
+    public int dependencies;
+
+    @Param({"false", "true"})
+    public boolean tracking;
+
+    private TomlTable config;
+    private TomlOptions options;
+    private Model model;
+
+    @Setup
+    public void setUp() throws Exception {
+        config = Toml.parse(TomlDocuments.generate(dependencies, dependencies / 20));
+        var map = new HashMap<String, Object>();
+        if (tracking) {
+            map.put(ModelReader.INPUT_SOURCE, new InputSource());
+        }
+        options = TomlOptions.of(map);
+        model = bind();
+    }
+
+    @Benchmark
+    public Model bind() throws Exception {
+        return TomlLazyModel.bind(new TomlModelBinder(null, options, null, diagnostic -> {
+        }).readToml(config));
+    }
+
+    @Benchmark
+    public int lookup() {
+        var ret = 0;
+        for (var dependency : model.getDependencies()) {
+            InputLocation location = dependency.getLocation("version");
+            ret += location != null ? location.getLineNumber() : 0;
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,270 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import org.apache.maven.model.InputSource;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.ModelReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TomlModelCacheTest {
+
+    private static final String DOCUMENT = """
+      [project]
+      group = 'org.example'
+      artifact = 'app'
+      version = '1.0'
+
+      [properties]
+      lib.version = '1.0'
+
+      [dependencies.compile]
+      "org.example:lib" = '${lib.version}'
+      """;
+
+    private static final byte[] SECRET = "secret".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void interpolatedKeysDependOnTheReferencedSystemProperties() throws Exception {
+        var pom = dir.resolve("pom.toml");
+        var options = TomlOptions.of(Map.of(TomlOptions.INTERPOLATE, "true"));
+        var cached = TomlModelCache.key(pom, options, DOCUMENT);
+        var compiled = TomlModelCompiler.key(pom, options, DOCUMENT);
+        var plain = TomlOptions.of(Map.of());
+        var plainCached = TomlModelCache.key(pom, plain, DOCUMENT);
+
+        System.setProperty("lib.version", "2.0");
+        try {
+            assertNotEquals(cached, TomlModelCache.key(pom, options, DOCUMENT));
+            assertNotEquals(compiled, TomlModelCompiler.key(pom, options, DOCUMENT));
+            assertEquals(plainCached, TomlModelCache.key(pom, plain, DOCUMENT));
+        } finally {
+            System.clearProperty("lib.version");
+        }
+        assertEquals(cached, TomlModelCache.key(pom, options, DOCUMENT));
+    }
+
+    @Test
+    void keysAreSharedAcrossCheckouts() throws Exception {
+        var a = source("a/pom.toml");
+        var b = source("b/pom.toml");
+        assertEquals(TomlModelCache.key(dir.resolve("a/pom.toml"), options(a), DOCUMENT),
+          TomlModelCache.key(dir.resolve("b/pom.toml"), options(b), DOCUMENT));
+        assertNotEquals(TomlModelCache.key(dir.resolve("a/pom.toml"), options(a), DOCUMENT),
+          TomlModelCache.key(dir.resolve("a/pom.toml"), TomlOptions.of(Map.of()), DOCUMENT));
+    }
+
+    @Test
+    void locationsOfTheCurrentRead() throws Exception {
+        var key = TomlModelCache.key(dir.resolve("a/pom.toml"), options(source("a/pom.toml")), DOCUMENT);
+        var payload = TomlModelCache.encode(key, SECRET, read(options(source("a/pom.toml"))), List.of());
+
+        var b = source("b/pom.toml");
+        var model = TomlModelCache.decode(key, SECRET, payload, dir.resolve("b/pom.toml"), b).model();
+        var location = model.getDependencies().get(0).getLocation("version");
+        assertEquals(10, location.getLineNumber());
+        assertSame(b, location.getSource());
+        assertSame(b, model.getLocation("groupId").getSource());
+    }
+
+    @Test
+    void tamperedEntriesAreRejected() throws Exception {
+        var key = TomlModelCache.key(dir.resolve("pom.toml"), TomlOptions.of(Map.of()), DOCUMENT);
+        var payload = TomlModelCache.encode(key, SECRET, read(TomlOptions.of(Map.of())), List.of());
+        var other = key.replace(key.charAt(0), key.charAt(0) == '0' ? '1' : '0');
+        assertThrows(InvalidObjectException.class, () -> TomlModelCache.decode(other, SECRET, payload, null, null));
+
+        payload[payload.length - 1] ^= 1;
+        assertThrows(InvalidObjectException.class, () -> TomlModelCache.decode(key, SECRET, payload, null, null));
+    }
+
+    @Test
+    void entriesOfAnotherSecretAreRejected() throws Exception {
+        var key = TomlModelCache.key(dir.resolve("pom.toml"), TomlOptions.of(Map.of()), DOCUMENT);
+        var model = read(TomlOptions.of(Map.of()));
+        var forged = TomlModelCache.encode(key, "other".getBytes(StandardCharsets.UTF_8), model, List.of());
+        assertThrows(InvalidObjectException.class, () -> TomlModelCache.decode(key, SECRET, forged, null, null));
+        var unsigned = TomlModelCache.encode(key, null, model, List.of());
+        assertThrows(InvalidObjectException.class, () -> TomlModelCache.decode(key, SECRET, unsigned, null, null));
+    }
+
+    @Test
+    void forgedEntriesOfASharedCacheAreMisses() throws Exception {
+        var cache = dir.resolve("cache").toUri().toString();
+        var options = TomlOptions.of(Map.of(TomlOptions.CACHE, cache, TomlOptions.CACHE_SECRET, secret().toString()));
+        var key = TomlModelCache.key(dir.resolve("pom.toml"), options, DOCUMENT);
+        var forged = TomlModelCache.encode(key, null, read(options), List.of());
+        TomlCacheBackends.Directory.INSTANCE.put(URI.create(cache), key, forged);
+
+        assertNull(TomlModelCache.of(options, Map.of()).get(key, dir.resolve("pom.toml")));
+    }
+
+    @Test
+    void sharedCachesNeedASecret() throws IOException {
+        var cache = dir.resolve("cache").toUri().toString();
+        assertNull(TomlModelCache.of(TomlOptions.of(Map.of(TomlOptions.CACHE, cache)), Map.of()));
+        assertNull(TomlModelCache.of(TomlOptions.of(Map.of(TomlOptions.CACHE, "https://cache.example.org/")), Map.of()));
+        assertNotNull(TomlModelCache.of(TomlOptions.of(Map.of(TomlOptions.CACHE, "unix:" + dir.resolve("cache.sock"))), Map.of()));
+        assertNotNull(TomlModelCache.of(TomlOptions.of(Map.of(TomlOptions.CACHE, cache, TomlOptions.CACHE_SECRET,
+          secret().toString())), Map.of()));
+    }
+
+    @Test
+    void plainHttpIsRefused() throws IOException {
+        var options = TomlOptions.of(Map.of(TomlOptions.CACHE, "http://cache.example.org/", TomlOptions.CACHE_SECRET,
+          secret().toString()));
+        assertNull(TomlModelCache.of(options, Map.of()));
+        assertNull(TomlCacheBackends.of("http"));
+    }
+
+    @Test
+    void unexpectedClassesAreRejected() throws Exception {
+        var model = read(TomlOptions.of(Map.of()));
+        model.getProperties().put("uri", URI.create("http://example.org/"));
+        var payload = TomlModelCache.encode("key", SECRET, model, List.of());
+        assertThrows(InvalidClassException.class, () -> TomlModelCache.decode("key", SECRET, payload, null, null));
+    }
+
+    @Test
+    void directoryBackend() throws Exception {
+        assertSharedBetweenCheckouts(dir.resolve("cache").toUri().toString(), Map.of());
+        try (var entries = Files.walk(dir.resolve("cache"))) {
+            assertEquals(1, entries.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void httpsBackend() throws Exception {
+        var ssl = ssl();
+        var entries = new ConcurrentHashMap<String, byte[]>();
+        var server = HttpsServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setHttpsConfigurator(new HttpsConfigurator(ssl));
+        server.createContext("/cache/", exchange -> {
+            var key = exchange.getRequestURI().getPath().substring("/cache/".length());
+            if (exchange.getRequestMethod().equals("PUT")) {
+                entries.put(key, exchange.getRequestBody().readAllBytes());
+                exchange.sendResponseHeaders(201, -1);
+            } else {
+                var entry = entries.get(key);
+                if (entry != null) {
+                    exchange.sendResponseHeaders(200, entry.length);
+                    exchange.getResponseBody().write(entry);
+                } else {
+                    exchange.sendResponseHeaders(404, -1);
+                }
+            }
+            exchange.close();
+        });
+        server.createContext("/moved/", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/cache/" + exchange.getRequestURI().getPath().substring("/moved/".length()));
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            var base = "https://127.0.0.1:" + server.getAddress().getPort();
+            var backend = new TomlCacheBackends.Http(ssl);
+            assertSharedBetweenCheckouts(base + "/cache/", Map.of("https", backend));
+            assertEquals(1, entries.size());
+
+            // redirects are not followed
+            var key = entries.keySet().iterator().next();
+            assertThrows(IOException.class, () -> backend.get(URI.create(base + "/moved/"), key));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Store the read of a checkout in {@code cache}, and get it for another checkout.
+     */
+    private void assertSharedBetweenCheckouts(String cache, Map<String, TomlCacheBackend> backends) throws Exception {
+        var secret = secret().toString();
+        var a = dir.resolve("a/pom.toml");
+        var optionsA = TomlOptions.of(Map.of(TomlOptions.CACHE, cache, TomlOptions.CACHE_SECRET, secret,
+          ModelReader.INPUT_SOURCE, source("a/pom.toml")));
+        var key = TomlModelCache.key(a, optionsA, DOCUMENT);
+        TomlModelCache.of(optionsA, backends).put(key, read(optionsA), List.of());
+        TomlModelCache.flush(5000);
+
+        var b = source("b/pom.toml");
+        var optionsB = TomlOptions.of(Map.of(TomlOptions.CACHE, cache, TomlOptions.CACHE_SECRET, secret,
+          ModelReader.INPUT_SOURCE, b));
+        assertEquals(key, TomlModelCache.key(dir.resolve("b/pom.toml"), optionsB, DOCUMENT));
+        var entry = TomlModelCache.of(optionsB, backends).get(key, dir.resolve("b/pom.toml"));
+        assertNotNull(entry);
+        assertEquals("org.example:lib", entry.model().getDependencies().get(0).getManagementKey().replace(":jar", ""));
+        assertSame(b, entry.model().getDependencies().get(0).getLocation("version").getSource());
+    }
+
+    private Path secret() throws IOException {
+        return Files.write(dir.resolve("secret"), SECRET);
+    }
+
+    /**
+     * @return an SSL context of a self-signed certificate of 127.0.0.1, trusting it.
+     */
+    private SSLContext ssl() throws Exception {
+        var keystore = dir.resolve("keystore.p12");
+        var keytool = Path.of(System.getProperty("java.home"), "bin", "keytool").toString();
+        var process = new ProcessBuilder(keytool, "-genkeypair", "-keystore", keystore.toString(), "-storetype", "PKCS12",
+          "-storepass", "changeit", "-alias", "cache", "-keyalg", "EC", "-dname", "CN=localhost", "-ext", "SAN=ip:127.0.0.1",
+          "-validity", "1").redirectErrorStream(true).start();
+        process.getInputStream().transferTo(OutputStream.nullOutputStream());
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+        assertEquals(0, process.exitValue());
+
+        var store = KeyStore.getInstance("PKCS12");
+        try (var in = Files.newInputStream(keystore)) {
+            store.load(in, "changeit".toCharArray());
+        }
+        var keys = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keys.init(store, "changeit".toCharArray());
+        var trust = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trust.init(store);
+        var ret = SSLContext.getInstance("TLS");
+        ret.init(keys.getKeyManagers(), trust.getTrustManagers(), null);
+        return ret;
+    }
+
+    private InputSource source(String pom) {
+        var ret = new InputSource();
+        ret.setLocation(dir.resolve(pom).toString());
+        return ret;
+    }
+
+    private static TomlOptions options(InputSource source) {
+        return TomlOptions.of(Map.of(ModelReader.INPUT_SOURCE, source));
+    }
+
+    private static Model read(TomlOptions options) throws IOException {
+        return TomlLazyModel.bind(new TomlModelBinder(null, options, null, diagnostic -> {
+        }).readToml(new StringReader(DOCUMENT)));
+    }
+}
@@ -0,0 +1,107 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Models compiled by {@link TomlModelCompiler} and created by {@link TomlCompiledModels}, against the bound ones.
+ */
+class TomlModelCompilerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compiledModelsAreTheBoundOnes() throws Exception {
+        var poms = new ArrayList<Path>();
+        for (var example : TomlGoldenTest.examples()) {
+            var pom = dir.resolve(example.getFileName().toString()).resolve("pom.toml");
+            Files.createDirectories(pom.getParent());
+            poms.add(Files.copy(example.resolve("pom.toml"), pom));
+        }
+        var jar = dir.resolve("models.jar");
+        var diagnostics = new ArrayList<TomlDiagnostic>();
+        assertEquals(poms, TomlModelCompiler.compile(poms, Map.of(), jar, diagnostics::add));
+        assertEquals(List.of(), diagnostics);
+
+        var options = TomlOptions.of(Map.of(TomlOptions.MODELS, jar.toString()));
+        var models = TomlCompiledModels.of(options);
+        assertNotNull(models);
+        for (var pom : poms) {
+            var document = Files.readString(pom);
+            var compiled = models.create(TomlModelCompiler.key(pom, options, document), options);
+            assertNotNull(compiled, pom.toString());
+            assertNull(TomlConverter.difference(bind(pom, document), compiled), pom.toString());
+            // a new model each time
+            assertNotSame(compiled, models.create(TomlModelCompiler.key(pom, options, document), options));
+
+            var read = new TomlModelProcessor().read(pom.toFile(), Map.of(TomlOptions.MODELS, jar.toString()));
+            assertNull(TomlConverter.difference(bind(pom, document), read), pom.toString());
+            assertEquals(pom.toFile(), read.getPomFile());
+        }
+    }
+
+    @Test
+    void editedDocumentsAreNotCompiled() throws Exception {
+        var pom = Files.writeString(dir.resolve("pom.toml"), document("1.0"));
+        var jar = dir.resolve("models.jar");
+        TomlModelCompiler.compile(List.of(pom), Map.of(), jar, d -> fail(d.toString()));
+        var options = TomlOptions.of(Map.of(TomlOptions.MODELS, jar.toString()));
+        var models = TomlCompiledModels.of(options);
+
+        assertNull(models.create(TomlModelCompiler.key(pom, options, document("2.0")), options));
+        assertNull(models.create(TomlModelCompiler.key(pom, TomlOptions.of(Map.of(TomlOptions.LOCK, "false")), document("1.0")), options));
+        assertEquals("1.0", models.create(TomlModelCompiler.key(pom, options, document("1.0")), options).getVersion());
+    }
+
+    @Test
+    void aJarWrittenAgainReplacesTheModelsOfTheFormerOne() throws Exception {
+        var pom = Files.writeString(dir.resolve("pom.toml"), document("1.0"));
+        var jar = dir.resolve("models.jar");
+        TomlModelCompiler.compile(List.of(pom), Map.of(), jar, d -> fail(d.toString()));
+        var options = TomlOptions.of(Map.of(TomlOptions.MODELS, jar.toString()));
+        var former = TomlCompiledModels.of(options);
+        assertSame(former, TomlCompiledModels.of(options));
+        var key = TomlModelCompiler.key(pom, options, document("1.0"));
+        assertNotNull(former.create(key, options));
+
+        Files.writeString(pom, document("2.0"));
+        TomlModelCompiler.compile(List.of(pom), Map.of(), jar, d -> fail(d.toString()));
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 1000));
+        var models = TomlCompiledModels.of(options);
+        assertNotSame(former, models);
+        assertNull(models.create(key, options));
+        assertEquals("2.0", models.create(TomlModelCompiler.key(pom, options, document("2.0")), options).getVersion());
+    }
+
+    private static String document(String version) {
+        return """
+          [project]
+          group = 'org.example'
+          artifact = 'app'
+          version = '%s'
+
+          [dependencies.compile]
+          "org.example:lib" = '1.0'
+          """.formatted(version);
+    }
+
+    private static Model bind(Path pom, String document) throws IOException {
+        var diagnostics = new ArrayList<TomlDiagnostic>();
+        var ret = new TomlModelBinder(pom, TomlOptions.of(Map.of()), null, diagnostics::add).readToml(new StringReader(document));
+        assertEquals(List.of(), diagnostics);
+        return ret;
+    }
+}
@@ -0,0 +1,141 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.ModelParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Events of the pom.toml reads delivered to the {@link TomlModelListener}s.
+ */
+class TomlModelListenersTest {
+
+    static final String PROJECT = """
+      [project]
+      group = 'org.example'
+      artifact = 'app'
+      version = '1.0'
+      colour = 'blue'
+      """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void eventOfARead() throws Exception {
+        var pom = Files.writeString(dir.resolve("pom.toml"), PROJECT);
+        var first = new Recorder();
+        var second = new Recorder();
+        var model = processor(first, second).read(pom.toFile(), Map.of());
+        TomlModelListeners.await();
+
+        assertEquals(1, first.events.size());
+        var event = first.events.get(0);
+        assertEquals(pom, event.source());
+        assertSame(model, event.model());
+        assertEquals(pom.toFile(), event.model().getPomFile());
+        assertEquals("app", event.document().getString("project.artifact"));
+        assertEquals(List.of("Unrecognised tag: 'project.colour'"), event.diagnostics().stream().map(TomlDiagnostic::message).toList());
+
+        // in the listener order, on the delivery thread
+        assertEquals(first.events, second.events);
+        assertTrue(first.order < second.order);
+        assertEquals("toml-model-listeners", first.thread);
+    }
+
+    @Test
+    void aFailingListenerDoesNotStopTheOthers() throws Exception {
+        var pom = Files.writeString(dir.resolve("pom.toml"), PROJECT);
+        var recorder = new Recorder();
+        TomlModelListener failing = event -> {
+            throw new IllegalStateException("failing listener");
+        };
+        var model = processor(failing, recorder).read(pom.toFile(), Map.of());
+        TomlModelListeners.await();
+
+        assertEquals("org.example:app:jar:1.0", model.getId());
+        assertEquals(1, recorder.events.size());
+    }
+
+    @Test
+    void failedReadsAreNotNotified() throws Exception {
+        var pom = Files.writeString(dir.resolve("pom.toml"), "[project\n");
+        var recorder = new Recorder();
+        assertThrows(ModelParseException.class, () -> processor(recorder).read(pom.toFile(), Map.of()));
+        TomlModelListeners.await();
+        assertEquals(List.of(), recorder.events);
+    }
+
+    @Test
+    void cachedModelsHaveNoDocument() throws Exception {
+        var pom = Files.writeString(dir.resolve("pom.toml"), PROJECT);
+        var options = Map.of(TomlOptions.CACHE, dir.resolve("cache").toUri().toString(),
+          TomlOptions.CACHE_SECRET, Files.writeString(dir.resolve("secret"), "secret").toString());
+        var recorder = new Recorder();
+        var processor = processor(recorder);
+        processor.read(pom.toFile(), options);
+        var cached = processor.read(pom.toFile(), options);
+        TomlModelListeners.await();
+
+        assertEquals(2, recorder.events.size());
+        assertNotNull(recorder.events.get(0).document());
+        var event = recorder.events.get(1);
+        assertNull(event.document());
+        assertSame(cached, event.model());
+        assertEquals(pom, event.source());
+        // the warnings are replayed
+        assertEquals(recorder.events.get(0).diagnostics(), event.diagnostics());
+    }
+
+    @Test
+    void eachFileOfABatch() throws Exception {
+        var a = Files.writeString(dir.resolve("a.toml"), PROJECT.replace("'app'", "'a'"));
+        var b = Files.writeString(dir.resolve("b.toml"), "[project\n");
+        var c = Files.writeString(dir.resolve("c.toml"), PROJECT.replace("'app'", "'c'"));
+        var recorder = new Recorder();
+        processor(recorder).readAll(List.of(a, b, c), Map.of());
+        TomlModelListeners.await();
+
+        assertEquals(List.of(a, c), recorder.events.stream().map(TomlModelEvent::source).sorted().toList());
+        for (var event : recorder.events) {
+            assertEquals(event.source().getFileName().toString().replace(".toml", ""), event.model().getArtifactId());
+            assertEquals(1, event.diagnostics().size());
+        }
+    }
+
+    private static TomlModelProcessor processor(TomlModelListener... listeners) throws ReflectiveOperationException {
+        var ret = new TomlModelProcessor();
+        var field = TomlModelProcessor.class.getDeclaredField("listeners");
+        field.setAccessible(true);
+        field.set(ret, List.of(listeners));
+        return ret;
+    }
+
+    /**
+     * records the events, and when it was last called.
+     */
+    private static final class Recorder implements TomlModelListener {
+        private static long calls;
+
+        final List<TomlModelEvent> events = Collections.synchronizedList(new ArrayList<>());
+        long order;
+        String thread;
+
+        @Override
+        public void modelRead(TomlModelEvent event) {
+            events.add(event);
+            order = ++calls;
+            thread = Thread.currentThread().getName();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.DefaultModelReader;
+import org.apache.maven.model.io.ModelReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads of {@link TomlModelProcessor}: telling a TOML from an XML document without a file name, the encoding of
+ * the documents, and the batch reads.
+ */
+class TomlModelProcessorTest {
+
+    static final String XML = """
+      <project xmlns="http://maven.apache.org/POM/4.0.0">
+        <modelVersion>4.0.0</modelVersion>
+        <groupId>org.example</groupId>
+        <artifactId>app</artifactId>
+        <version>1.0</version>
+      </project>
+      """;
+
+    static final String TOML = """
+      [project]
+      group = 'org.example'
+      artifact = 'app'
+      version = '1.0'
+      """;
+
+    static final String NAME = "Zoë Ærø ☃ app";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void xmlDocuments() throws Exception {
+        for (var document : new String[]{XML, "\uFEFF" + XML, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + XML,
+          "<!-- licensed under the Apache License -->\n" + XML, "\n\t  \r\n" + XML}) {
+            assertFalse(sniff(document), document);
+            assertEquals("org.example:app:jar:1.0", read(document).getId(), document);
+        }
+    }
+
+    @Test
+    void tomlDocuments() throws Exception {
+        for (var document : new String[]{TOML, "\uFEFF" + TOML, "# licensed under the Apache License\n# <project>\n" + TOML,
+          "\n\n  \r\n" + TOML, "[properties]\n\"quoted.key\" = '<value>'\n\n" + TOML}) {
+            assertTrue(sniff(document), document);
+            assertEquals("org.example:app:jar:1.0", read(document).getId(), document);
+        }
+    }
+
+    @Test
+    void emptyDocuments() throws Exception {
+        assertFalse(sniff(""));
+        assertFalse(sniff("\uFEFF \n"));
+    }
+
+    @Test
+    void documentsLongerThanTheSniffLimit() throws Exception {
+        // decided on the first character, and the whole document is read
+        var comment = "# " + "x".repeat(10_000) + "\n";
+        assertTrue(sniff(comment + TOML));
+        assertEquals("org.example:app:jar:1.0", read(comment + TOML).getId());
+
+        var xmlComment = "<!-- " + "x".repeat(10_000) + " -->\n";
+        assertFalse(sniff(xmlComment + XML));
+        assertEquals("org.example:app:jar:1.0", read(xmlComment + XML).getId());
+
+        // blank past the limit: left to the XML reader
+        var blank = " ".repeat(5000);
+        assertFalse(sniff(blank + TOML));
+        assertTrue(sniff(" ".repeat(4000) + TOML));
+    }
+
+    @Test
+    void theSniffedInputIsReset() throws IOException {
+        var input = new BufferedReader(new StringReader("\n# comment\n" + TOML), 16);
+        assertTrue(TomlModelProcessor.isTomlContent(input));
+        assertEquals("", input.readLine());
+        assertEquals("# comment", input.readLine());
+    }
+
+    @Test
+    void utf8Documents() throws Exception {
+        var document = TOML + "name = '" + NAME + "'\n";
+        var pom = Files.writeString(dir.resolve("pom.toml"), document, StandardCharsets.UTF_8);
+        var processor = processor();
+        assertEquals(NAME, processor.read(pom.toFile(), Map.of()).getName());
+        assertEquals(NAME, processor.read(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)), Map.of()).getName());
+        assertEquals(NAME, processor.readAll(List.of(pom), Map.of()).models().get(pom).getName());
+        assertEquals(NAME, new TomlPomReader().read(pom).getName());
+
+        // an XML pom keeps its declared encoding
+        var xml = Files.write(dir.resolve("pom.xml"), ("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n"
+          + XML.replace("<version>", "<name>Zoë</name>\n  <version>")).getBytes(StandardCharsets.ISO_8859_1));
+        assertEquals("Zoë", processor.read(xml.toFile(), Map.of()).getName());
+        assertEquals(xml.toFile(), processor.read(xml.toFile(), Map.of()).getPomFile());
+    }
+
+    @Test
+    void batchReads() throws Exception {
+        var valid = Files.writeString(dir.resolve("valid.toml"), TOML + "name = '" + NAME + "'\nunknown = 1\n");
+        var invalid = Files.writeString(dir.resolve("invalid.toml"), TOML + "version = '2.0'\n");
+        var missing = dir.resolve("missing.toml");
+        var xml = Files.writeString(dir.resolve("pom.xml"), XML);
+        var broken = Files.writeString(dir.resolve("broken.xml"), "<project>");
+
+        var result = processor().readAll(List.of(valid, invalid, missing, xml, broken), Map.of());
+        assertEquals(List.of(valid, xml), List.copyOf(result.models().keySet()));
+        assertEquals(NAME, result.models().get(valid).getName());
+        assertEquals("org.example:app:jar:1.0", result.models().get(xml).getId());
+        assertTrue(result.hasErrors());
+
+        var diagnostics = result.diagnostics();
+        assertEquals(List.of(valid, invalid, missing, broken), diagnostics.stream().map(TomlDiagnostic::source).toList());
+        assertFalse(diagnostics.get(0).isError());
+        assertEquals(6, diagnostics.get(0).line());
+        assertTrue(diagnostics.get(1).isError());
+        assertEquals(5, diagnostics.get(1).line());
+        assertTrue(diagnostics.get(2).isError());
+        assertTrue(diagnostics.get(2).message().contains("NoSuchFileException"), diagnostics.get(2).message());
+        assertTrue(diagnostics.get(3).isError());
+    }
+
+    private static boolean sniff(String document) throws IOException {
+        return TomlModelProcessor.isTomlContent(new BufferedReader(new StringReader(document)));
+    }
+
+    /**
+     * read as an in-memory source, which has no name to tell its format.
+     */
+    private static Model read(String document) throws Exception {
+        return processor().read((Reader) new StringReader(document), Map.of());
+    }
+
+    static TomlModelProcessor processor() throws ReflectiveOperationException {
+        var ret = new TomlModelProcessor();
+        var field = TomlModelProcessor.class.getDeclaredField("modelReader");
+        field.setAccessible(true);
+        field.set(ret, (ModelReader) new DefaultModelReader());
+        return ret;
+    }
+}
@@ -0,0 +1,58 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TomlModuleIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void expandAndLocate() throws IOException {
+        touch("services/a/pom.toml");
+        touch("services/b/pom.xml");
+        touch("services/b/nested/pom.toml");
+        touch("services/c/README.md");
+
+        assertEquals(List.of("services/a", "services/b"), TomlModuleIndex.expand(dir, List.of("services/*")));
+        assertEquals(dir.resolve("services/a/pom.toml"), TomlModuleIndex.locate(dir.resolve("services/a")));
+        assertEquals(dir.resolve("services/b/pom.xml"), TomlModuleIndex.locate(dir.resolve("services/b")));
+    }
+
+    @Test
+    void changedDirectoryIsNotAnswered() throws IOException {
+        touch("services/a/pom.xml");
+        TomlModuleIndex.expand(dir, List.of("services/*"));
+        var a = dir.resolve("services/a");
+        assertEquals(a.resolve("pom.xml"), TomlModuleIndex.locate(a));
+
+        touch("services/a/pom.toml");
+        Files.setLastModifiedTime(a, FileTime.fromMillis(Files.getLastModifiedTime(a).toMillis() + 10_000));
+        assertNull(TomlModuleIndex.locate(a));
+    }
+
+    @Test
+    void deletedDirectoryIsNotAnswered() throws IOException {
+        touch("services/a/pom.toml");
+        TomlModuleIndex.expand(dir, List.of("services/*"));
+
+        Files.delete(dir.resolve("services/a/pom.toml"));
+        Files.delete(dir.resolve("services/a"));
+        assertNull(TomlModuleIndex.locate(dir.resolve("services/a")));
+    }
+
+    private void touch(String file) throws IOException {
+        var path = dir.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, "");
+    }
+}
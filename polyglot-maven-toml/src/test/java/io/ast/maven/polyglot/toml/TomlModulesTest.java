@@ -0,0 +1,68 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TomlModulesTest {
+
+    private static final String ROOT = """
+      [project]
+      group = 'org.example'
+      artifact = 'root'
+      version = '1.0'
+      packaging = 'pom'
+
+      [module.api.project]
+      artifact = 'api'
+      """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void servedWhileTheRootIsUnchanged() throws IOException {
+        var root = write(ROOT);
+        read(root, ROOT);
+
+        var module = TomlModules.get(dir.resolve("api/pom.toml"));
+        assertNotNull(module);
+        assertEquals("api", module.name());
+        assertSame(module, TomlModules.get(dir.resolve("api/../api/pom.toml")));
+    }
+
+    @Test
+    void droppedWhenTheRootChanges() throws IOException {
+        var root = write(ROOT);
+        read(root, ROOT);
+        assertNotNull(TomlModules.get(dir.resolve("api/pom.toml")));
+
+        write(ROOT.replace("[module.api.project]\nartifact = 'api'\n", ""));
+        assertNull(TomlModules.get(dir.resolve("api/pom.toml")));
+    }
+
+    @Test
+    void droppedWhenTheRootIsDeleted() throws IOException {
+        var root = write(ROOT);
+        read(root, ROOT);
+
+        Files.delete(root);
+        assertNull(TomlModules.get(dir.resolve("api/pom.toml")));
+    }
+
+    private Path write(String document) throws IOException {
+        return Files.writeString(dir.resolve("pom.toml"), document);
+    }
+
+    private static void read(Path root, String document) throws IOException {
+        new TomlModelBinder(root, TomlOptions.of(Map.of()), null, diagnostic -> {
+        }).readToml(new StringReader(document));
+    }
+}
@@ -0,0 +1,48 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.model.Model;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Read time of generated pom.toml documents, with the top-level tables bound sequentially or in parallel
+ * ({@link TomlOptions#PARALLEL_THRESHOLD}).
+ * <pre>
+ *     mvn -pl polyglot-maven-toml -Pbenchmark test -Djmh.args=TomlParallelBindingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TomlParallelBindingBenchmark {
+
+    /**
+     * number of dependencies; the document has a plugin per 20 dependencies.
+     */
+    @Param({"100", "1000", "5000"})
+    public int dependencies;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private String document;
+    private TomlOptions options;
+
+    @Setup
+    public void setUp() {
+        document = TomlDocuments.generate(dependencies, dependencies / 20);
+        options = TomlOptions.of(Map.of(TomlOptions.PARALLEL_THRESHOLD, parallel ? "0" : "-1"));
+    }
+
+    @Benchmark
+    public Model read() throws Exception {
+        return TomlLazyModel.bind(new TomlModelBinder(null, options, null, diagnostic -> {
+        }).readToml(new StringReader(document)));
+    }
+}
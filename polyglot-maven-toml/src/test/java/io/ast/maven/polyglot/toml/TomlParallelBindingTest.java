@@ -0,0 +1,119 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Binding the top-level tables in parallel ({@link TomlOptions#PARALLEL_THRESHOLD} 0) gives the model and the
+ * diagnostics of the sequential binding (-1).
+ */
+class TomlParallelBindingTest {
+
+    /**
+     * unknown keys in each prebound table, so the diagnostics of the forked binders are replayed.
+     */
+    private static final String WARNINGS = """
+      [project]
+      artifact = 'warnings'
+      unknown-project = 1
+
+      [properties]
+      a = 'b'
+
+      [[dependency]]
+      group = 'org.example'
+      artifact = 'first'
+      unknown-dependency = 2
+
+      [dependencies]
+      unknown-scope = 3
+
+      [dependencies.compile]
+      "org.example:second" = { version = '1.0', unknown-compile = 4 }
+
+      [management.dependency]
+      "org.example:managed" = { version = '1.0', unknown-managed = 5 }
+
+      [build.plugin."org.example:plugin:1.0"]
+      unknown-plugin = 6
+      """;
+
+    static Stream<String> documents() throws IOException {
+        var ret = new ArrayList<String>();
+        try (var dirs = Files.list(Path.of(".."))) {
+            for (var dir : dirs.filter(dir -> dir.getFileName().toString().startsWith("example-")).sorted().toList()) {
+                ret.add(Files.readString(dir.resolve("pom.toml")));
+            }
+        }
+        ret.add(TomlDocuments.generate(200, 10));
+        ret.add(WARNINGS);
+        return ret.stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("documents")
+    void sameModelAndDiagnostics(String document) throws IOException {
+        var sequential = new ArrayList<TomlDiagnostic>();
+        var expected = xml(read(document, -1, sequential));
+        var parallel = new ArrayList<TomlDiagnostic>();
+        var actual = xml(read(document, 0, parallel));
+
+        assertEquals(expected, actual);
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void warningsAreReplayedInOrder() throws IOException {
+        var diagnostics = new ArrayList<TomlDiagnostic>();
+        read(WARNINGS, 0, diagnostics);
+        assertEquals(6, diagnostics.size());
+        for (int i = 1; i < diagnostics.size(); i++) {
+            assertTrue(diagnostics.get(i - 1).line() < diagnostics.get(i).line(), diagnostics::toString);
+        }
+    }
+
+    @Test
+    void providerScope() throws IOException {
+        var document = """
+          [project]
+          artifact = 'scoped'
+
+          [dependencies.provider]
+          "org.example:api" = '1.0'
+
+          [dependencies.test]
+          "org.example:junit" = '1.0'
+          """;
+        for (var threshold : List.of(-1, 0)) {
+            var model = read(document, threshold, new ArrayList<>());
+            assertEquals(List.of("provided", "test"), model.getDependencies().stream().map(Dependency::getScope).toList());
+        }
+    }
+
+    private static String xml(Model model) throws IOException {
+        var ret = new StringWriter();
+        new MavenXpp3Writer().write(ret, model);
+        return ret.toString();
+    }
+
+    private static Model read(String document, int threshold, List<TomlDiagnostic> diagnostics) throws IOException {
+        var options = TomlOptions.of(Map.of(TomlOptions.PARALLEL_THRESHOLD, String.valueOf(threshold)));
+        return new TomlModelBinder(null, options, null, diagnostics::add).readToml(new StringReader(document));
+    }
+}
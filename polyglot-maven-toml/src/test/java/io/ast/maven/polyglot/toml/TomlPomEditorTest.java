@@ -0,0 +1,269 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.ModelParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round-trip and edits of {@link TomlPomEditor} and {@link TomlSyntax}: everything an edit does not touch is
+ * kept byte for byte.
+ */
+class TomlPomEditorTest {
+
+    /**
+     * comments everywhere, blank lines, all the string forms, quoted and dotted keys, inline tables and arrays.
+     */
+    static final String ODD = """
+      # leading comment
+
+      [project]   # trailing comment
+      group = "org.example"
+      'artifact' = 'odd'
+      "version" = \"""
+      1.0\"""
+      description = '''
+      a "multi-line"
+        literal # not a comment'''
+      name = "tab\\tand \\u00e9 and \\"quotes\\""
+
+      [ properties ]
+      slf4j . version = '2.0.16'
+      "dotted.name" = "x"
+      enabled = true
+
+      [dependencies]
+      compile = [
+          # the logging API
+          'org.slf4j:slf4j-api:${slf4j.version}',
+          "com.example:one:1.0",   # trailing
+      ]
+      runtime = [ { group = 'com.example', artifact = 'two', version = '2.0' } ]
+
+      [dependencies.test]
+      "org.junit.jupiter:junit-jupiter-api" = '5.11.3'
+
+      [[dependency]]
+      group = 'com.example'
+      artifact = 'three'
+      version = '3.0'   # pinned
+      scope = 'provided'
+
+      [build.plugin."org.apache.maven.plugins:maven-jar-plugin"]
+      version = '3.4.2'
+      configuration = { archive = { manifest = { add-classpath = true } } }
+      """;
+
+    @TempDir
+    Path dir;
+
+    static Stream<String> documents() throws IOException {
+        var ret = new ArrayList<String>();
+        for (var example : List.of("example-java-exec", "example-kotlin")) {
+            ret.add(Files.readString(Path.of("..", example, "pom.toml"), StandardCharsets.UTF_8));
+        }
+        ret.add(ODD);
+        ret.add(ODD.replace("\n", "\r\n"));
+        ret.add("");
+        ret.add("# only a comment, no newline");
+        return ret.stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("documents")
+    void roundTrip(String document) throws ModelParseException {
+        var editor = TomlPomEditor.parse(document);
+        assertEquals(document, editor.text());
+        assertFalse(editor.isModified());
+    }
+
+    @Test
+    void syntaxErrorsAreReportedWithTheirPosition() {
+        var e = assertThrows(ModelParseException.class, () -> TomlPomEditor.parse("[project]\ngroup = 'unterminated\n"));
+        assertEquals(2, e.getLineNumber());
+    }
+
+    @Test
+    void setDependencyVersion() throws Exception {
+        var editor = TomlPomEditor.parse(ODD);
+        assertTrue(editor.setDependencyVersion("com.example", "one", "1.1"));
+        assertTrue(editor.setDependencyVersion("com.example", "two", "2.1"));
+        assertTrue(editor.setDependencyVersion("com.example", "three", "3.1"));
+        assertTrue(editor.setDependencyVersion("org.junit.jupiter", "junit-jupiter-api", "5.12.0"));
+        assertFalse(editor.setDependencyVersion("com.example", "absent", "1.0"));
+
+        assertEquals(ODD
+          .replace("\"com.example:one:1.0\",   # trailing", "\"com.example:one:1.1\",   # trailing")
+          .replace("artifact = 'two', version = '2.0' }", "artifact = 'two', version = '2.1' }")
+          .replace("version = '3.0'   # pinned", "version = '3.1'   # pinned")
+          .replace("\"org.junit.jupiter:junit-jupiter-api\" = '5.11.3'", "\"org.junit.jupiter:junit-jupiter-api\" = '5.12.0'"),
+          editor.text());
+        assertEquals(List.of("com.example:one:1.1", "com.example:two:2.1", "org.junit.jupiter:junit-jupiter-api:5.12.0",
+          "com.example:three:3.1"), versions(bind(editor.text()), "com.example", "org.junit.jupiter"));
+    }
+
+    @Test
+    void setDependencyVersionThroughItsProperty() throws Exception {
+        var editor = TomlPomEditor.parse(ODD);
+        assertTrue(editor.setDependencyVersion("org.slf4j", "slf4j-api", "2.0.17"));
+        assertEquals(ODD.replace("slf4j . version = '2.0.16'", "slf4j . version = '2.0.17'"), editor.text());
+        assertFalse(editor.setDependencyVersion("org.slf4j", "slf4j-api", "2.0.17"));
+    }
+
+    @Test
+    void setPluginVersion() throws Exception {
+        var editor = TomlPomEditor.parse(ODD);
+        assertTrue(editor.setPluginVersion("org.apache.maven.plugins", "maven-jar-plugin", "3.4.3"));
+        assertEquals(ODD.replace("version = '3.4.2'", "version = '3.4.3'"), editor.text());
+        assertEquals("3.4.3", bind(editor.text()).getBuild().getPlugins().get(0).getVersion());
+    }
+
+    @Test
+    void updateProperty() throws Exception {
+        var editor = TomlPomEditor.parse(ODD);
+        assertTrue(editor.setProperty("dotted.name", "y"));
+        assertTrue(editor.setProperty("enabled", "false"));
+        assertFalse(editor.setProperty("enabled", "false"));
+        assertEquals(ODD
+          .replace("\"dotted.name\" = \"x\"", "\"dotted.name\" = \"y\"")
+          .replace("enabled = true", "enabled = false"), editor.text());
+        assertEquals("y", bind(editor.text()).getProperties().getProperty("dotted.name"));
+
+        // a number stays one, and a string replacing it is quoted
+        var numbers = TomlPomEditor.parse("[properties]\ncount = 3 # items\nother = 4\n");
+        assertTrue(numbers.setProperty("count", "5"));
+        assertTrue(numbers.setProperty("other", "four"));
+        assertEquals("[properties]\ncount = 5 # items\nother = 'four'\n", numbers.text());
+    }
+
+    @Test
+    void addProperty() throws Exception {
+        var editor = TomlPomEditor.parse(ODD);
+        assertTrue(editor.setProperty("slf4j.extra", "1"));
+        assertTrue(editor.setProperty("new.one", "value"));
+        var properties = bind(editor.text()).getProperties();
+        assertEquals("1", properties.getProperty("slf4j.extra"));
+        assertEquals("value", properties.getProperty("new.one"));
+        assertEquals("2.0.16", properties.getProperty("slf4j.version"));
+        // the lines before the properties table are left as they are
+        var head = ODD.substring(0, ODD.indexOf("[ properties ]"));
+        assertTrue(editor.text().startsWith(head));
+
+        var empty = TomlPomEditor.parse("[project]\nartifact = 'a'\n");
+        assertTrue(empty.setProperty("java.version", "17"));
+        assertEquals("17", bind(empty.text()).getProperties().getProperty("java.version"));
+        assertTrue(empty.text().startsWith("[project]\nartifact = 'a'\n"));
+    }
+
+    @Test
+    void addDependency() throws Exception {
+        var editor = TomlPomEditor.parse(ODD);
+        assertTrue(editor.addDependency(null, "com.example", "four", "4.0"));
+        assertTrue(editor.addDependency("runtime", "com.example", "five", "5.0"));
+        assertTrue(editor.addDependency("test", "org.assertj", "assertj-core", null));
+        assertTrue(editor.addDependency("system", "com.example", "six", "6.0"));
+        // already declared, in another scope
+        assertFalse(editor.addDependency("test", "com.example", "one", "9.9"));
+
+        var text = editor.text();
+        assertTrue(text.contains("'com.example:four:4.0'"), text);
+        assertTrue(text.contains("{ group = 'com.example', artifact = 'five', version = '5.0' }"), text);
+        assertTrue(text.contains("\"org.assertj:assertj-core\" = {}"), text);
+        var model = bind(text);
+        assertEquals("compile", scope(model, "four"));
+        assertEquals("runtime", scope(model, "five"));
+        assertEquals("test", scope(model, "assertj-core"));
+        assertEquals("system", scope(model, "six"));
+        assertEquals("1.0", dependency(model, "one").getVersion());
+        assertTrue(text.startsWith(ODD.substring(0, ODD.indexOf("[dependencies]"))));
+    }
+
+    @Test
+    void removeDependency() throws Exception {
+        var editor = TomlPomEditor.parse(ODD);
+        assertTrue(editor.removeDependency("com.example", "one"));
+        assertTrue(editor.removeDependency("com.example", "two"));
+        assertTrue(editor.removeDependency("org.junit.jupiter", "junit-jupiter-api"));
+        assertTrue(editor.removeDependency("com.example", "three"));
+        assertFalse(editor.removeDependency("com.example", "one"));
+
+        var model = bind(editor.text());
+        assertEquals(List.of("org.slf4j:slf4j-api"), model.getDependencies().stream()
+          .map(d -> d.getGroupId() + ":" + d.getArtifactId()).toList());
+        // the comments of the array and of the rest of the document stay
+        assertTrue(editor.text().contains("# the logging API"), editor.text());
+        assertTrue(editor.text().startsWith(ODD.substring(0, ODD.indexOf("[dependencies]"))));
+        assertTrue(editor.text().endsWith(ODD.substring(ODD.indexOf("[build.plugin."))));
+    }
+
+    @Test
+    void editAllWritesOnlyTheChangedFiles() throws IOException {
+        var changed = Files.writeString(dir.resolve("changed.toml"), ODD);
+        var unchanged = Files.writeString(dir.resolve("unchanged.toml"), "# no such dependency\n[project]\nartifact = 'b'\n");
+        var same = Files.writeString(dir.resolve("same.toml"), ODD.replace("'2.0.16'", "'2.0.17'"));
+        var invalid = Files.writeString(dir.resolve("invalid.toml"), "[project\n");
+        var old = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+        for (var file : List.of(changed, unchanged, same, invalid)) {
+            Files.setLastModifiedTime(file, old);
+        }
+        var bytes = Files.readAllBytes(same);
+
+        var diagnostics = new ArrayList<TomlDiagnostic>();
+        var ret = TomlPomEditor.editAll(List.of(changed, unchanged, same, invalid),
+          editor -> editor.setDependencyVersion("org.slf4j", "slf4j-api", "2.0.17"), diagnostics::add);
+
+        assertEquals(List.of(changed), ret);
+        assertEquals(ODD.replace("'2.0.16'", "'2.0.17'"), Files.readString(changed));
+        assertArrayEquals(bytes, Files.readAllBytes(same));
+        for (var file : List.of(unchanged, same, invalid)) {
+            assertEquals(old, Files.getLastModifiedTime(file), file.toString());
+        }
+        assertEquals(1, diagnostics.size());
+        assertEquals(invalid, diagnostics.get(0).source());
+        assertEquals(TomlDiagnostic.Severity.ERROR, diagnostics.get(0).severity());
+        try (var files = Files.list(dir)) {
+            assertEquals(4, files.count());
+        }
+    }
+
+    private static Model bind(String document) throws IOException {
+        var diagnostics = new ArrayList<TomlDiagnostic>();
+        var ret = new TomlModelBinder(null, TomlOptions.of(java.util.Map.of()), null, diagnostics::add).readToml(new StringReader(document));
+        assertEquals(List.of(), diagnostics);
+        return ret;
+    }
+
+    private static List<String> versions(Model model, String... groups) {
+        var ret = new ArrayList<String>();
+        for (var dependency : model.getDependencies()) {
+            if (List.of(groups).contains(dependency.getGroupId())) {
+                ret.add(dependency.getGroupId() + ":" + dependency.getArtifactId() + ":" + dependency.getVersion());
+            }
+        }
+        return ret;
+    }
+
+    private static Dependency dependency(Model model, String artifactId) {
+        return model.getDependencies().stream().filter(d -> d.getArtifactId().equals(artifactId)).findFirst().orElseThrow();
+    }
+
+    private static String scope(Model model, String artifactId) {
+        var ret = dependency(model, artifactId).getScope();
+        return ret == null ? "compile" : ret;
+    }
+}
@@ -0,0 +1,189 @@
+package io.ast.maven.polyglot.toml;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prefetch through a stand-in resolver, which copies the artifacts of a local "remote" directory into a local
+ * repository directory.
+ */
+class TomlPrefetchParticipantTest {
+
+    @TempDir
+    Path dir;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @AfterEach
+    void clear() {
+        TomlManifest.clear();
+    }
+
+    @Test
+    void prefetchIntoTheLocalRepository() throws Exception {
+        publish("org.example", "lib", "1.0", "pom", "jar");
+        publish("org.example", "pom-only", "2.0", "pom");
+        var pom = Files.writeString(dir.resolve("pom.toml"), "");
+        var model = model("app", dependency("org.example", "lib", "1.0"), dependency("org.example", "pom-only", "2.0"),
+          dependency("org.example", "missing", "3.0"), dependency("org.example", "sibling", "1.0"));
+        TomlManifest.put(pom, model);
+
+        var participant = participant();
+        var session = session(true, project(model, pom), project(model("sibling"), null));
+        participant.afterProjectsRead(session);
+
+        // lib pom and jar, pom-only pom; the pom-only jar and both missing artifacts fail
+        assertEquals(3, participant.prefetched().get(10, TimeUnit.SECONDS));
+        assertTrue(Files.isRegularFile(dir.resolve("local/org/example/lib/1.0/lib-1.0.jar")));
+        assertTrue(Files.isRegularFile(dir.resolve("local/org/example/lib/1.0/lib-1.0.pom")));
+        assertTrue(Files.isRegularFile(dir.resolve("local/org/example/pom-only/2.0/pom-only-2.0.pom")));
+        assertFalse(Files.exists(dir.resolve("local/org/example/sibling")));
+
+        participant.afterSessionEnd(session);
+        assertTrue(TomlManifest.get(pom).isEmpty());
+    }
+
+    @Test
+    void disabledByDefault() throws Exception {
+        publish("org.example", "lib", "1.0", "pom", "jar");
+        var pom = Files.writeString(dir.resolve("pom.toml"), "");
+        var model = model("app", dependency("org.example", "lib", "1.0"));
+        TomlManifest.put(pom, model);
+
+        var participant = participant();
+        participant.afterProjectsRead(session(false, project(model, pom)));
+        assertEquals(0, participant.prefetched().get(10, TimeUnit.SECONDS));
+        assertEquals(0, requests.get());
+    }
+
+    @Test
+    void readsOutsideTheSessionAreNotRecorded() throws IOException {
+        var pom = Files.writeString(dir.resolve("pom.toml"), """
+          [project]
+          group = 'org.example'
+          artifact = 'app'
+          version = '1.0'
+
+          [dependencies.compile]
+          "org.example:lib" = '1.0'
+          """);
+        assertEquals(1, new TomlPomReader().read(pom).getDependencies().size());
+        assertTrue(TomlManifest.get(pom).isEmpty());
+    }
+
+    private void publish(String groupId, String artifactId, String version, String... extensions) throws IOException {
+        var path = dir.resolve("remote").resolve(groupId.replace('.', '/')).resolve(artifactId).resolve(version);
+        Files.createDirectories(path);
+        for (var extension : extensions) {
+            Files.writeString(path.resolve(artifactId + "-" + version + "." + extension), extension);
+        }
+    }
+
+    private TomlPrefetchParticipant participant() {
+        var system = (RepositorySystem) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{RepositorySystem.class},
+          (proxy, method, args) -> {
+              if (!method.getName().equals("resolveArtifacts")) {
+                  throw new UnsupportedOperationException(method.getName());
+              }
+              @SuppressWarnings("unchecked")
+              var batch = (List<ArtifactRequest>) args[1];
+              return resolve(batch);
+          });
+        return new TomlPrefetchParticipant(system, new ConsoleLogger(Logger.LEVEL_DEBUG, "prefetch"));
+    }
+
+    private List<ArtifactResult> resolve(List<ArtifactRequest> batch) throws IOException, ArtifactResolutionException {
+        var results = new ArrayList<ArtifactResult>();
+        var failed = false;
+        for (var request : batch) {
+            requests.incrementAndGet();
+            var result = new ArtifactResult(request);
+            var artifact = request.getArtifact();
+            var source = dir.resolve("remote").resolve(path(artifact));
+            if (Files.isRegularFile(source)) {
+                var target = dir.resolve("local").resolve(path(artifact));
+                Files.createDirectories(target.getParent());
+                Files.copy(source, target);
+                result.setArtifact(artifact.setFile(target.toFile()));
+            } else {
+                result.addException(new ArtifactNotFoundException(artifact, null));
+                failed = true;
+            }
+            results.add(result);
+        }
+        if (failed) {
+            throw new ArtifactResolutionException(results);
+        }
+        return results;
+    }
+
+    private static String path(Artifact artifact) {
+        return artifact.getGroupId().replace('.', '/') + "/" + artifact.getArtifactId() + "/" + artifact.getVersion() + "/"
+          + artifact.getArtifactId() + "-" + artifact.getVersion() + "." + artifact.getExtension();
+    }
+
+    private static Model model(String artifactId, Dependency... dependencies) {
+        var model = new Model();
+        model.setGroupId("org.example");
+        model.setArtifactId(artifactId);
+        model.setVersion("1.0");
+        model.setDependencies(new ArrayList<>(List.of(dependencies)));
+        return model;
+    }
+
+    private static Dependency dependency(String groupId, String artifactId, String version) {
+        var dependency = new Dependency();
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion(version);
+        return dependency;
+    }
+
+    private static MavenProject project(Model model, Path pom) {
+        var project = new MavenProject(model);
+        if (pom != null) {
+            project.setFile(pom.toFile());
+        }
+        return project;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static MavenSession session(boolean prefetch, MavenProject... projects) {
+        var properties = new Properties();
+        if (prefetch) {
+            properties.setProperty(TomlOptions.PREFETCH, "true");
+        }
+        var request = new DefaultMavenExecutionRequest().setUserProperties(properties);
+        var session = new MavenSession(null, new DefaultRepositorySystemSession(), request, new DefaultMavenExecutionResult());
+        session.setProjects(List.of(projects));
+        return session;
+    }
+}